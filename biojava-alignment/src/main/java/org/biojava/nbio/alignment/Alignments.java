@@ -28,6 +28,9 @@ import org.biojava.nbio.core.alignment.template.SequencePair;
 import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
 import org.biojava.nbio.core.alignment.template.Profile;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.alignment.routines.ScoreOnlyKernel;
+import org.biojava.nbio.alignment.routines.StripedQueryProfile;
+import org.biojava.nbio.alignment.routines.StripedSmithWaterman;
 import org.biojava.nbio.alignment.template.*;
 import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
@@ -40,9 +43,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Static utility to easily run alignment routines.  To exit cleanly after running any parallel method that mentions
@@ -70,7 +77,8 @@ public class Alignments {
 		GLOBAL,              // Needleman-Wunsch/Gotoh
 		GLOBAL_LINEAR_SPACE, // Guan-Uberbacher
 		LOCAL,               // Smith-Waterman/Gotoh
-		LOCAL_LINEAR_SPACE   // Smith-Waterman/Gotoh with smart traceback at each maximum
+		LOCAL_LINEAR_SPACE,  // Smith-Waterman/Gotoh with smart traceback at each maximum
+		LOCAL_STRIPED        // Smith-Waterman/Gotoh with striped query profile (Farrar), traceback on demand
 	}
 
 	/**
@@ -84,7 +92,9 @@ public class Alignments {
 		LOCAL_IDENTITIES,
 		LOCAL_SIMILARITIES,
 		KMERS,               // similar to CLUSTAL and MUSCLE
-		WU_MANBER            // similar to KALIGN
+		WU_MANBER,           // similar to KALIGN
+		GLOBAL_SCORE_ONLY,   // Needleman-Wunsch/Gotoh score in linear space, no traceback
+		LOCAL_SCORE_ONLY     // Smith-Waterman/Gotoh score in linear space, no traceback
 	}
 
 	/**
@@ -135,6 +145,27 @@ public class Alignments {
 		return runPairwiseAligners(getAllPairsAligners(sequences, type, gapPenalty, subMatrix));
 	}
 
+	/**
+	 * Factory method which computes a sequence alignment for all {@link Sequence} pairs in the given {@link List} and
+	 * streams each alignment to the given consumer instead of collecting them.  This method runs the alignments in
+	 * parallel on an {@link AllPairsEngine} with its default parallelism, chunk size and in-flight limit; create the
+	 * engine directly to change those.
+	 *
+	 * @param <S> each {@link Sequence} of an alignment pair is of type S
+	 * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+	 * @param sequences the {@link List} of {@link Sequence}s to align
+	 * @param type chosen type from list of pairwise sequence alignment routines
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param consumer receives each sequence alignment pair together with the indices of its sequences
+	 * @throws InterruptedException if interrupted while waiting for the alignments
+	 */
+	public static <S extends Sequence<C>, C extends Compound> void getAllPairsAlignments(List<S> sequences,
+			PairwiseSequenceAlignerType type, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix,
+			AllPairsConsumer<SequencePair<S, C>> consumer) throws InterruptedException {
+		new AllPairsEngine<S, C>(sequences).align(type, gapPenalty, subMatrix, consumer);
+	}
+
 	/**
 	 * Factory method which computes a multiple sequence alignment for the given {@link List} of {@link Sequence}s.
 	 *
@@ -185,12 +216,25 @@ public class Alignments {
 		}
 
 		// stage 1: pairwise similarity calculation
-		List<PairwiseSequenceScorer<S, C>> scorers = getAllPairsScorers(sequences, ps, gapPenalty, subMatrix);
-		runPairwiseScorers(scorers);
+		final List<PairwiseSequenceScorer<S, C>> scorers = new ArrayList<PairwiseSequenceScorer<S, C>>(
+				Collections.<PairwiseSequenceScorer<S, C>>nCopies((int) AllPairsEngine.getPairCount(sequences.size()),
+				null));
+		final int n = sequences.size();
+		try {
+			new AllPairsEngine<S, C>(sequences).score(ps, gapPenalty, subMatrix,
+					new AllPairsConsumer<PairwiseSequenceScorer<S, C>>() {
+				@Override
+				public void accept(int query, int target, PairwiseSequenceScorer<S, C> scorer) {
+					scorers.set((int) AllPairsEngine.getPairIndex(query, target, n), scorer);
+				}
+			});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while scoring sequence pairs", e);
+		}
 
 		// stage 2: hierarchical clustering into a guide tree
 		GuideTree<S, C> tree = new GuideTree<S, C>(sequences, scorers);
-		scorers = null;
 
 		// stage 3: progressive alignment
 		Profile<S, C> msa = getProgressiveAlignment(tree, pa, gapPenalty, subMatrix);
@@ -217,6 +261,36 @@ public class Alignments {
 		return getPairwiseAligner(query, target, type, gapPenalty, subMatrix).getPair();
 	}
 
+	/**
+	 * Factory method which scans a {@link List} of targets for local similarity to the given query.  Every target is
+	 * scored by the striped kernel of one shared {@link StripedQueryProfile}; the traceback is only computed for the
+	 * targets which score at least the given threshold.
+	 *
+	 * @param <S> each {@link Sequence} of an alignment pair is of type S
+	 * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+	 * @param query the {@link Sequence} to search for
+	 * @param targets the {@link List} of {@link Sequence}s to scan
+	 * @param threshold minimum local alignment score of a reported hit
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @return sequence alignment pairs of the hits in the order of the targets
+	 */
+	public static <S extends Sequence<C>, C extends Compound> List<SequencePair<S, C>> getLocalAlignmentsAboveThreshold(
+			S query, List<S> targets, int threshold, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		StripedQueryProfile<S, C> queryProfile = new StripedQueryProfile<S, C>(query, gapPenalty, subMatrix);
+		List<SequencePair<S, C>> hits = new ArrayList<SequencePair<S, C>>();
+		for (S target : targets) {
+			if (!query.getCompoundSet().equals(target.getCompoundSet())) {
+				throw new IllegalArgumentException("Sequence compound sets must be the same");
+			}
+			StripedSmithWaterman<S, C> aligner = new StripedSmithWaterman<S, C>(queryProfile, target, gapPenalty);
+			if (aligner.getScore() >= threshold) {
+				hits.add(aligner.getPair());
+			}
+		}
+		return hits;
+	}
+
 	// default access (package private) factory methods
 
 	/**
@@ -244,6 +318,8 @@ public class Alignments {
 
 	/**
 	 * Factory method which sets up a sequence pair scorer for all {@link Sequence} pairs in the given {@link List}.
+	 * The score-only scorers share one kernel: the first of them to be scored scores every pair in parallel, as
+	 * {@link #getAllPairsScores} does.
 	 *
 	 * @param <S> each {@link Sequence} of a pair is of type S
 	 * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
@@ -257,6 +333,19 @@ public class Alignments {
 			List<S> sequences, PairwiseSequenceScorerType type, GapPenalty gapPenalty,
 			SubstitutionMatrix<C> subMatrix) {
 		List<PairwiseSequenceScorer<S, C>> allPairs = new ArrayList<PairwiseSequenceScorer<S, C>>();
+		if (isScoreOnly(type) && !sequences.isEmpty()) {
+			checkPairCount(sequences.size());
+			ScoreOnlyKernel<S, C> kernel = new ScoreOnlyKernel<S, C>(sequences.get(0).getCompoundSet(), gapPenalty,
+					subMatrix);
+			ScoreOnlyScorer.Batch<S, C> batch = new ScoreOnlyScorer.Batch<S, C>(sequences,
+					type == PairwiseSequenceScorerType.LOCAL_SCORE_ONLY, kernel, encode(kernel, sequences));
+			for (int i = 0, k = 0; i < sequences.size(); i++) {
+				for (int j = i+1; j < sequences.size(); j++) {
+					allPairs.add(new ScoreOnlyScorer<S, C>(batch, k++, i, j));
+				}
+			}
+			return allPairs;
+		}
 		for (int i = 0; i < sequences.size(); i++) {
 			for (int j = i+1; j < sequences.size(); j++) {
 				allPairs.add(getPairwiseScorer(sequences.get(i), sequences.get(j), type, gapPenalty, subMatrix));
@@ -268,7 +357,8 @@ public class Alignments {
 	/**
 	 * Factory method which computes a sequence pair score for all {@link Sequence} pairs in the given {@link List}.
 	 * This method runs the scorings in parallel by submitting all of the scorings to the shared thread pool of the
-	 * {@link ConcurrencyTools} utility.
+	 * {@link ConcurrencyTools} utility.  The score-only types encode each sequence once and submit one task for each
+	 * query, which scores its targets with a buffer reused by the thread, so no object is allocated for each pair.
 	 *
 	 * @param <S> each {@link Sequence} of a pair is of type S
 	 * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
@@ -280,6 +370,12 @@ public class Alignments {
 	 */
 	public static <S extends Sequence<C>, C extends Compound> double[] getAllPairsScores( List<S> sequences,
 			PairwiseSequenceScorerType type, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		if (isScoreOnly(type) && !sequences.isEmpty()) {
+			ScoreOnlyKernel<S, C> kernel = new ScoreOnlyKernel<S, C>(sequences.get(0).getCompoundSet(), gapPenalty,
+					subMatrix);
+			return runScoreOnlyKernel(kernel, encode(kernel, sequences),
+					type == PairwiseSequenceScorerType.LOCAL_SCORE_ONLY);
+		}
 		return runPairwiseScorers(getAllPairsScorers(sequences, type, gapPenalty, subMatrix));
 	}
 
@@ -329,6 +425,8 @@ public class Alignments {
 			return new NeedlemanWunsch<S, C>(query, target, gapPenalty, subMatrix);
 		case LOCAL:
 			return new SmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
+		case LOCAL_STRIPED:
+			return new StripedSmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
 		case GLOBAL_LINEAR_SPACE:
 		case LOCAL_LINEAR_SPACE:
 			// TODO other alignment options (Myers-Miller, Thompson)
@@ -387,6 +485,10 @@ public class Alignments {
 		case LOCAL_SIMILARITIES:
 			return new FractionalSimilarityScorer<S, C>(getPairwiseAligner(query, target,
 					PairwiseSequenceAlignerType.LOCAL, gapPenalty, subMatrix));
+		case GLOBAL_SCORE_ONLY:
+			return new ScoreOnlyScorer<S, C>(query, target, false, gapPenalty, subMatrix);
+		case LOCAL_SCORE_ONLY:
+			return new ScoreOnlyScorer<S, C>(query, target, true, gapPenalty, subMatrix);
 		case KMERS:
 		case WU_MANBER:
 			// TODO other scoring options
@@ -632,6 +734,66 @@ public class Alignments {
 		return scores;
 	}
 
+	// returns true for the scoring routines run by a ScoreOnlyKernel
+	private static boolean isScoreOnly(PairwiseSequenceScorerType type) {
+		return type == PairwiseSequenceScorerType.GLOBAL_SCORE_ONLY ||
+				type == PairwiseSequenceScorerType.LOCAL_SCORE_ONLY;
+	}
+
+	// encodes each sequence once for a kernel shared by all pairs
+	private static <S extends Sequence<C>, C extends Compound> int[][] encode(ScoreOnlyKernel<S, C> kernel,
+			List<S> sequences) {
+		int[][] codes = new int[sequences.size()][];
+		for (int i = 0; i < codes.length; i++) {
+			codes[i] = kernel.encode(sequences.get(i));
+		}
+		return codes;
+	}
+
+	// rejects lists with more pairs than fit in an array
+	private static void checkPairCount(int n) {
+		long pairs = AllPairsEngine.getPairCount(n);
+		if (pairs > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many pairs to hold the scores of in one array: " + n
+					+ " sequences make " + pairs + " pairs; use an AllPairsEngine to stream them instead");
+		}
+	}
+
+	// scores all pairs with one task per query; each task writes the scores of its targets into the shared array.
+	// The calling thread runs the tasks the pool has not started yet, so that it never waits on tasks queued behind
+	// its own, as when it is itself a task of the pool scoring the pairs of a ScoreOnlyScorer batch.
+	static <S extends Sequence<C>, C extends Compound> double[] runScoreOnlyKernel(
+			final ScoreOnlyKernel<S, C> kernel, final int[][] codes, final boolean local) {
+		final int n = codes.length;
+		checkPairCount(n);
+		final double[] scores = new double[(int) AllPairsEngine.getPairCount(n)];
+		List<FutureTask<Integer>> tasks = new ArrayList<FutureTask<Integer>>();
+		for (int i = 0, offset = 0; i < n - 1; offset += n - 1 - i, i++) {
+			final int query = i, start = offset;
+			FutureTask<Integer> task = new FutureTask<Integer>(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					for (int j = query + 1, k = start; j < n; j++, k++) {
+						scores[k] = kernel.getScore(codes[query], codes[j], local);
+					}
+					return n - 1 - query;
+				}
+			});
+			try {
+				ConcurrencyTools.getThreadPool().execute(task);
+			} catch (RejectedExecutionException e) {
+				// run below by the calling thread
+			}
+			tasks.add(task);
+		}
+		for (FutureTask<Integer> task : tasks) {
+			task.run();
+		}
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>(tasks);
+		getListFromFutures(futures);
+		return scores;
+	}
+
 	/**
 	 * Factory method to run a list of alignments concurrently.  This method runs the alignments in parallel by
 	 * submitting all of the alignment tasks to the shared thread pool of the {@link ConcurrencyTools} utility.
@@ -0,0 +1,474 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava.nbio.alignment.routines.ScoreOnlyKernel;
+import org.biojava.nbio.alignment.template.AllPairsConsumer;
+import org.biojava.nbio.alignment.template.AllPairsFunction;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceScorer;
+import org.biojava.nbio.core.alignment.template.SequencePair;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a computation on every pair of a {@link List} of {@link Sequence}s and streams the results to an
+ * {@link AllPairsConsumer}.  The pairs are numbered in the order of {@link Alignments#getAllPairsScorers}, cut into
+ * chunks of {@link #getChunkSize()} pairs.  {@link #getParallelism()} workers run on an {@link Executor}, by default
+ * the shared {@link ConcurrencyTools} pool.  The chunks are handed out from a shared counter: each worker takes
+ * the next chunk whenever it finishes one, so that a worker held up by long sequences does not leave the others
+ * idle.  The chunk size is fixed when a run starts.  Finished results wait in a queue of at most
+ * {@link #getMaxInFlight()} entries until the calling thread takes them and hands them to the consumer; workers
+ * block while the queue is full.  Memory use is therefore bounded by the queue, not by the number of pairs.
+ *
+ * @param <S> each {@link Sequence} of a pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public class AllPairsEngine<S extends Sequence<C>, C extends Compound> {
+
+	private static volatile int defaultChunkSize = 64;
+	private static volatile int defaultMaxInFlight = 1024;
+
+	/**
+	 * Sets the default number of pairs computed by each task.
+	 *
+	 * @param chunkSize default number of pairs in a chunk
+	 */
+	public static void setDefaultChunkSize(int chunkSize) {
+		defaultChunkSize = checkPositive(chunkSize, "chunk size");
+	}
+
+	/**
+	 * Sets the default number of results which may wait for the consumer.
+	 *
+	 * @param maxInFlight default capacity of the result queue
+	 */
+	public static void setDefaultMaxInFlight(int maxInFlight) {
+		defaultMaxInFlight = checkPositive(maxInFlight, "in-flight limit");
+	}
+
+	/**
+	 * Returns the number of pairs of n sequences.
+	 *
+	 * @param n number of sequences
+	 * @return number of pairs
+	 */
+	public static long getPairCount(int n) {
+		return (long) n * (n - 1) / 2;
+	}
+
+	/**
+	 * Returns the position of the pair (query, target) in the order of {@link Alignments#getAllPairsScorers}.
+	 *
+	 * @param query index of the first sequence of the pair
+	 * @param target index of the second sequence of the pair, greater than query
+	 * @param n number of sequences
+	 * @return pair index
+	 */
+	public static long getPairIndex(int query, int target, int n) {
+		return getRowOffset(query, n) + target - query - 1;
+	}
+
+	private final List<S> sequences;
+	private Executor executor;
+	private int parallelism, chunkSize, maxInFlight;
+
+	/**
+	 * Prepares to compute all pairs of the given sequences.
+	 *
+	 * @param sequences the {@link List} of {@link Sequence}s to pair up
+	 */
+	public AllPairsEngine(List<S> sequences) {
+		this.sequences = Collections.unmodifiableList(new ArrayList<S>(sequences));
+		parallelism = Runtime.getRuntime().availableProcessors();
+		chunkSize = defaultChunkSize;
+		maxInFlight = defaultMaxInFlight;
+	}
+
+	/**
+	 * Returns the sequences.
+	 *
+	 * @return the {@link List} of {@link Sequence}s to pair up
+	 */
+	public List<S> getSequences() {
+		return sequences;
+	}
+
+	/**
+	 * Returns the executor which runs the workers.
+	 *
+	 * @return the executor which runs the workers
+	 */
+	public Executor getExecutor() {
+		return (executor != null) ? executor : ConcurrencyTools.getThreadPool();
+	}
+
+	/**
+	 * Sets the executor which runs the workers.  It must run them on threads other than the one calling
+	 * {@link #run}, since the workers wait for that thread while the result queue is full.  Defaults to the shared
+	 * {@link ConcurrencyTools} pool.
+	 *
+	 * @param executor the executor which runs the workers, or null for the shared pool
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the number of workers.
+	 *
+	 * @return the number of workers
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of workers submitted to the executor.  Defaults to the number of available processors.
+	 *
+	 * @param parallelism the number of workers
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = checkPositive(parallelism, "parallelism");
+	}
+
+	/**
+	 * Returns the number of pairs computed by each task.
+	 *
+	 * @return the number of pairs in a chunk
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the number of pairs computed by each task.
+	 *
+	 * @param chunkSize the number of pairs in a chunk
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = checkPositive(chunkSize, "chunk size");
+	}
+
+	/**
+	 * Returns the number of results which may wait for the consumer.
+	 *
+	 * @return the capacity of the result queue
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Sets the number of results which may wait for the consumer.
+	 *
+	 * @param maxInFlight the capacity of the result queue
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = checkPositive(maxInFlight, "in-flight limit");
+	}
+
+	/**
+	 * Computes a sequence alignment for all pairs.
+	 *
+	 * @param type chosen type from list of pairwise sequence alignment routines
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param consumer receives each sequence alignment pair
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for results
+	 */
+	public void align(final PairwiseSequenceAlignerType type, final GapPenalty gapPenalty,
+			final SubstitutionMatrix<C> subMatrix, AllPairsConsumer<SequencePair<S, C>> consumer)
+			throws InterruptedException {
+		run(new AllPairsFunction<SequencePair<S, C>>() {
+			@Override
+			public SequencePair<S, C> apply(int query, int target) {
+				return Alignments.getPairwiseAlignment(sequences.get(query), sequences.get(target), type, gapPenalty,
+						subMatrix);
+			}
+		}, consumer);
+	}
+
+	/**
+	 * Computes a sequence pair score for all pairs.  Each scorer has computed its score before it reaches the
+	 * consumer.
+	 *
+	 * @param type chosen type from list of pairwise sequence scoring routines
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param consumer receives each sequence pair scorer
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for results
+	 */
+	public void score(final PairwiseSequenceScorerType type, final GapPenalty gapPenalty,
+			final SubstitutionMatrix<C> subMatrix, AllPairsConsumer<PairwiseSequenceScorer<S, C>> consumer)
+			throws InterruptedException {
+		if (sequences.size() < 2) {
+			return;
+		}
+		final boolean local = (type == PairwiseSequenceScorerType.LOCAL_SCORE_ONLY);
+		final ScoreOnlyKernel<S, C> kernel;
+		final int[][] codes;
+		if (local || type == PairwiseSequenceScorerType.GLOBAL_SCORE_ONLY) {
+			kernel = new ScoreOnlyKernel<S, C>(sequences.get(0).getCompoundSet(), gapPenalty, subMatrix);
+			codes = new int[sequences.size()][];
+			for (int i = 0; i < codes.length; i++) {
+				codes[i] = kernel.encode(sequences.get(i));
+			}
+		} else {
+			kernel = null;
+			codes = null;
+		}
+		run(new AllPairsFunction<PairwiseSequenceScorer<S, C>>() {
+			@Override
+			public PairwiseSequenceScorer<S, C> apply(int query, int target) {
+				PairwiseSequenceScorer<S, C> scorer = (kernel != null)
+						? new ScoreOnlyScorer<S, C>(sequences.get(query), sequences.get(target), local, kernel,
+								codes[query], codes[target])
+						: Alignments.getPairwiseScorer(sequences.get(query), sequences.get(target), type, gapPenalty,
+								subMatrix);
+				scorer.getScore();
+				return scorer;
+			}
+		}, consumer);
+	}
+
+	/**
+	 * Runs a computation on all pairs.  Returns once every result has been handed to the consumer.  If the function
+	 * or the consumer throws an exception, or the calling thread is interrupted, the remaining pairs are cancelled
+	 * and the exception is rethrown once each worker has finished its current pair.
+	 *
+	 * @param <R> each pair computes a result of type R
+	 * @param function computes the result of each pair; called concurrently from the worker threads
+	 * @param consumer receives each result; called only from the calling thread
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for results
+	 */
+	public <R> void run(AllPairsFunction<R> function, AllPairsConsumer<R> consumer) throws InterruptedException {
+		long pairs = getPairCount(sequences.size());
+		if (pairs == 0) {
+			return;
+		}
+		int chunkSize = this.chunkSize;
+		long chunks = (pairs + chunkSize - 1) / chunkSize;
+		int workers = (int) Math.min(parallelism, chunks);
+		Work<R> work = new Work<R>(function, pairs, chunkSize, chunks, workers, maxInFlight);
+		Executor executor = getExecutor();
+		for (int w = 0; w < workers; w++) {
+			try {
+				executor.execute(new Worker<R>(work));
+			} catch (RejectedExecutionException e) {
+				work.fail(e);
+				for (; w < workers; w++) {
+					work.finish();
+				}
+			}
+		}
+
+		Result<R> result = null;
+		try {
+			while (!work.cancelled && (result = work.take()) != Work.END) {
+				consumer.accept(result.query, result.target, result.value);
+			}
+		} finally {
+			if (result != Work.END) {
+				work.cancel();
+			}
+		}
+		Throwable failure = work.failure.get();
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new IllegalStateException(failure);
+		}
+	}
+
+	// helper methods
+
+	private static int checkPositive(int value, String name) {
+		if (value < 1) {
+			throw new IllegalArgumentException("The " + name + " must be positive, not " + value);
+		}
+		return value;
+	}
+
+	// returns the pair index of (query, query + 1)
+	private static long getRowOffset(int query, int n) {
+		return (long) query * n - (long) query * (query + 1) / 2;
+	}
+
+	// one computed pair waiting for the consumer
+	private static class Result<R> {
+
+		private final int query, target;
+		private final R value;
+
+		private Result(int query, int target, R value) {
+			this.query = query;
+			this.target = target;
+			this.value = value;
+		}
+
+	}
+
+	// state shared by the workers of one run and the calling thread
+	private static class Work<R> {
+
+		// marks the end of the results; queued by the last worker to finish
+		@SuppressWarnings("rawtypes")
+		private static final Result END = new Result<Object>(-1, -1, null);
+
+		private final AllPairsFunction<R> function;
+		private final BlockingQueue<Result<R>> queue = new LinkedBlockingQueue<Result<R>>();
+		private final Semaphore slots;
+		private final long pairs, chunks;
+		private final int chunkSize;
+		private final AtomicLong nextChunk = new AtomicLong();
+		private final AtomicInteger running;
+		private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		private volatile boolean cancelled;
+
+		private Work(AllPairsFunction<R> function, long pairs, int chunkSize, long chunks, int workers,
+				int maxInFlight) {
+			this.function = function;
+			this.pairs = pairs;
+			this.chunkSize = chunkSize;
+			this.chunks = chunks;
+			running = new AtomicInteger(workers);
+			slots = new Semaphore(maxInFlight);
+		}
+
+		// queues a result once one of the in-flight slots is free
+		private void put(Result<R> result) throws InterruptedException {
+			slots.acquire();
+			queue.add(result);
+		}
+
+		// waits for the next result or the end marker and frees its slot
+		private Result<R> take() throws InterruptedException {
+			Result<R> result = queue.take();
+			if (result != END) {
+				slots.release();
+			}
+			return result;
+		}
+
+		// records the first failure and stops the other workers
+		private void fail(Throwable t) {
+			failure.compareAndSet(null, t);
+			cancelled = true;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void finish() {
+			if (running.decrementAndGet() == 0) {
+				queue.add(END);
+			}
+		}
+
+		// stops the workers and discards their results until the last one has finished
+		private void cancel() {
+			cancelled = true;
+			boolean interrupted = false;
+			while (true) {
+				try {
+					if (take() == END) {
+						break;
+					}
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	// claims chunks of pairs until none are left, queuing the result of each pair
+	private class Worker<R> implements Runnable {
+
+		private final Work<R> work;
+
+		private Worker(Work<R> work) {
+			this.work = work;
+		}
+
+		@Override
+		public void run() {
+			try {
+				long chunk;
+				while (!work.cancelled && (chunk = work.nextChunk.getAndIncrement()) < work.chunks) {
+					compute(chunk);
+				}
+			} catch (InterruptedException e) {
+				work.fail(new IllegalStateException("Interrupted while queuing the result of a pair", e));
+			} catch (Throwable t) {
+				work.fail(t);
+			} finally {
+				work.finish();
+			}
+		}
+
+		private void compute(long chunk) throws InterruptedException {
+			// locate the first pair of the chunk, then walk the pairs in order
+			int n = sequences.size();
+			long start = chunk * work.chunkSize, end = Math.min(work.pairs, start + work.chunkSize);
+			int lo = 0, hi = n - 2;
+			while (lo < hi) {
+				int mid = (lo + hi + 1) >>> 1;
+				if (getRowOffset(mid, n) <= start) {
+					lo = mid;
+				} else {
+					hi = mid - 1;
+				}
+			}
+			int query = lo, target = (int) (start - getRowOffset(lo, n)) + query + 1;
+			for (long k = start; k < end && !work.cancelled; k++) {
+				work.put(new Result<R>(query, target, work.function.apply(query, target)));
+				if (++target == n) {
+					query++;
+					target = query + 1;
+				}
+			}
+		}
+
+	}
+
+}
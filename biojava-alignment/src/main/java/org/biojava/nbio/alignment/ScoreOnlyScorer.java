@@ -0,0 +1,194 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.routines.ScoreOnlyKernel;
+import org.biojava.nbio.alignment.template.AbstractScorer;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceScorer;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.List;
+
+/**
+ * Implements an algorithm which computes the optimal alignment score of a pair of sequences without building the
+ * alignment.  The score, maximum and minimum are the same as those of a {@link NeedlemanWunsch} or
+ * {@link SmithWaterman} aligner, but neither a score matrix nor a traceback is allocated.
+ *
+ * @param <S> each {@link Sequence} of the pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public class ScoreOnlyScorer<S extends Sequence<C>, C extends Compound> extends AbstractScorer
+		implements PairwiseSequenceScorer<S, C> {
+
+	// always stored
+	private S query, target;
+	private boolean local;
+
+	// cached input fields, released after scoring
+	private ScoreOnlyKernel<S, C> kernel;
+	private int[] queryCodes, targetCodes;
+	private Batch<S, C> batch;
+	private int index;
+
+	// computed fields
+	private boolean scored;
+	private int max, min, score;
+
+	/**
+	 * Creates a score-only scorer for a pair of sequences.
+	 *
+	 * @param query the first {@link Sequence} of the pair to score
+	 * @param target the second {@link Sequence} of the pair to score
+	 * @param local if true, the Smith-Waterman score is computed, otherwise the Needleman-Wunsch score
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public ScoreOnlyScorer(S query, S target, boolean local, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		this(query, target, local, new ScoreOnlyKernel<S, C>(query.getCompoundSet(), gapPenalty, subMatrix), null,
+				null);
+	}
+
+	/**
+	 * Creates a score-only scorer for a pair of sequences already encoded by a shared kernel.
+	 *
+	 * @param query the first {@link Sequence} of the pair to score
+	 * @param target the second {@link Sequence} of the pair to score
+	 * @param local if true, the Smith-Waterman score is computed, otherwise the Needleman-Wunsch score
+	 * @param kernel the score-only kernel shared by many pairs
+	 * @param queryCodes the query as encoded by the kernel, or null to encode it on demand
+	 * @param targetCodes the target as encoded by the kernel, or null to encode it on demand
+	 */
+	public ScoreOnlyScorer(S query, S target, boolean local, ScoreOnlyKernel<S, C> kernel, int[] queryCodes,
+			int[] targetCodes) {
+		this.query = query;
+		this.target = target;
+		this.local = local;
+		this.kernel = kernel;
+		this.queryCodes = queryCodes;
+		this.targetCodes = targetCodes;
+	}
+
+	// creates the scorer of one pair of a batch, whose score is computed with those of all the other pairs
+	ScoreOnlyScorer(Batch<S, C> batch, int index, int query, int target) {
+		this(batch.sequences.get(query), batch.sequences.get(target), batch.local, batch.kernel, batch.codes[query],
+				batch.codes[target]);
+		this.batch = batch;
+		this.index = index;
+	}
+
+	/**
+	 * Returns whether the score is that of a local alignment.
+	 *
+	 * @return true for the Smith-Waterman score, false for the Needleman-Wunsch score
+	 */
+	public boolean isLocal() {
+		return local;
+	}
+
+	// methods for PairwiseSequenceScorer
+
+	@Override
+	public S getQuery() {
+		return query;
+	}
+
+	@Override
+	public S getTarget() {
+		return target;
+	}
+
+	// methods for Scorer
+
+	@Override
+	public double getMaxScore() {
+		if (!scored) {
+			score();
+		}
+		return max;
+	}
+
+	@Override
+	public double getMinScore() {
+		if (!scored) {
+			score();
+		}
+		return min;
+	}
+
+	@Override
+	public double getScore() {
+		if (!scored) {
+			score();
+		}
+		return score;
+	}
+
+	// helper method that performs the scoring
+	private void score() {
+		int[] q = (queryCodes == null) ? kernel.encode(query) : queryCodes;
+		int[] t = (targetCodes == null) ? kernel.encode(target) : targetCodes;
+		int maxq = 0, maxt = 0;
+		for (int c : q) {
+			maxq += kernel.getSubstitutionScore(c, c);
+		}
+		for (int c : t) {
+			maxt += kernel.getSubstitutionScore(c, c);
+		}
+		GapPenalty gapPenalty = kernel.getGapPenalty();
+		max = Math.max(maxq, maxt);
+		min = local ? 0 : 2 * gapPenalty.getOpenPenalty() + (q.length + t.length) * gapPenalty.getExtensionPenalty();
+		score = (batch == null) ? kernel.getScore(q, t, local) : batch.getScore(index);
+		scored = true;
+		kernel = null;
+		queryCodes = targetCodes = null;
+		batch = null;
+	}
+
+	// the pairs of a list of sequences encoded once by a shared kernel, all scored together on first use
+	static class Batch<S extends Sequence<C>, C extends Compound> {
+
+		private final List<S> sequences;
+		private final boolean local;
+		private final ScoreOnlyKernel<S, C> kernel;
+		private final int[][] codes;
+		private double[] scores;
+
+		Batch(List<S> sequences, boolean local, ScoreOnlyKernel<S, C> kernel, int[][] codes) {
+			this.sequences = sequences;
+			this.local = local;
+			this.kernel = kernel;
+			this.codes = codes;
+		}
+
+		private synchronized int getScore(int index) {
+			if (scores == null) {
+				scores = Alignments.runScoreOnlyKernel(kernel, codes, local);
+			}
+			return (int) scores[index];
+		}
+
+	}
+
+}
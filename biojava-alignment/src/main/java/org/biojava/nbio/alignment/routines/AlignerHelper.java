@@ -581,8 +581,7 @@ public class AlignerHelper {
 		if (x == xb) {
 			pointers = new Last[ye + 1][1];
 		} else {
-			pointers = new Last[ye + 1][];
-			pointers[0] = new Last[1];
+			pointers = new Last[ye + 1][1];
 			for (int y = 1; y < scores[x].length; y++) {
 				pointers[y][0] = setScorePoint(x, y, gep, subs[y], scores);
 				if (scores[x][y][0] <= 0) {
@@ -598,6 +597,167 @@ public class AlignerHelper {
 		return pointers;
 	}
 
+	/**
+	 * Score of an unreachable state in the linear space routines, far enough from {@link Integer#MIN_VALUE} that
+	 * adding penalties and scores cannot overflow.
+	 */
+	public static final int UNREACHABLE = Integer.MIN_VALUE / 4;
+
+	/**
+	 * Initializes the first row of a subproblem for a forward pass in linear space.  Each score vector is indexed first
+	 * by the {@link Last} edit operation and then by the target position relative to the start of the subproblem.
+	 * @param row score vectors to fill
+	 * @param length number of target compounds in the subproblem
+	 * @param start edit operation by which the alignment enters the subproblem
+	 * @param gop gap opening penalty
+	 * @param gep gap extension penalty
+	 * @param linear true for a linear gap penalty, which allows an insertion to follow a deletion directly
+	 * @param pointers traceback directions to fill, or null if not needed
+	 */
+	public static void setStartScoreVector(int[][] row, int length, Last start, int gop, int gep, boolean linear,
+			Last[][] pointers) {
+		for (int z = 0; z < 3; z++) {
+			row[z][0] = (z == start.ordinal()) ? 0 : UNREACHABLE;
+		}
+		for (int y = 1; y <= length; y++) {
+			row[0][y] = row[1][y] = UNREACHABLE;
+			Last last = setInsertionPoint(row, y, gop, gep, linear);
+			if (pointers != null) {
+				pointers[y][2] = last;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the next row of a subproblem for a forward pass in linear space.
+	 * @param last score vectors of the previous query position
+	 * @param row score vectors to fill for the current query position
+	 * @param length number of target compounds in the subproblem
+	 * @param gop gap opening penalty
+	 * @param gep gap extension penalty
+	 * @param subs compound match scores of the current query position
+	 * @param linear true for a linear gap penalty, which allows an insertion to follow a deletion directly
+	 * @param local if true, no score drops below zero
+	 * @param pointers traceback directions to fill, or null if not needed
+	 */
+	public static void setForwardScoreVector(int[][] last, int[][] row, int length, int gop, int gep, int[] subs,
+			boolean linear, boolean local, Last[][] pointers) {
+		row[0][0] = row[2][0] = UNREACHABLE;
+		Last deletion = setDeletionPoint(last, row, 0, gop, gep, linear);
+		if (pointers != null) {
+			pointers[0][1] = deletion;
+		}
+		if (local) {
+			clip(row, 0);
+		}
+		for (int y = 1; y <= length; y++) {
+			Last substitution;
+			int d = last[1][y - 1], s = last[0][y - 1], i = last[2][y - 1];
+			if (d >= s && d >= i) {
+				row[0][y] = d + subs[y];
+				substitution = Last.DELETION;
+			} else if (s >= i) {
+				row[0][y] = s + subs[y];
+				substitution = Last.SUBSTITUTION;
+			} else {
+				row[0][y] = i + subs[y];
+				substitution = Last.INSERTION;
+			}
+			deletion = setDeletionPoint(last, row, y, gop, gep, linear);
+			Last insertion = setInsertionPoint(row, y, gop, gep, linear);
+			if (pointers != null) {
+				pointers[y][0] = substitution;
+				pointers[y][1] = deletion;
+				pointers[y][2] = insertion;
+			}
+			if (local) {
+				clip(row, y);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the previous row of a subproblem for a backward pass in linear space.  Each score is the best score
+	 * which completes the alignment from the given state at the given position to the end of the subproblem.
+	 * @param next score vectors of the next query position, or null if the current position is the last one
+	 * @param row score vectors to fill for the current query position
+	 * @param length number of target compounds in the subproblem
+	 * @param end edit operation by which the alignment leaves the subproblem, or null for any operation
+	 * @param gop gap opening penalty
+	 * @param gep gap extension penalty
+	 * @param subs compound match scores of the next query position, or null if there is none
+	 * @param linear true for a linear gap penalty, which allows an insertion to follow a deletion directly
+	 */
+	public static void setBackwardScoreVector(int[][] next, int[][] row, int length, Last end, int gop, int gep,
+			int[] subs, boolean linear) {
+		for (int y = length; y >= 0; y--) {
+			for (int z = 0; z < 3; z++) {
+				int best = UNREACHABLE;
+				if (next == null) {
+					if (y == length && (end == null || end.ordinal() == z)) {
+						best = 0;
+					}
+				} else {
+					if (y < length) {
+						best = Math.max(best, next[0][y + 1] + subs[y + 1]);
+					}
+					best = Math.max(best, next[1][y] + getGapPenalty(z, 1, gop, gep, linear));
+				}
+				if (y < length) {
+					best = Math.max(best, row[2][y + 1] + getGapPenalty(z, 2, gop, gep, linear));
+				}
+				row[z][y] = best;
+			}
+		}
+	}
+
+	// fills in the deletion score at the given target position; returns the traceback direction
+	private static Last setDeletionPoint(int[][] last, int[][] row, int y, int gop, int gep, boolean linear) {
+		int d = last[1][y] + gep, s = last[0][y] + gop + gep, i = linear ? last[2][y] + gep : UNREACHABLE;
+		if (d >= s && d >= i) {
+			row[1][y] = d;
+			return Last.DELETION;
+		} else if (s >= i) {
+			row[1][y] = s;
+			return Last.SUBSTITUTION;
+		} else {
+			row[1][y] = i;
+			return Last.INSERTION;
+		}
+	}
+
+	// fills in the insertion score at the given target position; returns the traceback direction
+	private static Last setInsertionPoint(int[][] row, int y, int gop, int gep, boolean linear) {
+		int s = row[0][y - 1] + gop + gep, i = row[2][y - 1] + gep, d = linear ? row[1][y - 1] + gep : UNREACHABLE;
+		if (s >= i && s >= d) {
+			row[2][y] = s;
+			return Last.SUBSTITUTION;
+		} else if (i >= d) {
+			row[2][y] = i;
+			return Last.INSERTION;
+		} else {
+			row[2][y] = d;
+			return Last.DELETION;
+		}
+	}
+
+	// returns the penalty of moving from the edit operation last into the gap type, or UNREACHABLE if not allowed
+	private static int getGapPenalty(int last, int gap, int gop, int gep, boolean linear) {
+		if (last == gap) {
+			return gep;
+		} else if (last == 0) {
+			return gop + gep;
+		}
+		return linear ? gep : UNREACHABLE;
+	}
+
+	// local alignments never score below zero
+	private static void clip(int[][] row, int y) {
+		for (int z = 0; z < 3; z++) {
+			row[z][y] = Math.max(0, row[z][y]);
+		}
+	}
+
 	private static void ensureScoringMatrixColumn(int x, boolean storingFullMatrix, int[][][] scores) {
 		if (!storingFullMatrix && x > 1) {
 			scores[x] = scores[x - 2];
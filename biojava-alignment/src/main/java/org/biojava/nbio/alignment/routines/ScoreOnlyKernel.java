@@ -0,0 +1,201 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.routines.AlignerHelper.Last;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setForwardScoreVector;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setStartScoreVector;
+
+/**
+ * Score-only pairwise alignment kernel.  The substitution matrix is copied once into a table indexed by compound
+ * codes, each {@link Sequence} is encoded once by {@link #encode(Sequence)}, and every score is then computed with two
+ * rows of score vectors kept in a buffer owned by the calling thread.  No traceback is recorded and, once a thread has
+ * scored a pair of the longest target length, scoring further pairs allocates nothing.  Targets longer than
+ * {@link #MAX_RETAINED_LENGTH} are scored with a buffer of their own, so that no thread keeps a huge buffer after
+ * scoring a single long pair.
+ *
+ * The recurrence is the forward pass of {@link AlignerHelper}, so {@link #getScore(int[], int[], boolean)} equals the
+ * score of a {@link org.biojava.nbio.alignment.NeedlemanWunsch} or {@link org.biojava.nbio.alignment.SmithWaterman}
+ * alignment of the same pair.  A kernel is immutable once built and may be shared by many threads.
+ *
+ * @param <S> each {@link Sequence} of a pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public class ScoreOnlyKernel<S extends Sequence<C>, C extends Compound> {
+
+	/**
+	 * Longest target length whose buffer is kept by the thread for the next pairs, about 1.8 MB of score vectors.
+	 */
+	public static final int MAX_RETAINED_LENGTH = 1 << 16;
+
+	// two rows of score vectors and one row of substitution scores, grown on demand for each thread
+	private static final ThreadLocal<int[][][]> buffers = new ThreadLocal<int[][][]>() {
+		@Override
+		protected int[][][] initialValue() {
+			return new int[][][] { new int[3][1], new int[3][1], new int[1][1] };
+		}
+	};
+
+	private final GapPenalty gapPenalty;
+	private final SubstitutionMatrix<C> subMatrix;
+	private final int gop, gep;
+	private final boolean linear;
+	private final Map<C, Integer> codes;
+	private final int[][] scores;
+
+	/**
+	 * Builds the kernel for sequences made of the given compounds.
+	 *
+	 * @param compoundSet the {@link CompoundSet} of the sequences to score
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public ScoreOnlyKernel(CompoundSet<C> compoundSet, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		this.gapPenalty = gapPenalty;
+		this.subMatrix = subMatrix;
+		gop = gapPenalty.getOpenPenalty();
+		gep = gapPenalty.getExtensionPenalty();
+		linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+		Set<C> all = new LinkedHashSet<C>(subMatrix.getCompoundSet().getAllCompounds());
+		all.addAll(compoundSet.getAllCompounds());
+		List<C> compounds = new ArrayList<C>(all);
+		codes = new HashMap<C, Integer>();
+		scores = new int[compounds.size()][compounds.size()];
+		for (int i = 0; i < compounds.size(); i++) {
+			codes.put(compounds.get(i), i);
+			for (int j = 0; j < compounds.size(); j++) {
+				scores[i][j] = subMatrix.getValue(compounds.get(i), compounds.get(j));
+			}
+		}
+	}
+
+	/**
+	 * Returns the gap penalties.
+	 *
+	 * @return the gap penalties used during alignment
+	 */
+	public GapPenalty getGapPenalty() {
+		return gapPenalty;
+	}
+
+	/**
+	 * Returns the substitution matrix.
+	 *
+	 * @return the set of substitution scores used during alignment
+	 */
+	public SubstitutionMatrix<C> getSubstitutionMatrix() {
+		return subMatrix;
+	}
+
+	/**
+	 * Converts a {@link Sequence} to the compound codes used by this kernel.
+	 *
+	 * @param sequence the {@link Sequence} to encode
+	 * @return one code for each compound of the sequence
+	 * @throws IllegalArgumentException if the sequence holds a compound outside of the kernel's compound set
+	 */
+	public int[] encode(S sequence) {
+		int[] encoded = new int[sequence.getLength()];
+		int i = 0;
+		for (C c : sequence) {
+			Integer code = codes.get(c);
+			if (code == null) {
+				throw new IllegalArgumentException("Compound " + c + " is not in the compound set of the kernel");
+			}
+			encoded[i++] = code;
+		}
+		return encoded;
+	}
+
+	/**
+	 * Returns the substitution score of two encoded compounds.
+	 *
+	 * @param query code of the query compound
+	 * @param target code of the target compound
+	 * @return the substitution score
+	 */
+	public int getSubstitutionScore(int query, int target) {
+		return scores[query][target];
+	}
+
+	/**
+	 * Calculates the optimal alignment score of two encoded sequences.
+	 *
+	 * @param query codes of the first {@link Sequence} of the pair
+	 * @param target codes of the second {@link Sequence} of the pair
+	 * @param local if true, the Smith-Waterman score is returned, otherwise the Needleman-Wunsch score
+	 * @return the alignment score
+	 */
+	public int getScore(int[] query, int[] target, boolean local) {
+		int length = target.length;
+		int[][][] buffer = buffers.get();
+		if (buffer[2][0].length <= length) {
+			buffer = new int[][][] { new int[3][length + 1], new int[3][length + 1], new int[1][length + 1] };
+			if (length <= MAX_RETAINED_LENGTH) {
+				buffers.set(buffer);
+			}
+		}
+		int[][] row = buffer[0], last = buffer[1];
+		int[] subs = buffer[2][0];
+
+		int best = 0;
+		if (local) {
+			for (int z = 0; z < 3; z++) {
+				for (int y = 0; y <= length; y++) {
+					row[z][y] = 0;
+				}
+			}
+		} else {
+			setStartScoreVector(row, length, Last.SUBSTITUTION, gop, gep, linear, null);
+		}
+		for (int x = 0; x < query.length; x++) {
+			int[][] swap = last;
+			last = row;
+			row = swap;
+			int[] scoreRow = scores[query[x]];
+			for (int y = 0; y < length; y++) {
+				subs[y + 1] = scoreRow[target[y]];
+			}
+			setForwardScoreVector(last, row, length, gop, gep, subs, linear, local, null);
+			if (local) {
+				for (int y = 1; y <= length; y++) {
+					best = Math.max(best, row[0][y]);
+				}
+			}
+		}
+		return local ? best : Math.max(row[0][length], Math.max(row[1][length], row[2][length]));
+	}
+
+}
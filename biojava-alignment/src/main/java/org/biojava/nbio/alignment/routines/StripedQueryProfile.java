@@ -0,0 +1,216 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Score-only local alignment kernel following the striped query profile layout of Farrar (Bioinformatics 2007).  The
+ * query {@link Sequence} is split into {@link #LANES} interleaved segments, so that the substitution scores of one
+ * target {@link Compound} against the whole query are stored contiguously and the inner loop over lanes is free of
+ * data dependencies.  The deletion dependency along the query is resolved by Farrar's lazy correction loop.
+ *
+ * The recurrence is the same Smith-Waterman/Gotoh recurrence as {@link AlignerHelper}, including the direct
+ * transitions between deletions and insertions allowed for a {@link GapPenalty.Type#LINEAR linear} gap penalty, so
+ * the score returned by
+ * {@link #getScore(Sequence)} equals the score of a {@link org.biojava.nbio.alignment.SmithWaterman} alignment.  Only
+ * O(query length) memory is used and no traceback is recorded.
+ *
+ * A profile is immutable once built and may be shared by many threads to scan a database of targets.
+ *
+ * @param <S> each {@link Sequence} of an alignment pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public class StripedQueryProfile<S extends Sequence<C>, C extends Compound> {
+
+	/**
+	 * Number of lanes processed side by side; eight 32-bit lanes match one 256 bit vector register.
+	 */
+	public static final int LANES = 8;
+
+	// substitution score placed in padding lanes beyond the end of the query
+	private static final int PADDING = -(1 << 20);
+
+	private final S query;
+	private final SubstitutionMatrix<C> subMatrix;
+	private final int gapOpenExtend, gapExtend, segmentLength;
+	private final boolean linear;
+	private final Map<C, int[]> profile;
+
+	/**
+	 * Builds the striped query profile.
+	 *
+	 * @param query the first {@link Sequence} of each pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public StripedQueryProfile(S query, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		this.query = query;
+		this.subMatrix = subMatrix;
+		gapOpenExtend = gapPenalty.getOpenPenalty() + gapPenalty.getExtensionPenalty();
+		gapExtend = gapPenalty.getExtensionPenalty();
+		linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+		segmentLength = Math.max(1, (query.getLength() + LANES - 1) / LANES);
+		List<C> compounds = query.getAsList();
+		profile = new HashMap<C, int[]>();
+		for (C c : subMatrix.getCompoundSet().getAllCompounds()) {
+			profile.put(c, getProfileRow(compounds, c));
+		}
+	}
+
+	/**
+	 * Returns the query {@link Sequence}.
+	 *
+	 * @return the first {@link Sequence} of each pair to align
+	 */
+	public S getQuery() {
+		return query;
+	}
+
+	/**
+	 * Returns the substitution matrix.
+	 *
+	 * @return the set of substitution scores used during alignment
+	 */
+	public SubstitutionMatrix<C> getSubstitutionMatrix() {
+		return subMatrix;
+	}
+
+	/**
+	 * Calculates the optimal local alignment score of the query against the given target.
+	 *
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @return the Smith-Waterman score
+	 */
+	public int getScore(S target) {
+		final int n = segmentLength * LANES;
+		int[] hLoad = new int[n], hStore = new int[n], sub = new int[n], ins = new int[n], del = new int[n];
+		// state a deletion may start from: substitution only, or also insertion for a linear gap penalty
+		int[] open = linear ? new int[n] : null;
+		int[] carryM = new int[LANES], carryD = new int[LANES];
+		List<C> compounds = target.getAsList();
+		int best = 0;
+
+		for (C c : compounds) {
+			int[] row = profile.get(c);
+			if (row == null) {
+				row = getProfileRow(query.getAsList(), c);
+			}
+
+			// diagonal predecessor of segment 0 is the last segment of the previous lane
+			for (int l = LANES - 1; l > 0; l--) {
+				carryM[l] = hLoad[n - LANES + l - 1];
+			}
+			carryM[0] = 0;
+
+			// substitution and insertion states depend only on the previous target column
+			for (int s = 0, i = 0; s < segmentLength; s++) {
+				for (int l = 0; l < LANES; l++, i++) {
+					int diagonal = (s == 0) ? carryM[l] : hLoad[i - LANES];
+					int m = Math.max(0, diagonal + row[i]);
+					// a linear gap penalty lets an insertion follow a deletion, hence start from the best state
+					ins[i] = Math.max(0, Math.max(ins[i] + gapExtend, (linear ? hLoad[i] : sub[i]) + gapOpenExtend));
+					hStore[i] = m;
+				}
+			}
+			int[] tmp = sub;
+			sub = hStore;
+			hStore = tmp;
+			int[] start = sub;
+			if (linear) {
+				for (int i = 0; i < n; i++) {
+					open[i] = Math.max(sub[i], ins[i]);
+				}
+				start = open;
+			}
+
+			// deletion state runs along the query; first pass ignores the carry between lanes
+			for (int l = 0; l < LANES; l++) {
+				carryM[l] = carryD[l] = 0;
+			}
+			for (int s = 0, i = 0; s < segmentLength; s++) {
+				for (int l = 0; l < LANES; l++, i++) {
+					del[i] = Math.max(0, Math.max(carryD[l] + gapExtend, carryM[l] + gapOpenExtend));
+					carryD[l] = del[i];
+					carryM[l] = start[i];
+				}
+			}
+
+			// lazy correction: shift the carry into the next lane until no deletion score improves
+			for (int pass = 0; pass < LANES; pass++) {
+				for (int l = LANES - 1; l > 0; l--) {
+					carryM[l] = start[n - LANES + l - 1];
+					carryD[l] = del[n - LANES + l - 1];
+				}
+				carryM[0] = carryD[0] = 0;
+				boolean changed = false;
+				for (int s = 0, i = 0; s < segmentLength; s++) {
+					boolean improved = false;
+					for (int l = 0; l < LANES; l++, i++) {
+						int d = Math.max(carryD[l] + gapExtend, (s == 0) ? carryM[l] + gapOpenExtend : 0);
+						if (d > del[i]) {
+							del[i] = d;
+							improved = true;
+						}
+						carryD[l] = del[i];
+					}
+					if (!improved && s > 0) {
+						break;
+					}
+					changed |= improved;
+				}
+				if (!changed) {
+					break;
+				}
+			}
+
+			for (int i = 0; i < n; i++) {
+				best = Math.max(best, sub[i]);
+				hStore[i] = Math.max(sub[i], Math.max(del[i], ins[i]));
+			}
+			tmp = hLoad;
+			hLoad = hStore;
+			hStore = tmp;
+		}
+		return best;
+	}
+
+	// returns the striped substitution scores of every query compound against the given target compound
+	private int[] getProfileRow(List<C> compounds, C c) {
+		int[] row = new int[segmentLength * LANES];
+		for (int s = 0, i = 0; s < segmentLength; s++) {
+			for (int l = 0; l < LANES; l++, i++) {
+				int x = l * segmentLength + s;
+				row[i] = (x < compounds.size()) ? subMatrix.getValue(compounds.get(x), c) : PADDING;
+			}
+		}
+		return row;
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.SmithWaterman;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+/**
+ * Pairwise local sequence aligner which computes the score with the striped kernel of a {@link StripedQueryProfile}
+ * and only fills the full dynamic programming matrix of {@link SmithWaterman} when the alignment itself is requested.
+ * To scan a database, build one {@link StripedQueryProfile} for the query, check {@link #getScore()} of each target,
+ * and call {@link #getPair()} only for the hits over a threshold.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+public class StripedSmithWaterman<S extends Sequence<C>, C extends Compound> extends SmithWaterman<S, C> {
+
+	private StripedQueryProfile<S, C> queryProfile;
+	private boolean scored;
+
+	/**
+	 * Before running a pairwise local sequence alignment, data must be sent in via calls to
+	 * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+	 * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+	 */
+	public StripedSmithWaterman() {
+	}
+
+	/**
+	 * Prepares for a pairwise local sequence alignment.
+	 *
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public StripedSmithWaterman(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		super(query, target, gapPenalty, subMatrix);
+	}
+
+	/**
+	 * Prepares for a pairwise local sequence alignment reusing a query profile shared between many targets.
+	 *
+	 * @param queryProfile the striped profile of the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties the query profile was built with
+	 */
+	public StripedSmithWaterman(StripedQueryProfile<S, C> queryProfile, S target, GapPenalty gapPenalty) {
+		super(queryProfile.getQuery(), target, gapPenalty, queryProfile.getSubstitutionMatrix());
+		this.queryProfile = queryProfile;
+	}
+
+	@Override
+	public void setQuery(S query) {
+		queryProfile = null;
+		super.setQuery(query);
+	}
+
+	@Override
+	public void setGapPenalty(GapPenalty gapPenalty) {
+		queryProfile = null;
+		super.setGapPenalty(gapPenalty);
+	}
+
+	@Override
+	public void setSubstitutionMatrix(SubstitutionMatrix<C> subMatrix) {
+		queryProfile = null;
+		super.setSubstitutionMatrix(subMatrix);
+	}
+
+	// method for Scorer
+
+	@Override
+	public double getScore() {
+		if (profile == null && !scored && isReady()) {
+			if (queryProfile == null) {
+				queryProfile = new StripedQueryProfile<S, C>(getQuery(), getGapPenalty(), getSubstitutionMatrix());
+			}
+			score = queryProfile.getScore(getTarget());
+			scored = true;
+		}
+		return scored ? score : super.getScore();
+	}
+
+	// method for AbstractMatrixAligner
+
+	@Override
+	protected void reset() {
+		super.reset();
+		scored = false;
+	}
+
+}
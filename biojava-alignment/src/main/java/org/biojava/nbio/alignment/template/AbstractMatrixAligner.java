@@ -35,9 +35,14 @@ import org.biojava.nbio.core.sequence.template.Sequence;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static org.biojava.nbio.alignment.routines.AlignerHelper.UNREACHABLE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setBackwardScoreVector;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setForwardScoreVector;
 import static org.biojava.nbio.alignment.routines.AlignerHelper.setScoreVector;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setStartScoreVector;
 import static org.biojava.nbio.alignment.routines.AlignerHelper.setSteps;
 
 /**
@@ -51,12 +56,39 @@ import static org.biojava.nbio.alignment.routines.AlignerHelper.setSteps;
 public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Compound> extends AbstractScorer
 		implements MatrixAligner<S, C> {
 
+	// subproblems up to this many cells are aligned directly with a traceback
+	private static final int LINEAR_SPACE_BASE_CELLS = 1 << 12;
+
+	/**
+	 * Threshold which never switches to the linear space routine.
+	 */
+	public static final int LINEAR_SPACE_DISABLED = Integer.MAX_VALUE;
+
+	/**
+	 * Default threshold: the full traceback of two sequences of this length takes hundreds of megabytes.
+	 */
+	public static final int DEFAULT_LINEAR_SPACE_THRESHOLD = 5000;
+
+	private static volatile int defaultLinearSpaceThreshold = DEFAULT_LINEAR_SPACE_THRESHOLD;
+
+	/**
+	 * Sets the default sequence length from which alignments switch to the divide-and-conquer routine which runs in
+	 * linear space.  Aligners take the default when they are created.
+	 *
+	 * @param threshold the default length of the longer sequence from which linear space is used, or
+	 * {@link #LINEAR_SPACE_DISABLED}
+	 */
+	public static void setDefaultLinearSpaceThreshold(int threshold) {
+		defaultLinearSpaceThreshold = threshold;
+	}
+
 	// input fields
 	protected GapPenalty gapPenalty;
 	private SubstitutionMatrix<C> subMatrix;
 	private boolean local, storingScoreMatrix;
 	protected List<Anchor> anchors = new ArrayList<Anchor>();
 	protected int cutsPerSection;
+	private int linearSpaceThreshold = defaultLinearSpaceThreshold;
 
 	// output fields
 	protected Profile<S, C> profile;
@@ -151,6 +183,16 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
 		return storingScoreMatrix;
 	}
 
+	/**
+	 * Returns the sequence length from which the alignment runs in linear space.
+	 *
+	 * @return the length of the longer sequence from which linear space is used,
+	 * {@link #DEFAULT_LINEAR_SPACE_THRESHOLD} by default
+	 */
+	public int getLinearSpaceThreshold() {
+		return linearSpaceThreshold;
+	}
+
 	/**
 	 * Sets the gap penalties.
 	 *
@@ -171,6 +213,21 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
 		reset();
 	}
 
+	/**
+	 * Sets the sequence length from which the alignment switches from a full traceback matrix to a divide-and-conquer
+	 * routine (Hirschberg, Myers and Miller) which only needs memory linear in the sequence lengths, at about twice
+	 * the computation time.  The linear space routine is not used while storing the score matrix or with anchors.
+	 * Among alignments of equal score, it may return a different one from the full traceback; set
+	 * {@link #LINEAR_SPACE_DISABLED} to always get the full traceback's choice.
+	 *
+	 * @param linearSpaceThreshold the length of the longer sequence from which linear space is used, or
+	 * {@link #LINEAR_SPACE_DISABLED}
+	 */
+	public void setLinearSpaceThreshold(int linearSpaceThreshold) {
+		this.linearSpaceThreshold = linearSpaceThreshold;
+		reset();
+	}
+
 	/**
 	 * Sets choice to cache the score matrix or to save memory by deleting score matrix after alignment.
 	 *
@@ -303,6 +360,11 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
 		long timeStart = System.nanoTime();
 
 		int[] dim = getScoreMatrixDimensions();
+		if (!storingScoreMatrix && anchors.isEmpty() && Math.max(dim[0], dim[1]) - 1 >= linearSpaceThreshold) {
+			alignLinearSpace(dim);
+			time = System.nanoTime() - timeStart;
+			return;
+		}
 		if (storingScoreMatrix) {
 			scores = new int[dim[0]][dim[1]][dim[2]];
 		} else {
@@ -364,6 +426,202 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
 		time = System.nanoTime() - timeStart;
 	}
 
+	/**
+	 * Performs alignment in linear space
+	 * @param dim the score matrix dimensions
+	 */
+	private void alignLinearSpace(int[] dim) {
+		List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
+		xyMax = new int[] { dim[0] - 1, dim[1] - 1 };
+		xyStart = new int[] { 0, 0 };
+		if (!local) {
+			score = alignLinearSpace(new Subproblem(0, 0, xyMax[0], xyMax[1]), Last.SUBSTITUTION, null, sx, sy);
+		} else {
+			int gop = gapPenalty.getOpenPenalty(), gep = gapPenalty.getExtensionPenalty();
+			boolean linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+
+			// forward pass finds the end of the best local alignment
+			Subproblem all = new Subproblem(0, 0, xyMax[0], xyMax[1]);
+			int[][] row = new int[3][dim[1]], last = new int[3][dim[1]];
+			xyMax = new int[] { 0, 0 };
+			score = 0;
+			for (int x = 1; x < dim[0]; x++) {
+				int[][] swap = last;
+				last = row;
+				row = swap;
+				setForwardScoreVector(last, row, dim[1] - 1, gop, gep, getSubstitutionScoreRow(x, all), linear, true,
+						null);
+				for (int y = 1; y < dim[1]; y++) {
+					if (row[0][y] > score) {
+						xyMax[0] = x;
+						xyMax[1] = y;
+						score = row[0][y];
+					}
+				}
+			}
+
+			// backward pass from the end finds the start of the best local alignment
+			if (score > 0) {
+				Subproblem ending = new Subproblem(0, 0, xyMax[0], xyMax[1]);
+				int[][] backward = new int[3][xyMax[1] + 1], next = new int[3][xyMax[1] + 1];
+				int[] subsNext = null;
+				search: for (int x = xyMax[0]; x > 0; x--) {
+					int[][] swap = next;
+					next = backward;
+					backward = swap;
+					setBackwardScoreVector((x == xyMax[0]) ? null : next, backward, xyMax[1], Last.SUBSTITUTION, gop,
+							gep, subsNext, linear);
+					int[] subs = getSubstitutionScoreRow(x, ending);
+					for (int y = xyMax[1]; y > 0; y--) {
+						if (backward[0][y] + subs[y] == score) {
+							xyStart = new int[] { x - 1, y - 1 };
+							break search;
+						}
+					}
+					subsNext = subs;
+				}
+				alignLinearSpace(new Subproblem(xyStart[0], xyStart[1], xyMax[0], xyMax[1]), Last.SUBSTITUTION,
+						Last.SUBSTITUTION, sx, sy);
+			}
+		}
+		setProfile(sx, sy);
+	}
+
+	/**
+	 * Aligns a subproblem by divide-and-conquer: a forward pass to the middle query position and a backward pass from
+	 * the end locate where and in which state the optimal path crosses the middle, then both halves are solved
+	 * recursively.  The steps of the alignment are appended to the given lists.
+	 * @param subproblem the bounds of the subproblem
+	 * @param start edit operation by which the alignment enters the subproblem
+	 * @param end edit operation by which the alignment leaves the subproblem, or null for any operation
+	 * @param sx steps of the query
+	 * @param sy steps of the target
+	 * @return score of the alignment of the subproblem
+	 */
+	private int alignLinearSpace(Subproblem subproblem, Last start, Last end, List<Step> sx, List<Step> sy) {
+		int xb = subproblem.getQueryStartIndex(), xe = subproblem.getQueryEndIndex(),
+				length = subproblem.getTargetEndIndex() - subproblem.getTargetStartIndex();
+		if (xe - xb < 2 || (long) (xe - xb + 1) * (length + 1) <= LINEAR_SPACE_BASE_CELLS) {
+			return alignQuadraticSpace(subproblem, start, end, sx, sy);
+		}
+		int gop = gapPenalty.getOpenPenalty(), gep = gapPenalty.getExtensionPenalty();
+		boolean linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+		int xm = (xb + xe) / 2;
+
+		int[][] forward = new int[3][length + 1], last = new int[3][length + 1];
+		setStartScoreVector(forward, length, start, gop, gep, linear, null);
+		for (int x = xb + 1; x <= xm; x++) {
+			int[][] swap = last;
+			last = forward;
+			forward = swap;
+			setForwardScoreVector(last, forward, length, gop, gep, getSubstitutionScoreRow(x, subproblem), linear, false,
+					null);
+		}
+
+		int[][] backward = new int[3][length + 1], next = new int[3][length + 1];
+		setBackwardScoreVector(null, backward, length, end, gop, gep, null, linear);
+		for (int x = xe - 1; x >= xm; x--) {
+			int[][] swap = next;
+			next = backward;
+			backward = swap;
+			setBackwardScoreVector(next, backward, length, end, gop, gep, getSubstitutionScoreRow(x + 1, subproblem),
+					linear);
+		}
+
+		int best = UNREACHABLE, yMid = 0, zMid = 0;
+		for (int y = 0; y <= length; y++) {
+			for (int z = 0; z < 3; z++) {
+				if (forward[z][y] + backward[z][y] > best) {
+					best = forward[z][y] + backward[z][y];
+					yMid = y;
+					zMid = z;
+				}
+			}
+		}
+		Last middle = Last.values()[zMid];
+		yMid += subproblem.getTargetStartIndex();
+		alignLinearSpace(new Subproblem(xb, subproblem.getTargetStartIndex(), xm, yMid), start, middle, sx, sy);
+		alignLinearSpace(new Subproblem(xm, yMid, xe, subproblem.getTargetEndIndex()), middle, end, sx, sy);
+		return best;
+	}
+
+	/**
+	 * Aligns a small subproblem of the divide-and-conquer routine with a full traceback.
+	 * @param subproblem the bounds of the subproblem
+	 * @param start edit operation by which the alignment enters the subproblem
+	 * @param end edit operation by which the alignment leaves the subproblem, or null for any operation
+	 * @param sx steps of the query
+	 * @param sy steps of the target
+	 * @return score of the alignment of the subproblem
+	 */
+	private int alignQuadraticSpace(Subproblem subproblem, Last start, Last end, List<Step> sx, List<Step> sy) {
+		int xb = subproblem.getQueryStartIndex(), xe = subproblem.getQueryEndIndex(),
+				length = subproblem.getTargetEndIndex() - subproblem.getTargetStartIndex();
+		int gop = gapPenalty.getOpenPenalty(), gep = gapPenalty.getExtensionPenalty();
+		boolean linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+
+		Last[][][] traceback = new Last[xe - xb + 1][length + 1][3];
+		int[][] row = new int[3][length + 1], last = new int[3][length + 1];
+		setStartScoreVector(row, length, start, gop, gep, linear, traceback[0]);
+		for (int x = xb + 1; x <= xe; x++) {
+			int[][] swap = last;
+			last = row;
+			row = swap;
+			setForwardScoreVector(last, row, length, gop, gep, getSubstitutionScoreRow(x, subproblem), linear, false,
+					traceback[x - xb]);
+		}
+
+		Last state = end;
+		if (state == null) {
+			state = (row[1][length] > row[0][length] && row[1][length] > row[2][length]) ? Last.DELETION :
+					(row[0][length] > row[2][length]) ? Last.SUBSTITUTION : Last.INSERTION;
+		}
+		int subscore = row[state.ordinal()][length];
+		List<Step> tx = new ArrayList<Step>(), ty = new ArrayList<Step>();
+		for (int x = xe - xb, y = length; x > 0 || y > 0; ) {
+			Last previous = traceback[x][y][state.ordinal()];
+			switch (state) {
+			case DELETION:
+				tx.add(Step.COMPOUND);
+				ty.add(Step.GAP);
+				x--;
+				break;
+			case SUBSTITUTION:
+				tx.add(Step.COMPOUND);
+				ty.add(Step.COMPOUND);
+				x--;
+				y--;
+				break;
+			case INSERTION:
+				tx.add(Step.GAP);
+				ty.add(Step.COMPOUND);
+				y--;
+			}
+			state = previous;
+		}
+		Collections.reverse(tx);
+		Collections.reverse(ty);
+		sx.addAll(tx);
+		sy.addAll(ty);
+		return subscore;
+	}
+
+	/**
+	 * Returns score for the alignment of the query column to the target columns of a subproblem, indexed relative to
+	 * the start of the subproblem
+	 * @param queryColumn
+	 * @param subproblem
+	 * @return
+	 */
+	private int[] getSubstitutionScoreRow(int queryColumn, Subproblem subproblem) {
+		int yb = subproblem.getTargetStartIndex();
+		int[] subs = new int[subproblem.getTargetEndIndex() - yb + 1];
+		for (int y = Math.max(1, yb); y <= subproblem.getTargetEndIndex(); y++) {
+			subs[y - yb] = getSubstitutionScore(queryColumn, y);
+		}
+		return subs;
+	}
+
 	/**
 	 * Returns score for the alignment of the query column to all target columns
 	 * @param queryColumn
@@ -0,0 +1,41 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.template;
+
+/**
+ * Defines a callback which receives the results of an all-pairs computation one pair at a time.  The callback is
+ * always invoked from the thread that started the computation, so implementations need not be thread-safe.
+ *
+ * @param <R> each pair computes a result of type R
+ */
+public interface AllPairsConsumer<R> {
+
+	/**
+	 * Receives the result of one pair.  Pairs arrive in no particular order.
+	 *
+	 * @param query index of the first sequence of the pair
+	 * @param target index of the second sequence of the pair, always greater than query
+	 * @param result result computed for the pair
+	 */
+	void accept(int query, int target, R result);
+
+}
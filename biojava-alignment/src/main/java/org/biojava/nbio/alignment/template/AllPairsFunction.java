@@ -0,0 +1,41 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.template;
+
+/**
+ * Defines the computation run for each pair of an all-pairs computation.  Implementations are called concurrently
+ * from many threads.
+ *
+ * @param <R> each pair computes a result of type R
+ */
+public interface AllPairsFunction<R> {
+
+	/**
+	 * Computes the result of one pair.
+	 *
+	 * @param query index of the first sequence of the pair
+	 * @param target index of the second sequence of the pair, always greater than query
+	 * @return result computed for the pair
+	 */
+	R apply(int query, int target);
+
+}
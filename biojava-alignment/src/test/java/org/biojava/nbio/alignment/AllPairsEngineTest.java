@@ -0,0 +1,239 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava.nbio.alignment.template.AllPairsConsumer;
+import org.biojava.nbio.alignment.template.AllPairsFunction;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceScorer;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SequencePair;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AllPairsEngineTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private List<ProteinSequence> sequences;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		Random random = new Random(5);
+		String alphabet = "ACDEFGHIKLMNPQRSTVWY";
+		sequences = new ArrayList<ProteinSequence>();
+		for (int i = 0; i < 15; i++) {
+			StringBuilder s = new StringBuilder();
+			for (int length = 1 + random.nextInt(120); length > 0; length--) {
+				s.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			sequences.add(new ProteinSequence(s.toString()));
+		}
+		gaps = new SimpleGapPenalty((short) 10, (short) 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+	}
+
+	@Test
+	public void testGetPairIndex() {
+		int n = 7;
+		long k = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				assertEquals(k++, AllPairsEngine.getPairIndex(i, j, n));
+			}
+		}
+		assertEquals(k, AllPairsEngine.getPairCount(n));
+		assertEquals(199990000L, AllPairsEngine.getPairCount(20000));
+	}
+
+	@Test
+	public void testAlign() throws InterruptedException {
+		final List<SequencePair<ProteinSequence, AminoAcidCompound>> expected = Alignments.getAllPairsAlignments(
+				sequences, PairwiseSequenceAlignerType.GLOBAL, gaps, blosum62);
+		final int n = sequences.size();
+		final boolean[] seen = new boolean[expected.size()];
+		AllPairsEngine<ProteinSequence, AminoAcidCompound> engine =
+				new AllPairsEngine<ProteinSequence, AminoAcidCompound>(sequences);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		engine.setExecutor(executor);
+		engine.setParallelism(3);
+		engine.setChunkSize(4);
+		engine.setMaxInFlight(2);
+		try {
+			engine.align(PairwiseSequenceAlignerType.GLOBAL, gaps, blosum62,
+					new AllPairsConsumer<SequencePair<ProteinSequence, AminoAcidCompound>>() {
+				@Override
+				public void accept(int query, int target, SequencePair<ProteinSequence, AminoAcidCompound> pair) {
+					int k = (int) AllPairsEngine.getPairIndex(query, target, n);
+					assertEquals(expected.get(k).toString(), pair.toString());
+					seen[k] = true;
+				}
+			});
+		} finally {
+			executor.shutdown();
+		}
+		for (boolean s : seen) {
+			assertTrue(s);
+		}
+	}
+
+	@Test
+	public void testScore() throws InterruptedException {
+		for (PairwiseSequenceScorerType type : new PairwiseSequenceScorerType[] {
+				PairwiseSequenceScorerType.GLOBAL_IDENTITIES, PairwiseSequenceScorerType.LOCAL_SCORE_ONLY }) {
+			final double[] expected = Alignments.getAllPairsScores(sequences, type, gaps, blosum62);
+			final double[] scores = new double[expected.length];
+			final int n = sequences.size();
+			AllPairsEngine<ProteinSequence, AminoAcidCompound> engine =
+					new AllPairsEngine<ProteinSequence, AminoAcidCompound>(sequences);
+			engine.setChunkSize(1);
+			engine.score(type, gaps, blosum62,
+					new AllPairsConsumer<PairwiseSequenceScorer<ProteinSequence, AminoAcidCompound>>() {
+				@Override
+				public void accept(int query, int target,
+						PairwiseSequenceScorer<ProteinSequence, AminoAcidCompound> scorer) {
+					assertTrue(scorer.getQuery() == sequences.get(query));
+					assertTrue(scorer.getTarget() == sequences.get(target));
+					scores[(int) AllPairsEngine.getPairIndex(query, target, n)] = scorer.getScore();
+				}
+			});
+			for (int k = 0; k < expected.length; k++) {
+				assertEquals(expected[k], scores[k], PRECISION);
+			}
+		}
+	}
+
+	@Test
+	public void testSetChunkSizeWhileRunning() throws InterruptedException {
+		final int n = sequences.size();
+		final int[] seen = new int[(int) AllPairsEngine.getPairCount(n)];
+		final AllPairsEngine<ProteinSequence, AminoAcidCompound> engine =
+				new AllPairsEngine<ProteinSequence, AminoAcidCompound>(sequences);
+		engine.setParallelism(2);
+		engine.setChunkSize(7);
+		engine.setMaxInFlight(1);
+		engine.run(new AllPairsFunction<Integer>() {
+			@Override
+			public Integer apply(int query, int target) {
+				return query + target;
+			}
+		}, new AllPairsConsumer<Integer>() {
+			@Override
+			public void accept(int query, int target, Integer result) {
+				// the run keeps the chunk size it started with
+				engine.setChunkSize(1);
+				seen[(int) AllPairsEngine.getPairIndex(query, target, n)]++;
+			}
+		});
+		for (int count : seen) {
+			assertEquals(1, count);
+		}
+	}
+
+	@Test
+	public void testRunRethrows() throws InterruptedException {
+		AllPairsEngine<ProteinSequence, AminoAcidCompound> engine =
+				new AllPairsEngine<ProteinSequence, AminoAcidCompound>(sequences);
+		engine.setMaxInFlight(1);
+		try {
+			engine.run(new AllPairsFunction<Integer>() {
+				@Override
+				public Integer apply(int query, int target) {
+					if (query == 3 && target == 9) {
+						throw new IllegalArgumentException("pair 3, 9");
+					}
+					return query + target;
+				}
+			}, new AllPairsConsumer<Integer>() {
+				@Override
+				public void accept(int query, int target, Integer result) {
+					assertEquals(query + target, result.intValue());
+				}
+			});
+			fail("Expected the exception of the function");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().contains("pair 3, 9"));
+		}
+	}
+
+	@Test
+	public void testConsumerRethrows() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			AllPairsEngine<ProteinSequence, AminoAcidCompound> engine =
+					new AllPairsEngine<ProteinSequence, AminoAcidCompound>(sequences);
+			engine.setExecutor(executor);
+			engine.setParallelism(4);
+			engine.setChunkSize(1);
+			engine.setMaxInFlight(1);
+			final int[] accepted = new int[1];
+			try {
+				engine.run(new AllPairsFunction<Integer>() {
+					@Override
+					public Integer apply(int query, int target) {
+						return query + target;
+					}
+				}, new AllPairsConsumer<Integer>() {
+					@Override
+					public void accept(int query, int target, Integer result) {
+						if (++accepted[0] == 5) {
+							throw new IllegalStateException("consumer");
+						}
+					}
+				});
+				fail("Expected the exception of the consumer");
+			} catch (IllegalStateException e) {
+				assertEquals("consumer", e.getMessage());
+			}
+			assertEquals(5, accepted[0]);
+		} finally {
+			executor.shutdown();
+		}
+		// the workers have stopped instead of waiting for a consumer which is gone
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMaxInFlight() {
+		new AllPairsEngine<ProteinSequence, AminoAcidCompound>(sequences).setMaxInFlight(0);
+	}
+
+}
@@ -25,6 +25,7 @@ package org.biojava.nbio.alignment;
 
 import org.biojava.nbio.core.alignment.matrices.SimpleSubstitutionMatrix;
 import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.alignment.template.AbstractMatrixAligner;
 import org.biojava.nbio.alignment.template.GapPenalty;
 import org.biojava.nbio.alignment.template.PairwiseSequenceAligner;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
@@ -33,11 +34,14 @@ import org.biojava.nbio.core.sequence.DNASequence;
 import org.biojava.nbio.core.sequence.ProteinSequence;
 import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -85,6 +89,60 @@ public class NeedlemanWunschTest {
 		assertEquals(expectedScore, aligner.getScore(), 0.00000001);
 	}
 
+	@Test
+	public void testLinearSpace() {
+		NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+				new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		assertEquals(AbstractMatrixAligner.DEFAULT_LINEAR_SPACE_THRESHOLD, nw.getLinearSpaceThreshold());
+		nw.setLinearSpaceThreshold(0);
+		assertEquals(alignment.getScore(), nw.getScore(), PRECISION);
+		assertEquals(alignment.getPair().toString(), nw.getPair().toString());
+	}
+
+	@Test
+	public void testLinearSpaceRandom() throws CompoundNotFoundException {
+		Random random = new Random(3);
+		GapPenalty[] penalties = { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 2),
+				new SimpleGapPenalty(4, 0), new SimpleGapPenalty(2, 1) };
+		for (int i = 0; i < 16; i++) {
+			ProteinSequence q = new ProteinSequence(randomSequence(random, 1 + random.nextInt(300)));
+			ProteinSequence t = new ProteinSequence(randomSequence(random, 1 + random.nextInt(300)));
+			GapPenalty g = penalties[i % penalties.length];
+			NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+					new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62);
+			nw.setLinearSpaceThreshold(0);
+			double expected = new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62).getScore();
+			assertEquals(expected, nw.getScore(), PRECISION);
+			assertEquals(expected, getScore(nw.getPair().toString(), g), PRECISION);
+		}
+	}
+
+	// scores both lines of an alignment printed by a sequence pair
+	private int getScore(String pair, GapPenalty g) {
+		String[] lines = pair.split(String.format("%n"));
+		int score = 0;
+		for (int i = 0; i < lines[0].length(); i++) {
+			char a = lines[0].charAt(i), b = lines[1].charAt(i);
+			if (a == '-' || b == '-') {
+				boolean open = (i == 0) || (a == '-' ? lines[0] : lines[1]).charAt(i - 1) != '-';
+				score += (open ? g.getOpenPenalty() : 0) + g.getExtensionPenalty();
+			} else {
+				AminoAcidCompoundSet cs = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+				score += blosum62.getValue(cs.getCompoundForString(String.valueOf(a)),
+						cs.getCompoundForString(String.valueOf(b)));
+			}
+		}
+		return score;
+	}
+
+	private static String randomSequence(Random random, int length) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			s.append("ACDEFGHIKLMNPQRSTVWY".charAt(random.nextInt(20)));
+		}
+		return s.toString();
+	}
+
 	@Test
 	public void testNeedlemanWunsch() {
 		NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
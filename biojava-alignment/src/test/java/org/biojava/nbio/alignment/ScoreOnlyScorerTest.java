@@ -0,0 +1,194 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava.nbio.alignment.routines.ScoreOnlyKernel;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceAligner;
+import org.biojava.nbio.alignment.template.PairwiseSequenceScorer;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ScoreOnlyScorerTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private ProteinSequence query, target;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+	private NeedlemanWunsch<ProteinSequence, AminoAcidCompound> global;
+	private SmithWaterman<ProteinSequence, AminoAcidCompound> local;
+	private ScoreOnlyScorer<ProteinSequence, AminoAcidCompound> globalScorer, localScorer;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		query = new ProteinSequence("AERNDKK");
+		target = new ProteinSequence("ERDNKGFPS");
+		gaps = new SimpleGapPenalty((short) 10, (short) 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		global = new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		local = new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		globalScorer = new ScoreOnlyScorer<ProteinSequence, AminoAcidCompound>(query, target, false, gaps, blosum62);
+		localScorer = new ScoreOnlyScorer<ProteinSequence, AminoAcidCompound>(query, target, true, gaps, blosum62);
+	}
+
+	@Test
+	public void testGetQuery() {
+		assertEquals(query, globalScorer.getQuery());
+		assertEquals(query, localScorer.getQuery());
+	}
+
+	@Test
+	public void testGetTarget() {
+		assertEquals(target, globalScorer.getTarget());
+		assertEquals(target, localScorer.getTarget());
+	}
+
+	@Test
+	public void testGetMaxScore() {
+		assertEquals(global.getMaxScore(), globalScorer.getMaxScore(), PRECISION);
+		assertEquals(local.getMaxScore(), localScorer.getMaxScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetMinScore() {
+		assertEquals(global.getMinScore(), globalScorer.getMinScore(), PRECISION);
+		assertEquals(local.getMinScore(), localScorer.getMinScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetScore() {
+		assertEquals(global.getScore(), globalScorer.getScore(), PRECISION);
+		assertEquals(local.getScore(), localScorer.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetAllPairsScores() throws CompoundNotFoundException {
+		Random random = new Random(3);
+		List<ProteinSequence> sequences = new ArrayList<ProteinSequence>();
+		for (int i = 0; i < 12; i++) {
+			sequences.add(new ProteinSequence(randomSequence(random, 1 + random.nextInt(80))));
+		}
+		GapPenalty[] penalties = { gaps, new SimpleGapPenalty(0, 3) };
+		for (GapPenalty g : penalties) {
+			for (boolean isLocal : new boolean[] { false, true }) {
+				PairwiseSequenceAlignerType alignerType = isLocal ? PairwiseSequenceAlignerType.LOCAL :
+						PairwiseSequenceAlignerType.GLOBAL;
+				PairwiseSequenceScorerType scorerType = isLocal ? PairwiseSequenceScorerType.LOCAL_SCORE_ONLY :
+						PairwiseSequenceScorerType.GLOBAL_SCORE_ONLY;
+				List<Double> expected = new ArrayList<Double>();
+				for (int i = 0; i < sequences.size(); i++) {
+					for (int j = i + 1; j < sequences.size(); j++) {
+						PairwiseSequenceAligner<ProteinSequence, AminoAcidCompound> aligner = Alignments
+								.getPairwiseAligner(sequences.get(i), sequences.get(j), alignerType, g, blosum62);
+						expected.add(aligner.getScore());
+					}
+				}
+				double[] scores = Alignments.getAllPairsScores(sequences, scorerType, g, blosum62);
+				List<PairwiseSequenceScorer<ProteinSequence, AminoAcidCompound>> scorers =
+						Alignments.getAllPairsScorers(sequences, scorerType, g, blosum62);
+				assertEquals(expected.size(), scores.length);
+				for (int k = 0; k < scores.length; k++) {
+					assertEquals(expected.get(k), scores[k], PRECISION);
+					assertEquals(expected.get(k), scorers.get(k).getScore(), PRECISION);
+				}
+				assertArrayEquals(scores, Alignments.runPairwiseScorers(scorers), PRECISION);
+			}
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void testBatchOnSingleThread() throws CompoundNotFoundException {
+		List<ProteinSequence> sequences = new ArrayList<ProteinSequence>();
+		for (int i = 0; i < 6; i++) {
+			sequences.add(new ProteinSequence(query.getSequenceAsString().substring(i)));
+		}
+		double[] expected = Alignments.getAllPairsScores(sequences, PairwiseSequenceScorerType.LOCAL_SCORE_ONLY,
+				gaps, blosum62);
+		// the first scorer scores the whole batch from within the only thread of the pool
+		ConcurrencyTools.setThreadPoolSingle();
+		try {
+			assertArrayEquals(expected, Alignments.runPairwiseScorers(Alignments.getAllPairsScorers(sequences,
+					PairwiseSequenceScorerType.LOCAL_SCORE_ONLY, gaps, blosum62)), PRECISION);
+		} finally {
+			ConcurrencyTools.setThreadPoolDefault();
+		}
+	}
+
+	@Test
+	public void testTooManyPairs() {
+		// 65537 sequences make more pairs than an array holds
+		List<ProteinSequence> sequences = Collections.nCopies(65537, query);
+		try {
+			Alignments.getAllPairsScores(sequences, PairwiseSequenceScorerType.GLOBAL_SCORE_ONLY, gaps, blosum62);
+			fail("Expected an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("2147516416 pairs"));
+		}
+	}
+
+	@Test
+	public void testLongTarget() throws CompoundNotFoundException {
+		ScoreOnlyKernel<ProteinSequence, AminoAcidCompound> kernel = new ScoreOnlyKernel<ProteinSequence,
+				AminoAcidCompound>(AminoAcidCompoundSet.getAminoAcidCompoundSet(), gaps, blosum62);
+		int[] q = kernel.encode(query);
+		int selfScore = kernel.getScore(q, q, true);
+		// a target beyond the retained length is scored with a buffer of its own
+		StringBuilder s = new StringBuilder();
+		while (s.length() <= ScoreOnlyKernel.MAX_RETAINED_LENGTH) {
+			s.append('W');
+		}
+		s.append(query.getSequenceAsString());
+		int[] longTarget = kernel.encode(new ProteinSequence(s.toString()));
+		assertEquals(selfScore, kernel.getScore(q, longTarget, true));
+		assertEquals(local.getScore(), kernel.getScore(q, kernel.encode(target), true), PRECISION);
+	}
+
+	private static String randomSequence(Random random, int length) {
+		String alphabet = "ACDEFGHIKLMNPQRSTVWY";
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			s.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return s.toString();
+	}
+
+}
@@ -29,9 +29,12 @@ import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.ProteinSequence;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class SmithWatermanTest {
@@ -64,6 +67,60 @@ public class SmithWatermanTest {
 		assertEquals(alig.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
 	}
 
+	@Test
+	public void testLinearSpace() {
+		SmithWaterman<ProteinSequence, AminoAcidCompound> sw =
+				new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		sw.setLinearSpaceThreshold(0);
+		assertEquals(alignment.getScore(), sw.getScore(), PRECISION);
+		assertEquals(alignment.getPair().toString(), sw.getPair().toString());
+	}
+
+	@Test
+	public void testLinearSpaceRandom() throws CompoundNotFoundException {
+		Random random = new Random(5);
+		GapPenalty[] penalties = { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 2),
+				new SimpleGapPenalty(4, 0), new SimpleGapPenalty(2, 1) };
+		for (int i = 0; i < 16; i++) {
+			ProteinSequence q = new ProteinSequence(randomSequence(random, 1 + random.nextInt(300)));
+			ProteinSequence t = new ProteinSequence(randomSequence(random, 1 + random.nextInt(300)));
+			GapPenalty g = penalties[i % penalties.length];
+			SmithWaterman<ProteinSequence, AminoAcidCompound> sw =
+					new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62);
+			sw.setLinearSpaceThreshold(0);
+			SmithWaterman<ProteinSequence, AminoAcidCompound> expected =
+					new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62);
+			assertEquals(expected.getScore(), sw.getScore(), PRECISION);
+			assertEquals(expected.getScore(), getScore(sw.getPair().toString(), g), PRECISION);
+		}
+	}
+
+	// scores both lines of an alignment printed by a sequence pair
+	private int getScore(String pair, GapPenalty g) {
+		String[] lines = pair.split(String.format("%n"));
+		int score = 0;
+		for (int i = 0; i < lines[0].length(); i++) {
+			char a = lines[0].charAt(i), b = lines[1].charAt(i);
+			if (a == '-' || b == '-') {
+				boolean open = (i == 0) || (a == '-' ? lines[0] : lines[1]).charAt(i - 1) != '-';
+				score += (open ? g.getOpenPenalty() : 0) + g.getExtensionPenalty();
+			} else {
+				AminoAcidCompoundSet cs = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+				score += blosum62.getValue(cs.getCompoundForString(String.valueOf(a)),
+						cs.getCompoundForString(String.valueOf(b)));
+			}
+		}
+		return score;
+	}
+
+	private static String randomSequence(Random random, int length) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			s.append("ACDEFGHIKLMNPQRSTVWY".charAt(random.nextInt(20)));
+		}
+		return s.toString();
+	}
+
 	@Test
 	public void testGetQuery() {
 		assertEquals(alignment.getQuery(), query);
@@ -0,0 +1,106 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.benchmark;
+
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.SmithWaterman;
+import org.biojava.nbio.alignment.routines.StripedQueryProfile;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the full matrix {@link SmithWaterman} score with the striped {@link StripedQueryProfile} kernel.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.biojava.nbio.alignment.benchmark.SmithWatermanBenchmark} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmithWatermanBenchmark {
+
+	private static final String AMINO_ACIDS = "ACDEFGHIKLMNPQRSTVWY";
+
+	@Param({ "100", "400" })
+	private int length;
+
+	private ProteinSequence query, target;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+	private StripedQueryProfile<ProteinSequence, AminoAcidCompound> queryProfile;
+
+	@Setup
+	public void setup() throws CompoundNotFoundException {
+		Random random = new Random(42);
+		query = new ProteinSequence(randomSequence(random, length));
+		target = new ProteinSequence(randomSequence(random, length));
+		gaps = new SimpleGapPenalty(10, 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		queryProfile = new StripedQueryProfile<ProteinSequence, AminoAcidCompound>(query, gaps, blosum62);
+	}
+
+	@Benchmark
+	public double smithWaterman() {
+		return new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62).getScore();
+	}
+
+	@Benchmark
+	public int stripedQueryProfile() {
+		return queryProfile.getScore(target);
+	}
+
+	private static String randomSequence(Random random, int length) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			s.append(AMINO_ACIDS.charAt(random.nextInt(AMINO_ACIDS.length())));
+		}
+		return s.toString();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SmithWatermanBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.SmithWaterman;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SequencePair;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StripedSmithWatermanTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private ProteinSequence query, target;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		query = new ProteinSequence("AERNDKK");
+		target = new ProteinSequence("ERDNKGFPS");
+		gaps = new SimpleGapPenalty((short) 2, (short) 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+	}
+
+	@Test
+	public void testGetScore() {
+		StripedSmithWaterman<ProteinSequence, AminoAcidCompound> striped =
+				new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		SmithWaterman<ProteinSequence, AminoAcidCompound> sw =
+				new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		assertEquals(sw.getScore(), striped.getScore(), PRECISION);
+		assertEquals(sw.getPair().toString(), striped.getPair().toString());
+		assertEquals(sw.getScore(), striped.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testRandomProteins() throws CompoundNotFoundException {
+		Random random = new Random(7);
+		GapPenalty[] penalties = { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 3),
+				new SimpleGapPenalty(5, 0), new SimpleGapPenalty(1, 1) };
+		for (int i = 0; i < 100; i++) {
+			ProteinSequence q = new ProteinSequence(randomSequence(random, "ACDEFGHIKLMNPQRSTVWY", 1 + random.nextInt(60)));
+			ProteinSequence t = new ProteinSequence(randomSequence(random, "ACDEFGHIKLMNPQRSTVWY", 1 + random.nextInt(60)));
+			GapPenalty g = penalties[i % penalties.length];
+			assertEquals(new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62).getScore(),
+					new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62).getScore(),
+					PRECISION);
+		}
+	}
+
+	@Test
+	public void testRandomDNA() throws CompoundNotFoundException {
+		Random random = new Random(11);
+		SubstitutionMatrix<NucleotideCompound> nuc = SubstitutionMatrixHelper.getNuc4_4();
+		GapPenalty g = new SimpleGapPenalty(5, 2);
+		for (int i = 0; i < 100; i++) {
+			DNASequence q = new DNASequence(randomSequence(random, "ACGT", 1 + random.nextInt(100)));
+			DNASequence t = new DNASequence(randomSequence(random, "ACGT", 1 + random.nextInt(100)));
+			assertEquals(new SmithWaterman<DNASequence, NucleotideCompound>(q, t, g, nuc).getScore(),
+					new StripedSmithWaterman<DNASequence, NucleotideCompound>(q, t, g, nuc).getScore(), PRECISION);
+		}
+	}
+
+	@Test
+	public void testLinearDeletionInsertion() throws CompoundNotFoundException {
+		// with a linear gap penalty a deletion followed by an insertion (-1 -1) beats the mismatch (-4) at the center
+		DNASequence q = new DNASequence("AAAAAACAAAAAA");
+		DNASequence t = new DNASequence("AAAAAAGAAAAAA");
+		SubstitutionMatrix<NucleotideCompound> nuc = SubstitutionMatrixHelper.getNuc4_4();
+		GapPenalty g = new SimpleGapPenalty(0, 1);
+		StripedSmithWaterman<DNASequence, NucleotideCompound> striped =
+				new StripedSmithWaterman<DNASequence, NucleotideCompound>(q, t, g, nuc);
+		assertEquals(58, new SmithWaterman<DNASequence, NucleotideCompound>(q, t, g, nuc).getScore(), PRECISION);
+		assertEquals(58, striped.getScore(), PRECISION);
+		striped.getPair();
+		assertEquals(58, striped.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testRandomDNALinear() throws CompoundNotFoundException {
+		Random random = new Random(13);
+		SubstitutionMatrix<NucleotideCompound> nuc = SubstitutionMatrixHelper.getNuc4_4();
+		GapPenalty g = new SimpleGapPenalty(0, 1);
+		for (int i = 0; i < 100; i++) {
+			DNASequence q = new DNASequence(randomSequence(random, "ACGT", 1 + random.nextInt(100)));
+			DNASequence t = new DNASequence(randomSequence(random, "ACGT", 1 + random.nextInt(100)));
+			assertEquals(new SmithWaterman<DNASequence, NucleotideCompound>(q, t, g, nuc).getScore(),
+					new StripedSmithWaterman<DNASequence, NucleotideCompound>(q, t, g, nuc).getScore(), PRECISION);
+		}
+	}
+
+	@Test
+	public void testSharedQueryProfile() throws CompoundNotFoundException {
+		StripedQueryProfile<ProteinSequence, AminoAcidCompound> profile =
+				new StripedQueryProfile<ProteinSequence, AminoAcidCompound>(query, gaps, blosum62);
+		assertEquals(new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62).getScore(),
+				profile.getScore(target), PRECISION);
+		assertEquals(new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, query, gaps, blosum62).getScore(),
+				profile.getScore(query), PRECISION);
+	}
+
+	@Test
+	public void testGetLocalAlignmentsAboveThreshold() throws CompoundNotFoundException {
+		List<ProteinSequence> targets = new ArrayList<ProteinSequence>();
+		targets.add(target);
+		targets.add(new ProteinSequence("WWWWW"));
+		targets.add(query);
+		List<SequencePair<ProteinSequence, AminoAcidCompound>> hits =
+				Alignments.getLocalAlignmentsAboveThreshold(query, targets, 15, gaps, blosum62);
+		assertEquals(2, hits.size());
+		assertEquals(Alignments.getPairwiseAlignment(query, target, PairwiseSequenceAlignerType.LOCAL, gaps, blosum62)
+				.toString(), hits.get(0).toString());
+		assertTrue(hits.get(1).getTarget().getOriginalSequence() == query);
+	}
+
+	private static String randomSequence(Random random, String alphabet, int length) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			s.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return s.toString();
+	}
+
+}
@@ -0,0 +1,246 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.search.io.blast;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Rows of a BLAST tabular report (<code>-outfmt 6</code> or <code>7</code>) read by a {@link BlastTabularReader},
+ * held by column.
+ *
+ * The numeric columns are primitive arrays, indexed by row, of which only the first {@link #size()} elements are
+ * used.  Query and subject ids are slices of the bytes of the report in {@link #getData()}, and a String is only
+ * created when one is asked for.  Rows are grouped by query, in report order, and a query is never split between
+ * batches: the rows of query <code>q</code> are rows {@link #getQueryFirstRow(int) getQueryFirstRow(q)} to
+ * <code>getQueryFirstRow(q + 1) - 1</code>.
+ *
+ * @since 5.1.2
+ */
+public final class BlastTabularBatch {
+
+	byte[] data;
+	int size;
+	int queryCount;
+	// first row, and id, of each query
+	int[] queryRow;
+	int[] queryIdOffset, queryIdLength;
+	int[] subjectIdOffset, subjectIdLength;
+	double[] percentIdentity;
+	int[] alignmentLength, mismatchCount, gapOpenCount;
+	int[] queryStart, queryEnd, subjectStart, subjectEnd;
+	double[] evalue, bitScore;
+
+	BlastTabularBatch(int capacity) {
+		capacity = Math.max(capacity, 1);
+		queryRow = new int[capacity + 1];
+		queryIdOffset = new int[capacity];
+		queryIdLength = new int[capacity];
+		subjectIdOffset = new int[capacity];
+		subjectIdLength = new int[capacity];
+		percentIdentity = new double[capacity];
+		alignmentLength = new int[capacity];
+		mismatchCount = new int[capacity];
+		gapOpenCount = new int[capacity];
+		queryStart = new int[capacity];
+		queryEnd = new int[capacity];
+		subjectStart = new int[capacity];
+		subjectEnd = new int[capacity];
+		evalue = new double[capacity];
+		bitScore = new double[capacity];
+	}
+
+	/**
+	 * Appends a row of the query last started, and returns its index.
+	 */
+	int addRow() {
+		if (size == evalue.length) {
+			int capacity = size * 2;
+			subjectIdOffset = Arrays.copyOf(subjectIdOffset, capacity);
+			subjectIdLength = Arrays.copyOf(subjectIdLength, capacity);
+			percentIdentity = Arrays.copyOf(percentIdentity, capacity);
+			alignmentLength = Arrays.copyOf(alignmentLength, capacity);
+			mismatchCount = Arrays.copyOf(mismatchCount, capacity);
+			gapOpenCount = Arrays.copyOf(gapOpenCount, capacity);
+			queryStart = Arrays.copyOf(queryStart, capacity);
+			queryEnd = Arrays.copyOf(queryEnd, capacity);
+			subjectStart = Arrays.copyOf(subjectStart, capacity);
+			subjectEnd = Arrays.copyOf(subjectEnd, capacity);
+			evalue = Arrays.copyOf(evalue, capacity);
+			bitScore = Arrays.copyOf(bitScore, capacity);
+		}
+		size++;
+		queryRow[queryCount] = size;
+		return size - 1;
+	}
+
+	/**
+	 * Starts a new query, whose rows are the next ones added.
+	 */
+	void addQuery(int idOffset, int idLength) {
+		if (queryCount == queryIdOffset.length) {
+			int capacity = queryCount * 2;
+			queryRow = Arrays.copyOf(queryRow, capacity + 1);
+			queryIdOffset = Arrays.copyOf(queryIdOffset, capacity);
+			queryIdLength = Arrays.copyOf(queryIdLength, capacity);
+		}
+		queryIdOffset[queryCount] = idOffset;
+		queryIdLength[queryCount] = idLength;
+		queryCount++;
+		queryRow[queryCount] = size;
+	}
+
+	/**
+	 * Whether the id of the query last started is the given slice of {@link #getData()}.
+	 */
+	boolean isLastQuery(int idOffset, int idLength) {
+		if (queryCount == 0 || queryIdLength[queryCount - 1] != idLength) return false;
+		int offset = queryIdOffset[queryCount - 1];
+		for (int i = 0; i < idLength; i++) {
+			if (data[offset + i] != data[idOffset + i]) return false;
+		}
+		return true;
+	}
+
+	/** Number of rows. */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Number of queries, which all have at least one row. */
+	public int getQueryCount() {
+		return queryCount;
+	}
+
+	/**
+	 * Index of the first row of a query.
+	 * @param query index of the query, or {@link #getQueryCount()} for the number of rows
+	 */
+	public int getQueryFirstRow(int query) {
+		if (query < 0 || query > queryCount) throw new IndexOutOfBoundsException("query " + query + " of " + queryCount);
+		return queryRow[query];
+	}
+
+	/**
+	 * Index of the query of a row.
+	 */
+	public int getQueryIndex(int row) {
+		checkRow(row);
+		int query = Arrays.binarySearch(queryRow, 0, queryCount, row);
+		// rows after the first of a query are between two query starts
+		return query >= 0 ? query : -query - 2;
+	}
+
+	/**
+	 * Bytes of the report from which ids are sliced.
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	public int getQueryIdOffset(int row) {
+		return queryIdOffset[getQueryIndex(row)];
+	}
+
+	public int getQueryIdLength(int row) {
+		return queryIdLength[getQueryIndex(row)];
+	}
+
+	public int getSubjectIdOffset(int row) {
+		checkRow(row);
+		return subjectIdOffset[row];
+	}
+
+	public int getSubjectIdLength(int row) {
+		checkRow(row);
+		return subjectIdLength[row];
+	}
+
+	/** Query id (<code>qseqid</code>) of a row. */
+	public String getQueryId(int row) {
+		int query = getQueryIndex(row);
+		return new String(data, queryIdOffset[query], queryIdLength[query], StandardCharsets.UTF_8);
+	}
+
+	/** Subject id (<code>sseqid</code>) of a row. */
+	public String getSubjectId(int row) {
+		checkRow(row);
+		return new String(data, subjectIdOffset[row], subjectIdLength[row], StandardCharsets.UTF_8);
+	}
+
+	/** <code>pident</code> column, in percent. */
+	public double[] getPercentIdentities() {
+		return percentIdentity;
+	}
+
+	/** <code>length</code> column. */
+	public int[] getAlignmentLengths() {
+		return alignmentLength;
+	}
+
+	/** <code>mismatch</code> column. */
+	public int[] getMismatchCounts() {
+		return mismatchCount;
+	}
+
+	/** <code>gapopen</code> column. */
+	public int[] getGapOpenCounts() {
+		return gapOpenCount;
+	}
+
+	/** <code>qstart</code> column. */
+	public int[] getQueryStarts() {
+		return queryStart;
+	}
+
+	/** <code>qend</code> column. */
+	public int[] getQueryEnds() {
+		return queryEnd;
+	}
+
+	/** <code>sstart</code> column. */
+	public int[] getSubjectStarts() {
+		return subjectStart;
+	}
+
+	/** <code>send</code> column. */
+	public int[] getSubjectEnds() {
+		return subjectEnd;
+	}
+
+	/** <code>evalue</code> column. */
+	public double[] getEvalues() {
+		return evalue;
+	}
+
+	/** <code>bitscore</code> column. */
+	public double[] getBitScores() {
+		return bitScore;
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + " of " + size);
+	}
+}
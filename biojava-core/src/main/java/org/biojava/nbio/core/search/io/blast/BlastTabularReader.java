@@ -0,0 +1,515 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.search.io.blast;
+
+import org.biojava.nbio.core.sequence.io.util.IOUtils;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fast reader of BLAST and DIAMOND tabular reports (<code>-outfmt 6</code> and <code>7</code>, with the 12 default
+ * columns <code>qseqid sseqid pident length mismatch gapopen qstart qend sstart send evalue bitscore</code>; further
+ * columns are ignored).
+ *
+ * Rows are tokenized from the bytes of the report into {@link BlastTabularBatch columnar batches}, without creating a
+ * String for any field.  Comment lines, which start with <code>#</code>, are skipped.  Unlike
+ * {@link BlastTabularParser}, no {@link org.biojava.nbio.core.search.io.Result Result} objects are built; rows with an
+ * e-value above {@link #setMaxEScore(double)} are dropped while reading.
+ *
+ * A batch holds about {@link #DEFAULT_BATCH_SIZE} lines, and always ends at the end of a query.  A large file may be
+ * {@link #split(File, int) split} at query boundaries, and its parts read in parallel:
+ *
+ * <pre>
+ * BlastTabularReader.read(new File("hits.tsv"), 8, 1e-5, batch -&gt; ...);
+ * </pre>
+ *
+ * @since 5.1.2
+ */
+public class BlastTabularReader implements Closeable {
+
+	public static final int DEFAULT_BATCH_SIZE = 16384;
+
+	private static final int FIELDS = 12;
+	private static final int CHUNK_SIZE = 1 << 16;
+	// exactly representable powers of ten, for which a single multiplication or division is correctly rounded
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1.0;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+	}
+
+	private final InputStream input;
+	private final int batchSize;
+	private final long startOffset;
+	private double maxEScore = Double.POSITIVE_INFINITY;
+
+	// bytes [position, limit) of the buffer have not been parsed yet
+	private byte[] buffer = new byte[4 * CHUNK_SIZE];
+	private int position, limit;
+	// offset in the report of buffer[0]
+	private long bufferOffset;
+	private boolean eof;
+	private final int[] fieldStart = new int[FIELDS + 1];
+
+	/**
+	 * Reads a whole report, which may be gzipped.
+	 */
+	public BlastTabularReader(File file) throws IOException {
+		this(IOUtils.openFile(file), DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Reads the part of an uncompressed report from byte <code>start</code> to byte <code>end</code>, which should be
+	 * boundaries returned by {@link #split(File, int)}.
+	 */
+	public BlastTabularReader(File file, long start, long end) throws IOException {
+		this(new RangeInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ), start, end),
+				DEFAULT_BATCH_SIZE, start);
+	}
+
+	public BlastTabularReader(InputStream input) {
+		this(input, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param batchSize number of lines after which a batch ends, at the end of the current query
+	 */
+	public BlastTabularReader(InputStream input, int batchSize) {
+		this(input, batchSize, 0);
+	}
+
+	private BlastTabularReader(InputStream input, int batchSize, long startOffset) {
+		if (batchSize < 1) throw new IllegalArgumentException("Batch size must be at least 1");
+		this.input = input;
+		this.batchSize = batchSize;
+		this.startOffset = startOffset;
+	}
+
+	/**
+	 * Rows with an e-value greater than this are skipped.  All rows are kept by default.
+	 */
+	public void setMaxEScore(double maxEScore) {
+		this.maxEScore = maxEScore;
+	}
+
+	/**
+	 * Reads the next batch of rows.
+	 *
+	 * @return the next batch, which has at least one row, or null at the end of the report
+	 * @throws IOException if the report cannot be read
+	 * @throws ParseException if a line does not have 12 columns or a number is invalid
+	 */
+	public BlastTabularBatch next() throws IOException, ParseException {
+		BlastTabularBatch batch = new BlastTabularBatch(batchSize);
+		batch.data = buffer;
+		int lines = 0;
+		// id of the query of the last line read, kept or not
+		int lastIdOffset = -1, lastIdLength = 0;
+		int lineStart = position;
+		while (true) {
+			int lineEnd = indexOf((byte) '\n', lineStart, limit);
+			if (lineEnd < 0) {
+				if (batch.size == 0 && lineStart > 0) {
+					// nothing refers to the lines already parsed
+					System.arraycopy(buffer, lineStart, buffer, 0, limit - lineStart);
+					limit -= lineStart;
+					bufferOffset += lineStart;
+					lineStart = 0;
+					lastIdOffset = -1;
+				}
+				if (fill()) {
+					batch.data = buffer;
+					continue;
+				}
+				if (lineStart == limit) break;
+				// last line without a line break
+				lineEnd = limit;
+			}
+			int next = Math.min(lineEnd + 1, limit);
+			if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') lineEnd--;
+			if (lineEnd == lineStart || buffer[lineStart] == '#') {
+				lineStart = next;
+				continue;
+			}
+			int idLength = indexOf((byte) '\t', lineStart, lineEnd) - lineStart;
+			if (idLength < 0) throw parseException("Missing columns", lineStart);
+			if (lastIdOffset < 0 || !equalBytes(lastIdOffset, lastIdLength, lineStart, idLength)) {
+				if (batch.size > 0 && lines >= batchSize) {
+					// the next query starts the next batch
+					break;
+				}
+				lastIdOffset = lineStart;
+				lastIdLength = idLength;
+			}
+			parseLine(batch, lineStart, lineEnd, idLength);
+			lines++;
+			lineStart = next;
+		}
+		position = lineStart;
+		// the batch keeps the buffer, and the lines not parsed yet move to a new one
+		int remaining = limit - position;
+		byte[] rest = new byte[Math.max(4 * CHUNK_SIZE, remaining + CHUNK_SIZE)];
+		System.arraycopy(buffer, position, rest, 0, remaining);
+		bufferOffset += position;
+		buffer = rest;
+		position = 0;
+		limit = remaining;
+		return batch.size == 0 ? null : batch;
+	}
+
+	/**
+	 * Passes each batch to a consumer, in report order.
+	 */
+	public void read(Consumer<? super BlastTabularBatch> consumer) throws IOException, ParseException {
+		BlastTabularBatch batch;
+		while ((batch = next()) != null) {
+			consumer.accept(batch);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+	/**
+	 * Reads an uncompressed report in parallel, each thread reading parts of the file split at query boundaries.
+	 * The consumer is called from several threads at once, and batches are not passed in report order; the rows of a
+	 * query are still all in one batch.  A gzipped report is read by the calling thread only.
+	 *
+	 * @param threads number of threads: the calling thread and threads of the shared {@link ConcurrencyTools} pool
+	 * @param maxEScore rows with an e-value greater than this are skipped
+	 * @param consumer thread-safe consumer of the batches
+	 */
+	public static void read(File file, int threads, double maxEScore, Consumer<? super BlastTabularBatch> consumer)
+			throws IOException, ParseException {
+		if (threads < 1) throw new IllegalArgumentException("Number of threads must be at least 1");
+		if (threads == 1 || file.getName().endsWith(".gz")) {
+			try (BlastTabularReader reader = new BlastTabularReader(file)) {
+				reader.setMaxEScore(maxEScore);
+				reader.read(consumer);
+			}
+			return;
+		}
+		// more parts than threads, so that the threads finish together
+		final long[] boundaries = split(file, 4 * threads);
+		// the calling thread and threads - 1 helpers on the shared pool each take the next part until none are left;
+		// the calling thread also runs the helpers the pool has not started, so it never waits on a queue
+		final int parts = boundaries.length - 1;
+		final AtomicInteger next = new AtomicInteger();
+		Callable<Void> worker = () -> {
+			try {
+				for (int i = next.getAndIncrement(); i < parts; i = next.getAndIncrement()) {
+					try (BlastTabularReader reader = new BlastTabularReader(file, boundaries[i], boundaries[i + 1])) {
+						reader.setMaxEScore(maxEScore);
+						reader.read(consumer);
+					}
+				}
+			} catch (IOException | ParseException | RuntimeException | Error e) {
+				// the other workers stop after their current part
+				next.set(parts);
+				throw e;
+			}
+			return null;
+		};
+		List<FutureTask<Void>> workers = new ArrayList<FutureTask<Void>>();
+		for (int i = 0; i < Math.min(threads, parts); i++) {
+			FutureTask<Void> future = new FutureTask<Void>(worker);
+			if (i > 0) {
+				try {
+					ConcurrencyTools.getThreadPool().execute(future);
+				} catch (RejectedExecutionException e) {
+					// run below by the calling thread
+				}
+			}
+			workers.add(future);
+		}
+		Throwable failure = null;
+		try {
+			for (FutureTask<Void> future : workers) {
+				future.run();
+			}
+			for (FutureTask<Void> future : workers) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (failure == null) failure = e.getCause();
+				}
+			}
+		} catch (InterruptedException e) {
+			next.set(parts);
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading " + file, e);
+		}
+		if (failure instanceof IOException) throw (IOException) failure;
+		if (failure instanceof ParseException) throw (ParseException) failure;
+		if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+		if (failure instanceof Error) throw (Error) failure;
+		if (failure != null) throw new IOException(failure);
+	}
+
+	/**
+	 * Splits an uncompressed report into at most the given number of parts, at the start of lines where the query
+	 * changes, so that each part holds whole queries.  Parts are about the same size, unless a query is larger.
+	 *
+	 * @return the offsets of the parts, from 0 to the length of the file
+	 */
+	public static long[] split(File file, int parts) throws IOException {
+		if (parts < 1) throw new IllegalArgumentException("Number of parts must be at least 1");
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			long[] boundaries = new long[parts + 1];
+			int count = 1;
+			for (int i = 1; i < parts; i++) {
+				long boundary = nextQueryStart(channel, Math.max(length / parts * i, boundaries[count - 1]), length);
+				if (boundary > boundaries[count - 1] && boundary < length) boundaries[count++] = boundary;
+			}
+			boundaries[count++] = length;
+			return Arrays.copyOf(boundaries, count);
+		}
+	}
+
+	// offset of the first line after the one containing from whose query differs from the previous line
+	private static long nextQueryStart(FileChannel channel, long from, long length) throws IOException {
+		if (from == 0) return 0;
+		InputStream input = new BufferedInputStream(new RangeInputStream(channel, from, length), CHUNK_SIZE);
+		long offset = from;
+		int c;
+		// the rest of the line from which we start
+		while ((c = input.read()) >= 0) {
+			offset++;
+			if (c == '\n') break;
+		}
+		byte[] previous = null, id = new byte[256];
+		while (true) {
+			long lineStart = offset;
+			int idLength = 0;
+			boolean inId = true;
+			c = input.read();
+			if (c < 0) return length;
+			boolean comment = c == '#' || c == '\n' || c == '\r';
+			while (c >= 0 && c != '\n') {
+				offset++;
+				if (c == '\t') inId = false;
+				if (inId && !comment) {
+					if (idLength == id.length) id = Arrays.copyOf(id, 2 * idLength);
+					id[idLength++] = (byte) c;
+				}
+				c = input.read();
+			}
+			if (c == '\n') offset++;
+			if (comment) continue;
+			byte[] lineId = Arrays.copyOf(id, idLength);
+			if (previous != null && !Arrays.equals(previous, lineId)) return lineStart;
+			previous = lineId;
+		}
+	}
+
+	private void parseLine(BlastTabularBatch batch, int lineStart, int lineEnd, int idLength) throws ParseException {
+		int fields = 0;
+		int start = lineStart;
+		while (fields < FIELDS) {
+			fieldStart[fields++] = start;
+			int tab = indexOf((byte) '\t', start, lineEnd);
+			if (tab < 0) {
+				start = lineEnd + 1;
+				break;
+			}
+			start = tab + 1;
+		}
+		fieldStart[fields] = start;
+		if (fields < FIELDS) {
+			throw parseException("Expected " + FIELDS + " tab-separated columns, found " + fields, lineStart);
+		}
+		double evalue = parseDouble(10);
+		if (evalue > maxEScore) return;
+
+		if (!batch.isLastQuery(lineStart, idLength)) batch.addQuery(lineStart, idLength);
+		int row = batch.addRow();
+		batch.subjectIdOffset[row] = fieldStart[1];
+		batch.subjectIdLength[row] = fieldStart[2] - 1 - fieldStart[1];
+		batch.percentIdentity[row] = parseDouble(2);
+		batch.alignmentLength[row] = parseInt(3);
+		batch.mismatchCount[row] = parseInt(4);
+		batch.gapOpenCount[row] = parseInt(5);
+		batch.queryStart[row] = parseInt(6);
+		batch.queryEnd[row] = parseInt(7);
+		batch.subjectStart[row] = parseInt(8);
+		batch.subjectEnd[row] = parseInt(9);
+		batch.evalue[row] = evalue;
+		batch.bitScore[row] = parseDouble(11);
+	}
+
+	private int parseInt(int field) throws ParseException {
+		int start = fieldStart[field], end = fieldStart[field + 1] - 1;
+		while (start < end && buffer[start] == ' ') start++;
+		while (end > start && buffer[end - 1] == ' ') end--;
+		boolean negative = start < end && buffer[start] == '-';
+		int i = negative || (start < end && buffer[start] == '+') ? start + 1 : start;
+		if (i == end || end - i > 9) return (int) parseFallback(field, start, end);
+		int value = 0;
+		for (; i < end; i++) {
+			int digit = buffer[i] - '0';
+			if (digit < 0 || digit > 9) throw invalidNumber(field, start, end);
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	private double parseDouble(int field) throws ParseException {
+		int start = fieldStart[field], end = fieldStart[field + 1] - 1;
+		while (start < end && buffer[start] == ' ') start++;
+		while (end > start && buffer[end - 1] == ' ') end--;
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer[i] == '-' || buffer[i] == '+')) negative = buffer[i++] == '-';
+		long mantissa = 0;
+		int digits = 0, exponent = 0;
+		boolean any = false;
+		for (; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++, any = true) {
+			if (mantissa != 0 || buffer[i] != '0') digits++;
+			mantissa = mantissa * 10 + (buffer[i] - '0');
+		}
+		if (i < end && buffer[i] == '.') {
+			for (i++; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++, any = true) {
+				if (mantissa != 0 || buffer[i] != '0') digits++;
+				mantissa = mantissa * 10 + (buffer[i] - '0');
+				exponent--;
+			}
+		}
+		if (any && i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (buffer[i] == '-' || buffer[i] == '+')) negativeExponent = buffer[i++] == '-';
+			int e = 0;
+			int first = i;
+			for (; i < end && buffer[i] >= '0' && buffer[i] <= '9' && e < 10000; i++) e = e * 10 + (buffer[i] - '0');
+			if (i == first) any = false;
+			exponent += negativeExponent ? -e : e;
+		}
+		// a mantissa of up to 15 digits is exact as a double
+		if (!any || i != end || digits > 15 || exponent < -22 || exponent > 22) {
+			return parseFallback(field, start, end);
+		}
+		double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+		return negative ? -value : value;
+	}
+
+	// numbers out of the fast path, such as e-values below 1e-22
+	private double parseFallback(int field, int start, int end) throws ParseException {
+		try {
+			String text = new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+			return field == 2 || field >= 10 ? Double.parseDouble(text) : Integer.parseInt(text);
+		} catch (NumberFormatException e) {
+			throw invalidNumber(field, start, end);
+		}
+	}
+
+	private ParseException invalidNumber(int field, int start, int end) {
+		return parseException("Invalid number in column " + (field + 1) + ": "
+				+ new String(buffer, start, end - start, StandardCharsets.ISO_8859_1), start);
+	}
+
+	private ParseException parseException(String message, int bufferPosition) {
+		long offset = startOffset + bufferOffset + bufferPosition;
+		return new ParseException(message + " at byte " + offset, (int) Math.min(offset, Integer.MAX_VALUE));
+	}
+
+	private boolean fill() throws IOException {
+		if (eof) return false;
+		if (limit == buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+		int n = input.read(buffer, limit, buffer.length - limit);
+		if (n < 0) {
+			eof = true;
+			return false;
+		}
+		limit += n;
+		return true;
+	}
+
+	private boolean equalBytes(int offset1, int length1, int offset2, int length2) {
+		if (length1 != length2) return false;
+		for (int i = 0; i < length1; i++) {
+			if (buffer[offset1 + i] != buffer[offset2 + i]) return false;
+		}
+		return true;
+	}
+
+	private int indexOf(byte b, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (buffer[i] == b) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Bytes of a file from start to end, read with positional reads.
+	 */
+	private static class RangeInputStream extends InputStream {
+		private final FileChannel channel;
+		private long position;
+		private final long end;
+
+		RangeInputStream(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) return -1;
+			int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+			if (n > 0) position += n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,489 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.search.io.blast;
+
+import org.biojava.nbio.core.search.io.Hit;
+import org.biojava.nbio.core.search.io.Hsp;
+import org.biojava.nbio.core.search.io.Result;
+import org.biojava.nbio.core.sequence.io.util.IOUtils;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser of BLAST XML reports, which reads one query (one <code>Iteration</code>) at a time with StAX
+ * instead of loading the whole report into a DOM, so that its memory use is bounded by the largest query rather than
+ * by the report.  HSPs above the maximum e-value are skipped while parsing, without reading their alignments.
+ *
+ * Results are built as {@link BlastXMLParser#createObjects(double)} builds them: one per <code>Iteration</code> which
+ * has an <code>Iteration_hits</code> element, every hit kept even if all its HSPs are filtered out.  The DTD of the
+ * report is not loaded.
+ *
+ * <pre>
+ * try (BlastXMLStreamParser parser = new BlastXMLStreamParser(new File("blast.xml"))) {
+ *	parser.setMaxEScore(1e-10);
+ *	parser.parse(result -&gt; ...);
+ * }
+ * </pre>
+ *
+ * @since 5.1.2
+ */
+public class BlastXMLStreamParser implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(BlastXMLStreamParser.class);
+
+	private final InputStream input;
+	private final XMLStreamReader reader;
+	private double maxEScore = Double.POSITIVE_INFINITY;
+	private Map<String,Sequence> queryReferencesMap, databaseReferencesMap;
+
+	// BlastOutput_* header, read before the first iteration
+	private boolean headerRead;
+	private String program, version, reference, dbFile;
+
+	/**
+	 * Opens a BLAST XML report, which may be gzipped.
+	 *
+	 * @param file the report
+	 * @throws IOException if the file cannot be opened
+	 * @throws ParseException if the file is not XML
+	 */
+	public BlastXMLStreamParser(File file) throws IOException, ParseException {
+		this(IOUtils.openFile(file));
+	}
+
+	/**
+	 * Reads a BLAST XML report from a stream, which is closed by {@link #close()}.
+	 *
+	 * @param input the report
+	 * @throws ParseException if the stream is not XML
+	 */
+	public BlastXMLStreamParser(InputStream input) throws ParseException {
+		this.input = input;
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// BLAST reports refer to the NCBI DTD, which must not be fetched
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		try {
+			reader = factory.createXMLStreamReader(new BufferedInputStream(input, 1 << 16));
+		} catch (XMLStreamException e) {
+			throw parseException(e);
+		}
+	}
+
+	/**
+	 * HSPs with an e-value greater than this are skipped.  All HSPs are kept by default.
+	 */
+	public void setMaxEScore(double maxEScore) {
+		this.maxEScore = maxEScore;
+	}
+
+	/**
+	 * The sequences used as queries, in order, to be associated with the results by their query ID.
+	 *
+	 * @see BlastXMLParser#setQueryReferences(List)
+	 */
+	public void setQueryReferences(List<Sequence> sequences) {
+		if (sequences == null) {
+			queryReferencesMap = null;
+			return;
+		}
+		queryReferencesMap = new HashMap<String,Sequence>(sequences.size());
+		for (int counter=0; counter < sequences.size() ; counter ++){
+			queryReferencesMap.put("Query_"+(counter+1), sequences.get(counter));
+		}
+	}
+
+	/**
+	 * The sequences of the database, in order, to be associated with the hits by their hit ID.
+	 *
+	 * @see BlastXMLParser#setDatabaseReferences(List)
+	 */
+	public void setDatabaseReferences(List<Sequence> sequences) {
+		if (sequences == null) {
+			databaseReferencesMap = null;
+			return;
+		}
+		databaseReferencesMap = new HashMap<String,Sequence>(sequences.size());
+		for (int counter=0; counter < sequences.size() ; counter ++){
+			// while Query_id are 1 based, Hit (database) id are 0 based
+			databaseReferencesMap.put("gnl|BL_ORD_ID|"+(counter), sequences.get(counter));
+		}
+	}
+
+	/**
+	 * Passes each result to a consumer, in report order.
+	 *
+	 * @param consumer receives each result
+	 * @throws IOException if the report cannot be read
+	 * @throws ParseException if the report is not valid BLAST XML
+	 */
+	public void parse(Consumer<? super Result> consumer) throws IOException, ParseException {
+		Result result;
+		while ((result = next()) != null) {
+			consumer.accept(result);
+		}
+	}
+
+	/**
+	 * Returns an iterator over the results.  Errors while reading are thrown as {@link UncheckedIOException}, and
+	 * parse errors as IllegalStateException.
+	 */
+	public Iterator<Result> iterator() {
+		return new Iterator<Result>() {
+			private Result next;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = BlastXMLStreamParser.this.next();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					} catch (ParseException e) {
+						throw new IllegalStateException(e.getMessage(), e);
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public Result next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Result result = next;
+				next = null;
+				return result;
+			}
+		};
+	}
+
+	/**
+	 * Parses the next query of the report.
+	 *
+	 * @return the result of the next query which has hits, or null at the end of the report
+	 * @throws IOException if the report cannot be read
+	 * @throws ParseException if the report is not valid BLAST XML
+	 */
+	public Result next() throws IOException, ParseException {
+		try {
+			if (!headerRead) {
+				readHeader();
+			}
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("Iteration")) {
+					Result result = readIteration();
+					if (result != null) {
+						return result;
+					}
+				}
+			}
+			return null;
+		} catch (XMLStreamException e) {
+			if (e.getNestedException() instanceof IOException) {
+				throw (IOException) e.getNestedException();
+			}
+			throw parseException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			reader.close();
+		} catch (XMLStreamException e) {
+			logger.debug("Could not close XML reader", e);
+		}
+		input.close();
+	}
+
+	private void readHeader() throws XMLStreamException {
+		headerRead = true;
+		while (reader.hasNext()) {
+			if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			switch (reader.getLocalName()) {
+			case "BlastOutput":
+				break;
+			case "BlastOutput_program":
+				program = reader.getElementText();
+				break;
+			case "BlastOutput_version":
+				version = reader.getElementText();
+				break;
+			case "BlastOutput_reference":
+				reference = reader.getElementText();
+				break;
+			case "BlastOutput_db":
+				dbFile = reader.getElementText();
+				break;
+			case "BlastOutput_iterations":
+				return;
+			default:
+				skipElement();
+			}
+		}
+	}
+
+	// the result of the Iteration element just started, or null if it has no Iteration_hits
+	private Result readIteration() throws XMLStreamException, ParseException {
+		BlastResultBuilder resultBuilder = new BlastResultBuilder();
+		// will add BlastOutput* key sections in the result object
+		resultBuilder
+			.setProgram(program)
+			.setVersion(version)
+			.setReference(reference)
+			.setDbFile(dbFile);
+		List<Hit> hits = null;
+		while (nextChild()) {
+			switch (reader.getLocalName()) {
+			case "Iteration_iter-num":
+				resultBuilder.setIterationNumber(parseInt("Iteration_iter-num"));
+				break;
+			case "Iteration_query-ID":
+				String queryId = reader.getElementText();
+				resultBuilder.setQueryID(queryId);
+				if (queryReferencesMap != null) resultBuilder.setQuerySequence(queryReferencesMap.get(queryId));
+				break;
+			case "Iteration_query-def":
+				resultBuilder.setQueryDef(reader.getElementText());
+				break;
+			case "Iteration_query-len":
+				resultBuilder.setQueryLength(parseInt("Iteration_query-len"));
+				break;
+			case "Iteration_hits":
+				hits = new ArrayList<Hit>();
+				while (nextChild()) {
+					if (reader.getLocalName().equals("Hit")) {
+						hits.add(readHit());
+					} else {
+						skipElement();
+					}
+				}
+				break;
+			default:
+				skipElement();
+			}
+		}
+		if (hits == null) {
+			return null;
+		}
+		resultBuilder.setHits(hits);
+		return resultBuilder.createBlastResult();
+	}
+
+	private Hit readHit() throws XMLStreamException, ParseException {
+		BlastHitBuilder blastHitBuilder = new BlastHitBuilder();
+		List<Hsp> hsps = new ArrayList<Hsp>();
+		while (nextChild()) {
+			switch (reader.getLocalName()) {
+			case "Hit_num":
+				blastHitBuilder.setHitNum(parseInt("Hit_num"));
+				break;
+			case "Hit_id":
+				String hitId = reader.getElementText();
+				blastHitBuilder.setHitId(hitId);
+				if (databaseReferencesMap != null) blastHitBuilder.setHitSequence(databaseReferencesMap.get(hitId));
+				break;
+			case "Hit_def":
+				blastHitBuilder.setHitDef(reader.getElementText());
+				break;
+			case "Hit_accession":
+				blastHitBuilder.setHitAccession(reader.getElementText());
+				break;
+			case "Hit_len":
+				blastHitBuilder.setHitLen(parseInt("Hit_len"));
+				break;
+			case "Hit_hsps":
+				while (nextChild()) {
+					if (reader.getLocalName().equals("Hsp")) {
+						Hsp hsp = readHsp();
+						if (hsp != null) {
+							hsps.add(hsp);
+						}
+					} else {
+						skipElement();
+					}
+				}
+				break;
+			default:
+				skipElement();
+			}
+		}
+		blastHitBuilder.setHsps(hsps);
+		return blastHitBuilder.createBlastHit();
+	}
+
+	// the Hsp element just started, or null if its e-value is above the maximum
+	private Hsp readHsp() throws XMLStreamException, ParseException {
+		BlastHspBuilder blastHspBuilder = new BlastHspBuilder();
+		boolean hasEvalue = false;
+		while (nextChild()) {
+			switch (reader.getLocalName()) {
+			case "Hsp_num":
+				blastHspBuilder.setHspNum(parseInt("Hsp_num"));
+				break;
+			case "Hsp_bit-score":
+				blastHspBuilder.setHspBitScore(parseDouble("Hsp_bit-score"));
+				break;
+			case "Hsp_score":
+				blastHspBuilder.setHspScore(parseInt("Hsp_score"));
+				break;
+			case "Hsp_evalue":
+				double evalue = parseDouble("Hsp_evalue");
+				if (!(evalue <= maxEScore)) {
+					// the rest of the HSP, alignments included, is not needed
+					while (nextChild()) {
+						skipElement();
+					}
+					return null;
+				}
+				blastHspBuilder.setHspEvalue(evalue);
+				hasEvalue = true;
+				break;
+			case "Hsp_query-from":
+				blastHspBuilder.setHspQueryFrom(parseInt("Hsp_query-from"));
+				break;
+			case "Hsp_query-to":
+				blastHspBuilder.setHspQueryTo(parseInt("Hsp_query-to"));
+				break;
+			case "Hsp_hit-from":
+				blastHspBuilder.setHspHitFrom(parseInt("Hsp_hit-from"));
+				break;
+			case "Hsp_hit-to":
+				blastHspBuilder.setHspHitTo(parseInt("Hsp_hit-to"));
+				break;
+			case "Hsp_query-frame":
+				blastHspBuilder.setHspQueryFrame(parseInt("Hsp_query-frame"));
+				break;
+			case "Hsp_hit-frame":
+				blastHspBuilder.setHspHitFrame(parseInt("Hsp_hit-frame"));
+				break;
+			case "Hsp_identity":
+				blastHspBuilder.setHspIdentity(parseInt("Hsp_identity"));
+				break;
+			case "Hsp_positive":
+				blastHspBuilder.setHspPositive(parseInt("Hsp_positive"));
+				break;
+			case "Hsp_gaps":
+				blastHspBuilder.setHspGaps(parseInt("Hsp_gaps"));
+				break;
+			case "Hsp_align-len":
+				blastHspBuilder.setHspAlignLen(parseInt("Hsp_align-len"));
+				break;
+			case "Hsp_qseq":
+				blastHspBuilder.setHspQseq(reader.getElementText());
+				break;
+			case "Hsp_hseq":
+				blastHspBuilder.setHspHseq(reader.getElementText());
+				break;
+			case "Hsp_midline":
+				blastHspBuilder.setHspIdentityString(reader.getElementText());
+				break;
+			default:
+				skipElement();
+			}
+		}
+		if (!hasEvalue) {
+			throw new ParseException("Hsp without Hsp_evalue", offset());
+		}
+		return blastHspBuilder.createBlastHsp();
+	}
+
+	// moves to the next child element of the current element, or to its end, and returns true for a child
+	private boolean nextChild() throws XMLStreamException {
+		while (true) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			}
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+	}
+
+	// moves to the end of the element just started
+	private void skipElement() throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	private int parseInt(String element) throws XMLStreamException, ParseException {
+		String text = reader.getElementText().trim();
+		try {
+			return Integer.parseInt(text);
+		} catch (NumberFormatException e) {
+			throw new ParseException("Invalid " + element + ": " + text, offset());
+		}
+	}
+
+	private double parseDouble(String element) throws XMLStreamException, ParseException {
+		String text = reader.getElementText().trim();
+		try {
+			return Double.parseDouble(text);
+		} catch (NumberFormatException e) {
+			throw new ParseException("Invalid " + element + ": " + text, offset());
+		}
+	}
+
+	private int offset() {
+		Location location = reader.getLocation();
+		return location == null ? 0 : Math.max(0, location.getCharacterOffset());
+	}
+
+	private static ParseException parseException(XMLStreamException e) {
+		Location location = e.getLocation();
+		ParseException exception = new ParseException(e.getMessage(),
+				location == null ? 0 : Math.max(0, location.getCharacterOffset()));
+		exception.initCause(e);
+		return exception;
+	}
+}
@@ -26,6 +26,9 @@ import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.loader.StringProxySequenceReader;
+import org.biojava.nbio.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
+import org.biojava.nbio.core.sequence.storage.PackedDNASequenceReader;
 import org.biojava.nbio.core.sequence.template.*;
 import org.biojava.nbio.core.sequence.transcription.Frame;
 import org.biojava.nbio.core.sequence.transcription.TranscriptionEngine;
@@ -63,7 +66,7 @@ public class DNASequence extends AbstractSequence<NucleotideCompound> {
 	 * @throws CompoundNotFoundException
 	 */
 	public DNASequence(String seqString) throws CompoundNotFoundException {
-		super(seqString, DNACompoundSet.getDNACompoundSet());
+		this(seqString, DNACompoundSet.getDNACompoundSet());
 	}
 
 	/**
@@ -81,7 +84,21 @@ public class DNASequence extends AbstractSequence<NucleotideCompound> {
 	 * @throws CompoundNotFoundException
 	 */
 	public DNASequence(String seqString, CompoundSet<NucleotideCompound> compoundSet) throws CompoundNotFoundException {
-		super(seqString, compoundSet);
+		this(seqString, compoundSet, SequenceOptimizationHints.getSequenceStorage());
+	}
+
+	/**
+	 * Create a sequence from a string with user defined compound set, held in the given storage. Compound sets
+	 * which cannot be packed are always held as a list of compounds.
+	 * @param seqString
+	 * @param compoundSet
+	 * @param storage
+	 * @throws CompoundNotFoundException
+	 * @see SequenceOptimizationHints#setSequenceStorage(SequenceOptimizationHints.SequenceStorage)
+	 */
+	public DNASequence(String seqString, CompoundSet<NucleotideCompound> compoundSet,
+			SequenceOptimizationHints.SequenceStorage storage) throws CompoundNotFoundException {
+		super(createStorage(seqString, compoundSet, storage), compoundSet);
 	}
 
 	/**
@@ -129,6 +146,12 @@ public class DNASequence extends AbstractSequence<NucleotideCompound> {
 	 * @return GC count
 	 */
 	public int getGCCount() {
+		PackedDNASequenceReader<NucleotideCompound> packed = getPackedStorage();
+		if (packed != null) {
+			CompoundSet<NucleotideCompound> cs = getCompoundSet();
+			return packed.countCompounds(cs.getCompoundForString("G"), cs.getCompoundForString("C"),
+					cs.getCompoundForString("g"), cs.getCompoundForString("c"));
+		}
 		return SequenceMixin.countGC(this);
 	}
 
@@ -150,9 +173,44 @@ public class DNASequence extends AbstractSequence<NucleotideCompound> {
 	 * Delegates to {@link #getInverse() } for the reverse complement
 	 */
 	public SequenceView<NucleotideCompound> getReverseComplement() {
+		PackedDNASequenceReader<NucleotideCompound> packed = getPackedStorage();
+		if (packed != null) {
+			// complemented a word at a time into new packed storage
+			PackedDNASequenceReader<NucleotideCompound> reverseComplement = packed.getReverseComplement();
+			return new PackedDNASequenceReader.PackedSequenceView<NucleotideCompound>(
+					new DNASequence(reverseComplement, getCompoundSet()), reverseComplement, 1, 1, getLength());
+		}
 		return getInverse();
 	}
 
+	@Override
+	public String getSequenceAsString() {
+		PackedDNASequenceReader<NucleotideCompound> packed = getPackedStorage();
+		if (packed != null) {
+			return packed.getSequenceAsString();
+		}
+		return super.getSequenceAsString();
+	}
+
+	@Override
+	public int countCompounds(NucleotideCompound... compounds) {
+		PackedDNASequenceReader<NucleotideCompound> packed = getPackedStorage();
+		if (packed != null) {
+			return packed.countCompounds(compounds);
+		}
+		return super.countCompounds(compounds);
+	}
+
+	@Override
+	public SequenceView<NucleotideCompound> getSubSequence(Integer bioStart, Integer bioEnd) {
+		PackedDNASequenceReader<NucleotideCompound> packed = getPackedStorage();
+		if (packed != null) {
+			return new PackedDNASequenceReader.PackedSequenceView<NucleotideCompound>(this, packed, bioStart, bioStart,
+					bioEnd);
+		}
+		return super.getSubSequence(bioStart, bioEnd);
+	}
+
 	/**
 	 * @return the dnaType
 	 */
@@ -167,6 +225,30 @@ public class DNASequence extends AbstractSequence<NucleotideCompound> {
 		this.dnaType = dnaType;
 	}
 
+	@SuppressWarnings("unchecked")
+	private PackedDNASequenceReader<NucleotideCompound> getPackedStorage() {
+		SequenceReader<NucleotideCompound> storage = getProxySequenceReader();
+		if (storage instanceof PackedDNASequenceReader) {
+			return (PackedDNASequenceReader<NucleotideCompound>) storage;
+		}
+		return null;
+	}
+
+	private static SequenceReader<NucleotideCompound> createStorage(String seqString,
+			CompoundSet<NucleotideCompound> compoundSet, SequenceOptimizationHints.SequenceStorage storage)
+			throws CompoundNotFoundException {
+		if (storage == SequenceOptimizationHints.SequenceStorage.PACKED && PackedDNASequenceReader.isSupported(compoundSet)) {
+			return new PackedDNASequenceReader<NucleotideCompound>(seqString, compoundSet);
+		}
+		if (storage == SequenceOptimizationHints.SequenceStorage.BYTE_ARRAY) {
+			return new ByteArraySequenceReader<NucleotideCompound>(seqString, compoundSet);
+		}
+		SequenceReader<NucleotideCompound> list = new ArrayListSequenceReader<NucleotideCompound>();
+		list.setCompoundSet(compoundSet);
+		list.setContents(seqString);
+		return list;
+	}
+
 	public static void main(String[] args) throws Exception {
 		DNASequence dnaSequence = new DNASequence("ATCG");
 		logger.info("DNA Sequence: {}", dnaSequence.toString());
@@ -0,0 +1,352 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence;
+
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.ByteCodedSequence;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.core.sequence.template.SequenceMixin;
+import org.biojava.nbio.core.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+/**
+ * Counts the overlapping k-mers of nucleotide sequences without creating an object per k-mer, unlike
+ * {@link SequenceMixin#overlappingKmers(Sequence, int)}.  Each k-mer of up to {@link #MAX_K} bases is encoded in a long,
+ * 2 bits per base with A=0, C=1, G=2 and T or U=3, the first base in the highest bits, so that k-mers sort as their
+ * strings do.  The code is updated as a rolling hash while the window moves along the sequence, and counted in a
+ * {@link LongIntHashMap}.  Bases other than A, C, G, T and U, in either case, start a new window.
+ *
+ * When counting canonical k-mers, each k-mer and its reverse complement are counted together under the smaller of
+ * their two codes, which suits reads sequenced from either strand.
+ *
+ * A counter is not thread-safe.  To count on several threads give each thread its own counter and {@link #merge} them,
+ * which {@link #collector(int, boolean)} does for a parallel stream:
+ * <pre>
+ * KmerCounter counter = FastaReaderHelper.streamFastaDNASequence(file).parallel()
+ *		.collect(KmerCounter.collector(21, true));
+ * </pre>
+ *
+ * @since 5.1.2
+ */
+public class KmerCounter {
+
+	/**
+	 * The longest k-mer which fits in a long.
+	 */
+	public static final int MAX_K = 32;
+
+	/**
+	 * Receives the k-mers of a sequence.
+	 */
+	public interface KmerConsumer {
+		/**
+		 * @param position biological index (1 to n) of the first base of the k-mer
+		 * @param kmer code of the k-mer
+		 */
+		void accept(int position, long kmer);
+	}
+
+	private static final String BASES = "ACGT";
+	private static final byte[] BASE_CODES = new byte[128];
+
+	static {
+		Arrays.fill(BASE_CODES, (byte) -1);
+		for (int i = 0; i < BASES.length(); i++) {
+			BASE_CODES[BASES.charAt(i)] = (byte) i;
+			BASE_CODES[Character.toLowerCase(BASES.charAt(i))] = (byte) i;
+		}
+		BASE_CODES['U'] = 3;
+		BASE_CODES['u'] = 3;
+	}
+
+	private final int k;
+	private final boolean canonical;
+	private final LongIntHashMap counts = new LongIntHashMap();
+	private long totalCount;
+
+	/**
+	 * Creates an empty counter.
+	 *
+	 * @param k number of bases of each k-mer, from 1 to {@link #MAX_K}
+	 * @param canonical true to count each k-mer together with its reverse complement
+	 */
+	public KmerCounter(int k, boolean canonical) {
+		checkK(k);
+		this.k = k;
+		this.canonical = canonical;
+	}
+
+	public int getK() {
+		return k;
+	}
+
+	public boolean isCanonical() {
+		return canonical;
+	}
+
+	/**
+	 * Counts the k-mers of a string of bases.
+	 *
+	 * @param bases the bases to count
+	 */
+	public void count(CharSequence bases) {
+		forEachKmer(bases, k, canonical, this::add);
+	}
+
+	/**
+	 * Counts the k-mers of a sequence.  The codes of a {@link ByteCodedSequence} are scanned directly, any other
+	 * sequence is scanned as a String.
+	 *
+	 * @param sequence the sequence to count
+	 */
+	public void count(Sequence<NucleotideCompound> sequence) {
+		forEachKmer(sequence, k, canonical, this::add);
+	}
+
+	/**
+	 * Adds the counts of another counter to this counter.
+	 *
+	 * @param other a counter with the same k and canonical setting
+	 */
+	public void merge(KmerCounter other) {
+		if (other.k != k || other.canonical != canonical) {
+			throw new IllegalArgumentException("Cannot merge " + other.k + "-mer counts into " + k + "-mer counts"
+					+ (other.canonical != canonical ? " with a different canonical setting" : ""));
+		}
+		counts.addAll(other.counts);
+		totalCount += other.totalCount;
+	}
+
+	/**
+	 * Returns the number of times a k-mer has been counted.
+	 *
+	 * @param kmer code of the k-mer
+	 */
+	public int getCount(long kmer) {
+		return counts.get(canonical ? canonical(kmer, k) : kmer);
+	}
+
+	/**
+	 * Returns the number of times a k-mer has been counted.
+	 *
+	 * @param kmer the bases of the k-mer
+	 * @throws IllegalArgumentException if the k-mer is not k bases of A, C, G, T or U
+	 */
+	public int getCount(CharSequence kmer) {
+		if (kmer.length() != k) {
+			throw new IllegalArgumentException("Expected " + k + " bases, not " + kmer);
+		}
+		return getCount(encode(kmer));
+	}
+
+	/**
+	 * Returns the number of different k-mers counted.
+	 */
+	public int getDistinctCount() {
+		return counts.size();
+	}
+
+	/**
+	 * Returns the number of k-mers counted, including repeats.
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Returns the counts by k-mer code.  The map is backed by this counter.
+	 */
+	public LongIntHashMap getCounts() {
+		return counts;
+	}
+
+	/**
+	 * Returns a collector which counts the k-mers of a stream of sequences, with one counter per thread when the
+	 * stream is parallel.
+	 *
+	 * @param k number of bases of each k-mer, from 1 to {@link #MAX_K}
+	 * @param canonical true to count each k-mer together with its reverse complement
+	 */
+	public static <S extends Sequence<NucleotideCompound>> Collector<S, KmerCounter, KmerCounter> collector(final int k,
+			final boolean canonical) {
+		checkK(k);
+		return Collector.of(() -> new KmerCounter(k, canonical),
+				(counter, sequence) -> counter.count(sequence),
+				(left, right) -> {
+					left.merge(right);
+					return left;
+				},
+				Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/**
+	 * Passes each k-mer of a string of bases to a consumer, in order.
+	 *
+	 * @param bases the bases to scan
+	 * @param k number of bases of each k-mer, from 1 to {@link #MAX_K}
+	 * @param canonical true to pass the smaller of each k-mer and its reverse complement
+	 * @param consumer receives the k-mers
+	 */
+	public static void forEachKmer(CharSequence bases, int k, boolean canonical, KmerConsumer consumer) {
+		checkK(k);
+		Window window = new Window(k, canonical, consumer);
+		for (int i = 0; i < bases.length(); i++) {
+			char c = bases.charAt(i);
+			window.add(c < 128 ? BASE_CODES[c] : -1);
+		}
+	}
+
+	/**
+	 * Passes each k-mer of a sequence to a consumer, in order.
+	 *
+	 * @param sequence the sequence to scan
+	 * @param k number of bases of each k-mer, from 1 to {@link #MAX_K}
+	 * @param canonical true to pass the smaller of each k-mer and its reverse complement
+	 * @param consumer receives the k-mers
+	 */
+	public static void forEachKmer(Sequence<NucleotideCompound> sequence, int k, boolean canonical,
+			KmerConsumer consumer) {
+		ByteCodedSequence<NucleotideCompound> coded = SequenceMixin.asByteCoded(sequence);
+		if (coded == null) {
+			forEachKmer(sequence.getSequenceAsString(), k, canonical, consumer);
+			return;
+		}
+		checkK(k);
+		byte[] baseCodes = new byte[coded.getCodeCount()];
+		for (int code = 0; code < baseCodes.length; code++) {
+			String base = coded.getCompoundForCode(code).toString();
+			char c = base.length() == 1 ? base.charAt(0) : 0;
+			baseCodes[code] = c < 128 ? BASE_CODES[c] : -1;
+		}
+		Window window = new Window(k, canonical, consumer);
+		coded.forEachCode(code -> window.add(baseCodes[code]));
+	}
+
+	/**
+	 * Encodes the bases of a k-mer.
+	 *
+	 * @param kmer up to {@link #MAX_K} bases of A, C, G, T or U
+	 * @return code of the k-mer
+	 */
+	public static long encode(CharSequence kmer) {
+		checkK(kmer.length());
+		long code = 0;
+		for (int i = 0; i < kmer.length(); i++) {
+			char c = kmer.charAt(i);
+			int base = c < 128 ? BASE_CODES[c] : -1;
+			if (base < 0) {
+				throw new IllegalArgumentException("Cannot encode " + c + " in " + kmer);
+			}
+			code = (code << 2) | base;
+		}
+		return code;
+	}
+
+	/**
+	 * Decodes the bases of a k-mer, in upper case with T for 3.
+	 *
+	 * @param kmer code of the k-mer
+	 * @param k number of bases of the k-mer
+	 */
+	public static String decode(long kmer, int k) {
+		checkK(k);
+		char[] bases = new char[k];
+		for (int i = k - 1; i >= 0; i--) {
+			bases[i] = BASES.charAt((int) (kmer & 3));
+			kmer >>>= 2;
+		}
+		return new String(bases);
+	}
+
+	/**
+	 * Returns the code of the reverse complement of a k-mer.
+	 *
+	 * @param kmer code of the k-mer
+	 * @param k number of bases of the k-mer
+	 */
+	public static long reverseComplement(long kmer, int k) {
+		checkK(k);
+		// reverse the order of the 2 bit bases, complement them, and move them to the low bits
+		long reversed = Long.reverse(kmer);
+		reversed = ((reversed >>> 1) & 0x5555555555555555L) | ((reversed & 0x5555555555555555L) << 1);
+		return ~reversed >>> (64 - 2 * k);
+	}
+
+	/**
+	 * Returns the smaller of the codes of a k-mer and of its reverse complement.
+	 *
+	 * @param kmer code of the k-mer
+	 * @param k number of bases of the k-mer
+	 */
+	public static long canonical(long kmer, int k) {
+		long reverse = reverseComplement(kmer, k);
+		return Long.compareUnsigned(reverse, kmer) < 0 ? reverse : kmer;
+	}
+
+	private void add(int position, long kmer) {
+		counts.addTo(kmer, 1);
+		totalCount++;
+	}
+
+	private static void checkK(int k) {
+		if (k < 1 || k > MAX_K) {
+			throw new IllegalArgumentException("k must be between 1 and " + MAX_K + ": " + k);
+		}
+	}
+
+	// the codes of the k-mer ending at the last base added, on both strands
+	private static final class Window {
+
+		private final int k;
+		private final boolean canonical;
+		private final KmerConsumer consumer;
+		private final long mask;
+		private final int shift;
+		private long forward, reverse;
+		private int filled, position;
+
+		private Window(int k, boolean canonical, KmerConsumer consumer) {
+			this.k = k;
+			this.canonical = canonical;
+			this.consumer = consumer;
+			this.mask = k == MAX_K ? -1L : (1L << (2 * k)) - 1;
+			this.shift = 2 * (k - 1);
+		}
+
+		private void add(int base) {
+			position++;
+			if (base < 0) {
+				filled = 0;
+				return;
+			}
+			forward = ((forward << 2) | base) & mask;
+			reverse = (reverse >>> 2) | ((long) (3 - base) << shift);
+			if (++filled >= k) {
+				long kmer = canonical && Long.compareUnsigned(reverse, forward) < 0 ? reverse : forward;
+				consumer.accept(position - k + 1, kmer);
+			}
+		}
+
+	}
+
+}
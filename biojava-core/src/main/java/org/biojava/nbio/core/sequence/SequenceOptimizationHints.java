@@ -66,6 +66,20 @@ public class SequenceOptimizationHints {
 		sequenceCollection = aSequenceColection;
 	}
 
+	/**
+	 * @return the storage used for DNA sequences created from a String
+	 */
+	public static SequenceStorage getSequenceStorage() {
+		return sequenceStorage;
+	}
+
+	/**
+	 * @param aSequenceStorage the storage to use for DNA sequences created from a String
+	 */
+	public static void setSequenceStorage(SequenceStorage aSequenceStorage) {
+		sequenceStorage = aSequenceStorage;
+	}
+
 	public enum SequenceUsage {
 
 		FULL_SEQUENCE_DATA, SUB_SEQUENCE_DATA, MINIMAL_SEQUENCE_DATA;
@@ -76,8 +90,19 @@ public class SequenceOptimizationHints {
 		ALL_SEQUENCES, VARIABLE_SEQUENCES, MINIMINAL_SEQUENCES;
 	}
 
+	/**
+	 * How the compounds of a DNA sequence are held in memory.  COMPOUND_LIST keeps a reference per compound,
+	 * BYTE_ARRAY keeps a byte per compound in a {@link org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader},
+	 * PACKED keeps 2 bits per base in a {@link org.biojava.nbio.core.sequence.storage.PackedDNASequenceReader}.
+	 */
+	public enum SequenceStorage {
+
+		COMPOUND_LIST, BYTE_ARRAY, PACKED;
+	}
+
 	static private SequenceUsage sequenceUsage = SequenceUsage.FULL_SEQUENCE_DATA;
 	static private SequenceCollection sequenceCollection = SequenceCollection.ALL_SEQUENCES;
+	static private SequenceStorage sequenceStorage = SequenceStorage.COMPOUND_LIST;
 
 
 
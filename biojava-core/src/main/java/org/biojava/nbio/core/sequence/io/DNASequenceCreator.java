@@ -24,6 +24,8 @@ package org.biojava.nbio.core.sequence.io;
 
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.SequenceOptimizationHints;
+import org.biojava.nbio.core.sequence.SequenceOptimizationHints.SequenceStorage;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.loader.ArrayListProxySequenceReader;
@@ -43,13 +45,25 @@ public class DNASequenceCreator implements
 		SequenceCreatorInterface<NucleotideCompound> {
 
 	private final CompoundSet<NucleotideCompound> compoundSet;
+	private final SequenceStorage storage;
 
 	/**
-	 *
+	 * Sequences are held in the storage given by {@link SequenceOptimizationHints#getSequenceStorage()}.
 	 * @param compoundSet
 	 */
 	public DNASequenceCreator(CompoundSet<NucleotideCompound> compoundSet) {
+		this(compoundSet, null);
+	}
+
+	/**
+	 * Sequences are held in the given storage, e.g. {@link SequenceStorage#PACKED} to read a genome with 2 bits
+	 * per base.
+	 * @param compoundSet
+	 * @param storage
+	 */
+	public DNASequenceCreator(CompoundSet<NucleotideCompound> compoundSet, SequenceStorage storage) {
 		this.compoundSet = compoundSet;
+		this.storage = storage;
 	}
 
 /**
@@ -61,7 +75,8 @@ public class DNASequenceCreator implements
 	@Override
 public AbstractSequence<NucleotideCompound> getSequence(String sequence,
 			long index) throws CompoundNotFoundException {
-		return new DNASequence(sequence, compoundSet);
+		return new DNASequence(sequence, compoundSet,
+				storage == null ? SequenceOptimizationHints.getSequenceStorage() : storage);
 	}
 /**
  *
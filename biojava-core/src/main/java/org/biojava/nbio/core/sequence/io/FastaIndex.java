@@ -0,0 +1,370 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of a FASTA file in the samtools faidx (.fai) format.  Each line of an index holds five tab separated columns:
+ * the sequence name (the header up to the first white space), the number of bases, the file offset of the first base,
+ * the number of bases on each line and the number of bytes on each line including the line terminator.  With these
+ * values the file offset of any base is known without reading the file, see {@link Entry#getOffset(long)}.
+ *
+ * As with samtools, every line of a sequence but the last must have the same length.
+ *
+ * @see IndexedFastaReader
+ */
+public class FastaIndex {
+
+	private final static Logger logger = LoggerFactory.getLogger(FastaIndex.class);
+
+	/**
+	 * Location of one sequence in a FASTA file.
+	 */
+	public static class Entry {
+
+		private final String name;
+		private final long length, offset;
+		private final int lineBases, lineBytes;
+
+		/**
+		 * Creates an index entry.
+		 *
+		 * @param name name of the sequence
+		 * @param length number of bases in the sequence
+		 * @param offset file offset of the first base
+		 * @param lineBases number of bases on each full line
+		 * @param lineBytes number of bytes on each full line, including the line terminator
+		 */
+		public Entry(String name, long length, long offset, int lineBases, int lineBytes) {
+			this.name = name;
+			this.length = length;
+			this.offset = offset;
+			this.lineBases = lineBases;
+			this.lineBytes = lineBytes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public int getLineBases() {
+			return lineBases;
+		}
+
+		public int getLineBytes() {
+			return lineBytes;
+		}
+
+		/**
+		 * Returns the file offset of a base.
+		 *
+		 * @param index zero based index of the base in the sequence
+		 * @return offset of the base from the start of the file
+		 */
+		public long getOffset(long index) {
+			return offset + (index / lineBases) * lineBytes + index % lineBases;
+		}
+
+		@Override
+		public String toString() {
+			return name + '\t' + length + '\t' + offset + '\t' + lineBases + '\t' + lineBytes;
+		}
+
+	}
+
+	private final Map<String, Entry> entries;
+
+	/**
+	 * Creates an index from its entries, kept in the given order.
+	 *
+	 * @param entries the entries of the index
+	 */
+	public FastaIndex(List<Entry> entries) {
+		this.entries = new LinkedHashMap<String, Entry>();
+		for (Entry entry : entries) {
+			if (this.entries.containsKey(entry.getName())) {
+				logger.warn("Duplicate sequence name {}, only the first sequence is indexed", entry.getName());
+			} else {
+				this.entries.put(entry.getName(), entry);
+			}
+		}
+	}
+
+	/**
+	 * Returns the default index file of a FASTA file, which is the FASTA file name followed by ".fai".
+	 *
+	 * @param fasta the FASTA file
+	 * @return the index file
+	 */
+	public static File getIndexFile(File fasta) {
+		return new File(fasta.getPath() + ".fai");
+	}
+
+	/**
+	 * Returns the entry of a sequence.
+	 *
+	 * @param name name of the sequence
+	 * @return the entry, or null if the name is not indexed
+	 */
+	public Entry getEntry(String name) {
+		return entries.get(name);
+	}
+
+	/**
+	 * Returns all entries in file order.
+	 *
+	 * @return the entries of the index
+	 */
+	public List<Entry> getEntries() {
+		return Collections.unmodifiableList(new ArrayList<Entry>(entries.values()));
+	}
+
+	/**
+	 * Returns the sequence names in file order.
+	 *
+	 * @return the sequence names
+	 */
+	public List<String> getNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(entries.keySet()));
+	}
+
+	/**
+	 * Returns the number of indexed sequences.
+	 *
+	 * @return the number of sequences
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Writes the index in the .fai format.
+	 *
+	 * @param file the index file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(File file) throws IOException {
+		Writer writer = new BufferedWriter(new FileWriter(file));
+		try {
+			for (Entry entry : entries.values()) {
+				writer.write(entry.toString());
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Reads an index in the .fai format.
+	 *
+	 * @param file the index file to read
+	 * @return the index
+	 * @throws IOException if the file cannot be read or is not a valid index
+	 */
+	public static FastaIndex read(File file) throws IOException {
+		List<Entry> list = new ArrayList<Entry>();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				String[] columns = line.split("\t");
+				if (columns.length < 5) {
+					throw new IOException("Expected 5 columns in " + file + ", but found: " + line);
+				}
+				try {
+					list.add(new Entry(columns[0], Long.parseLong(columns[1]), Long.parseLong(columns[2]),
+							Integer.parseInt(columns[3]), Integer.parseInt(columns[4])));
+				} catch (NumberFormatException e) {
+					throw new IOException("Invalid line in " + file + ": " + line, e);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return new FastaIndex(list);
+	}
+
+	/**
+	 * Builds the index of a FASTA file in one sequential pass.  The index is not written to disk; call
+	 * {@link #write(File)} with {@link #getIndexFile(File)} to store it next to the FASTA file.
+	 *
+	 * @param fasta the FASTA file to index
+	 * @return the index
+	 * @throws IOException if the file cannot be read, or if a sequence has lines of different lengths
+	 */
+	public static FastaIndex build(File fasta) throws IOException {
+		InputStream in = new FileInputStream(fasta);
+		try {
+			return build(in, fasta.getPath());
+		} finally {
+			in.close();
+		}
+	}
+
+	// scans the bytes of the file with a state machine instead of decoding lines to strings
+	private static FastaIndex build(InputStream in, String source) throws IOException {
+		Builder builder = new Builder(source);
+		byte[] buffer = new byte[1 << 16];
+		long position = 0;
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			for (int i = 0; i < n; i++) {
+				builder.accept(buffer[i], position++);
+			}
+		}
+		return builder.finish(position);
+	}
+
+	// collects the entries of the sequences while the bytes of a FASTA file go by
+	private static class Builder {
+
+		private final String source;
+		private final List<Entry> list = new ArrayList<Entry>();
+		private final StringBuilder header = new StringBuilder();
+		private boolean lineStart = true, inHeader, shortLine, blankLine;
+		private String name;
+		private long length, offset;
+		private int lineBases, lineBytes, currentBases, currentBytes;
+
+		private Builder(String source) {
+			this.source = source;
+		}
+
+		private void accept(byte b, long position) throws IOException {
+			if (lineStart) {
+				lineStart = false;
+				if (b == '>') {
+					addEntry();
+					inHeader = true;
+					header.setLength(0);
+					return;
+				}
+				if (name == null) {
+					if (b == '\n' || b == '\r') {
+						lineStart = (b == '\n');
+						return;
+					}
+					throw new IOException("Sequence data before the first header in " + source);
+				}
+				currentBases = currentBytes = 0;
+			}
+			if (inHeader) {
+				if (b == '\n') {
+					name = getName(header);
+					offset = position + 1;
+					length = 0;
+					lineBases = lineBytes = -1;
+					shortLine = blankLine = false;
+					inHeader = false;
+					lineStart = true;
+				} else if (b != '\r') {
+					header.append((char) (b & 0xff));
+				}
+				return;
+			}
+			currentBytes++;
+			if (b == '\n') {
+				endLine(false);
+				lineStart = true;
+			} else if (b != '\r') {
+				currentBases++;
+			}
+		}
+
+		private void endLine(boolean last) throws IOException {
+			if (currentBases == 0) {
+				blankLine = true;
+				return;
+			}
+			if (blankLine || shortLine) {
+				throw new IOException("Different line length in sequence '" + name + "' of " + source);
+			}
+			if (lineBases < 0) {
+				lineBases = currentBases;
+				lineBytes = last ? currentBytes + 1 : currentBytes;
+			} else if (currentBases > lineBases || (!last && currentBases == lineBases && currentBytes != lineBytes)) {
+				throw new IOException("Different line length in sequence '" + name + "' of " + source);
+			} else if (currentBases < lineBases) {
+				shortLine = true;
+			}
+			length += currentBases;
+		}
+
+		private void addEntry() {
+			if (name != null) {
+				list.add(new Entry(name, length, offset, Math.max(0, lineBases), Math.max(0, lineBytes)));
+				name = null;
+			}
+		}
+
+		private FastaIndex finish(long position) throws IOException {
+			if (inHeader) {
+				name = getName(header);
+				offset = position;
+				length = 0;
+				lineBases = lineBytes = -1;
+			} else if (!lineStart && name != null) {
+				endLine(true);
+			}
+			addEntry();
+			return new FastaIndex(list);
+		}
+
+		private static String getName(StringBuilder header) {
+			int end = 0;
+			while (end < header.length() && !Character.isWhitespace(header.charAt(end))) {
+				end++;
+			}
+			return header.substring(0, end);
+		}
+
+	}
+
+}
@@ -29,12 +29,18 @@ import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.compound.RNACompoundSet;
+import org.biojava.nbio.core.sequence.template.Sequence;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.LinkedHashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -189,6 +195,73 @@ public class FastaReaderHelper {
 		return rnaSequences;
 	}
 
+	/**
+	 * Returns a {@link Stream} of the DNA sequences of a fasta file, parsed one record at a time so that the
+	 * file does not have to fit in memory.  A parallel stream splits the file at record boundaries and parses
+	 * each part in its own thread.  Close the stream to close the file.
+	 *
+	 * @param file
+	 * @return a stream of the DNA sequences of the file
+	 * @see FastaSpliterator
+	 */
+	public static Stream<DNASequence> streamFastaDNASequence(File file) {
+		return new FastaSpliterator<DNASequence, NucleotideCompound>(file,
+				new GenericFastaHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).stream(false);
+	}
+
+	/**
+	 * Returns a sequential {@link Stream} of the DNA sequences of a fasta stream, parsed one record at a time.
+	 * Closing the returned stream closes the InputStream.
+	 *
+	 * @param inStream
+	 * @return a stream of the DNA sequences
+	 */
+	public static Stream<DNASequence> streamFastaDNASequence(InputStream inStream) {
+		return stream(new FastaSequenceIterator<DNASequence, NucleotideCompound>(inStream,
+				new GenericFastaHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())));
+	}
+
+	/**
+	 * Returns a {@link Stream} of the protein sequences of a fasta file, parsed one record at a time so that the
+	 * file does not have to fit in memory.  A parallel stream splits the file at record boundaries and parses
+	 * each part in its own thread.  Close the stream to close the file.
+	 *
+	 * @param file
+	 * @return a stream of the protein sequences of the file
+	 * @see FastaSpliterator
+	 */
+	public static Stream<ProteinSequence> streamFastaProteinSequence(File file) {
+		return new FastaSpliterator<ProteinSequence, AminoAcidCompound>(file,
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())).stream(false);
+	}
+
+	/**
+	 * Returns a sequential {@link Stream} of the protein sequences of a fasta stream, parsed one record at a time.
+	 * Closing the returned stream closes the InputStream.
+	 *
+	 * @param inStream
+	 * @return a stream of the protein sequences
+	 */
+	public static Stream<ProteinSequence> streamFastaProteinSequence(InputStream inStream) {
+		return stream(new FastaSequenceIterator<ProteinSequence, AminoAcidCompound>(inStream,
+				new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())));
+	}
+
+	private static <S extends Sequence<?>> Stream<S> stream(final FastaSequenceIterator<S, ?> iterator) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+					try {
+						iterator.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
 	public static void main(String[] args) throws Exception {
 
 		LinkedHashMap<String, DNASequence> dnaSequences = FastaReaderHelper.readFastaDNASequence(new File("fasta.fna"));
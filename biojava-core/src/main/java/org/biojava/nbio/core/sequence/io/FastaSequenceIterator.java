@@ -0,0 +1,264 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records of a FASTA stream one at a time.  Unlike {@link FastaReader#process(int)}, which returns batches of
+ * records in a map, only the record being parsed is held in memory, and the byte buffer, line buffer and sequence
+ * buffer are reused from one record to the next, so that files of any size are read with a flat heap.  Records are
+ * parsed as by {@link FastaReader}: lines are trimmed, lines starting with ';' are skipped, and records with no
+ * sequence or with unknown compounds are logged and skipped.  The offset passed to the
+ * {@link SequenceCreatorInterface} is the byte offset of the first sequence line.
+ *
+ * An iterator may be limited to the records whose header starts before a given offset, which is how
+ * {@link FastaSpliterator} splits a file at record boundaries.  I/O errors are rethrown as
+ * {@link UncheckedIOException}.
+ *
+ * @param <S> each record is a {@link Sequence} of type S
+ * @param <C> each element of a record is a {@link Compound} of type C
+ * @see FastaReaderHelper#streamFastaDNASequence(java.io.File)
+ */
+public class FastaSequenceIterator<S extends Sequence<?>, C extends Compound> implements Iterator<S>, Closeable {
+
+	private final static Logger logger = LoggerFactory.getLogger(FastaSequenceIterator.class);
+
+	private final InputStream in;
+	private final SequenceHeaderParserInterface<S, C> headerParser;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private final long end;
+
+	// reused buffers
+	private final byte[] buffer = new byte[1 << 16];
+	private final StringBuilder sequence = new StringBuilder();
+	private byte[] line = new byte[256];
+	private int bufferLength, bufferPosition, lineLength;
+
+	// offset of the next unread byte, and of the start of the line in the line buffer
+	private long position, lineStart;
+	private String header;
+	private boolean finished;
+	private S next;
+
+	/**
+	 * Prepares to read all records of a stream.
+	 *
+	 * @param in the FASTA stream, positioned at its start
+	 * @param headerParser parses the header of each record
+	 * @param sequenceCreator creates the sequence of each record
+	 */
+	public FastaSequenceIterator(InputStream in, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator) {
+		this(in, 0, Long.MAX_VALUE, headerParser, sequenceCreator);
+	}
+
+	/**
+	 * Prepares to read the records of a stream whose header starts in the given range of offsets.
+	 *
+	 * @param in the FASTA stream, positioned at the start offset
+	 * @param start file offset at which the stream is positioned; lines before the first header are skipped
+	 * @param end file offset at which reading stops; a record whose header starts before it is read to its end
+	 * @param headerParser parses the header of each record
+	 * @param sequenceCreator creates the sequence of each record
+	 */
+	public FastaSequenceIterator(InputStream in, long start, long end, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator) {
+		this.in = in;
+		this.position = start;
+		this.end = end;
+		this.headerParser = headerParser;
+		this.sequenceCreator = sequenceCreator;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !finished) {
+			try {
+				next = readRecord();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public S next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		S sequence = next;
+		next = null;
+		return sequence;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Closes the underlying stream.
+	 *
+	 * @throws IOException if the stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		finished = true;
+		in.close();
+	}
+
+	// reads lines up to the next record which is created successfully, or returns null at the end of the range
+	private S readRecord() throws IOException {
+		while (true) {
+			while (header == null) {
+				if (!readLine()) {
+					finished = true;
+					return null;
+				}
+				int first = skipSpace(0);
+				if (first < lineLength && line[first] == '>') {
+					if (lineStart >= end) {
+						finished = true;
+						return null;
+					}
+					header = getHeader(first);
+				}
+			}
+
+			String recordHeader = header;
+			long sequenceIndex = position;
+			header = null;
+			sequence.setLength(0);
+			while (readLine()) {
+				int first = skipSpace(0), last = lineLength;
+				while (last > first && (line[last - 1] & 0xff) <= ' ') {
+					last--;
+				}
+				if (first == last || line[first] == ';') {
+					continue;
+				}
+				if (line[first] == '>') {
+					if (lineStart >= end) {
+						finished = true;
+					} else {
+						header = getHeader(first);
+					}
+					break;
+				}
+				if (sequence.length() == 0) {
+					sequenceIndex = lineStart;
+				}
+				for (int i = first; i < last; i++) {
+					sequence.append((char) (line[i] & 0xff));
+				}
+			}
+
+			if (sequence.length() == 0) {
+				logger.warn("Can't parse sequence {}. Got sequence of length 0!", sequenceIndex);
+				logger.warn("header: {}", recordHeader);
+			} else {
+				try {
+					@SuppressWarnings("unchecked")
+					S record = (S) sequenceCreator.getSequence(sequence.toString(), sequenceIndex);
+					headerParser.parseHeader(recordHeader, record);
+					return record;
+				} catch (CompoundNotFoundException e) {
+					logger.warn("Sequence with header '{}' has unrecognised compounds ({}), it will be ignored",
+							recordHeader, e.getMessage());
+				}
+			}
+			if (header == null) {
+				finished = true;
+				return null;
+			}
+		}
+	}
+
+	// returns the header text after the '>' at the given index of the line buffer, without surrounding white space
+	private String getHeader(int index) {
+		int last = lineLength;
+		while (last > index + 1 && (line[last - 1] & 0xff) <= ' ') {
+			last--;
+		}
+		return new String(line, index + 1, last - index - 1, StandardCharsets.UTF_8);
+	}
+
+	private int skipSpace(int index) {
+		while (index < lineLength && (line[index] & 0xff) <= ' ') {
+			index++;
+		}
+		return index;
+	}
+
+	// copies the next line without its terminator into the line buffer; returns false at the end of the stream
+	private boolean readLine() throws IOException {
+		lineStart = position;
+		lineLength = 0;
+		boolean read = false;
+		while (true) {
+			if (bufferPosition == bufferLength) {
+				bufferLength = in.read(buffer);
+				bufferPosition = 0;
+				if (bufferLength <= 0) {
+					bufferLength = 0;
+					return read;
+				}
+			}
+			read = true;
+			int start = bufferPosition;
+			while (bufferPosition < bufferLength && buffer[bufferPosition] != '\n') {
+				bufferPosition++;
+			}
+			int n = bufferPosition - start;
+			if (lineLength + n > line.length) {
+				byte[] larger = new byte[Math.max(line.length * 2, lineLength + n)];
+				System.arraycopy(line, 0, larger, 0, lineLength);
+				line = larger;
+			}
+			System.arraycopy(buffer, start, line, lineLength, n);
+			lineLength += n;
+			position += n;
+			if (bufferPosition < bufferLength) {
+				// skip the terminator
+				bufferPosition++;
+				position++;
+				return true;
+			}
+		}
+	}
+
+}
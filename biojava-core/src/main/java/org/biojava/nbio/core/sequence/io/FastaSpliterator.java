@@ -0,0 +1,239 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splittable source of the records of a FASTA file.  A range of the file is split in two at the first header line
+ * after its middle, so that each half holds whole records and may be parsed by a different thread of a parallel
+ * {@link Stream}.  Each range reads its records with a {@link FastaSequenceIterator}, so the heap only holds the
+ * records being parsed.  The header parser and sequence creator are shared by all ranges and must be thread-safe,
+ * as are the ones shipped with BioJava.
+ *
+ * @param <S> each record is a {@link Sequence} of type S
+ * @param <C> each element of a record is a {@link Compound} of type C
+ */
+public class FastaSpliterator<S extends Sequence<?>, C extends Compound> implements Spliterator<S>, Closeable {
+
+	private final static Logger logger = LoggerFactory.getLogger(FastaSpliterator.class);
+
+	/**
+	 * Ranges smaller than this number of bytes are not split.
+	 */
+	public static final long MIN_SPLIT_SIZE = 1 << 20;
+
+	private final File file;
+	private final SequenceHeaderParserInterface<S, C> headerParser;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private final Queue<Closeable> opened;
+	private final long minSplitSize;
+	private long start, end;
+	private FastaSequenceIterator<S, C> iterator;
+
+	/**
+	 * Creates a source of all records of a FASTA file.
+	 *
+	 * @param file the FASTA file
+	 * @param headerParser parses the header of each record
+	 * @param sequenceCreator creates the sequence of each record
+	 */
+	public FastaSpliterator(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator) {
+		this(file, headerParser, sequenceCreator, MIN_SPLIT_SIZE);
+	}
+
+	/**
+	 * Creates a source of all records of a FASTA file.
+	 *
+	 * @param file the FASTA file
+	 * @param headerParser parses the header of each record
+	 * @param sequenceCreator creates the sequence of each record
+	 * @param minSplitSize ranges smaller than this number of bytes are not split
+	 */
+	public FastaSpliterator(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator, long minSplitSize) {
+		this(file, headerParser, sequenceCreator, minSplitSize, 0, file.length(), new ConcurrentLinkedQueue<Closeable>());
+	}
+
+	private FastaSpliterator(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator, long minSplitSize, long start, long end,
+			Queue<Closeable> opened) {
+		this.file = file;
+		this.headerParser = headerParser;
+		this.sequenceCreator = sequenceCreator;
+		this.minSplitSize = Math.max(1, minSplitSize);
+		this.start = start;
+		this.end = end;
+		this.opened = opened;
+	}
+
+	/**
+	 * Returns a {@link Stream} of the records of the file.  Closing the stream closes the files opened by every range.
+	 *
+	 * @param parallel if true, the stream is parallel
+	 * @return a stream of the records
+	 */
+	public Stream<S> stream(boolean parallel) {
+		return StreamSupport.stream(this, parallel).onClose(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		});
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super S> action) {
+		if (iterator == null) {
+			open();
+		}
+		if (iterator.hasNext()) {
+			action.accept(iterator.next());
+			return true;
+		}
+		closeIterator();
+		return false;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super S> action) {
+		if (iterator == null) {
+			open();
+		}
+		while (iterator.hasNext()) {
+			action.accept(iterator.next());
+		}
+		closeIterator();
+	}
+
+	@Override
+	public Spliterator<S> trySplit() {
+		if (iterator != null || end - start < 2 * minSplitSize) {
+			return null;
+		}
+		long boundary;
+		try {
+			boundary = findRecordStart(file, start + (end - start) / 2, end);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (boundary <= start || boundary >= end) {
+			return null;
+		}
+		FastaSpliterator<S, C> prefix = new FastaSpliterator<S, C>(file, headerParser, sequenceCreator, minSplitSize,
+				start, boundary, opened);
+		start = boundary;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		// bytes rather than records, which is only used to balance the splits
+		return end - start;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+
+	/**
+	 * Closes the files opened by this source and by every range split from it.
+	 *
+	 * @throws IOException if a file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		Closeable c;
+		while ((c = opened.poll()) != null) {
+			c.close();
+		}
+	}
+
+	private void open() {
+		try {
+			FileInputStream in = new FileInputStream(file);
+			in.getChannel().position(start);
+			iterator = new FastaSequenceIterator<S, C>(in, start, end, headerParser, sequenceCreator);
+			opened.add(iterator);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void closeIterator() {
+		try {
+			if (opened.remove(iterator)) {
+				iterator.close();
+			}
+		} catch (IOException e) {
+			logger.warn("Cannot close {}: {}", file, e.getMessage());
+		}
+	}
+
+	// returns the offset of the first '>' that starts a line at or after the given offset and before the end offset,
+	// or -1 if there is none
+	static long findRecordStart(File file, long from, long end) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			byte[] buffer = new byte[1 << 16];
+			long position = Math.max(0, from - 1);
+			raf.seek(position);
+			boolean lineStart = (from == 0);
+			int n;
+			while (position < end && (n = raf.read(buffer)) > 0) {
+				for (int i = 0; i < n; i++, position++) {
+					if (lineStart && buffer[i] == '>') {
+						return position;
+					}
+					lineStart = (buffer[i] == '\n');
+				}
+			}
+			return -1;
+		} finally {
+			raf.close();
+		}
+	}
+
+}
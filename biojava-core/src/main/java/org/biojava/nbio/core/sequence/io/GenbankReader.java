@@ -46,7 +46,13 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Use GenbankReaderHelper as an example of how to use this class where GenbankReaderHelper should be the
@@ -145,33 +151,13 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 	 */
 	public LinkedHashMap<String,S> process(final int max) throws IOException, CompoundNotFoundException {
 		LinkedHashMap<String,S> sequences = new LinkedHashMap<>();
-		@SuppressWarnings("unchecked")
 		int i=0;
 		while(true) {
 			if(max>0 && i>=max) break;
 			i++;
-			String seqString = genbankParser.getSequence(bufferedReader, 0);
+			S sequence = readSequence();
 			//reached end of file?
-			if(seqString==null) break;
-            @SuppressWarnings("unchecked")
-			S sequence = (S) sequenceCreator.getSequence(seqString, 0);
-			genbankParser.getSequenceHeaderParser().parseHeader(genbankParser.getHeader(), sequence);
-
-			// add features to new sequence
-			for (String k: genbankParser.getFeatures().keySet()){
-				for (AbstractFeature f: genbankParser.getFeatures(k)){
-					//f.getLocations().setSequence(sequence);  // can't set proper sequence source to features. It is actually needed? Don't think so...
-					sequence.addFeature(f);
-				}
-			}
-
-			// add taxonomy ID to new sequence
-			ArrayList<DBReferenceInfo> dbQualifier = genbankParser.getDatabaseReferences().get("db_xref");
-			if (dbQualifier != null){
-				DBReferenceInfo q = dbQualifier.get(0);
-				sequence.setTaxonomy(new TaxonomyID(q.getDatabase()+":"+q.getId(), DataSource.GENBANK));
-			}
-
+			if(sequence==null) break;
 			sequences.put(sequence.getAccession().getID(), sequence);
 		}
 
@@ -182,6 +168,86 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 		return sequences;
 	}
 
+	/**
+	 * Returns an {@link Iterator} over the remaining Genbank records, which parses one record per call to
+	 * {@link Iterator#next()} instead of collecting them in a map as {@link #process(int)} does.
+	 * The underlying resource is closed once the last record has been read.<br>
+	 * I/O errors are rethrown as {@link UncheckedIOException} and records with unknown compounds as
+	 * {@link IllegalStateException}.
+	 * @since 5.1.2
+	 * @return an iterator over the remaining records
+	 */
+	public Iterator<S> iterator() {
+		return new Iterator<S>() {
+
+			private S next;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null && !closed) {
+					try {
+						next = readSequence();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					} catch (CompoundNotFoundException e) {
+						throw new IllegalStateException(e);
+					}
+					if (next == null) {
+						close();
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public S next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				S sequence = next;
+				next = null;
+				return sequence;
+			}
+		};
+	}
+
+	/**
+	 * Returns a sequential {@link Stream} of the remaining Genbank records, parsed lazily as the stream is consumed.
+	 * Closing the stream closes the underlying resource.
+	 * @since 5.1.2
+	 * @see #iterator()
+	 * @return a stream of the remaining records
+	 */
+	public Stream<S> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+	}
+
+	// parses the next record with its features and taxonomy, or returns null at the end of the file
+	private S readSequence() throws IOException, CompoundNotFoundException {
+		String seqString = genbankParser.getSequence(bufferedReader, 0);
+		if(seqString==null) return null;
+		@SuppressWarnings("unchecked")
+		S sequence = (S) sequenceCreator.getSequence(seqString, 0);
+		genbankParser.getSequenceHeaderParser().parseHeader(genbankParser.getHeader(), sequence);
+
+		// add features to new sequence
+		for (String k: genbankParser.getFeatures().keySet()){
+			for (AbstractFeature f: genbankParser.getFeatures(k)){
+				//f.getLocations().setSequence(sequence);  // can't set proper sequence source to features. It is actually needed? Don't think so...
+				sequence.addFeature(f);
+			}
+		}
+
+		// add taxonomy ID to new sequence
+		ArrayList<DBReferenceInfo> dbQualifier = genbankParser.getDatabaseReferences().get("db_xref");
+		if (dbQualifier != null){
+			DBReferenceInfo q = dbQualifier.get(0);
+			sequence.setTaxonomy(new TaxonomyID(q.getDatabase()+":"+q.getId(), DataSource.GENBANK));
+		}
+		return sequence;
+	}
+
 	public void close() {
 		try {
 			bufferedReader.close();
@@ -29,14 +29,19 @@ import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.compound.RNACompoundSet;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.LinkedHashMap;
+import java.util.stream.Stream;
 
 /**
  *
@@ -220,6 +225,82 @@ public class GenbankReaderHelper {
 		return rnaSequences;
 	}
 
+	/**
+	 * Reads a Genbank DNA file through a binary cache: the records are read from the cache if it was made from
+	 * the file as it is, otherwise, or if the cache is corrupt, the file is parsed and the cache written.
+	 * @param file
+	 * @param cacheFile the cache of the file, which need not exist
+	 * @return
+	 * @throws Exception
+	 * @see GenbankRecordCache
+	 * @since 5.1.2
+	 */
+	public static LinkedHashMap<String, DNASequence> readGenbankDNASequence(File file, File cacheFile) throws Exception {
+		return readCached(file, cacheFile, new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+	}
+
+	/**
+	 * Reads a Genbank protein file through a binary cache: the records are read from the cache if it was made from
+	 * the file as it is, otherwise, or if the cache is corrupt, the file is parsed and the cache written.
+	 * @param file
+	 * @param cacheFile the cache of the file, which need not exist
+	 * @return
+	 * @throws Exception
+	 * @see GenbankRecordCache
+	 * @since 5.1.2
+	 */
+	public static LinkedHashMap<String, ProteinSequence> readGenbankProteinSequence(File file, File cacheFile) throws Exception {
+		return readCached(file, cacheFile, new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+	}
+
+	private static <S extends AbstractSequence<C>, C extends Compound> LinkedHashMap<String, S> readCached(
+			File file, File cacheFile, SequenceCreatorInterface<C> sequenceCreator) throws Exception {
+		GenbankRecordCache<S, C> cache = new GenbankRecordCache<S, C>(cacheFile, sequenceCreator);
+		if (cache.isValid(file)) {
+			try {
+				return cache.read();
+			} catch (IOException e) {
+				logger.warn("Could not read GenBank cache {}, parsing {} again: {}", cacheFile, file, e.getMessage());
+			}
+		}
+		LinkedHashMap<String, S> sequences = new GenbankReader<S, C>(
+				file,
+				new GenericGenbankHeaderParser<S, C>(),
+				sequenceCreator).process();
+		cache.write(file, sequences.values());
+		return sequences;
+	}
+
+	/**
+	 * Returns a {@link Stream} of the DNA sequences of a Genbank file, parsed one record at a time so that the
+	 * file does not have to fit in memory.  Close the stream to close the file.
+	 * @param file
+	 * @return a stream of the DNA sequences of the file
+	 * @throws FileNotFoundException
+	 * @see GenbankReader#stream()
+	 */
+	public static Stream<DNASequence> streamGenbankDNASequence(File file) throws FileNotFoundException {
+		return new GenbankReader<DNASequence, NucleotideCompound>(
+				file,
+				new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).stream();
+	}
+
+	/**
+	 * Returns a {@link Stream} of the protein sequences of a Genbank file, parsed one record at a time so that the
+	 * file does not have to fit in memory.  Close the stream to close the file.
+	 * @param file
+	 * @return a stream of the protein sequences of the file
+	 * @throws FileNotFoundException
+	 * @see GenbankReader#stream()
+	 */
+	public static Stream<ProteinSequence> streamGenbankProteinSequence(File file) throws FileNotFoundException {
+		return new GenbankReader<ProteinSequence, AminoAcidCompound>(
+				file,
+				new GenericGenbankHeaderParser<ProteinSequence, AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())).stream();
+	}
+
 	public static void main(String[] args) throws Exception {
 
 		LinkedHashMap<String, DNASequence> dnaSequences = GenbankReaderHelper.readGenbankDNASequence(new File("src/test/resources/NM_000266.gb"), true);
@@ -0,0 +1,673 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.DataSource;
+import org.biojava.nbio.core.sequence.Strand;
+import org.biojava.nbio.core.sequence.TaxonomyID;
+import org.biojava.nbio.core.sequence.features.DBReferenceInfo;
+import org.biojava.nbio.core.sequence.features.FeatureInterface;
+import org.biojava.nbio.core.sequence.features.Qualifier;
+import org.biojava.nbio.core.sequence.features.TextFeature;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.location.InsdcLocations;
+import org.biojava.nbio.core.sequence.location.SimpleLocation;
+import org.biojava.nbio.core.sequence.location.SimplePoint;
+import org.biojava.nbio.core.sequence.location.template.AbstractLocation;
+import org.biojava.nbio.core.sequence.location.template.Location;
+import org.biojava.nbio.core.sequence.location.template.Point;
+import org.biojava.nbio.core.sequence.reference.AbstractReference;
+import org.biojava.nbio.core.sequence.reference.GenbankReference;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.util.CRC64Checksum;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A binary cache of the records parsed from a GenBank file, so that a file that is read again and again is parsed
+ * once.  A cache file holds the sequences, packed two bits per base when they only have A, C, G and T, their header
+ * fields, references, taxonomy, and their features with locations and qualifiers.  Records can be read one at a
+ * time by accession through an index at the end of the file.  A cache of up to {@value #MAP_THRESHOLD} bytes is
+ * read into memory; a larger one is memory mapped, and its mapping is released when the buffer is garbage
+ * collected, so that until then the cache file cannot be replaced on Windows.
+ *
+ * A cache records the length, modification time and {@link CRC64Checksum} of the file it was made from, and is
+ * only used for that file as it was: see {@link #isValid(File)}.  It also records the {@link CRC64Checksum} of its
+ * own records, which {@link #read()} checks before decoding them.  Features are cached as {@link TextFeature}s and locations as the
+ * {@link SimpleLocation}s and {@link InsdcLocations} made by {@link GenbankSequenceParser}.
+ *
+ * <pre>
+ * GenbankRecordCache&lt;DNASequence, NucleotideCompound&gt; cache = new GenbankRecordCache&lt;&gt;(cacheFile,
+ * 		new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+ * if (!cache.isValid(file)) cache.write(file, GenbankReaderHelper.readGenbankDNASequence(file).values());
+ * DNASequence sequence = cache.read("NM_000266");
+ * </pre>
+ *
+ * @see GenbankReaderHelper#readGenbankDNASequence(File, File)
+ * @since 5.1.2
+ */
+public class GenbankRecordCache<S extends AbstractSequence<C>, C extends Compound> {
+
+	private static final int MAGIC = 0x424a4742; // BJGB
+	private static final int VERSION = 3;
+	private static final int HEADER_SIZE = 32;
+	private static final int FOOTER_SIZE = 20;
+
+	private static final byte RAW = 0;
+	private static final byte PACKED = 1;
+	private static final String BASES = "ACGT";
+
+	private static final byte NONE = -1;
+	private static final byte SIMPLE = 0;
+	private static final byte GROUP = 1;
+	private static final byte ORDER = 2;
+	private static final byte BOND = 3;
+
+	private static final Strand[] STRANDS = Strand.values();
+
+	/**
+	 * The size up to which a cache is read into memory rather than memory mapped.
+	 */
+	public static final int MAP_THRESHOLD = 1 << 24;
+
+	private final File cacheFile;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private boolean verifySource = false;
+
+	/**
+	 * @param cacheFile the cache file, which need not exist
+	 * @param sequenceCreator creates the sequences read from the cache
+	 */
+	public GenbankRecordCache(File cacheFile, SequenceCreatorInterface<C> sequenceCreator) {
+		this.cacheFile = cacheFile;
+		this.sequenceCreator = sequenceCreator;
+	}
+
+	public File getCacheFile() {
+		return cacheFile;
+	}
+
+	public boolean isVerifySource() {
+		return verifySource;
+	}
+
+	/**
+	 * Whether {@link #isValid(File)} also checks the {@link CRC64Checksum} of the GenBank file, which reads the whole
+	 * file, rather than only its length and modification time.  The default is false.
+	 */
+	public void setVerifySource(boolean verifySource) {
+		this.verifySource = verifySource;
+	}
+
+	/**
+	 * The CRC64 checksum of the contents of a file.
+	 */
+	public static long checksum(File file) throws IOException {
+		CRC64Checksum checksum = new CRC64Checksum();
+		byte[] buffer = new byte[1 << 16];
+		try (InputStream input = new FileInputStream(file)) {
+			int n;
+			while ((n = input.read(buffer)) > 0) {
+				checksum.update(buffer, 0, n);
+			}
+		}
+		return checksum.getValue();
+	}
+
+	/**
+	 * Whether the cache exists and was made from a file with the length and modification time of the given GenBank
+	 * file, and if {@link #setVerifySource(boolean) verifySource} is set, with its contents.
+	 */
+	public boolean isValid(File genbankFile) throws IOException {
+		if (!cacheFile.isFile() || cacheFile.length() < HEADER_SIZE + FOOTER_SIZE) return false;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+			while (header.hasRemaining() && channel.read(header) > 0) {
+				// read the whole header
+			}
+		}
+		header.flip();
+		if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != genbankFile.length()
+				|| header.getLong() != genbankFile.lastModified()) {
+			return false;
+		}
+		return !verifySource || header.getLong() == checksum(genbankFile);
+	}
+
+	/**
+	 * Writes the cache of the records of a GenBank file.  The cache is written to a temporary file which then
+	 * replaces the cache file, so that readers never see a partly written cache.
+	 *
+	 * @param genbankFile the file the sequences were read from
+	 * @param sequences the sequences read from the file
+	 */
+	public void write(File genbankFile, Collection<? extends AbstractSequence<?>> sequences) throws IOException {
+		File parent = cacheFile.getAbsoluteFile().getParentFile();
+		File temporary = File.createTempFile(cacheFile.getName() + ".", ".tmp", parent);
+		try {
+			CRC64Checksum body = new CRC64Checksum();
+			try (DataOutputStream output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(
+					new FileOutputStream(temporary), 1 << 16), body))) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeLong(genbankFile.length());
+				output.writeLong(genbankFile.lastModified());
+				output.writeLong(checksum(genbankFile));
+				body.reset();
+				List<String> accessions = new ArrayList<String>();
+				List<Integer> offsets = new ArrayList<Integer>();
+				for (AbstractSequence<?> sequence : sequences) {
+					accessions.add(sequence.getAccession() == null ? null : sequence.getAccession().getID());
+					offsets.add(output.size());
+					new RecordWriter(output).write(sequence);
+				}
+				int index = output.size();
+				output.writeInt(accessions.size());
+				for (int i = 0; i < accessions.size(); i++) {
+					writeString(output, accessions.get(i));
+					output.writeInt(offsets.get(i));
+				}
+				long bodyChecksum = body.getValue();
+				output.writeLong(index);
+				output.writeLong(bodyChecksum);
+				output.writeInt(MAGIC);
+			}
+			Files.move(temporary.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			temporary.delete();
+		}
+	}
+
+	/**
+	 * Reads all the records of the cache.
+	 *
+	 * @return the sequences by accession, in the order of the GenBank file
+	 * @throws IOException if the cache cannot be read or is corrupt, including when its records do not match their
+	 * checksum
+	 */
+	public LinkedHashMap<String, S> read() throws IOException, CompoundNotFoundException {
+		ByteBuffer buffer = open();
+		try {
+			int count = buffer.getInt(indexOffset(buffer));
+			checkBody(buffer);
+			LinkedHashMap<String, S> sequences = new LinkedHashMap<String, S>();
+			buffer.position(HEADER_SIZE);
+			for (int i = 0; i < count; i++) {
+				S sequence = new RecordReader(buffer).read();
+				sequences.put(sequence.getAccession() == null ? null : sequence.getAccession().getID(), sequence);
+			}
+			return sequences;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+				| IllegalArgumentException e) {
+			throw new IOException("Corrupt GenBank cache " + cacheFile, e);
+		}
+	}
+
+	/**
+	 * Reads one record of the cache.  Only the structure of the cache is checked, not the checksum of its records,
+	 * so that one record is read without reading the whole file.
+	 *
+	 * @return the sequence of the given accession, or null if the cache has none
+	 * @throws IOException if the cache cannot be read or is corrupt
+	 */
+	public S read(String accession) throws IOException, CompoundNotFoundException {
+		ByteBuffer buffer = open();
+		try {
+			buffer.position(indexOffset(buffer));
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String id = readString(buffer);
+				int offset = buffer.getInt();
+				if (accession.equals(id)) {
+					buffer.position(offset);
+					return new RecordReader(buffer).read();
+				}
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+				| IllegalArgumentException e) {
+			throw new IOException("Corrupt GenBank cache " + cacheFile, e);
+		}
+		return null;
+	}
+
+	private ByteBuffer open() throws IOException {
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) throw new IOException("GenBank cache too large: " + cacheFile);
+			if (size > MAP_THRESHOLD) return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// read the whole cache
+			}
+			buffer.flip();
+			return buffer;
+		}
+	}
+
+	// the records and index are only read once all of their bytes match the checksum in the footer
+	private void checkBody(ByteBuffer buffer) throws IOException {
+		int end = buffer.limit() - FOOTER_SIZE;
+		CRC64Checksum checksum = new CRC64Checksum();
+		byte[] bytes = new byte[1 << 16];
+		ByteBuffer body = buffer.duplicate();
+		body.position(HEADER_SIZE);
+		while (body.position() < end) {
+			int n = Math.min(bytes.length, end - body.position());
+			body.get(bytes, 0, n);
+			checksum.update(bytes, 0, n);
+		}
+		if (checksum.getValue() != buffer.getLong(end + 8)) {
+			throw new IOException("Corrupt GenBank cache " + cacheFile + ": checksum mismatch");
+		}
+	}
+
+	private int indexOffset(ByteBuffer buffer) throws IOException {
+		int limit = buffer.limit();
+		if (limit < HEADER_SIZE + FOOTER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getInt(limit - 4) != MAGIC) {
+			throw new IOException("Not a GenBank cache: " + cacheFile);
+		}
+		long index = buffer.getLong(limit - FOOTER_SIZE);
+		if (index < HEADER_SIZE || index > limit - FOOTER_SIZE - 4) {
+			throw new IOException("Corrupt GenBank cache " + cacheFile);
+		}
+		return (int) index;
+	}
+
+	private static void writeString(DataOutputStream output, String s) throws IOException {
+		if (s == null) {
+			output.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) return null;
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a record.  Short strings that repeat within a record, such as feature types and qualifier names, are
+	 * written once and then referred to by number.
+	 */
+	private static class RecordWriter {
+
+		private final DataOutputStream output;
+		private final Map<String, Integer> symbols = new HashMap<String, Integer>();
+
+		RecordWriter(DataOutputStream output) {
+			this.output = output;
+		}
+
+		void write(AbstractSequence<?> sequence) throws IOException {
+			writeSequence(sequence.getSequenceAsString());
+			writeString(output, sequence.getOriginalHeader());
+			AccessionID accession = sequence.getAccession();
+			output.writeBoolean(accession != null);
+			if (accession != null) {
+				writeString(output, accession.getID());
+				writeSymbol(accession.getDataSource() == null ? null : accession.getDataSource().name());
+				output.writeInt(accession.getVersion() == null ? -1 : accession.getVersion());
+				writeString(output, accession.getIdentifier());
+			}
+			writeString(output, sequence.getDescription());
+			List<String> comments = sequence.getComments();
+			output.writeInt(comments == null ? -1 : comments.size());
+			if (comments != null) {
+				for (String comment : comments) {
+					writeString(output, comment);
+				}
+			}
+			List<AbstractReference> references = sequence.getReferences();
+			output.writeInt(references == null ? -1 : references.size());
+			if (references != null) {
+				for (AbstractReference reference : references) {
+					writeString(output, reference.getAuthors());
+					writeString(output, reference.getTitle());
+					writeString(output, reference.getJournal());
+				}
+			}
+			TaxonomyID taxonomy = sequence.getTaxonomy();
+			output.writeBoolean(taxonomy != null);
+			if (taxonomy != null) {
+				writeString(output, taxonomy.getID());
+				writeSymbol(taxonomy.getDataSource() == null ? null : taxonomy.getDataSource().name());
+			}
+			List<? extends FeatureInterface<?, ?>> features = sequence.getFeatures();
+			output.writeInt(features.size());
+			for (FeatureInterface<?, ?> feature : features) {
+				writeFeature(feature);
+			}
+		}
+
+		private void writeSequence(String sequence) throws IOException {
+			boolean packable = true;
+			for (int i = 0; i < sequence.length() && packable; i++) {
+				packable = BASES.indexOf(sequence.charAt(i)) >= 0;
+			}
+			int length = sequence.length();
+			output.writeByte(packable ? PACKED : RAW);
+			output.writeInt(length);
+			if (!packable) {
+				writeString(output, sequence);
+				return;
+			}
+			byte[] packed = new byte[(length + 3) / 4];
+			for (int i = 0; i < length; i++) {
+				packed[i >> 2] |= BASES.indexOf(sequence.charAt(i)) << ((i & 3) << 1);
+			}
+			output.write(packed);
+		}
+
+		private void writeFeature(FeatureInterface<?, ?> feature) throws IOException {
+			writeSymbol(feature.getType());
+			writeString(output, feature.getSource());
+			writeSymbol(feature.getShortDescription());
+			writeSymbol(feature.getDescription());
+			writeLocation(feature.getLocations());
+			Map<String, List<Qualifier>> qualifiers = feature.getQualifiers();
+			output.writeInt(qualifiers.size());
+			for (Map.Entry<String, List<Qualifier>> entry : qualifiers.entrySet()) {
+				writeSymbol(entry.getKey());
+				output.writeInt(entry.getValue().size());
+				for (Qualifier qualifier : entry.getValue()) {
+					output.writeBoolean(qualifier instanceof DBReferenceInfo);
+					writeSymbol(qualifier.getName());
+					writeString(output, qualifier.getValue());
+					output.writeBoolean(qualifier.needsQuotes());
+					if (qualifier instanceof DBReferenceInfo) {
+						DBReferenceInfo reference = (DBReferenceInfo) qualifier;
+						writeSymbol(reference.getDatabase());
+						writeString(output, reference.getId());
+						output.writeInt(reference.getProperties().size());
+						for (Map.Entry<String, String> property : reference.getProperties().entrySet()) {
+							writeSymbol(property.getKey());
+							writeString(output, property.getValue());
+						}
+					}
+				}
+			}
+		}
+
+		private void writeLocation(Location location) throws IOException {
+			if (location == null) {
+				output.writeByte(NONE);
+				return;
+			}
+			if (location instanceof InsdcLocations.GroupLocation) {
+				output.writeByte(GROUP);
+			} else if (location instanceof InsdcLocations.OrderLocation) {
+				output.writeByte(ORDER);
+			} else if (location instanceof InsdcLocations.BondLocation) {
+				output.writeByte(BOND);
+			} else {
+				output.writeByte(SIMPLE);
+			}
+			writePoint(location.getStart());
+			writePoint(location.getEnd());
+			output.writeByte(location.getStrand() == null ? -1 : location.getStrand().ordinal());
+			boolean partialOn5prime = false, partialOn3prime = false;
+			AccessionID accession = null;
+			if (location instanceof AbstractLocation) {
+				partialOn5prime = ((AbstractLocation) location).isPartialOn5prime();
+				partialOn3prime = ((AbstractLocation) location).isPartialOn3prime();
+				accession = ((AbstractLocation) location).getAccession();
+			}
+			output.writeByte((location.isCircular() ? 1 : 0) | (location.isBetweenCompounds() ? 2 : 0)
+					| (partialOn5prime ? 4 : 0) | (partialOn3prime ? 8 : 0));
+			writeString(output, accession == null ? null : accession.getID());
+			List<Location> subLocations = location.getSubLocations();
+			output.writeInt(subLocations == null ? -1 : subLocations.size());
+			if (subLocations != null) {
+				for (Location subLocation : subLocations) {
+					writeLocation(subLocation);
+				}
+			}
+		}
+
+		private void writePoint(Point point) throws IOException {
+			output.writeInt(point.getPosition());
+			output.writeByte((point.isUnknown() ? 1 : 0) | (point.isUncertain() ? 2 : 0));
+		}
+
+		private void writeSymbol(String s) throws IOException {
+			if (s == null) {
+				output.writeInt(-1);
+				return;
+			}
+			Integer symbol = symbols.get(s);
+			if (symbol != null) {
+				output.writeInt(symbol);
+				return;
+			}
+			symbols.put(s, symbols.size());
+			output.writeInt(-2);
+			writeString(output, s);
+		}
+	}
+
+	/**
+	 * Reads a record written by a {@link RecordWriter}.
+	 */
+	private class RecordReader {
+
+		private final ByteBuffer buffer;
+		private final List<String> symbols = new ArrayList<String>();
+
+		RecordReader(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		S read() throws IOException, CompoundNotFoundException {
+			S sequence = (S) sequenceCreator.getSequence(readSequence(), 0);
+			sequence.setOriginalHeader(readString(buffer));
+			if (buffer.get() != 0) {
+				String id = readString(buffer);
+				DataSource source = readDataSource();
+				int version = buffer.getInt();
+				String identifier = readString(buffer);
+				sequence.setAccession(new AccessionID(id, source, version < 0 ? null : version, identifier));
+			}
+			sequence.setDescription(readString(buffer));
+			int comments = buffer.getInt();
+			if (comments >= 0) {
+				List<String> list = new ArrayList<String>(comments);
+				for (int i = 0; i < comments; i++) {
+					list.add(readString(buffer));
+				}
+				sequence.setComments(list);
+			}
+			int references = buffer.getInt();
+			if (references >= 0) {
+				List<AbstractReference> list = new ArrayList<AbstractReference>(references);
+				for (int i = 0; i < references; i++) {
+					GenbankReference reference = new GenbankReference();
+					reference.setAuthors(readString(buffer));
+					reference.setTitle(readString(buffer));
+					reference.setJournal(readString(buffer));
+					list.add(reference);
+				}
+				sequence.setReferences(list);
+			}
+			if (buffer.get() != 0) {
+				sequence.setTaxonomy(new TaxonomyID(readString(buffer), readDataSource()));
+			}
+			int features = buffer.getInt();
+			for (int i = 0; i < features; i++) {
+				sequence.addFeature((FeatureInterface) readFeature());
+			}
+			return sequence;
+		}
+
+		private String readSequence() {
+			byte encoding = buffer.get();
+			int length = buffer.getInt();
+			if (encoding == RAW) {
+				return readString(buffer);
+			}
+			if (encoding != PACKED) throw new IllegalArgumentException("Unknown sequence encoding " + encoding);
+			byte[] packed = new byte[(length + 3) / 4];
+			buffer.get(packed);
+			char[] bases = new char[length];
+			for (int i = 0; i < length; i++) {
+				bases[i] = BASES.charAt((packed[i >> 2] >> ((i & 3) << 1)) & 3);
+			}
+			return new String(bases);
+		}
+
+		private TextFeature<AbstractSequence<C>, C> readFeature() {
+			String type = readSymbol();
+			String source = readString(buffer);
+			String shortDescription = readSymbol();
+			String description = readSymbol();
+			TextFeature<AbstractSequence<C>, C> feature = new TextFeature<AbstractSequence<C>, C>(type, source,
+					shortDescription, description);
+			AbstractLocation location = readLocation();
+			if (location != null) {
+				feature.setLocation(location);
+			}
+			int keys = buffer.getInt();
+			for (int i = 0; i < keys; i++) {
+				String key = readSymbol();
+				int count = buffer.getInt();
+				for (int j = 0; j < count; j++) {
+					boolean reference = buffer.get() != 0;
+					String name = readSymbol();
+					String value = readString(buffer);
+					boolean needsQuotes = buffer.get() != 0;
+					Qualifier qualifier;
+					if (reference) {
+						DBReferenceInfo info = new DBReferenceInfo(readSymbol(), readString(buffer));
+						int properties = buffer.getInt();
+						for (int k = 0; k < properties; k++) {
+							info.addProperty(readSymbol(), readString(buffer));
+						}
+						info.setName(name);
+						info.setValue(value);
+						info.setNeedsQuotes(needsQuotes);
+						qualifier = info;
+					} else {
+						qualifier = new Qualifier(name, value, needsQuotes);
+					}
+					feature.addQualifier(key, qualifier);
+				}
+			}
+			return feature;
+		}
+
+		private AbstractLocation readLocation() {
+			byte kind = buffer.get();
+			if (kind == NONE) return null;
+			Point start = readPoint();
+			Point end = readPoint();
+			byte strandOrdinal = buffer.get();
+			Strand strand = strandOrdinal < 0 ? null : STRANDS[strandOrdinal];
+			byte flags = buffer.get();
+			String accession = readString(buffer);
+			int count = buffer.getInt();
+			List<Location> subLocations = null;
+			if (count >= 0) {
+				subLocations = new ArrayList<Location>(count);
+				for (int i = 0; i < count; i++) {
+					subLocations.add(readLocation());
+				}
+			}
+			AbstractLocation location;
+			switch (kind) {
+			case GROUP:
+				location = new InsdcLocations.GroupLocation(subLocations);
+				break;
+			case ORDER:
+				location = new InsdcLocations.OrderLocation(subLocations);
+				break;
+			case BOND:
+				location = new InsdcLocations.BondLocation(subLocations);
+				break;
+			case SIMPLE:
+				location = new SimpleLocation(start, end, strand, (flags & 1) != 0, (flags & 2) != 0,
+						subLocations == null ? new ArrayList<Location>() : subLocations);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown location kind " + kind);
+			}
+			location.setStrand(strand);
+			location.setBetweenCompounds((flags & 2) != 0);
+			location.setPartialOn5prime((flags & 4) != 0);
+			location.setPartialOn3prime((flags & 8) != 0);
+			if (accession != null) {
+				location.setAccession(new AccessionID(accession));
+			}
+			return location;
+		}
+
+		private Point readPoint() {
+			int position = buffer.getInt();
+			byte flags = buffer.get();
+			return new SimplePoint(position, (flags & 1) != 0, (flags & 2) != 0);
+		}
+
+		private DataSource readDataSource() {
+			String name = readSymbol();
+			return name == null ? null : DataSource.valueOf(name);
+		}
+
+		private String readSymbol() {
+			int symbol = buffer.getInt();
+			if (symbol == -1) return null;
+			if (symbol == -2) {
+				String s = readString(buffer);
+				symbols.add(s);
+				return s;
+			}
+			return symbols.get(symbol);
+		}
+	}
+}
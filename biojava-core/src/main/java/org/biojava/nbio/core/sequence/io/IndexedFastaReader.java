@@ -0,0 +1,252 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.util.MappedFile;
+import org.biojava.nbio.core.sequence.loader.MappedFastaSequenceReader;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.SequenceView;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Random access reader of a FASTA file indexed in the samtools faidx (.fai) format.  The file is memory mapped, so
+ * opening even a multi-gigabyte reference only reads the index, and the sequences returned are backed by
+ * {@link MappedFastaSequenceReader}s which decode compounds straight from the mapped bytes.  A region such as
+ * chr7:1,000,000-1,010,000 is fetched with
+ * <pre>
+ * IndexedFastaReader reader = new IndexedFastaReader(new File("hg38.fa"));
+ * SequenceView&lt;NucleotideCompound&gt; region = reader.getDNASequence("chr7", 1000000, 1010000);
+ * </pre>
+ * The reader may be shared by many threads.  Sequences stay valid until the reader is closed.
+ *
+ * @see FastaIndex
+ */
+public class IndexedFastaReader implements Closeable {
+
+	private final FastaIndex index;
+	private final MappedFile file;
+
+	/**
+	 * Opens a FASTA file with its index.  The index is read from the .fai file next to the FASTA file if there is one,
+	 * otherwise it is built by scanning the FASTA file once.
+	 *
+	 * @param fasta the FASTA file
+	 * @throws IOException if the file or its index cannot be read
+	 */
+	public IndexedFastaReader(File fasta) throws IOException {
+		this(fasta, FastaIndex.getIndexFile(fasta).isFile() ? FastaIndex.read(FastaIndex.getIndexFile(fasta)) :
+				FastaIndex.build(fasta));
+	}
+
+	/**
+	 * Opens a FASTA file with the given index.
+	 *
+	 * @param fasta the FASTA file
+	 * @param index the index of the FASTA file
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public IndexedFastaReader(File fasta, FastaIndex index) throws IOException {
+		this.index = index;
+		file = new MappedFile(fasta);
+	}
+
+	/**
+	 * Returns the index of the FASTA file.
+	 *
+	 * @return the index
+	 */
+	public FastaIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the sequence names in file order.
+	 *
+	 * @return the sequence names
+	 */
+	public List<String> getNames() {
+		return index.getNames();
+	}
+
+	/**
+	 * Returns the storage of a sequence, for use with any {@link CompoundSet}.
+	 *
+	 * @param <C> each element of the sequence is a {@link Compound} of type C
+	 * @param name name of the sequence
+	 * @param compoundSet the compounds of the sequence
+	 * @return the storage of the sequence, backed by the mapped file
+	 * @throws IllegalArgumentException if the name is not in the index
+	 */
+	public <C extends Compound> MappedFastaSequenceReader<C> getSequenceReader(String name,
+			CompoundSet<C> compoundSet) {
+		return new MappedFastaSequenceReader<C>(file, getEntry(name), compoundSet);
+	}
+
+	/**
+	 * Returns a DNA sequence backed by the mapped file.
+	 *
+	 * @param name name of the sequence
+	 * @return the DNA sequence
+	 * @throws IllegalArgumentException if the name is not in the index
+	 */
+	public DNASequence getDNASequence(String name) {
+		DNASequence sequence = new DNASequence(getSequenceReader(name, DNACompoundSet.getDNACompoundSet()));
+		setHeader(sequence, name);
+		return sequence;
+	}
+
+	/**
+	 * Returns a region of a DNA sequence backed by the mapped file.
+	 *
+	 * @param name name of the sequence
+	 * @param bioBegin first position of the region
+	 * @param bioEnd last position of the region
+	 * @return the region as a view of the DNA sequence
+	 * @throws IllegalArgumentException if the name is not in the index
+	 */
+	public SequenceView<NucleotideCompound> getDNASequence(String name, int bioBegin, int bioEnd) {
+		return getDNASequence(name).getSubSequence(bioBegin, bioEnd);
+	}
+
+	/**
+	 * Returns a protein sequence backed by the mapped file.
+	 *
+	 * @param name name of the sequence
+	 * @return the protein sequence
+	 * @throws IllegalArgumentException if the name is not in the index
+	 */
+	public ProteinSequence getProteinSequence(String name) {
+		ProteinSequence sequence = new ProteinSequence(getSequenceReader(name,
+				AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		setHeader(sequence, name);
+		return sequence;
+	}
+
+	/**
+	 * Returns a region of a protein sequence backed by the mapped file.
+	 *
+	 * @param name name of the sequence
+	 * @param bioBegin first position of the region
+	 * @param bioEnd last position of the region
+	 * @return the region as a view of the protein sequence
+	 * @throws IllegalArgumentException if the name is not in the index
+	 */
+	public SequenceView<AminoAcidCompound> getProteinSequence(String name, int bioBegin, int bioEnd) {
+		return getProteinSequence(name).getSubSequence(bioBegin, bioEnd);
+	}
+
+	/**
+	 * Returns the bases of a region as a String without decoding them to compounds.
+	 *
+	 * @param name name of the sequence
+	 * @param bioBegin first position of the region
+	 * @param bioEnd last position of the region
+	 * @return the bases of the region exactly as they appear in the file
+	 * @throws IllegalArgumentException if the name is not in the index
+	 * @throws IndexOutOfBoundsException if the region is outside of the sequence
+	 */
+	public String getSequenceAsString(String name, long bioBegin, long bioEnd) {
+		FastaIndex.Entry entry = getEntry(name);
+		if (bioBegin < 1 || bioEnd > entry.getLength() || bioBegin > bioEnd + 1 ||
+				bioEnd - bioBegin >= Integer.MAX_VALUE) {
+			throw new IndexOutOfBoundsException("Region " + bioBegin + ".." + bioEnd + " is outside of " + name + ":1.." +
+					entry.getLength());
+		}
+		char[] bases = new char[(int) (bioEnd - bioBegin + 1)];
+		byte[] line = new byte[Math.max(1, entry.getLineBases())];
+		int i = 0;
+		for (long index = bioBegin - 1; index < bioEnd; ) {
+			int n = (int) Math.min(bioEnd - index, entry.getLineBases() - index % entry.getLineBases());
+			file.get(entry.getOffset(index), line, 0, n);
+			for (int j = 0; j < n; j++) {
+				bases[i++] = (char) (line[j] & 0xff);
+			}
+			index += n;
+		}
+		return new String(bases);
+	}
+
+	/**
+	 * Returns the header line of a sequence, without the leading '&gt;'.
+	 *
+	 * @param name name of the sequence
+	 * @return the header line
+	 * @throws IllegalArgumentException if the name is not in the index
+	 */
+	public String getHeader(String name) {
+		FastaIndex.Entry entry = getEntry(name);
+		long end = entry.getOffset() - 1;
+		while (end > 0 && (file.get(end) == '\n' || file.get(end) == '\r')) {
+			end--;
+		}
+		long start = end;
+		while (start > 0 && file.get(start - 1) != '\n') {
+			start--;
+		}
+		if (file.get(start) == '>') {
+			start++;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (long p = start; p <= end; p++) {
+			sb.append((char) (file.get(p) & 0xff));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Releases the mapping of the FASTA file.  Sequences returned by this reader must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		file.close();
+	}
+
+	private FastaIndex.Entry getEntry(String name) {
+		FastaIndex.Entry entry = index.getEntry(name);
+		if (entry == null) {
+			throw new IllegalArgumentException("Sequence " + name + " is not in the index of " + file.getFile());
+		}
+		return entry;
+	}
+
+	// sets the accession from the name and the description from the rest of the header
+	private void setHeader(AbstractSequence<?> sequence, String name) {
+		sequence.setAccession(new AccessionID(name));
+		String header = getHeader(name);
+		if (header.length() > name.length()) {
+			sequence.setDescription(header.substring(name.length()).trim());
+		}
+	}
+
+}
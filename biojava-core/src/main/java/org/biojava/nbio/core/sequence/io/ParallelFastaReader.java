@@ -0,0 +1,296 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.io.util.MappedFile;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Parses a FASTA file on all cores.  The file is cut into chunks of about {@link #getChunkSize()} bytes, each chunk
+ * boundary is moved forward to the next header line, and the chunks are parsed concurrently on the shared
+ * {@link ConcurrencyTools} thread pool, each by its own {@link FastaSequenceIterator}.  Chunks are read from a memory
+ * mapping of the file, or with their own file stream when mapping is turned off.
+ *
+ * The records are passed downstream either in file order, or in the order in which their chunks complete, which
+ * keeps all threads busy when some chunks are slower than others.  At most {@link #getMaxChunksInFlight()} parsed
+ * chunks are held in memory at once.  Records are parsed as by {@link FastaReader}, but the header parser and the
+ * sequence creator are shared by all threads and must be thread-safe, as are the ones shipped with BioJava.
+ *
+ * @param <S> each record is a {@link AbstractSequence} of type S
+ * @param <C> each element of a record is a {@link Compound} of type C
+ * @see FastaSpliterator
+ */
+public class ParallelFastaReader<S extends AbstractSequence<C>, C extends Compound> {
+
+	private static volatile long defaultChunkSize = 1 << 24;
+
+	private final File file;
+	private final SequenceHeaderParserInterface<S, C> headerParser;
+	private final SequenceCreatorInterface<C> sequenceCreator;
+	private long chunkSize = defaultChunkSize;
+	private int maxChunksInFlight = 2 * Runtime.getRuntime().availableProcessors();
+	private boolean memoryMapped = true;
+
+	/**
+	 * Prepares to parse a FASTA file.
+	 *
+	 * @param file the FASTA file
+	 * @param headerParser parses the header of each record
+	 * @param sequenceCreator creates the sequence of each record
+	 */
+	public ParallelFastaReader(File file, SequenceHeaderParserInterface<S, C> headerParser,
+			SequenceCreatorInterface<C> sequenceCreator) {
+		this.file = file;
+		this.headerParser = headerParser;
+		this.sequenceCreator = sequenceCreator;
+	}
+
+	/**
+	 * Sets the default number of bytes of each chunk.
+	 *
+	 * @param chunkSize the default chunk size
+	 */
+	public static void setDefaultChunkSize(long chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		defaultChunkSize = chunkSize;
+	}
+
+	/**
+	 * Returns the number of bytes of each chunk.
+	 *
+	 * @return the chunk size
+	 */
+	public long getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the number of bytes of each chunk.  Chunks should hold many records, so that the threads do not wait on
+	 * each other, but as many chunks as there are threads have to fit in memory.
+	 *
+	 * @param chunkSize the chunk size
+	 */
+	public void setChunkSize(long chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Returns the maximum number of chunks parsed and not yet passed downstream.
+	 *
+	 * @return the maximum number of chunks in flight
+	 */
+	public int getMaxChunksInFlight() {
+		return maxChunksInFlight;
+	}
+
+	/**
+	 * Sets the maximum number of chunks parsed and not yet passed downstream, which bounds the memory used.
+	 * Defaults to twice the number of processors.
+	 *
+	 * @param maxChunksInFlight the maximum number of chunks in flight
+	 */
+	public void setMaxChunksInFlight(int maxChunksInFlight) {
+		if (maxChunksInFlight < 1) {
+			throw new IllegalArgumentException("Maximum chunks in flight must be positive: " + maxChunksInFlight);
+		}
+		this.maxChunksInFlight = maxChunksInFlight;
+	}
+
+	/**
+	 * Returns true if the file is read through a memory mapping.
+	 *
+	 * @return true if the file is memory mapped
+	 */
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
+	/**
+	 * Sets whether the file is read through a memory mapping, which is the default, or with one file stream per chunk.
+	 *
+	 * @param memoryMapped true to memory map the file
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
+	/**
+	 * Returns the start offsets of the chunks, each of which is the offset of a header line, followed by the length of
+	 * the file.
+	 *
+	 * @return the chunk boundaries
+	 * @throws IOException if the file cannot be read
+	 */
+	public List<Long> getChunkBoundaries() throws IOException {
+		long length = file.length();
+		List<Long> boundaries = new ArrayList<Long>();
+		boundaries.add(0L);
+		long start = 0;
+		while (start + chunkSize < length) {
+			long boundary = FastaSpliterator.findRecordStart(file, start + chunkSize, length);
+			if (boundary < 0) {
+				break;
+			}
+			boundaries.add(boundary);
+			start = boundary;
+		}
+		boundaries.add(length);
+		return boundaries;
+	}
+
+	/**
+	 * Parses all records and returns them in file order, as {@link FastaReader#process()} does.
+	 *
+	 * @return the records by accession id
+	 * @throws IOException if the file cannot be read
+	 */
+	public LinkedHashMap<String, S> process() throws IOException {
+		final LinkedHashMap<String, S> sequences = new LinkedHashMap<String, S>();
+		process(new Consumer<S>() {
+			@Override
+			public void accept(S sequence) {
+				sequences.put(sequence.getAccession().getID(), sequence);
+			}
+		}, true);
+		return sequences;
+	}
+
+	/**
+	 * Parses all records and passes each to a consumer on the calling thread.
+	 *
+	 * @param consumer receives each record
+	 * @param ordered if true, records are passed in file order, otherwise chunk by chunk as soon as each chunk is parsed
+	 * @throws IOException if the file cannot be read, or if the calling thread is interrupted
+	 */
+	public void process(Consumer<? super S> consumer, boolean ordered) throws IOException {
+		List<Long> boundaries = getChunkBoundaries();
+		MappedFile mapped = memoryMapped && file.length() > 0 ? new MappedFile(file) : null;
+		ExecutorService executor = ConcurrencyTools.getThreadPool();
+		// in file order the futures are taken in submission order; a completion service would keep every finished one
+		CompletionService<List<S>> completion = ordered ? null : new ExecutorCompletionService<List<S>>(executor);
+		Deque<Future<List<S>>> inFlight = new ArrayDeque<Future<List<S>>>();
+		try {
+			int next = 0, chunks = boundaries.size() - 1;
+			while (next < chunks || !inFlight.isEmpty()) {
+				while (next < chunks && inFlight.size() < maxChunksInFlight) {
+					Chunk chunk = new Chunk(mapped, boundaries.get(next), boundaries.get(next + 1));
+					inFlight.add(ordered ? executor.submit(chunk) : completion.submit(chunk));
+					next++;
+				}
+				Future<List<S>> done;
+				if (ordered) {
+					done = inFlight.poll();
+				} else {
+					done = completion.take();
+					inFlight.remove(done);
+				}
+				for (S sequence : done.get()) {
+					consumer.accept(sequence);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while parsing " + file);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			for (Future<List<S>> future : inFlight) {
+				future.cancel(true);
+			}
+			if (mapped != null) {
+				mapped.close();
+			}
+		}
+	}
+
+	// parses the records whose header starts in a range of the file
+	private class Chunk implements Callable<List<S>> {
+
+		private final MappedFile mapped;
+		private final long start, end;
+
+		private Chunk(MappedFile mapped, long start, long end) {
+			this.mapped = mapped;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public List<S> call() throws IOException {
+			InputStream in;
+			if (mapped != null) {
+				in = mapped.getInputStream(start);
+			} else {
+				FileInputStream fileIn = new FileInputStream(file);
+				fileIn.getChannel().position(start);
+				in = fileIn;
+			}
+			FastaSequenceIterator<S, C> iterator = new FastaSequenceIterator<S, C>(in, start, end, headerParser,
+					sequenceCreator);
+			try {
+				List<S> sequences = new ArrayList<S>();
+				while (iterator.hasNext()) {
+					sequences.add(iterator.next());
+				}
+				return sequences;
+			} finally {
+				iterator.close();
+			}
+		}
+
+	}
+
+}
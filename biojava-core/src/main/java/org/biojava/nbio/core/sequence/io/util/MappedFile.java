@@ -0,0 +1,201 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only memory mapping of a whole file.  A single {@link MappedByteBuffer} is limited to 2 GB, so larger files are
+ * mapped as consecutive segments of {@link #SEGMENT_SIZE} bytes and addressed with long offsets.  Opening a file only
+ * sets up the mappings; pages are loaded by the operating system on first access and do not count against the heap.
+ *
+ * All read methods use absolute positions and never change the state of the shared buffers, so one instance may be
+ * read by many threads at once.
+ */
+public class MappedFile implements Closeable {
+
+	private static final int SEGMENT_SHIFT = 30;
+
+	/**
+	 * Number of bytes mapped by each segment.
+	 */
+	public static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+	private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private final File file;
+	private final long length;
+	private volatile MappedByteBuffer[] segments;
+
+	/**
+	 * Maps the given file.
+	 *
+	 * @param file the file to map
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public MappedFile(File file) throws IOException {
+		this.file = file;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			length = channel.size();
+			MappedByteBuffer[] mapped = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+			for (int i = 0; i < mapped.length; i++) {
+				long start = (long) i << SEGMENT_SHIFT;
+				mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+			}
+			segments = mapped;
+		} finally {
+			// a mapping stays valid after its channel is closed
+			raf.close();
+		}
+	}
+
+	/**
+	 * Returns the mapped file.
+	 *
+	 * @return the mapped file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the number of bytes in the file.
+	 *
+	 * @return the length of the file
+	 */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Returns the byte at the given position.
+	 *
+	 * @param position offset from the start of the file
+	 * @return the byte at the position
+	 * @throws IndexOutOfBoundsException if the position is outside of the file
+	 */
+	public byte get(long position) {
+		if (position < 0 || position >= length) {
+			throw new IndexOutOfBoundsException("Position " + position + " is outside of " + file);
+		}
+		return getSegments()[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Copies bytes starting at the given position into an array.
+	 *
+	 * @param position offset from the start of the file
+	 * @param destination array to fill
+	 * @param offset first index of the array to fill
+	 * @param count number of bytes to copy
+	 * @throws IndexOutOfBoundsException if the range is outside of the file or of the array
+	 */
+	public void get(long position, byte[] destination, int offset, int count) {
+		if (position < 0 || count < 0 || position + count > length) {
+			throw new IndexOutOfBoundsException("Range " + position + "+" + count + " is outside of " + file);
+		}
+		MappedByteBuffer[] mapped = getSegments();
+		while (count > 0) {
+			ByteBuffer segment = mapped[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+			int start = (int) (position & SEGMENT_MASK), n = Math.min(count, segment.limit() - start);
+			segment.position(start);
+			segment.get(destination, offset, n);
+			position += n;
+			offset += n;
+			count -= n;
+		}
+	}
+
+	/**
+	 * Returns a stream of the bytes from the given position to the end of the file.  The stream reads the shared
+	 * mappings and does not need to be closed.
+	 *
+	 * @param position offset from the start of the file of the first byte to read
+	 * @return a stream of the rest of the file
+	 * @throws IndexOutOfBoundsException if the position is outside of the file
+	 */
+	public InputStream getInputStream(final long position) {
+		if (position < 0 || position > length) {
+			throw new IndexOutOfBoundsException("Position " + position + " is outside of " + file);
+		}
+		return new InputStream() {
+
+			private long next = position;
+
+			@Override
+			public int read() {
+				return next < length ? get(next++) & 0xff : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (len == 0) {
+					return 0;
+				}
+				if (next >= length) {
+					return -1;
+				}
+				int n = (int) Math.min(len, length - next);
+				get(next, b, off, n);
+				next += n;
+				return n;
+			}
+
+			@Override
+			public long skip(long n) {
+				long skipped = Math.max(0, Math.min(n, length - next));
+				next += skipped;
+				return skipped;
+			}
+
+			@Override
+			public int available() {
+				return (int) Math.min(Integer.MAX_VALUE, length - next);
+			}
+		};
+	}
+
+	/**
+	 * Releases the mappings.  The memory is returned to the operating system once the buffers are garbage collected.
+	 */
+	@Override
+	public void close() {
+		segments = null;
+	}
+
+	private MappedByteBuffer[] getSegments() {
+		MappedByteBuffer[] mapped = segments;
+		if (mapped == null) {
+			throw new IllegalStateException(file + " has been closed");
+		}
+		return mapped;
+	}
+
+}
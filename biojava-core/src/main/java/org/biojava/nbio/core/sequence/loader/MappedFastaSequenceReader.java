@@ -0,0 +1,255 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.loader;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.io.FastaIndex;
+import org.biojava.nbio.core.sequence.io.util.MappedFile;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.ProxySequenceReader;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.core.sequence.template.SequenceMixin;
+import org.biojava.nbio.core.sequence.template.SequenceProxyView;
+import org.biojava.nbio.core.sequence.template.SequenceView;
+import org.biojava.nbio.core.util.Equals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Storage of a sequence which stays in a memory mapped FASTA file.  The compounds are decoded from the mapped bytes on
+ * each access, using the line layout of a {@link FastaIndex.Entry} to skip line terminators, so the sequence itself
+ * takes no heap.  Methods that return the whole sequence as a {@link List} or String copy it; prefer
+ * {@link #getSubSequence(Integer, Integer)} and {@link #iterator()} for long sequences.
+ *
+ * @param <C> each element of the sequence is a {@link Compound} of type C
+ * @see org.biojava.nbio.core.sequence.io.IndexedFastaReader
+ */
+public class MappedFastaSequenceReader<C extends Compound> implements ProxySequenceReader<C> {
+
+	private final MappedFile file;
+	private final FastaIndex.Entry entry;
+	private CompoundSet<C> compoundSet;
+	private Object[] compounds;
+
+	/**
+	 * Creates the storage of one indexed sequence.
+	 *
+	 * @param file the mapped FASTA file
+	 * @param entry the index entry of the sequence
+	 * @param compoundSet the compounds of the sequence
+	 */
+	public MappedFastaSequenceReader(MappedFile file, FastaIndex.Entry entry, CompoundSet<C> compoundSet) {
+		if (entry.getLength() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Sequence " + entry.getName() + " is longer than " + Integer.MAX_VALUE);
+		}
+		this.file = file;
+		this.entry = entry;
+		setCompoundSet(compoundSet);
+	}
+
+	/**
+	 * Returns the index entry of the sequence.
+	 *
+	 * @return the index entry
+	 */
+	public FastaIndex.Entry getEntry() {
+		return entry;
+	}
+
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		this.compoundSet = compoundSet;
+		compounds = new Object[256];
+	}
+
+	/**
+	 * The contents are defined by the mapped file and cannot be replaced.
+	 */
+	@Override
+	public void setContents(String sequence) {
+		throw new UnsupportedOperationException("The contents of a mapped FASTA sequence are read only");
+	}
+
+	@Override
+	public int getLength() {
+		return (int) entry.getLength();
+	}
+
+	@Override
+	public C getCompoundAt(int position) {
+		if (position < 1 || position > getLength()) {
+			throw new IndexOutOfBoundsException("Position " + position + " is outside of 1.." + getLength());
+		}
+		return getCompound(file.get(entry.getOffset(position - 1L)));
+	}
+
+	/**
+	 * Returns the compounds of a region as a String, copying the mapped bytes line by line.
+	 *
+	 * @param bioBegin first position of the region
+	 * @param bioEnd last position of the region
+	 * @return the region as a String
+	 */
+	public String getSequenceAsString(int bioBegin, int bioEnd) {
+		if (bioBegin < 1 || bioEnd > getLength() || bioBegin > bioEnd + 1) {
+			throw new IndexOutOfBoundsException("Region " + bioBegin + ".." + bioEnd + " is outside of 1.." +
+					getLength());
+		}
+		StringBuilder sb = new StringBuilder(bioEnd - bioBegin + 1);
+		byte[] line = new byte[Math.max(1, entry.getLineBases())];
+		long index = bioBegin - 1L;
+		while (index < bioEnd) {
+			int n = (int) Math.min(bioEnd - index, entry.getLineBases() - index % entry.getLineBases());
+			file.get(entry.getOffset(index), line, 0, n);
+			for (int i = 0; i < n; i++) {
+				sb.append(getCompound(line[i]).toString());
+			}
+			index += n;
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		return getSequenceAsString(1, getLength());
+	}
+
+	@Override
+	public List<C> getAsList() {
+		List<C> list = new ArrayList<C>(getLength());
+		for (C compound : this) {
+			list.add(compound);
+		}
+		return list;
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		for (int i = 1; i <= getLength(); i++) {
+			if (compound.equals(getCompoundAt(i))) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		for (int i = getLength(); i > 0; i--) {
+			if (compound.equals(getCompoundAt(i))) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(Integer bioBegin, Integer bioEnd) {
+		return new SequenceProxyView<C>(this, bioBegin, bioEnd);
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return new Iterator<C>() {
+
+			private int position = 1;
+
+			@Override
+			public boolean hasNext() {
+				return position <= getLength();
+			}
+
+			@Override
+			public C next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return getCompoundAt(position++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return new AccessionID(entry.getName());
+	}
+
+	@Override
+	public int countCompounds(C... compounds) {
+		return SequenceMixin.countCompounds(this, compounds);
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	@Override
+	public String toString() {
+		return getSequenceAsString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!Equals.classEqual(this, o)) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		Sequence<C> other = (Sequence<C>) o;
+		return other.getCompoundSet() == getCompoundSet() && other.getSequenceAsString().equals(getSequenceAsString());
+	}
+
+	@Override
+	public int hashCode() {
+		return getSequenceAsString().hashCode();
+	}
+
+	// decodes one byte of the file; the lookup table is filled on demand and racing threads store the same value
+	private C getCompound(byte b) {
+		@SuppressWarnings("unchecked")
+		C compound = (C) compounds[b & 0xff];
+		if (compound == null) {
+			compound = compoundSet.getCompoundForString(String.valueOf((char) (b & 0xff)));
+			if (compound == null) {
+				throw new IllegalStateException("Compound '" + (char) (b & 0xff) + "' of sequence " + entry.getName() +
+						" is not in " + compoundSet);
+			}
+			compounds[b & 0xff] = compound;
+		}
+		return compound;
+	}
+
+}
@@ -0,0 +1,349 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.template.ByteCodedSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.SequenceMixin;
+import org.biojava.nbio.core.sequence.template.SequenceProxyView;
+import org.biojava.nbio.core.sequence.template.SequenceReader;
+import org.biojava.nbio.core.sequence.template.SequenceView;
+import org.biojava.nbio.core.util.Equals;
+import org.biojava.nbio.core.util.Hashcoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Stores a Sequence as one byte per compound, each byte being the index of the compound in
+ * {@link CompoundSet#getAllCompounds()}.  This takes a byte per compound instead of a reference, and gives
+ * {@link SequenceMixin} primitive access to the compounds through {@link ByteCodedSequence}.
+ *
+ * @param <C>
+ */
+public class ByteArraySequenceReader<C extends Compound> implements SequenceReader<C>, ByteCodedSequence<C> {
+
+	private static final byte[] EMPTY = new byte[0];
+	private static final Map<CompoundSet<?>, Codes<?>> codesBySet =
+			Collections.synchronizedMap(new WeakHashMap<CompoundSet<?>, Codes<?>>());
+
+	private CompoundSet<C> compoundSet;
+	private Codes<C> codes;
+	private byte[] sequence = EMPTY;
+	private AccessionID accession;
+
+	private volatile Integer hashcode = null;
+
+	/**
+	 *
+	 */
+	public ByteArraySequenceReader() {
+		//Do nothing
+	}
+
+	/**
+	 *
+	 * @param sequence
+	 * @param compoundSet
+	 * @throws CompoundNotFoundException
+	 */
+	public ByteArraySequenceReader(String sequence, CompoundSet<C> compoundSet) throws CompoundNotFoundException {
+		setCompoundSet(compoundSet);
+		setContents(sequence);
+	}
+
+	/**
+	 *
+	 * @param compounds
+	 * @param compoundSet
+	 */
+	public ByteArraySequenceReader(List<C> compounds, CompoundSet<C> compoundSet) {
+		setCompoundSet(compoundSet);
+		setContents(compounds);
+	}
+
+	/**
+	 *
+	 * @param sequence
+	 * @param compoundSet
+	 * @param accession the accession of the sequence
+	 * @throws CompoundNotFoundException
+	 */
+	public ByteArraySequenceReader(String sequence, CompoundSet<C> compoundSet, AccessionID accession)
+			throws CompoundNotFoundException {
+		this(sequence, compoundSet);
+		this.accession = accession;
+	}
+
+	/**
+	 *
+	 * @param compounds
+	 * @param compoundSet
+	 * @param accession the accession of the sequence
+	 */
+	public ByteArraySequenceReader(List<C> compounds, CompoundSet<C> compoundSet, AccessionID accession) {
+		this(compounds, compoundSet);
+		this.accession = accession;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the compound set has more than 256 compounds
+	 */
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		this.compoundSet = compoundSet;
+		this.codes = getCodes(compoundSet);
+		this.sequence = EMPTY;
+		hashcode = null;
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public void setContents(String sequence) throws CompoundNotFoundException {
+		hashcode = null;
+		if (compoundSet.getMaxSingleCompoundStringLength() > 1) {
+			// compounds may span several characters; parse them as ArrayListSequenceReader does
+			setContents(new ArrayListSequenceReader<C>(sequence, compoundSet).getAsList());
+			return;
+		}
+		byte[] encoded = new byte[sequence.length()];
+		for (int i = 0; i < encoded.length; i++) {
+			char c = sequence.charAt(i);
+			int code = c < 128 ? codes.ascii[c] : -1;
+			if (code < 0) {
+				code = getCode(compoundSet.getCompoundForString(String.valueOf(c)));
+				if (code < 0) {
+					throw new CompoundNotFoundException("Cannot find compound for: " + c);
+				}
+			}
+			encoded[i] = (byte) code;
+		}
+		this.sequence = encoded;
+	}
+
+	/**
+	 *
+	 * @param list
+	 * @throws IllegalArgumentException if a compound is not in the compound set
+	 */
+	public void setContents(List<C> list) {
+		hashcode = null;
+		byte[] encoded = new byte[list.size()];
+		int i = 0;
+		for (C compound : list) {
+			int code = getCode(compound);
+			if (code < 0) {
+				throw new IllegalArgumentException("Compound " + compound + " is not in " + compoundSet);
+			}
+			encoded[i++] = (byte) code;
+		}
+		this.sequence = encoded;
+	}
+
+	@Override
+	public int getLength() {
+		return sequence.length;
+	}
+
+	@Override
+	public C getCompoundAt(int position) {
+		return codes.compounds.get(sequence[position - 1] & 0xff);
+	}
+
+	@Override
+	public byte codeAt(int position) {
+		return sequence[position - 1];
+	}
+
+	@Override
+	public void forEachCode(IntConsumer consumer) {
+		for (byte code : sequence) {
+			consumer.accept(code & 0xff);
+		}
+	}
+
+	@Override
+	public int getCodeCount() {
+		return codes.compounds.size();
+	}
+
+	@Override
+	public int getCode(C compound) {
+		if (compound == null) {
+			return -1;
+		}
+		Integer code = codes.index.get(compound);
+		return code == null ? -1 : code;
+	}
+
+	@Override
+	public C getCompoundForCode(int code) {
+		return codes.compounds.get(code);
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		return SequenceMixin.toString(this);
+	}
+
+	@Override
+	public List<C> getAsList() {
+		return SequenceMixin.toList(this);
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		return SequenceMixin.indexOf(this, compound);
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		return SequenceMixin.lastIndexOf(this, compound);
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return new Iterator<C>() {
+
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < sequence.length;
+			}
+
+			@Override
+			public C next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return codes.compounds.get(sequence[index++] & 0xff);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(Integer bioBegin, Integer bioEnd) {
+		return new SequenceProxyView<C>(this, bioBegin, bioEnd);
+	}
+
+	/**
+	 * @return the accession given to the constructor, or null if none was
+	 */
+	@Override
+	public AccessionID getAccession() {
+		return accession;
+	}
+
+	@Override
+	public int countCompounds(C... compounds) {
+		return SequenceMixin.countCompounds(this, compounds);
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	@Override
+	public String toString() {
+		return getSequenceAsString();
+	}
+
+	@Override
+	public int hashCode() {
+		if(hashcode == null) {
+			int s = Hashcoder.SEED;
+			s = Hashcoder.hash(s, Arrays.hashCode(sequence));
+			s = Hashcoder.hash(s, compoundSet);
+			hashcode = s;
+		}
+		return hashcode;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object o) {
+		if(Equals.classEqual(this, o)) {
+			ByteArraySequenceReader<C> that = (ByteArraySequenceReader<C>)o;
+			return  Arrays.equals(sequence, that.sequence) &&
+					Equals.equal(compoundSet, that.compoundSet);
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <C extends Compound> Codes<C> getCodes(CompoundSet<C> compoundSet) {
+		Codes<C> codes = (Codes<C>) codesBySet.get(compoundSet);
+		if (codes == null) {
+			codes = new Codes<C>(compoundSet);
+			codesBySet.put(compoundSet, codes);
+		}
+		return codes;
+	}
+
+	// the codes of a compound set, shared by all sequences of the set
+	private static class Codes<C extends Compound> {
+
+		private final List<C> compounds;
+		private final Map<C, Integer> index = new HashMap<C, Integer>();
+		private final byte[] ascii = new byte[128];
+
+		private Codes(CompoundSet<C> compoundSet) {
+			compounds = new ArrayList<C>(compoundSet.getAllCompounds());
+			if (compounds.size() > 256) {
+				throw new IllegalArgumentException("Compound set " + compoundSet + " has more than 256 compounds");
+			}
+			Arrays.fill(ascii, (byte) -1);
+			for (int code = 0; code < compounds.size(); code++) {
+				C compound = compounds.get(code);
+				index.put(compound, code);
+				String s = compoundSet.getStringForCompound(compound);
+				if (s.length() == 1 && s.charAt(0) < 128 && compoundSet.getCompoundForString(s) == compound) {
+					// values above 127 are looked up through the index
+					ascii[s.charAt(0)] = code < 128 ? (byte) code : -1;
+				}
+			}
+		}
+
+	}
+
+}
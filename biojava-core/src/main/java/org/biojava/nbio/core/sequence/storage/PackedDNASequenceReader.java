@@ -0,0 +1,671 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.ProxySequenceReader;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.core.sequence.template.SequenceMixin;
+import org.biojava.nbio.core.sequence.template.SequenceProxyView;
+import org.biojava.nbio.core.sequence.template.SequenceView;
+import org.biojava.nbio.core.util.Equals;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Nucleotide storage which packs 32 bases into each long, in the layout of the UCSC 2bit format: each base takes
+ * 2 bits (T=0, C=1, A=2, G=3, so that the complement of a base is its code XOR 2), lower case bases are recorded as
+ * runs of soft-masked positions, and any other compound, such as N, is recorded as a run of that compound.  A
+ * chromosome with long N gaps and repeat masking therefore takes little more than a quarter of a byte per base,
+ * compared to a reference per base for {@link ArrayListSequenceReader}.
+ *
+ * Counting compounds, decoding to a String, sub sequences and the reverse complement work on whole words rather
+ * than compound by compound.  The storage is immutable and may be shared by many threads.
+ *
+ * @param <C> each element of the sequence is a {@link NucleotideCompound} of type C
+ * @see org.biojava.nbio.core.sequence.SequenceOptimizationHints.SequenceStorage#PACKED
+ */
+public class PackedDNASequenceReader<C extends NucleotideCompound> implements ProxySequenceReader<C> {
+
+	private static final int BASES_PER_WORD = 32;
+	private static final long LOW_BITS = 0x5555555555555555L;
+	private static final long HIGH_BITS = 0xAAAAAAAAAAAAAAAAL;
+	private static final String BASES = "TCAG";
+
+	// values of the character lookup table besides the codes 0..3 and the lower case codes 4..7
+	private static final byte OTHER = 8, UNKNOWN = -1;
+
+	private final CompoundSet<C> compoundSet;
+	private final AccessionID accession;
+	private final int length;
+	private final long[] words;
+	// runs of lower case bases, and runs of compounds other than the four bases, as sorted 0-based starts
+	private final int[] maskStarts, maskLengths;
+	private final int[] otherStarts, otherLengths;
+	private final Object[] otherCompounds;
+	private final Object[] upper = new Object[4], lower = new Object[4];
+	private final char[] upperChars = new char[4], lowerChars = new char[4];
+
+	/**
+	 * Packs a sequence.
+	 *
+	 * @param sequence the bases
+	 * @param compoundSet the compounds of the sequence, which must contain A, C, G and T
+	 * @throws CompoundNotFoundException if a character is not in the compound set
+	 * @throws IllegalArgumentException if the compound set cannot be packed
+	 */
+	public PackedDNASequenceReader(String sequence, CompoundSet<C> compoundSet) throws CompoundNotFoundException {
+		this(sequence, compoundSet, new AccessionID("Unknown"));
+	}
+
+	/**
+	 * Packs a sequence.
+	 *
+	 * @param sequence the bases
+	 * @param compoundSet the compounds of the sequence, which must contain A, C, G and T
+	 * @param accession the accession of the sequence
+	 * @throws CompoundNotFoundException if a character is not in the compound set
+	 * @throws IllegalArgumentException if the compound set cannot be packed
+	 */
+	public PackedDNASequenceReader(String sequence, CompoundSet<C> compoundSet, AccessionID accession)
+			throws CompoundNotFoundException {
+		if (!isSupported(compoundSet)) {
+			throw new IllegalArgumentException("Compound set " + compoundSet + " has no single letter A, C, G and T");
+		}
+		this.compoundSet = compoundSet;
+		this.accession = accession;
+		this.length = sequence.length();
+		this.words = new long[wordCount(length)];
+		initCompounds();
+
+		byte[] table = new byte[128];
+		Arrays.fill(table, UNKNOWN);
+		for (int code = 0; code < 4; code++) {
+			table[upperChars[code]] = (byte) code;
+			if (lower[code] != null) {
+				table[lowerChars[code]] = (byte) (code | 4);
+			}
+		}
+		Object[] otherTable = new Object[128];
+		RunBuilder masks = new RunBuilder(), others = new RunBuilder();
+		for (int i = 0; i < length; i++) {
+			char c = sequence.charAt(i);
+			int code = c < 128 ? table[c] : UNKNOWN;
+			if (code == UNKNOWN || code == OTHER) {
+				Object compound = c < 128 ? otherTable[c] : null;
+				if (compound == null) {
+					compound = compoundSet.getCompoundForString(String.valueOf(c));
+					if (compound == null) {
+						throw new CompoundNotFoundException("Cannot find compound for: " + c);
+					}
+					if (c < 128) {
+						table[c] = OTHER;
+						otherTable[c] = compound;
+					}
+				}
+				others.add(i, compound);
+				continue;
+			}
+			if ((code & 4) != 0) {
+				masks.add(i, null);
+			}
+			words[i >>> 5] |= (long) (code & 3) << ((i & 31) << 1);
+		}
+		maskStarts = masks.starts();
+		maskLengths = masks.lengths();
+		otherStarts = others.starts();
+		otherLengths = others.lengths();
+		otherCompounds = others.compounds();
+	}
+
+	private PackedDNASequenceReader(CompoundSet<C> compoundSet, AccessionID accession, int length, long[] words,
+			int[] maskStarts, int[] maskLengths, int[] otherStarts, int[] otherLengths, Object[] otherCompounds) {
+		this.compoundSet = compoundSet;
+		this.accession = accession;
+		this.length = length;
+		this.words = words;
+		this.maskStarts = maskStarts;
+		this.maskLengths = maskLengths;
+		this.otherStarts = otherStarts;
+		this.otherLengths = otherLengths;
+		this.otherCompounds = otherCompounds;
+		initCompounds();
+	}
+
+	/**
+	 * Returns true if sequences of the given compound set can be packed, which requires the single letter compounds
+	 * A, C, G and T.
+	 *
+	 * @param compoundSet the compound set
+	 * @return true if the compound set can be packed
+	 */
+	public static boolean isSupported(CompoundSet<?> compoundSet) {
+		if (compoundSet.getMaxSingleCompoundStringLength() != 1) {
+			return false;
+		}
+		for (int i = 0; i < BASES.length(); i++) {
+			if (compoundSet.getCompoundForString(BASES.substring(i, i + 1)) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of bytes used by the packed bases, which excludes the runs of masked and other compounds.
+	 *
+	 * @return the size of the packed bases in bytes
+	 */
+	public long getPackedSize() {
+		return 8L * words.length;
+	}
+
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+	@Override
+	public C getCompoundAt(int position) {
+		if (position < 1 || position > length) {
+			throw new IndexOutOfBoundsException("Position " + position + " is outside of 1.." + length);
+		}
+		int index = position - 1;
+		int run = findRun(otherStarts, otherLengths, index);
+		if (run >= 0) {
+			return compound(otherCompounds[run]);
+		}
+		int code = code(index);
+		return compound(findRun(maskStarts, maskLengths, index) >= 0 ? lower[code] : upper[code]);
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		return getSequenceAsString(1, length);
+	}
+
+	/**
+	 * Returns a region as a String, decoding a word of 32 bases at a time.
+	 *
+	 * @param bioBegin first position of the region
+	 * @param bioEnd last position of the region
+	 * @return the region as a String
+	 */
+	public String getSequenceAsString(int bioBegin, int bioEnd) {
+		checkRegion(bioBegin, bioEnd);
+		int from = bioBegin - 1, to = bioEnd;
+		char[] chars = new char[to - from];
+		int i = from;
+		while (i < to) {
+			long word = words[i >>> 5] >>> ((i & 31) << 1);
+			int n = Math.min(to, (i | 31) + 1) - i;
+			for (int j = 0; j < n; j++) {
+				chars[i - from + j] = upperChars[(int) word & 3];
+				word >>>= 2;
+			}
+			i += n;
+		}
+		for (int run = firstRun(maskStarts, maskLengths, from); run < maskStarts.length && maskStarts[run] < to; run++) {
+			int end = Math.min(to, maskStarts[run] + maskLengths[run]);
+			for (int p = Math.max(from, maskStarts[run]); p < end; p++) {
+				chars[p - from] = lowerChars[code(p)];
+			}
+		}
+		for (int run = firstRun(otherStarts, otherLengths, from); run < otherStarts.length && otherStarts[run] < to; run++) {
+			char c = otherCompounds[run].toString().charAt(0);
+			Arrays.fill(chars, Math.max(from, otherStarts[run]) - from,
+					Math.min(to, otherStarts[run] + otherLengths[run]) - from, c);
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public int countCompounds(C... compounds) {
+		return countCompounds(1, length, compounds);
+	}
+
+	/**
+	 * Counts the given compounds in a region, counting each word of 32 bases with a population count.
+	 *
+	 * @param bioBegin first position of the region
+	 * @param bioEnd last position of the region
+	 * @param compounds the compounds to count; each is counted as many times as it is given
+	 * @return the number of positions of the region holding one of the compounds
+	 */
+	@SafeVarargs
+	public final int countCompounds(int bioBegin, int bioEnd, C... compounds) {
+		checkRegion(bioBegin, bioEnd);
+		int from = bioBegin - 1, to = bioEnd;
+		int count = 0;
+		for (C compound : compounds) {
+			if (compound == null) {
+				continue;
+			}
+			int code = indexOf(upper, compound);
+			if (code >= 0) {
+				count += countCode(code, from, to) - countCodeInRuns(code, maskStarts, maskLengths, from, to)
+						- countCodeInRuns(code, otherStarts, otherLengths, from, to);
+				continue;
+			}
+			code = indexOf(lower, compound);
+			if (code >= 0) {
+				count += countCodeInRuns(code, maskStarts, maskLengths, from, to);
+				continue;
+			}
+			for (int run = firstRun(otherStarts, otherLengths, from); run < otherStarts.length && otherStarts[run] < to;
+					run++) {
+				if (otherCompounds[run].equals(compound)) {
+					count += Math.min(to, otherStarts[run] + otherLengths[run]) - Math.max(from, otherStarts[run]);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a packed copy of a region, shifting whole words into place.
+	 *
+	 * @param bioBegin first position of the region
+	 * @param bioEnd last position of the region
+	 * @return the storage of the region
+	 */
+	public PackedDNASequenceReader<C> copy(int bioBegin, int bioEnd) {
+		checkRegion(bioBegin, bioEnd);
+		int from = bioBegin - 1, n = bioEnd - from;
+		int[][] masks = clipRuns(maskStarts, maskLengths, from, bioEnd);
+		int[][] others = clipRuns(otherStarts, otherLengths, from, bioEnd);
+		int first = firstRun(otherStarts, otherLengths, from);
+		return new PackedDNASequenceReader<C>(compoundSet, accession, n, shift(words, from, n), masks[0], masks[1],
+				others[0], others[1], Arrays.copyOfRange(otherCompounds, first, first + others[0].length));
+	}
+
+	/**
+	 * Returns the packed reverse complement of this sequence.  Each word is reversed and complemented with a few bit
+	 * operations, and the runs of masked and other compounds are mirrored.
+	 *
+	 * @return the storage of the reverse complement
+	 * @throws IllegalStateException if an other compound has no complement in the compound set
+	 */
+	public PackedDNASequenceReader<C> getReverseComplement() {
+		long[] reversed = new long[words.length];
+		for (int i = 0; i < words.length; i++) {
+			long word = Long.reverse(words[i]);
+			// Long.reverse also swaps the two bits of each base, so swap them back, then complement
+			word = ((word >>> 1) & LOW_BITS) | ((word & LOW_BITS) << 1);
+			reversed[words.length - 1 - i] = word ^ HIGH_BITS;
+		}
+		// the padding of the last word is now at the start
+		int padding = words.length * BASES_PER_WORD - length;
+		long[] shifted = shift(reversed, padding, length);
+
+		int[] masks = mirror(maskStarts, maskLengths);
+		int[] others = mirror(otherStarts, otherLengths);
+		Object[] complements = new Object[otherCompounds.length];
+		for (int run = 0; run < otherCompounds.length; run++) {
+			Object complement = compound(otherCompounds[run]).getComplement();
+			if (complement == null) {
+				throw new IllegalStateException("Compound " + otherCompounds[run] + " has no complement");
+			}
+			complements[otherCompounds.length - 1 - run] = complement;
+		}
+		return new PackedDNASequenceReader<C>(compoundSet, accession, length, shifted,
+				Arrays.copyOf(masks, maskStarts.length), Arrays.copyOfRange(masks, maskStarts.length, masks.length),
+				Arrays.copyOf(others, otherStarts.length), Arrays.copyOfRange(others, otherStarts.length, others.length),
+				complements);
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(Integer bioBegin, Integer bioEnd) {
+		return new PackedSequenceView<C>(this, this, bioBegin, bioBegin, bioEnd);
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return new Iterator<C>() {
+
+			private int index, mask = firstRun(maskStarts, maskLengths, 0), other = firstRun(otherStarts, otherLengths, 0);
+
+			@Override
+			public boolean hasNext() {
+				return index < length;
+			}
+
+			@Override
+			public C next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int i = index++;
+				while (other < otherStarts.length && otherStarts[other] + otherLengths[other] <= i) {
+					other++;
+				}
+				if (other < otherStarts.length && otherStarts[other] <= i) {
+					return compound(otherCompounds[other]);
+				}
+				while (mask < maskStarts.length && maskStarts[mask] + maskLengths[mask] <= i) {
+					mask++;
+				}
+				boolean masked = mask < maskStarts.length && maskStarts[mask] <= i;
+				return compound(masked ? lower[code(i)] : upper[code(i)]);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public List<C> getAsList() {
+		return SequenceMixin.toList(this);
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		return SequenceMixin.indexOf(this, compound);
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		return SequenceMixin.lastIndexOf(this, compound);
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return accession;
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		throw new UnsupportedOperationException("Cannot reset the CompoundSet; object is immutable");
+	}
+
+	/**
+	 * Class is immutable & so this is unsupported
+	 */
+	@Override
+	public void setContents(String sequence) throws CompoundNotFoundException {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " is an immutable data structure; cannot reset contents");
+	}
+
+	@Override
+	public String toString() {
+		return getSequenceAsString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!Equals.classEqual(this, o)) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		PackedDNASequenceReader<C> that = (PackedDNASequenceReader<C>) o;
+		return Equals.equal(compoundSet, that.compoundSet) && length == that.length &&
+				getSequenceAsString().equals(that.getSequenceAsString());
+	}
+
+	@Override
+	public int hashCode() {
+		return getSequenceAsString().hashCode();
+	}
+
+	private void initCompounds() {
+		for (int code = 0; code < 4; code++) {
+			String base = BASES.substring(code, code + 1);
+			upper[code] = compoundSet.getCompoundForString(base);
+			upperChars[code] = upper[code].toString().charAt(0);
+			lower[code] = compoundSet.getCompoundForString(base.toLowerCase());
+			lowerChars[code] = lower[code] == null ? upperChars[code] : lower[code].toString().charAt(0);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private C compound(Object compound) {
+		return (C) compound;
+	}
+
+	private int code(int index) {
+		return (int) (words[index >>> 5] >>> ((index & 31) << 1)) & 3;
+	}
+
+	private void checkRegion(int bioBegin, int bioEnd) {
+		if (bioBegin < 1 || bioEnd > length || bioBegin > bioEnd + 1) {
+			throw new IndexOutOfBoundsException("Region " + bioBegin + ".." + bioEnd + " is outside of 1.." + length);
+		}
+	}
+
+	// counts the positions of [from, to) packed with the given code
+	private int countCode(int code, int from, int to) {
+		if (from >= to) {
+			return 0;
+		}
+		long pattern = code * LOW_BITS;
+		int count = 0;
+		for (int w = from >>> 5, last = (to - 1) >>> 5; w <= last; w++) {
+			long x = words[w] ^ pattern;
+			// the low bit of each base is set unless the base matches
+			long matches = ~(x | (x >>> 1)) & LOW_BITS;
+			if (w == from >>> 5) {
+				matches &= -1L << ((from & 31) << 1);
+			}
+			if (w == last && (to & 31) != 0) {
+				matches &= (1L << ((to & 31) << 1)) - 1;
+			}
+			count += Long.bitCount(matches);
+		}
+		return count;
+	}
+
+	private int countCodeInRuns(int code, int[] starts, int[] lengths, int from, int to) {
+		int count = 0;
+		for (int run = firstRun(starts, lengths, from); run < starts.length && starts[run] < to; run++) {
+			count += countCode(code, Math.max(from, starts[run]), Math.min(to, starts[run] + lengths[run]));
+		}
+		return count;
+	}
+
+	private static int indexOf(Object[] compounds, Object compound) {
+		for (int i = 0; i < compounds.length; i++) {
+			if (compound.equals(compounds[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int wordCount(int length) {
+		return (length + BASES_PER_WORD - 1) / BASES_PER_WORD;
+	}
+
+	// returns n bases of a packed array starting at the given base, with the padding of the last word cleared
+	private static long[] shift(long[] words, int from, int n) {
+		long[] shifted = new long[wordCount(n)];
+		long bit = 2L * from;
+		int offset = (int) (bit & 63);
+		for (int w = 0, source = (int) (bit >>> 6); w < shifted.length; w++, source++) {
+			long word = words[source] >>> offset;
+			if (offset != 0 && source + 1 < words.length) {
+				word |= words[source + 1] << (64 - offset);
+			}
+			shifted[w] = word;
+		}
+		if ((n & 31) != 0) {
+			shifted[shifted.length - 1] &= (1L << ((n & 31) << 1)) - 1;
+		}
+		return shifted;
+	}
+
+	// returns the index of the run holding the given index, or -1
+	private static int findRun(int[] starts, int[] lengths, int index) {
+		int run = Arrays.binarySearch(starts, index);
+		if (run >= 0) {
+			return run;
+		}
+		run = -run - 2;
+		return run >= 0 && index < starts[run] + lengths[run] ? run : -1;
+	}
+
+	// returns the index of the first run ending after the given index
+	private static int firstRun(int[] starts, int[] lengths, int index) {
+		int run = Arrays.binarySearch(starts, index);
+		if (run >= 0) {
+			return run;
+		}
+		run = -run - 2;
+		return run >= 0 && index < starts[run] + lengths[run] ? run : run + 1;
+	}
+
+	// returns the starts and lengths of the runs clipped to [from, to), relative to from
+	private static int[][] clipRuns(int[] starts, int[] lengths, int from, int to) {
+		int first = firstRun(starts, lengths, from), last = first;
+		while (last < starts.length && starts[last] < to) {
+			last++;
+		}
+		int[][] clipped = new int[2][last - first];
+		for (int run = first; run < last; run++) {
+			int start = Math.max(from, starts[run]), end = Math.min(to, starts[run] + lengths[run]);
+			clipped[0][run - first] = start - from;
+			clipped[1][run - first] = end - start;
+		}
+		return clipped;
+	}
+
+	// returns the starts followed by the lengths of the runs on the reverse strand
+	private int[] mirror(int[] starts, int[] lengths) {
+		int[] mirrored = new int[2 * starts.length];
+		for (int run = 0; run < starts.length; run++) {
+			int target = starts.length - 1 - run;
+			mirrored[target] = length - starts[run] - lengths[run];
+			mirrored[starts.length + target] = lengths[run];
+		}
+		return mirrored;
+	}
+
+	// collects runs of consecutive positions with the same compound
+	private static class RunBuilder {
+
+		private int[] starts = new int[16], lengths = new int[16];
+		private Object[] compounds = new Object[16];
+		private int size;
+
+		private void add(int index, Object compound) {
+			if (size > 0 && starts[size - 1] + lengths[size - 1] == index && Equals.equal(compounds[size - 1], compound)) {
+				lengths[size - 1]++;
+				return;
+			}
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, 2 * size);
+				lengths = Arrays.copyOf(lengths, 2 * size);
+				compounds = Arrays.copyOf(compounds, 2 * size);
+			}
+			starts[size] = index;
+			lengths[size] = 1;
+			compounds[size] = compound;
+			size++;
+		}
+
+		private int[] starts() {
+			return Arrays.copyOf(starts, size);
+		}
+
+		private int[] lengths() {
+			return Arrays.copyOf(lengths, size);
+		}
+
+		private Object[] compounds() {
+			return Arrays.copyOf(compounds, size);
+		}
+
+	}
+
+	/**
+	 * View of a region of a packed sequence which decodes and counts with the bulk methods of the storage.
+	 *
+	 * @param <C> each element of the sequence is a {@link NucleotideCompound} of type C
+	 */
+	public static class PackedSequenceView<C extends NucleotideCompound> extends SequenceProxyView<C> {
+
+		private final PackedDNASequenceReader<C> storage;
+		private final int storageBegin;
+
+		/**
+		 * Creates a view of a region.
+		 *
+		 * @param sequence the viewed sequence
+		 * @param storage the packed storage of the viewed sequence
+		 * @param storageBegin the position in the storage of the first position of the view
+		 * @param bioBegin first position of the view in the viewed sequence
+		 * @param bioEnd last position of the view in the viewed sequence
+		 */
+		public PackedSequenceView(Sequence<C> sequence, PackedDNASequenceReader<C> storage, int storageBegin,
+				Integer bioBegin, Integer bioEnd) {
+			super(sequence, bioBegin, bioEnd);
+			this.storage = storage;
+			this.storageBegin = storageBegin;
+		}
+
+		@Override
+		public String getSequenceAsString() {
+			return storage.getSequenceAsString(storageBegin, storageBegin + getLength() - 1);
+		}
+
+		@Override
+		public int countCompounds(C... compounds) {
+			return storage.countCompounds(storageBegin, storageBegin + getLength() - 1, compounds);
+		}
+
+		@Override
+		public SequenceView<C> getSubSequence(Integer bioBegin, Integer bioEnd) {
+			return new PackedSequenceView<C>(this, storage, storageBegin + bioBegin - 1, bioBegin, bioEnd);
+		}
+
+		/**
+		 * Returns a packed copy of the viewed region.
+		 *
+		 * @return the storage of the region
+		 */
+		public PackedDNASequenceReader<C> copy() {
+			return storage.copy(storageBegin, storageBegin + getLength() - 1);
+		}
+
+	}
+
+}
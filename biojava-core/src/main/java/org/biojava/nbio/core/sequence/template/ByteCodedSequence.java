@@ -0,0 +1,69 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.template;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A Sequence which holds each of its compounds as a small integer code, and gives access to the codes without going
+ * through {@link Compound} objects.  Scans such as counting compounds or k-mers can then run over primitive values,
+ * which {@link SequenceMixin} does whenever a sequence, or the storage of an {@link AbstractSequence}, implements
+ * this interface.
+ *
+ * Codes are the unsigned values of the bytes returned by {@link #codeAt(int)}, from 0 to {@link #getCodeCount()}
+ * exclusive.  Two sequences with the same compound set use the same codes.
+ *
+ * @param <C> Compound a Sequence holds
+ * @see org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader
+ */
+public interface ByteCodedSequence<C extends Compound> extends Sequence<C> {
+
+	/**
+	 * Returns the code of the compound at the given biological index
+	 *
+	 * @param position Biological index (1 to n)
+	 * @return Code of the compound at the specified position, as an unsigned byte
+	 */
+	public byte codeAt(int position);
+
+	/**
+	 * Passes the code of each compound, from the first to the last, to the given consumer
+	 *
+	 * @param consumer Receives each code as a value from 0 to {@link #getCodeCount()} exclusive
+	 */
+	public void forEachCode(IntConsumer consumer);
+
+	/**
+	 * Returns the number of codes, which is the number of compounds in the compound set
+	 */
+	public int getCodeCount();
+
+	/**
+	 * Returns the code of the given compound, or -1 if the compound is not in the compound set
+	 */
+	public int getCode(C compound);
+
+	/**
+	 * Returns the compound of the given code
+	 */
+	public C getCompoundForCode(int code);
+
+}
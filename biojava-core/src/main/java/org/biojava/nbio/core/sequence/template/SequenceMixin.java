@@ -61,6 +61,18 @@ public class SequenceMixin {
 	 */
 	public static <C extends Compound> int countCompounds(
 			Sequence<C> sequence, C... compounds) {
+		ByteCodedSequence<C> coded = asByteCoded(sequence);
+		if (coded != null) {
+			int[] counts = countCodes(coded);
+			int count = 0;
+			for (C compound : compounds) {
+				int code = coded.getCode(compound);
+				if (code >= 0) {
+					count += counts[code];
+				}
+			}
+			return count;
+		}
 		int count = 0;
 		Map<C, Integer> compositon = getComposition(sequence);
 		for (C compound : compounds) {
@@ -134,6 +146,16 @@ public class SequenceMixin {
 	 */
 	public static <C extends Compound> Map<C, Integer> getComposition(Sequence<C> sequence) {
 		Map<C, Integer> results = new HashMap<C, Integer>();
+		ByteCodedSequence<C> coded = asByteCoded(sequence);
+		if (coded != null) {
+			int[] counts = countCodes(coded);
+			for (int code = 0; code < counts.length; code++) {
+				if (counts[code] > 0) {
+					results.merge(coded.getCompoundForCode(code), counts[code], Integer::sum);
+				}
+			}
+			return results;
+		}
 
 		for (C currentCompound : sequence) {
 			Integer currentInteger = results.get(currentCompound);
@@ -168,6 +190,15 @@ public class SequenceMixin {
 	 */
 	public static <C extends Compound> StringBuilder toStringBuilder(Sequence<C> sequence) {
 		StringBuilder sb = new StringBuilder(sequence.getLength());
+		ByteCodedSequence<C> coded = asByteCoded(sequence);
+		if (coded != null) {
+			String[] strings = new String[coded.getCodeCount()];
+			for (int code = 0; code < strings.length; code++) {
+				strings[code] = coded.getCompoundForCode(code).toString();
+			}
+			coded.forEachCode(code -> sb.append(strings[code]));
+			return sb;
+		}
 		for (C compound : sequence) {
 			sb.append(compound.toString());
 		}
@@ -200,6 +231,19 @@ public class SequenceMixin {
 	 */
 	public static <C extends Compound> int indexOf(Sequence<C> sequence,
 			C compound) {
+		ByteCodedSequence<C> coded = asByteCoded(sequence);
+		if (coded != null) {
+			int code = coded.getCode(compound);
+			if (code >= 0) {
+				byte target = (byte) code;
+				for (int i = 1; i <= coded.getLength(); i++) {
+					if (coded.codeAt(i) == target) {
+						return i;
+					}
+				}
+			}
+			return 0;
+		}
 		int index = 1;
 		for (C currentCompound : sequence) {
 			if (currentCompound.equals(compound)) {
@@ -273,6 +317,7 @@ public class SequenceMixin {
 	 * @param sequence Sequence to build from
 	 * @param kmer Kmer size
 	 * @return The list of non-overlapping K-mers
+	 * @see org.biojava.nbio.core.sequence.KmerCounter
 	 */
 	public static <C extends Compound> List<SequenceView<C>> nonOverlappingKmers(Sequence<C> sequence, int kmer) {
 		List<SequenceView<C>> l = new ArrayList<SequenceView<C>>();
@@ -291,6 +336,7 @@ public class SequenceMixin {
 	 * @param sequence Sequence to build from
 	 * @param kmer Kmer size
 	 * @return The list of overlapping K-mers
+	 * @see org.biojava.nbio.core.sequence.KmerCounter
 	 */
 	public static <C extends Compound> List<SequenceView<C>> overlappingKmers(Sequence<C> sequence, int kmer) {
 		List<SequenceView<C>> l = new ArrayList<SequenceView<C>>();
@@ -395,6 +441,31 @@ public class SequenceMixin {
 		return equal;
 	}
 
+	/**
+	 * Returns the given sequence, or the storage behind it, as a {@link ByteCodedSequence} if it holds its compounds
+	 * as codes, and null otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends Compound> ByteCodedSequence<C> asByteCoded(Sequence<C> sequence) {
+		if (sequence instanceof ByteCodedSequence) {
+			return (ByteCodedSequence<C>) sequence;
+		}
+		if (sequence instanceof AbstractSequence) {
+			SequenceReader<C> reader = ((AbstractSequence<C>) sequence).getProxySequenceReader();
+			if (reader instanceof ByteCodedSequence) {
+				return (ByteCodedSequence<C>) reader;
+			}
+		}
+		return null;
+	}
+
+	// number of times each code appears in the sequence
+	private static int[] countCodes(ByteCodedSequence<?> coded) {
+		int[] counts = new int[coded.getCodeCount()];
+		coded.forEachCode(code -> counts[code]++);
+		return counts;
+	}
+
 	/**
 	 * A basic sequence iterator which iterates over the given Sequence by
 	 * biological index. This assumes your sequence supports random access
@@ -0,0 +1,263 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.transcription;
+
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.compound.AmbiguityRNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.transcription.Table.Codon;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Table driven translation of DNA (or RNA) given as bytes, which goes straight from nucleotides to amino acids
+ * without creating any intermediate {@link org.biojava.nbio.core.sequence.template.Sequence} or
+ * {@link Codon}.
+ *
+ * Each nucleotide is packed into a 4 bit IUPAC code, one bit per base, so that a codon is a 12 bit index into tables
+ * of 4096 amino acids and start and stop flags derived from a {@link Table}.  Ambiguous codons translate to the
+ * amino acid that all the codons they stand for translate to (GCN is A, TAR is a stop), or to X.  Codons are
+ * translated as they are: unlike {@link TranscriptionEngine#translate(org.biojava.nbio.core.sequence.template.Sequence)}
+ * no initiating M is substituted and stops are kept as <code>*</code>.
+ *
+ * All translations write into buffers given by the caller, and tables can be shared between threads.
+ *
+ * @since 5.1.2
+ */
+public final class CodonLookupTable {
+
+	/** Number of codon indexes, including ambiguous ones. */
+	public static final int SIZE = 1 << 12;
+
+	private static final byte UNKNOWN = 'X';
+	private static final byte[] CODES = new byte[256];
+	private static final byte[] COMPLEMENT = new byte[16];
+	static {
+		String[] bases = {"A", "C", "G", "TU", "RAG", "YCT", "SCG", "WAT", "KGT", "MAC", "BCGT", "DAGT", "HACT", "VACG",
+				"NACGT"};
+		int[] bits = new int[128];
+		bits['A'] = 1;
+		bits['C'] = 2;
+		bits['G'] = 4;
+		bits['T'] = 8;
+		for (String base : bases) {
+			int code = 0;
+			for (int i = base.length() == 1 ? 0 : 1; i < base.length(); i++) {
+				code |= bits[base.charAt(i)];
+			}
+			if (base.equals("TU")) {
+				code = 8;
+				CODES['U'] = CODES['u'] = (byte) code;
+			}
+			char c = base.charAt(0);
+			CODES[c] = CODES[Character.toLowerCase(c)] = (byte) code;
+		}
+		for (int code = 0; code < 16; code++) {
+			// A <-> T and C <-> G reverse the order of the bits
+			COMPLEMENT[code] = (byte) (((code & 1) << 3) | ((code & 2) << 1) | ((code & 4) >> 1) | ((code & 8) >> 3));
+		}
+	}
+
+	private final byte[] aminoAcids = new byte[SIZE];
+	private final boolean[] starts = new boolean[SIZE];
+	private final boolean[] stops = new boolean[SIZE];
+
+	/**
+	 * Builds the lookup tables of a codon table.
+	 */
+	public CodonLookupTable(Table table) {
+		List<Codon> codons = table.getCodons(AmbiguityRNACompoundSet.getRNACompoundSet(),
+				AminoAcidCompoundSet.getAminoAcidCompoundSet());
+		byte[] exact = new byte[64];
+		boolean[] exactStart = new boolean[64];
+		boolean[] exactStop = new boolean[64];
+		boolean[] defined = new boolean[64];
+		for (Codon codon : codons) {
+			int index = exactIndex(codon.getOne()) << 4 | exactIndex(codon.getTwo()) << 2 | exactIndex(codon.getThree());
+			exact[index] = (byte) codon.getAminoAcid().getShortName().charAt(0);
+			exactStart[index] = codon.isStart();
+			exactStop[index] = codon.isStop();
+			defined[index] = true;
+		}
+		for (int index = 0; index < SIZE; index++) {
+			byte aminoAcid = 0;
+			boolean start = true, stop = true;
+			int one = index >> 8, two = (index >> 4) & 15, three = index & 15;
+			for (int b1 = 0; b1 < 4; b1++) {
+				if ((one & 1 << b1) == 0) continue;
+				for (int b2 = 0; b2 < 4; b2++) {
+					if ((two & 1 << b2) == 0) continue;
+					for (int b3 = 0; b3 < 4; b3++) {
+						if ((three & 1 << b3) == 0) continue;
+						int codon = b1 << 4 | b2 << 2 | b3;
+						if (!defined[codon]) {
+							aminoAcid = UNKNOWN;
+						} else if (aminoAcid == 0) {
+							aminoAcid = exact[codon];
+						} else if (aminoAcid != exact[codon]) {
+							aminoAcid = UNKNOWN;
+						}
+						start &= exactStart[codon];
+						stop &= exactStop[codon];
+					}
+				}
+			}
+			// codons with a gap or an unknown character stand for no codon at all
+			boolean none = aminoAcid == 0;
+			aminoAcids[index] = none ? UNKNOWN : aminoAcid;
+			starts[index] = start && !none;
+			stops[index] = stop && !none;
+		}
+	}
+
+	private static int exactIndex(NucleotideCompound compound) {
+		switch (CODES[compound.getShortName().charAt(0) & 0xff]) {
+		case 1: return 0;
+		case 2: return 1;
+		case 4: return 2;
+		case 8: return 3;
+		default: throw new IllegalArgumentException("Ambiguous base in codon table: " + compound);
+		}
+	}
+
+	/**
+	 * The 4 bit IUPAC code of a nucleotide character, from 1 for A, 2 for C, 4 for G and 8 for T or U to 15 for N,
+	 * or 0 for a gap or any other character.
+	 */
+	public static int code(byte nucleotide) {
+		return CODES[nucleotide & 0xff];
+	}
+
+	/**
+	 * The index of a codon.
+	 */
+	public static int index(byte one, byte two, byte three) {
+		return CODES[one & 0xff] << 8 | CODES[two & 0xff] << 4 | CODES[three & 0xff];
+	}
+
+	/**
+	 * The index of the reverse complement of the codon of the given index.
+	 */
+	public static int reverseComplement(int index) {
+		return COMPLEMENT[index & 15] << 8 | COMPLEMENT[(index >> 4) & 15] << 4 | COMPLEMENT[index >> 8];
+	}
+
+	/** The one letter code of the amino acid of a codon index, <code>*</code> for stops. */
+	public byte aminoAcid(int index) {
+		return aminoAcids[index];
+	}
+
+	public boolean isStart(int index) {
+		return starts[index];
+	}
+
+	public boolean isStop(int index) {
+		return stops[index];
+	}
+
+	/**
+	 * The number of amino acids translated from a number of nucleotides in a frame.
+	 */
+	public static int translatedLength(int length, Frame frame) {
+		return Math.max(0, (length - frame.getStart() + 1) / 3);
+	}
+
+	/**
+	 * Translates nucleotides <code>from</code> to <code>to</code> (exclusive) of dna, in a frame of that region.
+	 *
+	 * @param out the buffer to which amino acids are written, from offset
+	 * @return the number of amino acids written, {@link #translatedLength(int, Frame)}
+	 */
+	public int translate(byte[] dna, int from, int to, Frame frame, byte[] out, int offset) {
+		checkRegion(dna, from, to);
+		int count = translatedLength(to - from, frame);
+		if (frame.isReverse()) {
+			// the reverse strand is read backwards from the end of the region
+			for (int i = 0, end = to - frame.getStart() + 1; i < count; i++, end -= 3) {
+				int index = reverseComplement(index(dna[end - 3], dna[end - 2], dna[end - 1]));
+				out[offset + i] = aminoAcids[index];
+			}
+		} else {
+			for (int i = 0, start = from + frame.getStart() - 1; i < count; i++, start += 3) {
+				out[offset + i] = aminoAcids[index(dna[start], dna[start + 1], dna[start + 2])];
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Translates nucleotides <code>from</code> to <code>to</code> (exclusive) of dna in all six frames, in a single
+	 * pass over the nucleotides.
+	 *
+	 * @param out one buffer for each frame, indexed by {@link Frame#ordinal()}, each of at least
+	 *            {@link #translatedLength(int, Frame)} bytes
+	 */
+	public void translateSixFrames(byte[] dna, int from, int to, byte[][] out) {
+		checkRegion(dna, from, to);
+		if (out.length != 6) throw new IllegalArgumentException("Expected 6 output buffers, got " + out.length);
+		int length = to - from;
+		if (length < 3) return;
+		byte[] one = out[0], two = out[1], three = out[2];
+		byte[] reversedOne = out[3], reversedTwo = out[4], reversedThree = out[5];
+		int forward = CODES[dna[from] & 0xff] << 4 | CODES[dna[from + 1] & 0xff];
+		int reverse = COMPLEMENT[CODES[dna[from + 1] & 0xff]] << 8 | COMPLEMENT[CODES[dna[from] & 0xff]] << 4;
+		int i = 0, last = length - 3;
+		// a codon starting at i is codon i / 3 of forward frame i % 3, and codon (last - i) / 3 of reverse frame
+		// (last - i) % 3
+		int reverseCodon = last / 3, reverseFrame = last % 3;
+		for (int k = 0; i <= last; k++) {
+			for (int f = 0; f < 3 && i <= last; f++, i++) {
+				int code = CODES[dna[from + i + 2] & 0xff];
+				forward = (forward << 4 | code) & 0xfff;
+				reverse = reverse >> 4 | COMPLEMENT[code] << 8;
+				byte aminoAcid = aminoAcids[forward];
+				if (f == 0) one[k] = aminoAcid;
+				else if (f == 1) two[k] = aminoAcid;
+				else three[k] = aminoAcid;
+				aminoAcid = aminoAcids[reverse];
+				if (reverseFrame == 0) reversedOne[reverseCodon] = aminoAcid;
+				else if (reverseFrame == 1) reversedTwo[reverseCodon] = aminoAcid;
+				else reversedThree[reverseCodon] = aminoAcid;
+				if (--reverseFrame < 0) {
+					reverseFrame = 2;
+					reverseCodon--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Translates a nucleotide sequence in a frame.
+	 */
+	public String translate(String dna, Frame frame) {
+		byte[] bytes = dna.getBytes(StandardCharsets.ISO_8859_1);
+		byte[] out = new byte[translatedLength(bytes.length, frame)];
+		translate(bytes, 0, bytes.length, frame, out, 0);
+		return new String(out, StandardCharsets.ISO_8859_1);
+	}
+
+	private static void checkRegion(byte[] dna, int from, int to) {
+		if (from < 0 || to > dna.length || from > to) {
+			throw new IndexOutOfBoundsException("Region " + from + "-" + to + " of " + dna.length + " nucleotides");
+		}
+	}
+}
@@ -72,6 +72,20 @@ public enum Frame {
 		return Frame.values();
 	}
 
+	/**
+	 * The position, from 1, of the first base translated in this frame, on its strand
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * True if this frame is on the reverse strand
+	 */
+	public boolean isReverse() {
+		return reverse;
+	}
+
 	/**
 	 * Optionally wraps a Sequence in a reverse complementing view (if the
 	 * frame is on the reverse strand) and creates a sub sequence view if
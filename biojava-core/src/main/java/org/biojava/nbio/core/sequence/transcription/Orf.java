@@ -0,0 +1,135 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.transcription;
+
+import org.biojava.nbio.core.sequence.Strand;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.core.sequence.views.ComplementSequenceView;
+import org.biojava.nbio.core.sequence.views.ReversedSequenceView;
+
+import java.util.Objects;
+
+/**
+ * An open reading frame found by an {@link OrfFinder}, as coordinates on the forward strand of the sequence it was
+ * found in.  The stop codon, if there is one, is included in the coordinates.
+ *
+ * @since 5.1.2
+ */
+public final class Orf {
+
+	private final String name;
+	private final long start;
+	private final long end;
+	private final Frame frame;
+	private final boolean startCodon;
+	private final boolean stopCodon;
+
+	/**
+	 * @param name the name of the sequence, may be null
+	 * @param start first position, from 1, on the forward strand
+	 * @param end last position, inclusive, on the forward strand
+	 * @param frame the frame of the ORF
+	 * @param startCodon whether the ORF begins with a start codon
+	 * @param stopCodon whether the ORF ends with a stop codon, rather than at the end of the sequence
+	 */
+	public Orf(String name, long start, long end, Frame frame, boolean startCodon, boolean stopCodon) {
+		this.name = name;
+		this.start = start;
+		this.end = end;
+		this.frame = frame;
+		this.startCodon = startCodon;
+		this.stopCodon = stopCodon;
+	}
+
+	/** The name of the sequence the ORF was found in. */
+	public String getName() {
+		return name;
+	}
+
+	/** First position, from 1, on the forward strand. */
+	public long getStart() {
+		return start;
+	}
+
+	/** Last position, inclusive, on the forward strand. */
+	public long getEnd() {
+		return end;
+	}
+
+	/** Number of nucleotides, the stop codon included. */
+	public long getLength() {
+		return end - start + 1;
+	}
+
+	/** Number of amino acids the ORF codes for, the stop codon excluded. */
+	public long getProteinLength() {
+		return (getLength() - (stopCodon ? 3 : 0)) / 3;
+	}
+
+	public Frame getFrame() {
+		return frame;
+	}
+
+	public Strand getStrand() {
+		return frame.isReverse() ? Strand.NEGATIVE : Strand.POSITIVE;
+	}
+
+	public boolean hasStartCodon() {
+		return startCodon;
+	}
+
+	public boolean hasStopCodon() {
+		return stopCodon;
+	}
+
+	/**
+	 * A view of the ORF in the sequence it was found in, reverse complemented if it is on the reverse strand, so that
+	 * it reads from its first codon.
+	 */
+	public <C extends NucleotideCompound> Sequence<C> getSequence(Sequence<C> sequence) {
+		Sequence<C> forward = sequence.getSubSequence((int) start, (int) end);
+		if (frame.isReverse()) {
+			return new ComplementSequenceView<C>(new ReversedSequenceView<C>(forward));
+		}
+		return forward;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Orf)) return false;
+		Orf other = (Orf) o;
+		return start == other.start && end == other.end && frame == other.frame && startCodon == other.startCodon
+				&& stopCodon == other.stopCodon && Objects.equals(name, other.name);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, start, end, frame, startCodon, stopCodon);
+	}
+
+	@Override
+	public String toString() {
+		return (name == null ? "" : name + ":") + start + "-" + end + "(" + getStrand().getStringRepresentation() + ","
+				+ frame + ")";
+	}
+}
@@ -0,0 +1,458 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.transcription;
+
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Finds open reading frames in the six frames of a nucleotide sequence, in a single pass over the nucleotides,
+ * using the start and stop codons of the {@link Table} of a {@link TranscriptionEngine}.
+ *
+ * An ORF runs from a start codon (or, in {@link Mode#STOP_TO_STOP} mode, from the codon after a stop codon) to the
+ * next stop codon of its frame.  Only the longest ORF between two stop codons is reported.  Sequences too long to
+ * hold in memory, such as the chromosomes of a 2bit file or of an indexed FASTA file, are read through a
+ * {@link RegionLoader} in chunks, which can be scanned by several threads; ORFs running across chunks are found by
+ * rescanning the region between the stop codons on either side, so the result does not depend on the chunk size.
+ *
+ * <pre>
+ * OrfFinder finder = new OrfFinder().setMinimumLength(100).setThreads(4);
+ * finder.find(name, twoBit.getSequenceLength(name),
+ * 	(start, length) -&gt; twoBit.loadFragment(name, start, length).getBytes(StandardCharsets.ISO_8859_1), consumer);
+ * </pre>
+ *
+ * @since 5.1.2
+ */
+public class OrfFinder {
+
+	/** Where an ORF begins. */
+	public enum Mode {
+		/** At the first start codon after a stop codon. */
+		START_TO_STOP,
+		/** At the first codon after a stop codon, or at the first codon of the sequence. */
+		STOP_TO_STOP
+	}
+
+	/**
+	 * Loads regions of a sequence, as one byte per nucleotide.
+	 */
+	@FunctionalInterface
+	public interface RegionLoader {
+		/**
+		 * @param start first position, from 0
+		 * @param length number of nucleotides
+		 * @return exactly length nucleotides
+		 */
+		byte[] load(long start, int length) throws IOException;
+	}
+
+	/** Default number of nucleotides scanned at a time. */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	private static final Frame[] FRAMES = Frame.values();
+
+	private final CodonLookupTable table;
+	private int minimumLength = 0;
+	private Mode mode = Mode.START_TO_STOP;
+	private boolean includePartial = false;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int threads = 1;
+
+	/**
+	 * Finds ORFs with the standard codon table.
+	 */
+	public OrfFinder() {
+		this(TranscriptionEngine.getDefault());
+	}
+
+	/**
+	 * Finds ORFs with the codon table of an engine.
+	 */
+	public OrfFinder(TranscriptionEngine engine) {
+		this.table = engine.getCodonLookupTable();
+	}
+
+	/**
+	 * Sets the minimum number of amino acids of an ORF, its stop codon excluded.  Default 0.
+	 */
+	public OrfFinder setMinimumLength(int minimumLength) {
+		if (minimumLength < 0) throw new IllegalArgumentException("Minimum length must not be negative");
+		this.minimumLength = minimumLength;
+		return this;
+	}
+
+	/**
+	 * Sets where ORFs begin.  Default {@link Mode#START_TO_STOP}.
+	 */
+	public OrfFinder setMode(Mode mode) {
+		if (mode == null) throw new IllegalArgumentException("Mode must not be null");
+		this.mode = mode;
+		return this;
+	}
+
+	/**
+	 * Sets whether ORFs running off the end of the sequence, without a stop codon, are reported.  Default false.
+	 */
+	public OrfFinder setIncludePartial(boolean includePartial) {
+		this.includePartial = includePartial;
+		return this;
+	}
+
+	/**
+	 * Sets the number of nucleotides loaded and scanned at a time.  Default {@link #DEFAULT_CHUNK_SIZE}.
+	 */
+	public OrfFinder setChunkSize(int chunkSize) {
+		if (chunkSize < 3) throw new IllegalArgumentException("Chunk size must be at least 3");
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads scanning the chunks of a sequence: the calling thread and threads of the shared
+	 * {@link ConcurrencyTools} pool.  Default 1.
+	 */
+	public OrfFinder setThreads(int threads) {
+		if (threads < 1) throw new IllegalArgumentException("Number of threads must be at least 1");
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Finds the ORFs of a sequence.
+	 *
+	 * @return the ORFs, sorted by start
+	 */
+	public List<Orf> find(Sequence<? extends NucleotideCompound> sequence) {
+		String name = sequence.getAccession() == null ? null : sequence.getAccession().getID();
+		final byte[] dna = sequence.getSequenceAsString().getBytes(StandardCharsets.ISO_8859_1);
+		final List<Orf> orfs = Collections.synchronizedList(new ArrayList<Orf>());
+		try {
+			find(name, dna.length, (start, length) -> Arrays.copyOfRange(dna, (int) start, (int) start + length),
+					orfs::add);
+		} catch (IOException e) {
+			// cannot happen, the sequence is in memory
+			throw new IllegalStateException(e);
+		}
+		List<Orf> sorted = new ArrayList<Orf>(orfs);
+		Collections.sort(sorted, Comparator.comparingLong(Orf::getStart).thenComparingLong(Orf::getEnd)
+				.thenComparing(Orf::getFrame));
+		return sorted;
+	}
+
+	/**
+	 * Finds the ORFs of a sequence held in memory, in a single pass by the calling thread.
+	 *
+	 * @param name the name given to the ORFs
+	 * @param dna the nucleotides, upper or lower case
+	 * @param consumer receives the ORFs, ordered by the position of their stop codon
+	 */
+	public void find(String name, byte[] dna, Consumer<? super Orf> consumer) {
+		Scanner scanner = new Scanner(name, dna.length, 0, 63, true, consumer);
+		scanner.feed(dna, 0, dna.length);
+		scanner.finish(true);
+	}
+
+	/**
+	 * Finds the ORFs of a sequence loaded in chunks, in parallel if more than one thread was set.  The consumer is
+	 * then called from several threads at once, and ORFs are not passed in any particular order.
+	 *
+	 * @param name the name given to the ORFs
+	 * @param length the number of nucleotides of the sequence
+	 * @param loader loads regions of the sequence, from several threads at once if more than one thread was set
+	 * @param consumer receives the ORFs
+	 */
+	public void find(final String name, final long length, final RegionLoader loader,
+			final Consumer<? super Orf> consumer) throws IOException {
+		if (length < 3) return;
+		// chunk c scans the codons starting in [c * chunkSize, (c + 1) * chunkSize)
+		long codons = length - 2;
+		final int chunks = (int) Math.min(Integer.MAX_VALUE, (codons + chunkSize - 1) / chunkSize);
+		if (chunks == 1) {
+			scan(name, length, loader, 63, 0, length, consumer);
+			return;
+		}
+		List<Task> tasks = new ArrayList<Task>();
+		final long[][] stops = new long[chunks][];
+		for (int c = 0; c < chunks; c++) {
+			final int chunk = c;
+			tasks.add(() -> {
+				long start = chunk * (long) chunkSize;
+				long end = Math.min(start + chunkSize, codons) + 2;
+				Scanner scanner = new Scanner(name, length, start, 63, chunk == 0, consumer);
+				scanner.feed(loader.load(start, (int) (end - start)), 0, (int) (end - start));
+				scanner.finish(chunk == chunks - 1);
+				stops[chunk] = scanner.getStops();
+			});
+		}
+		run(tasks);
+
+		// ORFs between stop codons in different chunks, or between a chunk and an end of the sequence, were not seen
+		// whole by any chunk
+		tasks.clear();
+		for (int frame = 0; frame < 6; frame++) {
+			final int mask = 1 << frame;
+			long open = -1;
+			int openChunk = 0;
+			for (int c = 0; c < chunks; c++) {
+				long first = stops[c][frame];
+				if (first < 0) continue;
+				if (openChunk != c) {
+					tasks.add(rescan(name, length, loader, mask, open, first, consumer));
+				}
+				open = stops[c][6 + frame];
+				openChunk = c;
+			}
+			if (openChunk != chunks - 1) {
+				tasks.add(rescan(name, length, loader, mask, open, -1, consumer));
+			}
+		}
+		run(tasks);
+	}
+
+	private Task rescan(String name, long length, RegionLoader loader, int mask, long stop, long nextStop,
+			Consumer<? super Orf> consumer) {
+		long start = stop < 0 ? 0 : stop;
+		long end = nextStop < 0 ? length : nextStop + 3;
+		return () -> scan(name, length, loader, mask, start, end, consumer);
+	}
+
+	/**
+	 * Scans nucleotides start to end, which begin at a stop codon or at the start of the sequence and end at a stop
+	 * codon or at the end of the sequence, in the given frames.
+	 */
+	private void scan(String name, long length, RegionLoader loader, int mask, long start, long end,
+			Consumer<? super Orf> consumer) throws IOException {
+		Scanner scanner = new Scanner(name, length, start, mask, start == 0, consumer);
+		for (long position = start; position < end; position += chunkSize) {
+			int count = (int) Math.min(chunkSize, end - position);
+			scanner.feed(loader.load(position, count), 0, count);
+		}
+		scanner.finish(end == length);
+	}
+
+	@FunctionalInterface
+	private interface Task {
+		void run() throws IOException;
+	}
+
+	private void run(List<Task> tasks) throws IOException {
+		if (threads == 1 || tasks.size() == 1) {
+			for (Task task : tasks) {
+				task.run();
+			}
+			return;
+		}
+		// the calling thread and up to threads - 1 helpers on the shared pool each take the next task until none are
+		// left; the calling thread also runs the helpers the pool has not started, so it never waits on a queue
+		final AtomicInteger next = new AtomicInteger();
+		Callable<Void> worker = () -> {
+			try {
+				for (int i = next.getAndIncrement(); i < tasks.size(); i = next.getAndIncrement()) {
+					tasks.get(i).run();
+				}
+			} catch (IOException | RuntimeException | Error e) {
+				// the other workers stop after their current task
+				next.set(tasks.size());
+				throw e;
+			}
+			return null;
+		};
+		List<FutureTask<Void>> workers = new ArrayList<FutureTask<Void>>();
+		for (int i = 0; i < Math.min(threads, tasks.size()); i++) {
+			FutureTask<Void> future = new FutureTask<Void>(worker);
+			if (i > 0) {
+				try {
+					ConcurrencyTools.getThreadPool().execute(future);
+				} catch (RejectedExecutionException e) {
+					// run below by the calling thread
+				}
+			}
+			workers.add(future);
+		}
+		Throwable failure = null;
+		try {
+			for (FutureTask<Void> future : workers) {
+				future.run();
+			}
+			for (FutureTask<Void> future : workers) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (failure == null) failure = e.getCause();
+				}
+			}
+		} catch (InterruptedException e) {
+			next.set(tasks.size());
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while finding ORFs", e);
+		}
+		if (failure instanceof IOException) throw (IOException) failure;
+		if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+		if (failure instanceof Error) throw (Error) failure;
+		if (failure != null) throw new IOException(failure);
+	}
+
+	/**
+	 * Scans consecutive nucleotides in six frames, keeping per frame the codons seen since the last stop codon.
+	 * Frames are those of the whole sequence: a codon at position p is in forward frame p % 3 and in reverse frame
+	 * (length - 3 - p) % 3.
+	 */
+	private class Scanner {
+
+		private final String name;
+		private final long length;
+		private final int mask;
+		private final boolean atSequenceStart;
+		private final Consumer<? super Orf> consumer;
+
+		private long position;
+		private int fed = 0;
+		private int codon = 0;
+		private int forwardFrame, reverseFrame;
+
+		// per frame, since the last stop codon, -1 if none
+		private final long[] stop = new long[6];
+		private final long[] firstStart = new long[6];
+		private final long[] lastStart = new long[6];
+		private final long[] firstCodon = new long[6];
+		private final long[] lastCodon = new long[6];
+		// per frame, the first and then the last stop codon scanned
+		private final long[] stops = new long[12];
+
+		Scanner(String name, long length, long start, int mask, boolean atSequenceStart,
+				Consumer<? super Orf> consumer) {
+			this.name = name;
+			this.length = length;
+			this.position = start;
+			this.mask = mask;
+			this.atSequenceStart = atSequenceStart;
+			this.consumer = consumer;
+			forwardFrame = (int) (start % 3);
+			reverseFrame = (int) (Math.floorMod(length - 3 - start, 3L));
+			Arrays.fill(stop, -1);
+			Arrays.fill(stops, -1);
+			for (int frame = 0; frame < 6; frame++) {
+				reset(frame);
+			}
+		}
+
+		void feed(byte[] dna, int from, int to) {
+			for (int i = from; i < to; i++, position++) {
+				codon = (codon << 4 | CodonLookupTable.code(dna[i])) & 0xfff;
+				if (++fed < 3) continue;
+				long p = position - 2;
+				if ((mask & 1 << forwardFrame) != 0) {
+					codon(forwardFrame, p, codon);
+				}
+				if ((mask & 8 << reverseFrame) != 0) {
+					codon(3 + reverseFrame, p, CodonLookupTable.reverseComplement(codon));
+				}
+				if (++forwardFrame == 3) forwardFrame = 0;
+				if (--reverseFrame < 0) reverseFrame = 2;
+			}
+		}
+
+		private void codon(int frame, long p, int index) {
+			if (table.isStop(index)) {
+				close(frame, stop[frame], p, true);
+				stop[frame] = p;
+				if (stops[frame] < 0) stops[frame] = p;
+				stops[6 + frame] = p;
+				reset(frame);
+				return;
+			}
+			if (table.isStart(index)) {
+				if (firstStart[frame] < 0) firstStart[frame] = p;
+				lastStart[frame] = p;
+			}
+			if (firstCodon[frame] < 0) firstCodon[frame] = p;
+			lastCodon[frame] = p;
+		}
+
+		private void reset(int frame) {
+			firstStart[frame] = lastStart[frame] = firstCodon[frame] = lastCodon[frame] = -1;
+		}
+
+		/**
+		 * Reports the ORFs after the last stop codon of each frame.
+		 *
+		 * @param atSequenceEnd whether the last nucleotide fed is the last of the sequence
+		 */
+		void finish(boolean atSequenceEnd) {
+			for (int frame = 0; frame < 6; frame++) {
+				if ((mask & 1 << frame) != 0) {
+					close(frame, stop[frame], -1, atSequenceEnd);
+				}
+			}
+		}
+
+		/** The first stop codon of each frame, then the last, -1 if none. */
+		long[] getStops() {
+			return stops;
+		}
+
+		/**
+		 * Reports the ORF of a frame between two stop codons, or between a stop codon and an end of the sequence.
+		 */
+		private void close(int frame, long low, long high, boolean atSequenceEnd) {
+			if ((low < 0 && !atSequenceStart) || (high < 0 && !atSequenceEnd)) return;
+			Frame f = FRAMES[frame];
+			long begin, end, first;
+			boolean complete;
+			if (frame < 3) {
+				// read from low to high
+				first = firstStart[frame];
+				begin = mode == Mode.START_TO_STOP ? first : firstCodon[frame];
+				if (begin < 0) return;
+				complete = high >= 0;
+				end = complete ? high + 3 : lastCodon[frame] + 3;
+			} else {
+				// read from high to low
+				first = lastStart[frame];
+				long top = mode == Mode.START_TO_STOP ? first : lastCodon[frame];
+				if (top < 0) return;
+				complete = low >= 0;
+				begin = complete ? low : firstCodon[frame];
+				end = top + 3;
+			}
+			if (!complete && !includePartial) return;
+			long aminoAcids = (end - begin) / 3 - (complete ? 1 : 0);
+			if (aminoAcids < minimumLength) return;
+			boolean startCodon = first >= 0 && (frame < 3 ? begin == first : end == first + 3);
+			consumer.accept(new Orf(name, begin + 1, end, f, startCodon, complete));
+		}
+	}
+}
@@ -79,6 +79,8 @@ public class TranscriptionEngine {
 	private final CompoundSet<NucleotideCompound> dnaCompounds;
 	private final CompoundSet<NucleotideCompound> rnaCompounds;
 	private final CompoundSet<AminoAcidCompound> aminoAcidCompounds;
+	// built on first use; racy initialisation is fine as the table is immutable
+	private CodonLookupTable codonLookupTable;
 
 	private TranscriptionEngine(Table table,
 			RNAToAminoAcidTranslator rnaAminoAcidTranslator,
@@ -141,6 +143,23 @@ public class TranscriptionEngine {
 		return table;
 	}
 
+	/**
+	 * Lookup tables of the codons of this engine's {@link Table}, for the direct
+	 * translation of DNA held as bytes. This avoids the intermediate RNA
+	 * sequences and codon lookups of {@link #translate(Sequence)}, and
+	 * translates all six frames in a single pass with
+	 * {@link CodonLookupTable#translateSixFrames(byte[], int, int, byte[][])}.
+	 * The other settings of the engine do not apply to it.
+	 */
+	public CodonLookupTable getCodonLookupTable() {
+		CodonLookupTable lookupTable = codonLookupTable;
+		if (lookupTable == null) {
+			lookupTable = new CodonLookupTable(table);
+			codonLookupTable = lookupTable;
+		}
+		return lookupTable;
+	}
+
 	public RNAToAminoAcidTranslator getRnaAminoAcidTranslator() {
 		return rnaAminoAcidTranslator;
 	}
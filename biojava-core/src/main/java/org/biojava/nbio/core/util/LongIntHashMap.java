@@ -0,0 +1,265 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from primitive long keys to primitive int values, which neither boxes its entries nor allocates an object per
+ * entry.  Keys are held in an open-addressing table with linear probing, which is grown when it is half full.  Absent
+ * keys map to 0, which suits counting; entries cannot be removed, only cleared all at once.
+ *
+ * Instances are not thread-safe.  To count on several threads, fill one map per thread and {@link #addAll} them.
+ */
+public class LongIntHashMap {
+
+	/**
+	 * Receives the entries of a map.
+	 */
+	public interface EntryConsumer {
+		void accept(long key, int value);
+	}
+
+	private static final int MIN_CAPACITY = 16;
+
+	// 0 marks an empty slot, so the entry of key 0 is held apart
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+	private boolean hasZeroKey;
+	private int zeroValue;
+
+	/**
+	 * Creates an empty map.
+	 */
+	public LongIntHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty map which holds the given number of entries without growing.
+	 *
+	 * @param expectedSize number of entries expected
+	 */
+	public LongIntHashMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Expected size must not be negative: " + expectedSize);
+		}
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * Returns the number of entries.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns true if the key has been put in the map.
+	 */
+	public boolean containsKey(long key) {
+		if (key == 0) {
+			return hasZeroKey;
+		}
+		return keys[slot(key)] == key;
+	}
+
+	/**
+	 * Returns the value of the key, or 0 if the key is not in the map.
+	 */
+	public int get(long key) {
+		if (key == 0) {
+			return zeroValue;
+		}
+		int slot = slot(key);
+		return keys[slot] == key ? values[slot] : 0;
+	}
+
+	/**
+	 * Sets the value of the key.
+	 *
+	 * @return the previous value, or 0 if the key was not in the map
+	 */
+	public int put(long key, int value) {
+		if (key == 0) {
+			int previous = zeroValue;
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			zeroValue = value;
+			return previous;
+		}
+		int slot = slot(key);
+		if (keys[slot] == key) {
+			int previous = values[slot];
+			values[slot] = value;
+			return previous;
+		}
+		insert(slot, key, value);
+		return 0;
+	}
+
+	/**
+	 * Adds to the value of the key, which starts at 0 if the key is not in the map.
+	 *
+	 * @return the new value
+	 */
+	public int addTo(long key, int increment) {
+		if (key == 0) {
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			return zeroValue += increment;
+		}
+		int slot = slot(key);
+		if (keys[slot] == key) {
+			return values[slot] += increment;
+		}
+		insert(slot, key, increment);
+		return increment;
+	}
+
+	/**
+	 * Adds the values of another map to the values of this map.
+	 *
+	 * @param other the map to add
+	 */
+	public void addAll(LongIntHashMap other) {
+		if (other.hasZeroKey) {
+			addTo(0, other.zeroValue);
+		}
+		long[] otherKeys = other.keys;
+		int[] otherValues = other.values;
+		for (int i = 0; i < otherKeys.length; i++) {
+			if (otherKeys[i] != 0) {
+				addTo(otherKeys[i], otherValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Passes each entry to the consumer, in no particular order.
+	 */
+	public void forEach(EntryConsumer consumer) {
+		if (hasZeroKey) {
+			consumer.accept(0, zeroValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				consumer.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the keys, in no particular order.
+	 */
+	public long[] keys() {
+		long[] result = new long[size];
+		int n = 0;
+		if (hasZeroKey) {
+			result[n++] = 0;
+		}
+		for (long key : keys) {
+			if (key != 0) {
+				result[n++] = key;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(values, 0);
+		size = 0;
+		hasZeroKey = false;
+		zeroValue = 0;
+	}
+
+	// the slot holding the key, or the empty slot where it belongs
+	private int slot(long key) {
+		int slot = hash(key) & mask;
+		long k;
+		while ((k = keys[slot]) != 0 && k != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void insert(int slot, long key, int value) {
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+		if (2 * size > keys.length) {
+			if (keys.length == 1 << 30) {
+				throw new IllegalStateException("Map is full at " + size + " entries");
+			}
+			rehash(keys.length << 1);
+		}
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private static int capacityFor(int expectedSize) {
+		long capacity = Long.highestOneBit(Math.max(MIN_CAPACITY, 2L * expectedSize) - 1) << 1;
+		if (capacity > 1 << 30) {
+			throw new IllegalArgumentException("Too many entries: " + expectedSize);
+		}
+		return (int) capacity;
+	}
+
+	// spreads the bits of keys that differ only in their high bits, such as k-mer codes
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+}
@@ -0,0 +1,219 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.search.io.blast;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.biojava.nbio.core.util.ConcurrencyTools;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class BlastTabularReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static String report(Random random, int queries) {
+		StringBuilder sb = new StringBuilder();
+		for (int q = 0; q < queries; q++) {
+			sb.append("# BLASTN 2.2.29+\n# Query: query ").append(q).append('\n');
+			int hits = random.nextInt(20);
+			for (int h = 0; h < hits; h++) {
+				double evalue = random.nextInt(3) == 0 ? 0.0 : random.nextDouble() * Math.pow(10, -random.nextInt(200));
+				sb.append("q").append(q).append('\t').append("subject").append(random.nextInt(1000)).append('\t')
+					.append(String.format(Locale.ROOT, "%.2f", 50 + random.nextDouble() * 50)).append('\t')
+					.append(random.nextInt(2000)).append('\t').append(random.nextInt(50)).append('\t')
+					.append(random.nextInt(5)).append('\t').append(random.nextInt(1000)).append('\t')
+					.append(random.nextInt(1000)).append('\t').append(random.nextInt(100000000)).append('\t')
+					.append(random.nextInt(100000000)).append('\t')
+					.append(random.nextBoolean() ? String.format(Locale.ROOT, "%.1e", evalue) : Double.toString(evalue)).append('\t')
+					.append(random.nextBoolean() ? " " + random.nextInt(3000) : String.format(Locale.ROOT, "%.1f", random.nextDouble() * 300))
+					.append(h % 7 == 0 ? "\r\n" : "\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	// rows of a report, as parsed with String.split
+	private static List<String> expectedRows(String report, double maxEScore) {
+		List<String> rows = new ArrayList<String>();
+		for (String line : report.split("\r?\n")) {
+			if (line.isEmpty() || line.startsWith("#")) continue;
+			String[] f = line.split("\t");
+			if (Double.parseDouble(f[10]) > maxEScore) continue;
+			rows.add(f[0] + " " + f[1] + " " + Double.parseDouble(f[2]) + " " + f[3] + " " + f[4] + " " + f[5] + " "
+				+ f[6] + " " + f[7] + " " + f[8] + " " + f[9] + " " + Double.parseDouble(f[10]) + " "
+				+ Double.parseDouble(f[11].trim()));
+		}
+		return rows;
+	}
+
+	private static List<String> rows(BlastTabularBatch batch) {
+		List<String> rows = new ArrayList<String>();
+		for (int i = 0; i < batch.size(); i++) {
+			rows.add(batch.getQueryId(i) + " " + batch.getSubjectId(i) + " " + batch.getPercentIdentities()[i] + " "
+				+ batch.getAlignmentLengths()[i] + " " + batch.getMismatchCounts()[i] + " "
+				+ batch.getGapOpenCounts()[i] + " " + batch.getQueryStarts()[i] + " " + batch.getQueryEnds()[i] + " "
+				+ batch.getSubjectStarts()[i] + " " + batch.getSubjectEnds()[i] + " " + batch.getEvalues()[i] + " "
+				+ batch.getBitScores()[i]);
+		}
+		return rows;
+	}
+
+	private static List<BlastTabularBatch> readAll(InputStream input, int batchSize, double maxEScore)
+			throws IOException, ParseException {
+		List<BlastTabularBatch> batches = new ArrayList<BlastTabularBatch>();
+		try (BlastTabularReader reader = new BlastTabularReader(input, batchSize)) {
+			reader.setMaxEScore(maxEScore);
+			reader.read(batches::add);
+		}
+		return batches;
+	}
+
+	@Test
+	public void testRead() throws Exception {
+		String report = report(new Random(1), 2000);
+		for (double maxEScore : new double[] { Double.POSITIVE_INFINITY, 1e-10 }) {
+			List<BlastTabularBatch> batches = readAll(
+					new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)), 100, maxEScore);
+			assertTrue(batches.size() > 10);
+			List<String> rows = new ArrayList<String>();
+			Set<String> queries = new HashSet<String>();
+			for (BlastTabularBatch batch : batches) {
+				rows.addAll(rows(batch));
+				for (int q = 0; q < batch.getQueryCount(); q++) {
+					int first = batch.getQueryFirstRow(q);
+					assertTrue(first < batch.getQueryFirstRow(q + 1));
+					// no query is split between batches
+					assertTrue(queries.add(batch.getQueryId(first)));
+					assertEquals(q, batch.getQueryIndex(batch.getQueryFirstRow(q + 1) - 1));
+				}
+				assertEquals(batch.size(), batch.getQueryFirstRow(batch.getQueryCount()));
+			}
+			assertEquals(expectedRows(report, maxEScore), rows);
+		}
+	}
+
+	@Test
+	public void testResource() throws Exception {
+		try (BlastTabularReader reader = new BlastTabularReader(
+				getClass().getResourceAsStream("/org/biojava/nbio/core/search/io/blast/small-blastreport.blasttxt"))) {
+			BlastTabularBatch batch = reader.next();
+			assertEquals(2, batch.size());
+			assertEquals(1, batch.getQueryCount());
+			assertEquals("CP000411_-_16S_rRNA", batch.getQueryId(1));
+			assertEquals("CP000411", batch.getSubjectId(0));
+			assertEquals(100.0, batch.getPercentIdentities()[0], 0.0);
+			assertEquals(1278699, batch.getSubjectStarts()[1]);
+			assertEquals(1277133, batch.getSubjectEnds()[1]);
+			assertEquals(2894.0, batch.getBitScores()[1], 0.0);
+			assertNull(reader.next());
+		}
+	}
+
+	@Test
+	public void testSplit() throws Exception {
+		String report = report(new Random(2), 3000);
+		File file = folder.newFile("report.blasttxt");
+		Files.write(file.toPath(), report.getBytes(StandardCharsets.UTF_8));
+
+		long[] boundaries = BlastTabularReader.split(file, 16);
+		assertTrue(boundaries.length > 8);
+		assertEquals(0, boundaries[0]);
+		assertEquals(file.length(), boundaries[boundaries.length - 1]);
+		List<String> rows = new ArrayList<String>();
+		Set<String> queries = new HashSet<String>();
+		for (int i = 0; i + 1 < boundaries.length; i++) {
+			assertTrue(boundaries[i] < boundaries[i + 1]);
+			Set<String> partQueries = new HashSet<String>();
+			try (BlastTabularReader reader = new BlastTabularReader(file, boundaries[i], boundaries[i + 1])) {
+				BlastTabularBatch batch;
+				while ((batch = reader.next()) != null) {
+					rows.addAll(rows(batch));
+					for (int q = 0; q < batch.getQueryCount(); q++) {
+						partQueries.add(batch.getQueryId(batch.getQueryFirstRow(q)));
+					}
+				}
+			}
+			for (String query : partQueries) {
+				assertTrue(queries.add(query));
+			}
+		}
+		assertEquals(expectedRows(report, Double.POSITIVE_INFINITY), rows);
+
+		final List<String> parallelRows = Collections.synchronizedList(new ArrayList<String>());
+		BlastTabularReader.read(file, 4, 1e-20, batch -> parallelRows.addAll(rows(batch)));
+		List<String> expected = expectedRows(report, 1e-20);
+		Collections.sort(expected);
+		Collections.sort(parallelRows);
+		assertEquals(expected, parallelRows);
+
+		// called from the only thread of the shared pool, the calling thread reads every part itself
+		ConcurrencyTools.setThreadPoolSingle();
+		try {
+			List<String> pooledRows = ConcurrencyTools.submit(() -> {
+				List<String> r = Collections.synchronizedList(new ArrayList<String>());
+				BlastTabularReader.read(file, 4, 1e-20, batch -> r.addAll(rows(batch)));
+				return r;
+			}).get(60, TimeUnit.SECONDS);
+			Collections.sort(pooledRows);
+			assertEquals(expected, pooledRows);
+		} finally {
+			ConcurrencyTools.setThreadPoolDefault();
+		}
+	}
+
+	@Test
+	public void testInvalid() throws Exception {
+		String line = "q1\ts1\t99.5\t100\t1\t0\t1\t100\t1\t100\t1e-30\t200\n";
+		try {
+			readAll(new ByteArrayInputStream((line + "q1\ts1\t99.5\n").getBytes(StandardCharsets.UTF_8)), 10,
+					Double.POSITIVE_INFINITY);
+			fail("missing columns");
+		} catch (ParseException e) {
+			assertEquals(line.length(), e.getErrorOffset());
+		}
+		try {
+			readAll(new ByteArrayInputStream(line.replace("\t100\t1\t", "\t1x0\t1\t").getBytes(StandardCharsets.UTF_8)),
+					10, Double.POSITIVE_INFINITY);
+			fail("invalid number");
+		} catch (ParseException e) {
+			assertTrue(e.getMessage().contains("1x0"));
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.search.io.blast;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.biojava.nbio.core.search.io.Hit;
+import org.biojava.nbio.core.search.io.Hsp;
+import org.biojava.nbio.core.search.io.Result;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BlastXMLStreamParserTest {
+
+	private static String hsp(int num, String evalue) {
+		return "<Hsp><Hsp_num>" + num + "</Hsp_num><Hsp_bit-score>50.5</Hsp_bit-score><Hsp_score>25</Hsp_score>"
+				+ "<Hsp_evalue>" + evalue + "</Hsp_evalue><Hsp_query-from>1</Hsp_query-from><Hsp_query-to>4</Hsp_query-to>"
+				+ "<Hsp_hit-from>11</Hsp_hit-from><Hsp_hit-to>14</Hsp_hit-to><Hsp_query-frame>1</Hsp_query-frame>"
+				+ "<Hsp_hit-frame>-1</Hsp_hit-frame><Hsp_identity>3</Hsp_identity><Hsp_positive>3</Hsp_positive>"
+				+ "<Hsp_gaps>0</Hsp_gaps><Hsp_align-len>4</Hsp_align-len><Hsp_qseq>ACGT</Hsp_qseq>"
+				+ "<Hsp_hseq>ACCT</Hsp_hseq><Hsp_midline>|| |</Hsp_midline></Hsp>";
+	}
+
+	private static final String REPORT = "<?xml version=\"1.0\"?>\n"
+			+ "<!DOCTYPE BlastOutput PUBLIC \"-//NCBI//NCBI BlastOutput/EN\" \"http://www.ncbi.nlm.nih.gov/dtd/NCBI_BlastOutput.dtd\">\n"
+			+ "<BlastOutput><BlastOutput_program>blastn</BlastOutput_program>"
+			+ "<BlastOutput_version>BLASTN 2.2.29+</BlastOutput_version>"
+			+ "<BlastOutput_reference>a &amp; b</BlastOutput_reference><BlastOutput_db>db</BlastOutput_db>"
+			+ "<BlastOutput_param><Parameters><Parameters_expect>10</Parameters_expect></Parameters></BlastOutput_param>"
+			+ "<BlastOutput_iterations>"
+			+ "<Iteration><Iteration_iter-num>1</Iteration_iter-num><Iteration_query-ID>Query_1</Iteration_query-ID>"
+			+ "<Iteration_query-def>first</Iteration_query-def><Iteration_query-len>4</Iteration_query-len>"
+			+ "<Iteration_hits><Hit><Hit_num>1</Hit_num><Hit_id>gnl|BL_ORD_ID|1</Hit_id><Hit_def>hit one</Hit_def>"
+			+ "<Hit_accession>1</Hit_accession><Hit_len>100</Hit_len><Hit_hsps>"
+			+ hsp(1, "1e-20") + hsp(2, "0.5") + hsp(3, "0")
+			+ "</Hit_hsps></Hit><Hit><Hit_num>2</Hit_num><Hit_id>gnl|BL_ORD_ID|0</Hit_id><Hit_def>hit two</Hit_def>"
+			+ "<Hit_accession>0</Hit_accession><Hit_len>50</Hit_len><Hit_hsps>" + hsp(1, "2") + "</Hit_hsps></Hit>"
+			+ "</Iteration_hits><Iteration_stat><Statistics><Statistics_db-num>2</Statistics_db-num></Statistics>"
+			+ "</Iteration_stat></Iteration>"
+			+ "<Iteration><Iteration_iter-num>2</Iteration_iter-num><Iteration_query-ID>Query_2</Iteration_query-ID>"
+			+ "<Iteration_query-def>no hits</Iteration_query-def><Iteration_query-len>7</Iteration_query-len>"
+			+ "<Iteration_message>No hits found</Iteration_message></Iteration>"
+			+ "<Iteration><Iteration_iter-num>3</Iteration_iter-num><Iteration_query-ID>Query_3</Iteration_query-ID>"
+			+ "<Iteration_query-def>third</Iteration_query-def><Iteration_query-len>4</Iteration_query-len>"
+			+ "<Iteration_hits></Iteration_hits></Iteration>"
+			+ "</BlastOutput_iterations></BlastOutput>\n";
+
+	private static BlastXMLStreamParser parser(String xml) throws ParseException {
+		return new BlastXMLStreamParser(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static List<Hsp> hsps(Hit hit) {
+		List<Hsp> hsps = new ArrayList<Hsp>();
+		for (Hsp hsp : hit) hsps.add(hsp);
+		return hsps;
+	}
+
+	@Test
+	public void testNext() throws Exception {
+		List<Sequence> queries = Arrays.<Sequence>asList(new DNASequence("ACGT"), new DNASequence("ACGTACG"),
+				new DNASequence("TTTT"));
+		List<Sequence> database = Arrays.<Sequence>asList(new DNASequence("AAAA"), new DNASequence("CCCC"));
+		try (BlastXMLStreamParser parser = parser(REPORT)) {
+			parser.setQueryReferences(queries);
+			parser.setDatabaseReferences(database);
+
+			Result first = parser.next();
+			assertEquals("blastn", first.getProgram());
+			assertEquals("BLASTN 2.2.29+", first.getVersion());
+			assertEquals("a & b", first.getReference());
+			assertEquals("db", first.getDbFile());
+			assertEquals(1, first.getIterationNumber());
+			assertEquals("Query_1", first.getQueryID());
+			assertEquals("first", first.getQueryDef());
+			assertEquals(4, first.getQueryLength());
+			assertSame(queries.get(0), first.getQuerySequence());
+
+			Iterator<Hit> hits = first.iterator();
+			Hit hit = hits.next();
+			assertEquals("gnl|BL_ORD_ID|1", hit.getHitId());
+			assertEquals("hit one", hit.getHitDef());
+			assertEquals(100, hit.getHitLen());
+			assertSame(database.get(1), hit.getHitSequence());
+			List<Hsp> hsps = hsps(hit);
+			assertEquals(3, hsps.size());
+			Hsp hsp = hsps.get(0);
+			assertEquals(1e-20, hsp.getHspEvalue(), 0.0);
+			assertEquals(50.5, hsp.getHspBitScore(), 0.0);
+			assertEquals(25, hsp.getHspScore());
+			assertEquals(11, hsp.getHspHitFrom());
+			assertEquals(-1, hsp.getHspHitFrame());
+			assertEquals("ACGT", hsp.getHspQseq());
+			assertEquals("ACCT", hsp.getHspHseq());
+			assertEquals("|| |", hsp.getHspIdentityString());
+			assertSame(database.get(0), hits.next().getHitSequence());
+			assertFalse(hits.hasNext());
+
+			// the iteration without Iteration_hits is skipped
+			Result third = parser.next();
+			assertEquals("Query_3", third.getQueryID());
+			assertSame(queries.get(2), third.getQuerySequence());
+			assertFalse(third.iterator().hasNext());
+
+			assertNull(parser.next());
+			assertNull(parser.next());
+		}
+	}
+
+	@Test
+	public void testMaxEScore() throws Exception {
+		List<Result> results = new ArrayList<Result>();
+		try (BlastXMLStreamParser parser = parser(REPORT)) {
+			parser.setMaxEScore(1e-10);
+			parser.parse(results::add);
+		}
+		assertEquals(2, results.size());
+		Iterator<Hit> hits = results.get(0).iterator();
+		List<Hsp> hsps = hsps(hits.next());
+		assertEquals(2, hsps.size());
+		assertEquals(1, hsps.get(0).getHspNum());
+		assertEquals(3, hsps.get(1).getHspNum());
+		// a hit is kept when all its hsps are filtered out
+		assertTrue(hsps(hits.next()).isEmpty());
+	}
+
+	@Test
+	public void testIterator() throws Exception {
+		List<String> ids = new ArrayList<String>();
+		try (BlastXMLStreamParser parser = parser(REPORT)) {
+			for (Iterator<Result> results = parser.iterator(); results.hasNext(); ) {
+				ids.add(results.next().getQueryID());
+			}
+		}
+		assertEquals(Arrays.asList("Query_1", "Query_3"), ids);
+	}
+
+	@Test(expected = ParseException.class)
+	public void testInvalidNumber() throws Exception {
+		try (BlastXMLStreamParser parser = parser(REPORT.replace("<Hit_len>100", "<Hit_len>x100"))) {
+			parser.next();
+		}
+	}
+
+	@Test(expected = ParseException.class)
+	public void testMalformed() throws Exception {
+		try (BlastXMLStreamParser parser = parser(REPORT.substring(0, REPORT.indexOf("</Hit_hsps>")) + "</Hit>")) {
+			parser.next();
+		}
+	}
+}
@@ -24,7 +24,9 @@ import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.storage.FourBitSequenceReader;
+import org.biojava.nbio.core.sequence.storage.PackedDNASequenceReader;
 import org.biojava.nbio.core.sequence.storage.SingleCompoundSequenceReader;
 import org.biojava.nbio.core.sequence.storage.TwoBitSequenceReader;
 import org.biojava.nbio.core.sequence.template.*;
@@ -37,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -190,6 +193,118 @@ public class DNATest {
 		assertThat("FourBit from String not as expected", bitFromString.getSequenceAsString(), is(expected));
 	}
 
+	@Test
+	public void packed() throws CompoundNotFoundException {
+		String expected = "ATGCNNnnacgtACGT-GGCCttaaNA";
+		PackedDNASequenceReader<NucleotideCompound> packed =
+				new PackedDNASequenceReader<NucleotideCompound>(expected, set);
+		assertThat("Packed from String not as expected", packed.getSequenceAsString(), is(expected));
+		assertThat(packed.getLength(), is(expected.length()));
+		for (int i = 1; i <= expected.length(); i++) {
+			assertThat(packed.getCompoundAt(i).toString(), is(expected.substring(i - 1, i)));
+		}
+		StringBuilder iterated = new StringBuilder();
+		for (NucleotideCompound compound : packed) {
+			iterated.append(compound);
+		}
+		assertThat(iterated.toString(), is(expected));
+	}
+
+	@Test
+	public void packedBulkOperations() throws CompoundNotFoundException {
+		Random random = new Random(7);
+		String alphabet = "ACGTACGTACGTacgtN";
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 1000) {
+			char c = alphabet.charAt(random.nextInt(alphabet.length()));
+			for (int n = 1 + random.nextInt(40); n > 0; n--) {
+				sb.append(random.nextInt(4) == 0 ? c : alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+		}
+		String bases = sb.toString();
+		DNASequence list = new DNASequence(bases, set, SequenceOptimizationHints.SequenceStorage.COMPOUND_LIST);
+		DNASequence packed = new DNASequence(bases, set, SequenceOptimizationHints.SequenceStorage.PACKED);
+		assertTrue(packed.getProxySequenceReader() instanceof PackedDNASequenceReader);
+
+		assertThat(packed.getSequenceAsString(), is(bases));
+		assertThat(packed.getGCCount(), is(list.getGCCount()));
+		assertThat(packed.getReverseComplement().getSequenceAsString(),
+				is(list.getReverseComplement().getSequenceAsString()));
+		for (String compound : new String[] { "A", "c", "N", "T", "t", "-" }) {
+			NucleotideCompound c = set.getCompoundForString(compound);
+			assertThat(compound, packed.countCompounds(c), is(list.countCompounds(c)));
+		}
+		for (int i = 0; i < 100; i++) {
+			int start = 1 + random.nextInt(bases.length()), end = start + random.nextInt(bases.length() - start + 1);
+			SequenceView<NucleotideCompound> view = packed.getSubSequence(start, end);
+			assertThat(view.getSequenceAsString(), is(bases.substring(start - 1, end)));
+			assertThat(view.countCompounds(set.getCompoundForString("G"), set.getCompoundForString("g")),
+					is(list.getSubSequence(start, end).countCompounds(set.getCompoundForString("G"),
+							set.getCompoundForString("g"))));
+			PackedDNASequenceReader<NucleotideCompound> copy =
+					((PackedDNASequenceReader.PackedSequenceView<NucleotideCompound>) view).copy();
+			assertThat(copy.getSequenceAsString(), is(bases.substring(start - 1, end)));
+			assertThat(copy.getReverseComplement().getSequenceAsString(),
+					is(list.getSubSequence(start, end).getInverse().getSequenceAsString()));
+		}
+	}
+
+	@Test
+	public void packedHint() throws CompoundNotFoundException {
+		SequenceOptimizationHints.setSequenceStorage(SequenceOptimizationHints.SequenceStorage.PACKED);
+		try {
+			DNASequence packed = new DNASequence("ACGTN");
+			assertTrue(packed.getProxySequenceReader() instanceof PackedDNASequenceReader);
+			DNASequence ambiguous = new DNASequence("ACGTRY", ambiguity);
+			assertThat(ambiguous.getSequenceAsString(), is("ACGTRY"));
+		} finally {
+			SequenceOptimizationHints.setSequenceStorage(SequenceOptimizationHints.SequenceStorage.COMPOUND_LIST);
+		}
+	}
+
+	@Test
+	public void byteArray() throws CompoundNotFoundException {
+		String bases = "ATGCNNnnacgtACGT-GGCCttaaNA";
+		DNASequence list = new DNASequence(bases, set, SequenceOptimizationHints.SequenceStorage.COMPOUND_LIST);
+		DNASequence coded = new DNASequence(bases, set, SequenceOptimizationHints.SequenceStorage.BYTE_ARRAY);
+		assertTrue(coded.getProxySequenceReader() instanceof ByteArraySequenceReader);
+		ByteArraySequenceReader<NucleotideCompound> reader =
+				(ByteArraySequenceReader<NucleotideCompound>) coded.getProxySequenceReader();
+
+		assertThat(coded.getSequenceAsString(), is(bases));
+		assertThat(coded.getLength(), is(bases.length()));
+		for (int i = 1; i <= bases.length(); i++) {
+			assertThat(reader.getCompoundForCode(reader.codeAt(i) & 0xff), is(list.getCompoundAt(i)));
+			assertThat(coded.getCompoundAt(i), is(list.getCompoundAt(i)));
+		}
+		final StringBuilder each = new StringBuilder();
+		reader.forEachCode(code -> each.append(reader.getCompoundForCode(code)));
+		assertThat(each.toString(), is(bases));
+
+		assertThat(coded.getGCCount(), is(list.getGCCount()));
+		assertThat(SequenceMixin.getComposition(coded), is(SequenceMixin.getComposition(list)));
+		for (String compound : new String[] { "A", "c", "N", "n", "-" }) {
+			NucleotideCompound c = set.getCompoundForString(compound);
+			assertThat(compound, coded.countCompounds(c), is(list.countCompounds(c)));
+			assertThat(compound, coded.getIndexOf(c), is(list.getIndexOf(c)));
+			assertThat(compound, coded.getLastIndexOf(c), is(list.getLastIndexOf(c)));
+		}
+		assertThat(coded.getReverseComplement().getSequenceAsString(),
+				is(list.getReverseComplement().getSequenceAsString()));
+		assertThat(coded.getSubSequence(5, 12).getSequenceAsString(), is(bases.substring(4, 12)));
+		assertThat(new ByteArraySequenceReader<NucleotideCompound>(list.getAsList(), set), is(reader));
+
+		assertNull(reader.getAccession());
+		AccessionID accession = new AccessionID("NM_000266");
+		assertThat(new ByteArraySequenceReader<NucleotideCompound>(bases, set, accession).getAccession(),
+				is(accession));
+	}
+
+	@Test(expected = CompoundNotFoundException.class)
+	public void badByteArray() throws CompoundNotFoundException {
+		new ByteArraySequenceReader<NucleotideCompound>("ACGTR", set);
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void badTwoBit() throws CompoundNotFoundException {
 		DNASequence seq = getSeq();
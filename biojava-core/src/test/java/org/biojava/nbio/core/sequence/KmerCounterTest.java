@@ -0,0 +1,179 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.util.LongIntHashMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KmerCounterTest {
+
+	private static String randomBases(Random random, int length) {
+		String alphabet = "ACGTACGTACGTacgtN";
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+	private static String reverseComplement(String bases) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = bases.length() - 1; i >= 0; i--) {
+			sb.append("TGCA".charAt("ACGT".indexOf(bases.charAt(i))));
+		}
+		return sb.toString();
+	}
+
+	// counts by splitting the bases into substrings
+	private static Map<String, Integer> naiveCounts(String bases, int k, boolean canonical) {
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		String upper = bases.toUpperCase();
+		for (int i = 0; i + k <= upper.length(); i++) {
+			String kmer = upper.substring(i, i + k);
+			if (kmer.indexOf('N') >= 0) {
+				continue;
+			}
+			if (canonical) {
+				String reverse = reverseComplement(kmer);
+				kmer = reverse.compareTo(kmer) < 0 ? reverse : kmer;
+			}
+			counts.merge(kmer, 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	private static void assertCounts(Map<String, Integer> expected, KmerCounter counter) {
+		assertEquals(expected.size(), counter.getDistinctCount());
+		long total = 0;
+		for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+			assertEquals(entry.getKey(), entry.getValue().intValue(), counter.getCount(entry.getKey()));
+			total += entry.getValue();
+		}
+		assertEquals(total, counter.getTotalCount());
+	}
+
+	@Test
+	public void testCount() throws CompoundNotFoundException {
+		Random random = new Random(11);
+		String bases = randomBases(random, 2000);
+		for (int k : new int[] { 1, 5, 16, 31, 32 }) {
+			for (boolean canonical : new boolean[] { false, true }) {
+				Map<String, Integer> expected = naiveCounts(bases, k, canonical);
+
+				KmerCounter fromString = new KmerCounter(k, canonical);
+				fromString.count(bases);
+				assertCounts(expected, fromString);
+
+				KmerCounter fromCoded = new KmerCounter(k, canonical);
+				fromCoded.count(new DNASequence(bases, DNACompoundSet.getDNACompoundSet(),
+						SequenceOptimizationHints.SequenceStorage.BYTE_ARRAY));
+				assertCounts(expected, fromCoded);
+
+				KmerCounter fromPacked = new KmerCounter(k, canonical);
+				fromPacked.count(new DNASequence(bases, DNACompoundSet.getDNACompoundSet(),
+						SequenceOptimizationHints.SequenceStorage.PACKED));
+				assertCounts(expected, fromPacked);
+			}
+		}
+	}
+
+	@Test
+	public void testEncoding() {
+		String kmer = "GATTACAGATTACAGATTACAGATTACAGATT";
+		for (int k = 1; k <= KmerCounter.MAX_K; k++) {
+			String bases = kmer.substring(0, k);
+			long code = KmerCounter.encode(bases);
+			assertEquals(bases, KmerCounter.decode(code, k));
+			assertEquals(reverseComplement(bases), KmerCounter.decode(KmerCounter.reverseComplement(code, k), k));
+		}
+		assertEquals(KmerCounter.encode("ACGT"), KmerCounter.encode("acgu"));
+		assertTrue(Long.compareUnsigned(KmerCounter.encode("TTTTA"), KmerCounter.encode("TTTTT")) < 0);
+
+		final List<Integer> positions = new ArrayList<Integer>();
+		KmerCounter.forEachKmer("ACGNACGTA", 3, false, (position, code) -> positions.add(position));
+		assertEquals(Arrays.asList(1, 5, 6, 7), positions);
+	}
+
+	@Test
+	public void testMerge() throws CompoundNotFoundException {
+		Random random = new Random(5);
+		List<DNASequence> reads = new ArrayList<DNASequence>();
+		StringBuilder all = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			String read = randomBases(random, 150);
+			reads.add(new DNASequence(read));
+			all.append(read).append('N');
+		}
+		Map<String, Integer> expected = naiveCounts(all.toString(), 21, true);
+		assertCounts(expected, reads.parallelStream().collect(KmerCounter.<DNASequence>collector(21, true)));
+
+		KmerCounter left = new KmerCounter(21, true);
+		left.count(reads.get(0));
+		try {
+			left.merge(new KmerCounter(21, false));
+			fail("Merged counters with different canonical settings");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testLongIntHashMap() {
+		LongIntHashMap map = new LongIntHashMap();
+		Map<Long, Integer> expected = new HashMap<Long, Integer>();
+		Random random = new Random(3);
+		for (int i = 0; i < 10000; i++) {
+			long key = i % 10 == 0 ? 0 : random.nextInt(3000) * 0x100000000L;
+			int increment = random.nextInt(5) - 1;
+			map.addTo(key, increment);
+			expected.merge(key, increment, Integer::sum);
+		}
+		assertEquals(expected.size(), map.size());
+		final Map<Long, Integer> actual = new HashMap<Long, Integer>();
+		map.forEach((key, value) -> actual.put(key, value));
+		assertEquals(expected, actual);
+		assertEquals(expected.size(), map.keys().length);
+
+		LongIntHashMap doubled = new LongIntHashMap(10);
+		doubled.addAll(map);
+		doubled.addAll(map);
+		assertEquals(2 * map.get(0), doubled.get(0));
+		assertFalse(doubled.containsKey(-1));
+		assertEquals(0, doubled.put(-1, 7));
+		assertEquals(7, doubled.get(-1));
+
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(0));
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class FastaSequenceIteratorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSameAsFastaReader() throws Exception {
+		File file = copyResource("/PF00104_small.fasta");
+		LinkedHashMap<String, ProteinSequence> expected = FastaReaderHelper.readFastaProteinSequence(file);
+
+		List<ProteinSequence> actual;
+		try (Stream<ProteinSequence> stream = FastaReaderHelper.streamFastaProteinSequence(file)) {
+			actual = stream.collect(Collectors.toList());
+		}
+		Assert.assertEquals(new ArrayList<String>(expected.keySet()), accessions(actual));
+		for (ProteinSequence sequence : actual) {
+			ProteinSequence other = expected.get(sequence.getAccession().getID());
+			Assert.assertEquals(other.getSequenceAsString(), sequence.getSequenceAsString());
+			Assert.assertEquals(other.getOriginalHeader(), sequence.getOriginalHeader());
+		}
+	}
+
+	@Test
+	public void testIterator() {
+		String fasta = "; comment\n>a first\n  ACGT \n\nTT\r\n>empty\n>b\r\nWKLM\n;skipped\nSSSS\n>c";
+		FastaSequenceIterator<ProteinSequence, AminoAcidCompound> iterator =
+				new FastaSequenceIterator<ProteinSequence, AminoAcidCompound>(
+						new ByteArrayInputStream(fasta.getBytes()),
+						new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
+						new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		Assert.assertTrue(iterator.hasNext());
+		ProteinSequence a = iterator.next();
+		Assert.assertEquals("a first", a.getOriginalHeader());
+		Assert.assertEquals("ACGTTT", a.getSequenceAsString());
+		ProteinSequence b = iterator.next();
+		Assert.assertEquals("b", b.getOriginalHeader());
+		Assert.assertEquals("WKLMSSSS", b.getSequenceAsString());
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testParallelSplit() throws IOException {
+		Random random = new Random(11);
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			StringBuilder bases = new StringBuilder();
+			int length = 1 + random.nextInt(300);
+			for (int j = 0; j < length; j++) {
+				bases.append("ACGT".charAt(random.nextInt(4)));
+			}
+			expected.put("seq" + i, bases.toString());
+			sb.append(">seq").append(i).append('\n');
+			for (int j = 0; j < length; j += 60) {
+				sb.append(bases, j, Math.min(length, j + 60)).append('\n');
+			}
+		}
+		File file = folder.newFile("random.fa");
+		OutputStream out = new FileOutputStream(file);
+		out.write(sb.toString().getBytes("US-ASCII"));
+		out.close();
+
+		FastaSpliterator<DNASequence, NucleotideCompound> spliterator =
+				new FastaSpliterator<DNASequence, NucleotideCompound>(file,
+						new GenericFastaHeaderParser<DNASequence, NucleotideCompound>(),
+						new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()), 1000);
+		List<DNASequence> actual;
+		try (Stream<DNASequence> stream = spliterator.stream(true)) {
+			actual = stream.collect(Collectors.toList());
+		}
+		// every record is read once, in file order
+		Assert.assertEquals(new ArrayList<String>(expected.keySet()), accessions(actual));
+		for (DNASequence sequence : actual) {
+			Assert.assertEquals(expected.get(sequence.getAccession().getID()), sequence.getSequenceAsString());
+		}
+	}
+
+	private static List<String> accessions(List<? extends AbstractSequence<?>> sequences) {
+		List<String> accessions = new ArrayList<String>();
+		for (AbstractSequence<?> sequence : sequences) {
+			accessions.add(sequence.getAccession().getID());
+		}
+		return accessions;
+	}
+
+	private File copyResource(String name) throws IOException {
+		InputStream inStream = this.getClass().getResourceAsStream(name);
+		File file = folder.newFile(name.substring(1));
+		OutputStream out = new FileOutputStream(file);
+		byte[] buffer = new byte[4096];
+		int n;
+		while ((n = inStream.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+		out.close();
+		inStream.close();
+		return file;
+	}
+
+}
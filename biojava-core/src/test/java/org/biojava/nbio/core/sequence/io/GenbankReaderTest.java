@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.DNASequence;
@@ -189,6 +190,39 @@ public class GenbankReaderTest {
 
 	}
 
+	/**
+	 * The stream parses the same records as {@link GenbankReader#process()}, one at a time,
+	 * and closes the underlying resource after the last one.
+	 */
+	@Test
+	public void testStream() throws IOException, CompoundNotFoundException {
+		InputStream inStream = this.getClass().getResourceAsStream("/two-dnaseqs.gb");
+
+		GenbankReader<DNASequence, NucleotideCompound> genbankDNA
+				= new GenbankReader<>(
+				inStream,
+				new GenericGenbankHeaderParser<>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())
+		);
+
+		List<DNASequence> dnaSequences = genbankDNA.stream().collect(Collectors.toList());
+		assertTrue(genbankDNA.isClosed());
+
+		LinkedHashMap<String, DNASequence> expected = new GenbankReader<>(
+				this.getClass().getResourceAsStream("/two-dnaseqs.gb"),
+				new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())
+		).process();
+		assertEquals(2, dnaSequences.size());
+		assertEquals("vPetite", dnaSequences.get(0).getAccession().getID());
+		assertEquals("sbFDR", dnaSequences.get(1).getAccession().getID());
+		for (DNASequence sequence : dnaSequences) {
+			DNASequence other = expected.get(sequence.getAccession().getID());
+			assertEquals(other.getSequenceAsString(), sequence.getSequenceAsString());
+			assertEquals(other.getFeatures().size(), sequence.getFeatures().size());
+		}
+	}
+
 	@Test
 	public void CDStest() throws Exception {
 		logger.info("CDS Test");
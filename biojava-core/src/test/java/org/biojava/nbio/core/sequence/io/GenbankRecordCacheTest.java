@@ -0,0 +1,226 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.features.DBReferenceInfo;
+import org.biojava.nbio.core.sequence.features.FeatureInterface;
+import org.biojava.nbio.core.sequence.features.Qualifier;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GenbankRecordCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File copy(String resource) throws IOException {
+		File file = new File(folder.getRoot(), resource);
+		try (InputStream input = getClass().getResourceAsStream("/" + resource)) {
+			Files.copy(input, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+
+	private static void assertSameRecord(AbstractSequence<?> expected, AbstractSequence<?> actual) {
+		assertEquals(expected.getSequenceAsString(), actual.getSequenceAsString());
+		assertEquals(expected.getOriginalHeader(), actual.getOriginalHeader());
+		assertEquals(expected.getAccession(), actual.getAccession());
+		assertEquals(expected.getAccession().getVersion(), actual.getAccession().getVersion());
+		assertEquals(expected.getAccession().getIdentifier(), actual.getAccession().getIdentifier());
+		assertEquals(expected.getDescription(), actual.getDescription());
+		assertEquals(expected.getComments(), actual.getComments());
+		assertEquals(expected.getReferences().size(), actual.getReferences().size());
+		for (int i = 0; i < expected.getReferences().size(); i++) {
+			assertEquals(expected.getReferences().get(i).getAuthors(), actual.getReferences().get(i).getAuthors());
+			assertEquals(expected.getReferences().get(i).getTitle(), actual.getReferences().get(i).getTitle());
+			assertEquals(expected.getReferences().get(i).getJournal(), actual.getReferences().get(i).getJournal());
+		}
+		assertEquals(expected.getTaxonomy() == null, actual.getTaxonomy() == null);
+		if (expected.getTaxonomy() != null) {
+			assertEquals(expected.getTaxonomy().getID(), actual.getTaxonomy().getID());
+		}
+		List<? extends FeatureInterface<?, ?>> expectedFeatures = expected.getFeatures();
+		List<? extends FeatureInterface<?, ?>> actualFeatures = actual.getFeatures();
+		assertEquals(expectedFeatures.size(), actualFeatures.size());
+		for (int i = 0; i < expectedFeatures.size(); i++) {
+			FeatureInterface<?, ?> e = expectedFeatures.get(i), a = actualFeatures.get(i);
+			assertEquals(e.getType(), a.getType());
+			assertEquals(e.getSource(), a.getSource());
+			assertEquals(e.getDescription(), a.getDescription());
+			assertEquals(e.getLocations(), a.getLocations());
+			assertEquals(e.getLocations().toString(), a.getLocations().toString());
+			assertEquals(e.getLocations().isPartial(), a.getLocations().isPartial());
+			assertEquals(e.getQualifiers().keySet(), a.getQualifiers().keySet());
+			for (Map.Entry<String, List<Qualifier>> entry : e.getQualifiers().entrySet()) {
+				List<Qualifier> values = a.getQualifiers().get(entry.getKey());
+				assertEquals(entry.getValue().size(), values.size());
+				for (int j = 0; j < values.size(); j++) {
+					Qualifier q = entry.getValue().get(j);
+					assertEquals(q.getClass(), values.get(j).getClass());
+					assertEquals(q.getName(), values.get(j).getName());
+					assertEquals(q.getValue(), values.get(j).getValue());
+					if (q instanceof DBReferenceInfo) {
+						assertEquals(((DBReferenceInfo) q).getDatabase(), ((DBReferenceInfo) values.get(j)).getDatabase());
+						assertEquals(((DBReferenceInfo) q).getId(), ((DBReferenceInfo) values.get(j)).getId());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDNA() throws Exception {
+		for (String resource : new String[] { "NM_000266.gb", "two-dnaseqs.gb" }) {
+			File file = copy(resource);
+			File cacheFile = new File(folder.getRoot(), resource + ".cache");
+			LinkedHashMap<String, DNASequence> expected = GenbankReaderHelper.readGenbankDNASequence(file);
+
+			LinkedHashMap<String, DNASequence> first = GenbankReaderHelper.readGenbankDNASequence(file, cacheFile);
+			assertTrue(cacheFile.isFile());
+			LinkedHashMap<String, DNASequence> cached = GenbankReaderHelper.readGenbankDNASequence(file, cacheFile);
+			assertEquals(expected.keySet(), first.keySet());
+			assertEquals(expected.keySet(), cached.keySet());
+			for (String accession : expected.keySet()) {
+				assertSameRecord(expected.get(accession), cached.get(accession));
+			}
+
+			GenbankRecordCache<DNASequence, NucleotideCompound> cache = new GenbankRecordCache<>(cacheFile,
+					new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+			assertTrue(cache.isValid(file));
+			String last = null;
+			for (String accession : expected.keySet()) {
+				assertSameRecord(expected.get(accession), cache.read(accession));
+				last = accession;
+			}
+			assertNull(cache.read("XX_000000"));
+
+			// a changed file is parsed again and its cache replaced
+			List<String> lines = Files.readAllLines(file.toPath());
+			lines.replaceAll(line -> line.startsWith("DEFINITION") ? "DEFINITION  changed " + line.substring(12) : line);
+			Files.write(file.toPath(), lines);
+			assertFalse(cache.isValid(file));
+			assertTrue(GenbankReaderHelper.readGenbankDNASequence(file, cacheFile).get(last).getDescription()
+					.startsWith("changed "));
+			assertTrue(cache.isValid(file));
+		}
+	}
+
+	@Test
+	public void testProtein() throws Exception {
+		File file = copy("BondFeature.gb");
+		File cacheFile = new File(folder.getRoot(), "BondFeature.cache");
+		LinkedHashMap<String, ProteinSequence> expected = GenbankReaderHelper.readGenbankProteinSequence(file);
+		GenbankReaderHelper.readGenbankProteinSequence(file, cacheFile);
+		LinkedHashMap<String, ProteinSequence> cached = GenbankReaderHelper.readGenbankProteinSequence(file, cacheFile);
+		assertEquals(expected.keySet(), cached.keySet());
+		for (String accession : expected.keySet()) {
+			assertSameRecord(expected.get(accession), cached.get(accession));
+		}
+	}
+
+	@Test
+	public void testVerifySource() throws Exception {
+		File file = copy("NM_000266.gb");
+		File cacheFile = new File(folder.getRoot(), "NM_000266.cache");
+		GenbankReaderHelper.readGenbankDNASequence(file, cacheFile);
+		GenbankRecordCache<DNASequence, NucleotideCompound> cache = new GenbankRecordCache<>(cacheFile,
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		assertTrue(cache.isValid(file));
+
+		// a file touched without being changed makes the cache stale
+		long modified = file.lastModified();
+		assertTrue(file.setLastModified(modified - 10000));
+		assertFalse(cache.isValid(file));
+
+		// a change that keeps the length and modification time is only seen through the checksum
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		bytes[bytes.length / 2] = (byte) (bytes[bytes.length / 2] == 'a' ? 'c' : 'a');
+		Files.write(file.toPath(), bytes, StandardOpenOption.TRUNCATE_EXISTING);
+		assertTrue(file.setLastModified(modified));
+		assertTrue(cache.isValid(file));
+		cache.setVerifySource(true);
+		assertFalse(cache.isValid(file));
+	}
+
+	@Test
+	public void testCorrupt() throws Exception {
+		File file = copy("NM_000266.gb");
+		File cacheFile = new File(folder.getRoot(), "NM_000266.cache");
+		GenbankReaderHelper.readGenbankDNASequence(file, cacheFile);
+		byte[] bytes = Files.readAllBytes(cacheFile.toPath());
+		Files.write(cacheFile.toPath(), Arrays.copyOf(bytes, bytes.length / 2),
+				StandardOpenOption.TRUNCATE_EXISTING);
+		GenbankRecordCache<DNASequence, NucleotideCompound> cache = new GenbankRecordCache<>(cacheFile,
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		try {
+			cache.read();
+			fail("truncated cache");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testCorruptBody() throws Exception {
+		File file = copy("NM_000266.gb");
+		File cacheFile = new File(folder.getRoot(), "NM_000266.cache");
+		LinkedHashMap<String, DNASequence> expected = GenbankReaderHelper.readGenbankDNASequence(file, cacheFile);
+		byte[] bytes = Files.readAllBytes(cacheFile.toPath());
+		bytes[bytes.length / 2] ^= 0x01;
+		Files.write(cacheFile.toPath(), bytes, StandardOpenOption.TRUNCATE_EXISTING);
+		GenbankRecordCache<DNASequence, NucleotideCompound> cache = new GenbankRecordCache<>(cacheFile,
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+		assertTrue(cache.isValid(file));
+		try {
+			cache.read();
+			fail("corrupt cache");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("checksum"));
+		}
+
+		// a corrupt cache is a miss: the file is parsed again and the cache replaced
+		LinkedHashMap<String, DNASequence> reparsed = GenbankReaderHelper.readGenbankDNASequence(file, cacheFile);
+		assertEquals(expected.keySet(), reparsed.keySet());
+		for (String accession : expected.keySet()) {
+			assertSameRecord(expected.get(accession), reparsed.get(accession));
+		}
+		assertEquals(expected.keySet(), cache.read().keySet());
+	}
+}
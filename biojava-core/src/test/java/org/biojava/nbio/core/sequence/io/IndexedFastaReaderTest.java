@@ -0,0 +1,169 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+public class IndexedFastaReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File fasta;
+	private String chr1, chr2;
+
+	@Before
+	public void setUp() throws IOException {
+		Random random = new Random(17);
+		chr1 = randomBases(random, 1003);
+		chr2 = randomBases(random, 60);
+		StringBuilder sb = new StringBuilder();
+		sb.append(">chr1 first chromosome\n");
+		appendLines(sb, chr1, 60, "\n");
+		sb.append(">chr2\r\n");
+		appendLines(sb, chr2, 60, "\r\n");
+		sb.append(">empty\n");
+		fasta = write("test.fa", sb.toString());
+	}
+
+	@Test
+	public void testBuild() throws IOException {
+		FastaIndex index = FastaIndex.build(fasta);
+		Assert.assertEquals(3, index.size());
+		Assert.assertEquals("chr1\t1003\t23\t60\t61", index.getEntry("chr1").toString());
+		long chr2Offset = 23 + 1003 + 17 + 7;
+		Assert.assertEquals("chr2\t60\t" + chr2Offset + "\t60\t62", index.getEntry("chr2").toString());
+		Assert.assertEquals(0, index.getEntry("empty").getLength());
+		Assert.assertNull(index.getEntry("chr3"));
+	}
+
+	@Test
+	public void testWriteRead() throws IOException {
+		FastaIndex index = FastaIndex.build(fasta);
+		File fai = FastaIndex.getIndexFile(fasta);
+		index.write(fai);
+		FastaIndex copy = FastaIndex.read(fai);
+		Assert.assertEquals(index.getNames(), copy.getNames());
+		for (FastaIndex.Entry entry : index.getEntries()) {
+			Assert.assertEquals(entry.toString(), copy.getEntry(entry.getName()).toString());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testBuildRaggedLines() throws IOException {
+		FastaIndex.build(write("ragged.fa", ">bad\nACGT\nAC\nACGT\n"));
+	}
+
+	@Test
+	public void testGetDNASequence() throws IOException {
+		IndexedFastaReader reader = new IndexedFastaReader(fasta);
+		try {
+			DNASequence sequence = reader.getDNASequence("chr1");
+			Assert.assertEquals(chr1.length(), sequence.getLength());
+			Assert.assertEquals(chr1, sequence.getSequenceAsString());
+			Assert.assertEquals("chr1", sequence.getAccession().getID());
+			Assert.assertEquals("first chromosome", sequence.getDescription());
+			Assert.assertEquals(chr2, reader.getDNASequence("chr2").getSequenceAsString());
+			Assert.assertEquals("chr2", reader.getHeader("chr2"));
+
+			Random random = new Random(3);
+			for (int i = 0; i < 50; i++) {
+				int begin = 1 + random.nextInt(chr1.length()), end = begin + random.nextInt(chr1.length() - begin + 1);
+				Assert.assertEquals(chr1.substring(begin - 1, end),
+						reader.getDNASequence("chr1", begin, end).getSequenceAsString());
+				Assert.assertEquals(chr1.substring(begin - 1, end), reader.getSequenceAsString("chr1", begin, end));
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testGetProteinSequence() throws Exception {
+		InputStream inStream = this.getClass().getResourceAsStream("/PF00104_small.fasta");
+		File file = folder.newFile("PF00104_small.fasta");
+		OutputStream out = new FileOutputStream(file);
+		byte[] buffer = new byte[4096];
+		int n;
+		while ((n = inStream.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+		out.close();
+		inStream.close();
+
+		LinkedHashMap<String, ProteinSequence> expected = FastaReaderHelper.readFastaProteinSequence(file);
+		IndexedFastaReader reader = new IndexedFastaReader(file);
+		try {
+			Assert.assertEquals(expected.size(), reader.getNames().size());
+			for (String name : reader.getNames()) {
+				ProteinSequence sequence = reader.getProteinSequence(name);
+				Assert.assertEquals(expected.get(name).getSequenceAsString(), sequence.getSequenceAsString());
+				Assert.assertEquals(AminoAcidCompoundSet.getAminoAcidCompoundSet().getCompoundForString("M"),
+						reader.getSequenceReader(name, AminoAcidCompoundSet.getAminoAcidCompoundSet())
+								.getCompoundSet().getCompoundForString("M"));
+			}
+			String name = reader.getNames().get(0);
+			AminoAcidCompound first = reader.getProteinSequence(name, 1, 5).getCompoundAt(1);
+			Assert.assertEquals(expected.get(name).getCompoundAt(1), first);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private File write(String name, String contents) throws IOException {
+		File file = folder.newFile(name);
+		OutputStream out = new FileOutputStream(file);
+		out.write(contents.getBytes("US-ASCII"));
+		out.close();
+		return file;
+	}
+
+	private static void appendLines(StringBuilder sb, String bases, int width, String terminator) {
+		for (int i = 0; i < bases.length(); i += width) {
+			sb.append(bases, i, Math.min(bases.length(), i + width)).append(terminator);
+		}
+	}
+
+	private static String randomBases(Random random, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append("ACGTN".charAt(random.nextInt(5)));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class ParallelFastaReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File fasta;
+	private Map<String, String> expected;
+
+	@Before
+	public void setUp() throws IOException {
+		Random random = new Random(5);
+		expected = new LinkedHashMap<String, String>();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			StringBuilder bases = new StringBuilder();
+			int length = 1 + random.nextInt(200);
+			for (int j = 0; j < length; j++) {
+				bases.append("ACGTN".charAt(random.nextInt(5)));
+			}
+			expected.put("read" + i, bases.toString());
+			sb.append(">read").append(i).append('\n');
+			for (int j = 0; j < length; j += 70) {
+				sb.append(bases, j, Math.min(length, j + 70)).append('\n');
+			}
+		}
+		fasta = folder.newFile("reads.fa");
+		OutputStream out = new FileOutputStream(fasta);
+		out.write(sb.toString().getBytes("US-ASCII"));
+		out.close();
+	}
+
+	@Test
+	public void testChunkBoundaries() throws IOException {
+		ParallelFastaReader<DNASequence, NucleotideCompound> reader = newReader();
+		reader.setChunkSize(4096);
+		List<Long> boundaries = reader.getChunkBoundaries();
+		Assert.assertTrue(boundaries.size() > 10);
+		Assert.assertEquals(fasta.length(), (long) boundaries.get(boundaries.size() - 1));
+		byte[] contents = Files.readAllBytes(fasta.toPath());
+		for (int i = 0; i < boundaries.size() - 1; i++) {
+			Assert.assertEquals('>', contents[boundaries.get(i).intValue()]);
+		}
+	}
+
+	@Test
+	public void testOrdered() throws IOException {
+		for (boolean memoryMapped : new boolean[] { true, false }) {
+			ParallelFastaReader<DNASequence, NucleotideCompound> reader = newReader();
+			reader.setChunkSize(3000);
+			reader.setMaxChunksInFlight(3);
+			reader.setMemoryMapped(memoryMapped);
+			LinkedHashMap<String, DNASequence> sequences = reader.process();
+			Assert.assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(sequences.keySet()));
+			for (DNASequence sequence : sequences.values()) {
+				Assert.assertEquals(expected.get(sequence.getAccession().getID()), sequence.getSequenceAsString());
+			}
+		}
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		ParallelFastaReader<DNASequence, NucleotideCompound> reader = newReader();
+		reader.setChunkSize(2000);
+		final List<DNASequence> sequences = new ArrayList<DNASequence>();
+		reader.process(sequences::add, false);
+		Assert.assertEquals(expected.size(), sequences.size());
+		HashSet<String> accessions = new HashSet<String>();
+		for (DNASequence sequence : sequences) {
+			Assert.assertTrue(accessions.add(sequence.getAccession().getID()));
+			Assert.assertEquals(expected.get(sequence.getAccession().getID()), sequence.getSequenceAsString());
+		}
+	}
+
+	@Test
+	public void testOrderedReleasesChunks() throws IOException {
+		ParallelFastaReader<DNASequence, NucleotideCompound> reader = newReader();
+		reader.setChunkSize(2000);
+		reader.setMaxChunksInFlight(2);
+		final int chunks = reader.getChunkBoundaries().size() - 1;
+		final List<WeakReference<DNASequence>> consumed = new ArrayList<WeakReference<DNASequence>>();
+		final int[] alive = { -1 };
+		reader.process(sequence -> {
+			consumed.add(new WeakReference<DNASequence>(sequence));
+			if (consumed.size() == expected.size()) {
+				// the records of the chunks already passed downstream must not be held by the reader
+				for (int attempt = 0; attempt < 5 && alive[0] != 0; attempt++) {
+					System.gc();
+					alive[0] = 0;
+					for (WeakReference<DNASequence> reference : consumed) {
+						if (reference.get() != null) {
+							alive[0]++;
+						}
+					}
+				}
+			}
+		}, true);
+		// at most the chunks in flight, the one being passed downstream and the current record
+		Assert.assertTrue(alive[0] + " of " + expected.size() + " records still reachable",
+				alive[0] <= 4 * expected.size() / chunks + 1);
+	}
+
+	private ParallelFastaReader<DNASequence, NucleotideCompound> newReader() {
+		return new ParallelFastaReader<DNASequence, NucleotideCompound>(fasta,
+				new GenericFastaHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.transcription;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CodonLookupTableTest {
+
+	private static String randomDna(Random random, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append("ACGT".charAt(random.nextInt(4)));
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testSameAsEngine() throws Exception {
+		Random random = new Random(1);
+		for (int tableId : new int[] { 1, 2, 11 }) {
+			TranscriptionEngine engine = new TranscriptionEngine.Builder().table(tableId).initMet(false)
+					.trimStop(false).build();
+			CodonLookupTable table = engine.getCodonLookupTable();
+			assertSame(table, engine.getCodonLookupTable());
+			for (int length = 5; length < 40; length++) {
+				String dna = randomDna(random, length);
+				Map<Frame, org.biojava.nbio.core.sequence.template.Sequence<AminoAcidCompound>> expected = engine
+						.multipleFrameTranslation(new DNASequence(dna), Frame.getAllFrames());
+				byte[] bytes = dna.getBytes(StandardCharsets.US_ASCII);
+				byte[][] sixFrames = new byte[6][];
+				for (Frame frame : Frame.getAllFrames()) {
+					sixFrames[frame.ordinal()] = new byte[CodonLookupTable.translatedLength(length, frame)];
+				}
+				table.translateSixFrames(bytes, 0, length, sixFrames);
+				for (Frame frame : Frame.getAllFrames()) {
+					String protein = expected.get(frame).getSequenceAsString();
+					assertEquals(dna + " " + frame, protein, table.translate(dna, frame));
+					assertEquals(dna + " " + frame, protein, new String(sixFrames[frame.ordinal()],
+							StandardCharsets.US_ASCII));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRegion() {
+		CodonLookupTable table = TranscriptionEngine.getDefault().getCodonLookupTable();
+		String dna = randomDna(new Random(2), 100);
+		byte[] bytes = dna.getBytes(StandardCharsets.US_ASCII);
+		byte[] out = new byte[40];
+		for (Frame frame : Frame.getAllFrames()) {
+			int count = table.translate(bytes, 10, 60, frame, out, 5);
+			assertEquals(CodonLookupTable.translatedLength(50, frame), count);
+			assertEquals(table.translate(dna.substring(10, 60), frame), new String(out, 5, count,
+					StandardCharsets.US_ASCII));
+		}
+	}
+
+	@Test
+	public void testAmbiguity() {
+		CodonLookupTable table = TranscriptionEngine.getDefault().getCodonLookupTable();
+		assertEquals("MA*XXX", table.translate("atgGCNTARNNNAT-GCx", Frame.ONE));
+		assertEquals("L", table.translate("YTR", Frame.ONE));
+		assertEquals("ML", table.translate("UUAGCAU", Frame.REVERSED_ONE));
+		assertTrue(table.isStart(CodonLookupTable.index((byte) 'A', (byte) 'T', (byte) 'G')));
+		assertFalse(table.isStart(CodonLookupTable.index((byte) 'A', (byte) 'T', (byte) 'N')));
+		assertTrue(table.isStop(CodonLookupTable.index((byte) 'T', (byte) 'R', (byte) 'A')));
+		assertFalse(table.isStop(CodonLookupTable.index((byte) 'T', (byte) 'N', (byte) 'A')));
+		assertFalse(table.isStop(CodonLookupTable.index((byte) 'T', (byte) '-', (byte) 'A')));
+		int index = CodonLookupTable.index((byte) 'A', (byte) 'C', (byte) 'R');
+		assertEquals(CodonLookupTable.index((byte) 'Y', (byte) 'G', (byte) 'T'),
+				CodonLookupTable.reverseComplement(index));
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.transcription;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.Strand;
+import org.biojava.nbio.core.sequence.transcription.OrfFinder.Mode;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class OrfFinderTest {
+
+	private static final Comparator<Orf> ORDER = Comparator.comparingLong(Orf::getStart)
+			.thenComparingLong(Orf::getEnd).thenComparing(Orf::getFrame);
+
+	private static String randomDna(Random random, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			// few stop codons, so that ORFs run across chunks
+			sb.append(random.nextInt(3) == 0 ? "ACGTN".charAt(random.nextInt(5)) : "ACG".charAt(random.nextInt(3)));
+		}
+		return sb.toString();
+	}
+
+	// ORFs found codon by codon in the reading direction of each frame
+	private static List<Orf> naive(CodonLookupTable table, String dna, Mode mode, boolean partial, int minimum) {
+		int length = dna.length();
+		byte[] bytes = dna.getBytes(StandardCharsets.US_ASCII);
+		List<Orf> orfs = new ArrayList<Orf>();
+		for (Frame frame : Frame.getAllFrames()) {
+			int count = CodonLookupTable.translatedLength(length, frame);
+			int begin = -1;
+			boolean startCodon = false;
+			for (int i = 0; i <= count; i++) {
+				boolean end = i == count;
+				int p = frame.isReverse() ? length - frame.getStart() + 1 - 3 - 3 * i : frame.getStart() - 1 + 3 * i;
+				int index = end ? 0 : CodonLookupTable.index(bytes[p], bytes[p + 1], bytes[p + 2]);
+				if (frame.isReverse()) index = CodonLookupTable.reverseComplement(index);
+				boolean stop = !end && table.isStop(index);
+				if ((stop || end) && begin >= 0 && (stop || partial)) {
+					if (i - begin >= minimum) {
+						int last = i - (stop ? 0 : 1);
+						long first = frame.isReverse() ? length - frame.getStart() + 1 - 3 * begin
+								: frame.getStart() - 1 + 3 * begin + 1;
+						long lastPosition = frame.isReverse() ? length - frame.getStart() + 1 - 3 - 3 * last + 1
+								: frame.getStart() - 1 + 3 * last + 3;
+						orfs.add(frame.isReverse() ? new Orf(null, lastPosition, first, frame, startCodon, stop)
+								: new Orf(null, first, lastPosition, frame, startCodon, stop));
+					}
+				}
+				if (stop || end) {
+					begin = -1;
+					continue;
+				}
+				if (begin < 0 && (mode == Mode.STOP_TO_STOP || table.isStart(index))) {
+					begin = i;
+					startCodon = table.isStart(index);
+				}
+			}
+		}
+		Collections.sort(orfs, ORDER);
+		return orfs;
+	}
+
+	@Test
+	public void testSameAsNaive() throws Exception {
+		Random random = new Random(1);
+		CodonLookupTable table = TranscriptionEngine.getDefault().getCodonLookupTable();
+		for (int length = 0; length < 400; length += 1 + random.nextInt(20)) {
+			String dna = randomDna(random, length);
+			byte[] bytes = dna.getBytes(StandardCharsets.US_ASCII);
+			for (Mode mode : Mode.values()) {
+				for (boolean partial : new boolean[] { false, true }) {
+					int minimum = random.nextInt(3) * 5;
+					List<Orf> expected = naive(table, dna, mode, partial, minimum);
+
+					OrfFinder finder = new OrfFinder().setMode(mode).setIncludePartial(partial)
+							.setMinimumLength(minimum);
+					List<Orf> single = new ArrayList<Orf>();
+					finder.find(null, bytes, single::add);
+					Collections.sort(single, ORDER);
+					assertEquals(dna + " " + mode, expected, single);
+
+					for (int chunkSize : new int[] { 3, 7, 32 }) {
+						finder.setChunkSize(chunkSize).setThreads(chunkSize == 7 ? 1 : 3);
+						List<Orf> chunked = Collections.synchronizedList(new ArrayList<Orf>());
+						finder.find(null, length, (start, n) -> Arrays.copyOfRange(bytes, (int) start,
+								(int) start + n), chunked::add);
+						assertEquals(chunked.size(), new HashSet<Orf>(chunked).size());
+						Collections.sort(chunked, ORDER);
+						assertEquals(dna + " " + mode + " " + chunkSize, expected, chunked);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSharedPool() throws Exception {
+		String dna = randomDna(new Random(2), 2000);
+		byte[] bytes = dna.getBytes(StandardCharsets.US_ASCII);
+		final OrfFinder finder = new OrfFinder().setMinimumLength(5);
+		List<Orf> expected = new ArrayList<Orf>();
+		finder.find(null, bytes, expected::add);
+		Collections.sort(expected, ORDER);
+
+		finder.setChunkSize(32).setThreads(4);
+		// called from the only thread of the shared pool, the finder scans every chunk itself
+		ConcurrencyTools.setThreadPoolSingle();
+		try {
+			List<Orf> chunked = ConcurrencyTools.submit(() -> {
+				List<Orf> orfs = Collections.synchronizedList(new ArrayList<Orf>());
+				finder.find(null, bytes.length, (start, n) -> Arrays.copyOfRange(bytes, (int) start,
+						(int) start + n), orfs::add);
+				return orfs;
+			}).get(60, TimeUnit.SECONDS);
+			Collections.sort(chunked, ORDER);
+			assertEquals(expected, chunked);
+		} finally {
+			ConcurrencyTools.setThreadPoolDefault();
+		}
+
+		try {
+			finder.find(null, bytes.length, (start, n) -> {
+				if (start > 1000) throw new IOException("region " + start);
+				return Arrays.copyOfRange(bytes, (int) start, (int) start + n);
+			}, orf -> {});
+			fail("Expected the exception of the loader");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().startsWith("region "));
+		}
+	}
+
+	@Test
+	public void testSequence() throws Exception {
+		// ATG AAA TGA on the forward strand, and the reverse complement of ATG CCC TAA
+		DNASequence dna = new DNASequence("GGATGAAATGAGGTTAGGGCATGG");
+		List<Orf> orfs = new OrfFinder().find(dna);
+		assertEquals(2, orfs.size());
+
+		Orf forward = orfs.get(0);
+		assertEquals(3, forward.getStart());
+		assertEquals(11, forward.getEnd());
+		assertEquals(Strand.POSITIVE, forward.getStrand());
+		assertEquals(Frame.THREE, forward.getFrame());
+		assertEquals(2, forward.getProteinLength());
+		assertTrue(forward.hasStartCodon());
+		assertTrue(forward.hasStopCodon());
+		assertEquals("ATGAAATGA", forward.getSequence(dna).getSequenceAsString());
+
+		Orf reverse = orfs.get(1);
+		assertEquals(14, reverse.getStart());
+		assertEquals(22, reverse.getEnd());
+		assertEquals(Strand.NEGATIVE, reverse.getStrand());
+		assertEquals(Frame.REVERSED_THREE, reverse.getFrame());
+		assertEquals("ATGCCCTAA", reverse.getSequence(dna).getSequenceAsString());
+
+		assertEquals(1, new OrfFinder().setMinimumLength(2).setMode(Mode.STOP_TO_STOP).find(dna).stream()
+				.filter(orf -> orf.getFrame() == Frame.THREE).count());
+	}
+}
@@ -0,0 +1,328 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Input stream which decompresses a BGZF file, the blocked gzip format of samtools and tabix, with its blocks
+ * inflated in parallel by a pool of daemon threads.
+ *
+ * Every BGZF block is a gzip member of at most 64 KiB which records its own compressed size, so blocks can be read
+ * one after another without inflating them.  Up to four blocks per thread are inflated ahead of the reader, and
+ * their content is returned in file order.
+ *
+ * @since 5.1.2
+ */
+final class BgzfInputStream extends InputStream
+{
+	/** Length of the fixed part of a BGZF block header, up to and including XLEN. */
+	private static final int HEADER_LENGTH = 12;
+
+	/** Greatest size of a BGZF block, compressed or not. */
+	private static final int MAX_BLOCK_SIZE = 1 << 16;
+
+	/** Inflater of each pool thread. */
+	private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+	/** Compressed stream. */
+	private final InputStream in;
+
+	/** Pool which inflates blocks. */
+	private final ExecutorService executor;
+
+	/** Blocks being inflated, in file order. */
+	private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+	/** Number of blocks to inflate ahead. */
+	private final int readAhead;
+
+	/** Current inflated block. */
+	private byte[] block = new byte[0];
+
+	/** Position in the current block. */
+	private int position;
+
+	/** True once the last compressed block is read. */
+	private boolean eof;
+
+
+	/**
+	 * Create a new BGZF input stream.
+	 *
+	 * @param in compressed stream, must not be null
+	 * @param threads number of threads which inflate blocks, must be at least 1
+	 */
+	BgzfInputStream(final InputStream in, final int threads)
+	{
+		if (in == null)
+		{
+			throw new IllegalArgumentException("in must not be null");
+		}
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		this.in = in;
+		this.readAhead = 4 * threads;
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "bgzf-inflater");
+				thread.setDaemon(true);
+				return thread;
+			});
+	}
+
+
+	/**
+	 * Return true if the specified bytes start with a BGZF block header.
+	 *
+	 * @param header first bytes of a stream
+	 * @param length number of bytes in header
+	 * @return true if the bytes start with a BGZF block header
+	 */
+	static boolean isBgzf(final byte[] header, final int length)
+	{
+		return length >= 18
+			&& (header[0] & 0xff) == 31 && (header[1] & 0xff) == 139 && header[2] == 8 && (header[3] & 4) != 0
+			&& header[12] == 'B' && header[13] == 'C' && header[14] == 2 && header[15] == 0;
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		if (!fill())
+		{
+			return -1;
+		}
+		return block[position++] & 0xff;
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int offset, final int length) throws IOException
+	{
+		if (length == 0)
+		{
+			return 0;
+		}
+		if (!fill())
+		{
+			return -1;
+		}
+		int n = Math.min(length, block.length - position);
+		System.arraycopy(block, position, buffer, offset, n);
+		position += n;
+		return n;
+	}
+
+	@Override
+	public int available()
+	{
+		return block.length - position;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		executor.shutdownNow();
+		pending.clear();
+		in.close();
+	}
+
+	/**
+	 * Make the next inflated bytes available, if there are any.
+	 *
+	 * @return false at the end of the stream
+	 * @throws IOException if an I/O error occurs or a block is not valid BGZF
+	 */
+	private boolean fill() throws IOException
+	{
+		while (position == block.length)
+		{
+			while (!eof && pending.size() < readAhead)
+			{
+				final byte[] compressed = readBlock();
+				if (compressed == null)
+				{
+					eof = true;
+				}
+				else
+				{
+					pending.add(executor.submit(() -> inflate(compressed)));
+				}
+			}
+			Future<byte[]> next = pending.poll();
+			if (next == null)
+			{
+				return false;
+			}
+			try
+			{
+				block = next.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while inflating a BGZF block", e);
+			}
+			catch (ExecutionException e)
+			{
+				Throwable cause = e.getCause();
+				throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+			}
+			position = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Read the next compressed block, header and trailer included.
+	 *
+	 * @return the block, or null at the end of the stream
+	 * @throws IOException if an I/O error occurs or the block is not valid BGZF
+	 */
+	private byte[] readBlock() throws IOException
+	{
+		byte[] header = new byte[HEADER_LENGTH];
+		int n = readFully(header, 0, HEADER_LENGTH);
+		if (n == 0)
+		{
+			return null;
+		}
+		if (n < HEADER_LENGTH)
+		{
+			throw new EOFException("truncated BGZF block header");
+		}
+		if ((header[0] & 0xff) != 31 || (header[1] & 0xff) != 139 || header[2] != 8 || (header[3] & 4) == 0)
+		{
+			throw new IOException("not a BGZF block");
+		}
+		int extraLength = (header[10] & 0xff) | (header[11] & 0xff) << 8;
+		byte[] extra = new byte[extraLength];
+		if (readFully(extra, 0, extraLength) < extraLength)
+		{
+			throw new EOFException("truncated BGZF block header");
+		}
+		int blockSize = -1;
+		for (int i = 0; i + 4 <= extraLength; )
+		{
+			int subfieldLength = (extra[i + 2] & 0xff) | (extra[i + 3] & 0xff) << 8;
+			if (extra[i] == 'B' && extra[i + 1] == 'C' && subfieldLength == 2 && i + 6 <= extraLength)
+			{
+				blockSize = ((extra[i + 4] & 0xff) | (extra[i + 5] & 0xff) << 8) + 1;
+			}
+			i += 4 + subfieldLength;
+		}
+		int headerLength = HEADER_LENGTH + extraLength;
+		if (blockSize < headerLength + 8 || blockSize > MAX_BLOCK_SIZE)
+		{
+			throw new IOException("BGZF block without a valid block size");
+		}
+		byte[] compressed = new byte[blockSize];
+		System.arraycopy(header, 0, compressed, 0, HEADER_LENGTH);
+		System.arraycopy(extra, 0, compressed, HEADER_LENGTH, extraLength);
+		if (readFully(compressed, headerLength, blockSize - headerLength) < blockSize - headerLength)
+		{
+			throw new EOFException("truncated BGZF block");
+		}
+		return compressed;
+	}
+
+	/**
+	 * Inflate and check a compressed block.
+	 *
+	 * @param compressed compressed block, header and trailer included
+	 * @return the inflated bytes
+	 * @throws IOException if the block cannot be inflated or does not match its checksum
+	 */
+	private static byte[] inflate(final byte[] compressed) throws IOException
+	{
+		int headerLength = HEADER_LENGTH + ((compressed[10] & 0xff) | (compressed[11] & 0xff) << 8);
+		int trailer = compressed.length - 8;
+		int size = littleEndianInt(compressed, trailer + 4);
+		if (size < 0 || size > MAX_BLOCK_SIZE)
+		{
+			throw new IOException("BGZF block with an invalid inflated size " + size);
+		}
+		byte[] inflated = new byte[size];
+		Inflater inflater = INFLATER.get();
+		inflater.reset();
+		inflater.setInput(compressed, headerLength, trailer - headerLength);
+		try
+		{
+			int n = 0;
+			while (n < size)
+			{
+				int inflatedBytes = inflater.inflate(inflated, n, size - n);
+				if (inflatedBytes == 0 && (inflater.finished() || inflater.needsInput()))
+				{
+					break;
+				}
+				n += inflatedBytes;
+			}
+			if (n != size)
+			{
+				throw new IOException("BGZF block inflated to " + n + " bytes instead of " + size);
+			}
+		}
+		catch (DataFormatException e)
+		{
+			throw new IOException("corrupt BGZF block", e);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(inflated, 0, size);
+		if ((int) crc.getValue() != littleEndianInt(compressed, trailer))
+		{
+			throw new IOException("BGZF block does not match its CRC32");
+		}
+		return inflated;
+	}
+
+	private static int littleEndianInt(final byte[] bytes, final int offset)
+	{
+		return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8
+			| (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+	}
+
+	private int readFully(final byte[] buffer, final int offset, final int length) throws IOException
+	{
+		int n = 0;
+		while (n < length)
+		{
+			int read = in.read(buffer, offset + n, length - n);
+			if (read < 0)
+			{
+				break;
+			}
+			n += read;
+		}
+		return n;
+	}
+}
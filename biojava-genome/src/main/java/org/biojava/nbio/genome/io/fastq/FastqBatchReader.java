@@ -0,0 +1,711 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * High-throughput reader for FASTQ formatted sequences, which parses bytes directly into pooled
+ * {@link FastqRecordBatch}es instead of building a {@link Fastq} per record.
+ *
+ * <p>
+ * A background thread reads, and decompresses, the input into large chunks while the calling thread parses the
+ * previous chunks.  Files compressed in the BGZF format of samtools are also inflated block by block on a pool of
+ * threads; other gzip files are inflated on the background thread.  Records are checked as
+ * {@link StreamingFastqParser} checks them, and multi-line records are accepted.
+ *
+ * <pre>
+ * try (FastqBatchReader reader = FastqBatchReader.open(new File("reads.fastq.gz"), FastqVariant.FASTQ_SANGER))
+ * {
+ *   reader.read(batch -&gt; {
+ *     for (int i = 0; i &lt; batch.size(); i++)
+ *     {
+ *       // batch.getData(), batch.getSequenceOffset(i), batch.getLength(i) ...
+ *     }
+ *   });
+ * }
+ * </pre>
+ *
+ * A reader must only be used by one thread at a time, but the batches it returns may be handed to other threads.
+ *
+ * @since 5.1.2
+ */
+public final class FastqBatchReader implements Closeable
+{
+	/** Default number of records in a batch. */
+	public static final int DEFAULT_BATCH_SIZE = 4096;
+
+	/** Size of the chunks read by the background thread. */
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	/** Number of chunks the background thread may read ahead. */
+	private static final int READ_AHEAD = 4;
+
+	/** End of input marker. */
+	private static final Chunk END = new Chunk(0);
+
+	/** Input, decompressed. */
+	private final InputStream in;
+
+	/** FASTQ sequence format variant. */
+	private final FastqVariant variant;
+
+	/** Greatest number of records in a batch. */
+	private final int batchSize;
+
+	/** Valid quality score characters of the variant. */
+	private final boolean[] validQuality = new boolean[256];
+
+	/** Chunks read by the background thread. */
+	private final BlockingQueue<Chunk> filled = new ArrayBlockingQueue<Chunk>(READ_AHEAD);
+
+	/** Chunks which have been parsed and may be read into again. */
+	private final ConcurrentLinkedQueue<Chunk> freeChunks = new ConcurrentLinkedQueue<Chunk>();
+
+	/** Released batches. */
+	private final ConcurrentLinkedQueue<FastqRecordBatch> freeBatches = new ConcurrentLinkedQueue<FastqRecordBatch>();
+
+	/** Background thread, started by the first read. */
+	private Thread thread;
+
+	/** Batch being filled, which holds data not parsed yet. */
+	private FastqRecordBatch current;
+
+	/** Parse position in the current batch. */
+	private int position;
+
+	/** True once the end of the input has been reached. */
+	private boolean eof;
+
+	/** True once this reader is closed. */
+	private volatile boolean closed;
+
+	/** Start and end of each line of the record being parsed. */
+	private int[] lineStarts = new int[16], lineEnds = new int[16];
+
+
+	/**
+	 * Create a new FASTQ batch reader with the default batch size.
+	 *
+	 * @param in uncompressed input, must not be null
+	 * @param variant FASTQ sequence format variant, must not be null
+	 */
+	public FastqBatchReader(final InputStream in, final FastqVariant variant)
+	{
+		this(in, variant, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Create a new FASTQ batch reader.
+	 *
+	 * @param in uncompressed input, must not be null
+	 * @param variant FASTQ sequence format variant, must not be null
+	 * @param batchSize greatest number of records in a batch, must be at least 1
+	 */
+	public FastqBatchReader(final InputStream in, final FastqVariant variant, final int batchSize)
+	{
+		if (in == null)
+		{
+			throw new IllegalArgumentException("in must not be null");
+		}
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		if (batchSize < 1)
+		{
+			throw new IllegalArgumentException("batchSize must be at least 1");
+		}
+		this.in = in;
+		this.variant = variant;
+		this.batchSize = batchSize;
+		for (int c = 0; c < validQuality.length; c++)
+		{
+			int qualityScore = variant.qualityScore((char) c);
+			validQuality[c] = qualityScore >= variant.minimumQualityScore()
+				&& qualityScore <= variant.maximumQualityScore();
+		}
+	}
+
+
+	/**
+	 * Open a FASTQ file, which may be plain, gzip or BGZF compressed, with BGZF blocks inflated on as many threads
+	 * as there are processors.
+	 *
+	 * @param file file to read, must not be null
+	 * @param variant FASTQ sequence format variant, must not be null
+	 * @return a new FASTQ batch reader
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static FastqBatchReader open(final File file, final FastqVariant variant) throws IOException
+	{
+		return open(file, variant, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Open a FASTQ file, which may be plain, gzip or BGZF compressed.
+	 *
+	 * @param file file to read, must not be null
+	 * @param variant FASTQ sequence format variant, must not be null
+	 * @param threads number of threads which inflate BGZF blocks, must be at least 1
+	 * @return a new FASTQ batch reader
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static FastqBatchReader open(final File file, final FastqVariant variant, final int threads)
+		throws IOException
+	{
+		if (file == null)
+		{
+			throw new IllegalArgumentException("file must not be null");
+		}
+		return open(new FileInputStream(file), variant, threads);
+	}
+
+	/**
+	 * Open a FASTQ stream, which may be plain, gzip or BGZF compressed.
+	 *
+	 * @param in input, must not be null
+	 * @param variant FASTQ sequence format variant, must not be null
+	 * @param threads number of threads which inflate BGZF blocks, must be at least 1
+	 * @return a new FASTQ batch reader
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static FastqBatchReader open(final InputStream in, final FastqVariant variant, final int threads)
+		throws IOException
+	{
+		if (in == null)
+		{
+			throw new IllegalArgumentException("in must not be null");
+		}
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		try
+		{
+			return new FastqBatchReader(decompress(in, threads), variant);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Return the input decompressed according to its first bytes.
+	 *
+	 * @param in input
+	 * @param threads number of threads which inflate BGZF blocks
+	 * @return the input decompressed
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static InputStream decompress(final InputStream in, final int threads) throws IOException
+	{
+		BufferedInputStream buffered = new BufferedInputStream(in, 1 << 16);
+		byte[] header = new byte[18];
+		buffered.mark(header.length);
+		int n = 0;
+		while (n < header.length)
+		{
+			int read = buffered.read(header, n, header.length - n);
+			if (read < 0)
+			{
+				break;
+			}
+			n += read;
+		}
+		buffered.reset();
+		if (BgzfInputStream.isBgzf(header, n))
+		{
+			return new BgzfInputStream(buffered, threads);
+		}
+		if (n >= 2 && (header[0] & 0xff) == 31 && (header[1] & 0xff) == 139)
+		{
+			return new GZIPInputStream(buffered, 1 << 16);
+		}
+		return buffered;
+	}
+
+	/**
+	 * Pass each batch of records to the specified consumer, and release it once the consumer returns.
+	 *
+	 * @param consumer batch consumer, must not be null
+	 * @throws IOException if an I/O error occurs or a record is not valid
+	 */
+	public void read(final Consumer<? super FastqRecordBatch> consumer) throws IOException
+	{
+		if (consumer == null)
+		{
+			throw new IllegalArgumentException("consumer must not be null");
+		}
+		FastqRecordBatch batch;
+		while ((batch = next()) != null)
+		{
+			try
+			{
+				consumer.accept(batch);
+			}
+			finally
+			{
+				batch.release();
+			}
+		}
+	}
+
+	/**
+	 * Pass each record, as a FASTQ formatted sequence, to the specified listener.
+	 *
+	 * @param listener event based reader callback, must not be null
+	 * @throws IOException if an I/O error occurs or a record is not valid
+	 */
+	public void stream(final StreamListener listener) throws IOException
+	{
+		if (listener == null)
+		{
+			throw new IllegalArgumentException("listener must not be null");
+		}
+		read(batch -> {
+				for (int i = 0; i < batch.size(); i++)
+				{
+					listener.fastq(batch.toFastq(i));
+				}
+			});
+	}
+
+	/**
+	 * Return the next batch of records, which belongs to the caller until it is {@link FastqRecordBatch#release()}d.
+	 *
+	 * @return the next batch of records, or null at the end of the input
+	 * @throws IOException if an I/O error occurs or a record is not valid
+	 */
+	public FastqRecordBatch next() throws IOException
+	{
+		if (closed)
+		{
+			throw new IOException("reader is closed");
+		}
+		if (current == null)
+		{
+			if (eof)
+			{
+				return null;
+			}
+			current = acquire();
+			position = 0;
+		}
+		if (thread == null)
+		{
+			thread = new Thread(this::readChunks, "fastq-reader");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		FastqRecordBatch batch = current;
+		while (true)
+		{
+			while (batch.size < batchSize)
+			{
+				int end = parseRecord(batch, position);
+				if (end < 0)
+				{
+					break;
+				}
+				position = end;
+			}
+			int rest = batch.dataLength - position;
+			if (batch.size == batchSize)
+			{
+				current = null;
+				if (rest > 0 || !eof)
+				{
+					// the unparsed data starts the next batch
+					current = acquire();
+					ensureCapacity(current, rest);
+					System.arraycopy(batch.data, position, current.data, 0, rest);
+					current.dataLength = rest;
+				}
+				batch.dataLength = position;
+				position = 0;
+				return batch;
+			}
+			if (eof)
+			{
+				current = null;
+				if (rest > 0)
+				{
+					batch.release();
+					throw new IOException("truncated sequence");
+				}
+				if (batch.size == 0)
+				{
+					batch.release();
+					return null;
+				}
+				return batch;
+			}
+			Chunk chunk = take();
+			if (chunk == END)
+			{
+				eof = true;
+				if (rest > 0 && batch.data[batch.dataLength - 1] != '\n')
+				{
+					ensureCapacity(batch, batch.dataLength + 1);
+					batch.data[batch.dataLength++] = '\n';
+				}
+			}
+			else
+			{
+				ensureCapacity(batch, batch.dataLength + chunk.length);
+				System.arraycopy(chunk.data, 0, batch.data, batch.dataLength, chunk.length);
+				batch.dataLength += chunk.length;
+				freeChunks.offer(chunk);
+			}
+		}
+	}
+
+	/**
+	 * Stop the background thread and close the input.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		closed = true;
+		if (thread != null)
+		{
+			thread.interrupt();
+		}
+		in.close();
+	}
+
+	/**
+	 * Return the specified batch to the pool.
+	 *
+	 * @param batch batch to release
+	 */
+	void release(final FastqRecordBatch batch)
+	{
+		batch.clear();
+		freeBatches.offer(batch);
+	}
+
+	private FastqRecordBatch acquire()
+	{
+		FastqRecordBatch batch = freeBatches.poll();
+		return batch != null ? batch : new FastqRecordBatch(this, variant, batchSize, CHUNK_SIZE);
+	}
+
+	private static void ensureCapacity(final FastqRecordBatch batch, final int capacity)
+	{
+		if (batch.data.length < capacity)
+		{
+			batch.data = Arrays.copyOf(batch.data, Math.max(capacity, 2 * batch.data.length));
+		}
+	}
+
+	/**
+	 * Return the next chunk read by the background thread.
+	 *
+	 * @return the next chunk, or END
+	 * @throws IOException if the background thread could not read the input
+	 */
+	private Chunk take() throws IOException
+	{
+		Chunk chunk;
+		try
+		{
+			chunk = filled.take();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while reading", e);
+		}
+		if (chunk.error != null)
+		{
+			throw chunk.error;
+		}
+		return chunk;
+	}
+
+	/**
+	 * Read the input into chunks until its end, on the background thread.
+	 */
+	private void readChunks()
+	{
+		Chunk last;
+		try
+		{
+			while (true)
+			{
+				Chunk chunk = freeChunks.poll();
+				if (chunk == null)
+				{
+					chunk = new Chunk(CHUNK_SIZE);
+				}
+				chunk.length = 0;
+				int read;
+				while (chunk.length < chunk.data.length
+					&& (read = in.read(chunk.data, chunk.length, chunk.data.length - chunk.length)) >= 0)
+				{
+					chunk.length += read;
+				}
+				if (chunk.length == 0)
+				{
+					last = END;
+					break;
+				}
+				filled.put(chunk);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			return;
+		}
+		catch (IOException e)
+		{
+			last = new Chunk(0);
+			last.error = closed ? new IOException("reader is closed", e) : e;
+		}
+		catch (RuntimeException e)
+		{
+			last = new Chunk(0);
+			last.error = new IOException(e);
+		}
+		try
+		{
+			filled.put(last);
+		}
+		catch (InterruptedException e)
+		{
+			// closed
+		}
+	}
+
+	/**
+	 * Parse the record which starts at the specified position of the batch, and add it to the batch.
+	 *
+	 * @param batch batch
+	 * @param start start of the record
+	 * @return the end of the record, or -1 if the data of the batch ends within it
+	 * @throws IOException if the record is not valid
+	 */
+	private int parseRecord(final FastqRecordBatch batch, final int start) throws IOException
+	{
+		final byte[] data = batch.data;
+		final int limit = batch.dataLength;
+		int lineEnd = indexOfNewline(data, start, limit);
+		if (lineEnd < 0)
+		{
+			return -1;
+		}
+		if (data[start] != '@')
+		{
+			throw new IOException("description must begin with a '@' character");
+		}
+		int descriptionStart = trimStart(data, start + 1, lineEnd);
+		int descriptionEnd = trimEnd(data, descriptionStart, lineEnd);
+
+		// sequence lines, up to the repeat description
+		int lines = 0;
+		int sequenceLength = 0;
+		int p = lineEnd + 1;
+		while (true)
+		{
+			lineEnd = indexOfNewline(data, p, limit);
+			if (lineEnd < 0)
+			{
+				return -1;
+			}
+			if (lines > 0 && data[p] == '+')
+			{
+				break;
+			}
+			lines = addLine(lines, data, p, lineEnd);
+			sequenceLength += lineEnds[lines - 1] - lineStarts[lines - 1];
+			p = lineEnd + 1;
+		}
+		final int sequenceLines = lines;
+		int repeatStart = trimStart(data, p + 1, lineEnd);
+		int repeatEnd = trimEnd(data, repeatStart, lineEnd);
+		if (repeatEnd > repeatStart && descriptionEnd > descriptionStart
+			&& !regionEquals(data, descriptionStart, descriptionEnd, repeatStart, repeatEnd))
+		{
+			throw new IOException("repeat description must match description");
+		}
+		p = lineEnd + 1;
+
+		// quality lines, up to the length of the sequence
+		int qualityLength = 0;
+		while (lines == sequenceLines || qualityLength < sequenceLength)
+		{
+			lineEnd = indexOfNewline(data, p, limit);
+			if (lineEnd < 0)
+			{
+				return -1;
+			}
+			lines = addLine(lines, data, p, lineEnd);
+			validateQuality(data, lineStarts[lines - 1], lineEnds[lines - 1]);
+			qualityLength += lineEnds[lines - 1] - lineStarts[lines - 1];
+			p = lineEnd + 1;
+		}
+		if (qualityLength != sequenceLength)
+		{
+			throw new IOException("sequence and quality scores must be the same length");
+		}
+
+		int i = batch.size++;
+		batch.descriptionStart[i] = descriptionStart;
+		batch.descriptionEnd[i] = descriptionEnd;
+		batch.sequenceStart[i] = join(data, 0, sequenceLines);
+		batch.qualityStart[i] = join(data, sequenceLines, lines);
+		batch.length[i] = sequenceLength;
+		return p;
+	}
+
+	/**
+	 * Record the trimmed line from start to end.
+	 *
+	 * @return the new number of lines
+	 */
+	private int addLine(final int lines, final byte[] data, final int start, final int end)
+	{
+		if (lines == lineStarts.length)
+		{
+			lineStarts = Arrays.copyOf(lineStarts, 2 * lines);
+			lineEnds = Arrays.copyOf(lineEnds, 2 * lines);
+		}
+		lineStarts[lines] = trimStart(data, start, end);
+		lineEnds[lines] = trimEnd(data, lineStarts[lines], end);
+		return lines + 1;
+	}
+
+	/**
+	 * Move the recorded lines from first to last so that they follow the first one.
+	 *
+	 * @return the start of the first line
+	 */
+	private int join(final byte[] data, final int first, final int last)
+	{
+		int end = lineEnds[first];
+		for (int k = first + 1; k < last; k++)
+		{
+			int n = lineEnds[k] - lineStarts[k];
+			System.arraycopy(data, lineStarts[k], data, end, n);
+			end += n;
+		}
+		return lineStarts[first];
+	}
+
+	private void validateQuality(final byte[] data, final int start, final int end) throws IOException
+	{
+		for (int i = start; i < end; i++)
+		{
+			int c = data[i] & 0xff;
+			if (!validQuality[c])
+			{
+				throw new IOException("quality score must be between " + variant.minimumQualityScore() +
+									  " and " + variant.maximumQualityScore() + ", was " +
+									  variant.qualityScore((char) c) + " for ASCII char '" + (char) c + "'");
+			}
+		}
+	}
+
+	private static int indexOfNewline(final byte[] data, final int start, final int limit)
+	{
+		for (int i = start; i < limit; i++)
+		{
+			if (data[i] == '\n')
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int trimStart(final byte[] data, int start, final int end)
+	{
+		while (start < end && (data[start] & 0xff) <= ' ')
+		{
+			start++;
+		}
+		return start;
+	}
+
+	private static int trimEnd(final byte[] data, final int start, int end)
+	{
+		while (end > start && (data[end - 1] & 0xff) <= ' ')
+		{
+			end--;
+		}
+		return end;
+	}
+
+	private static boolean regionEquals(final byte[] data, final int start1, final int end1, final int start2,
+		final int end2)
+	{
+		if (end1 - start1 != end2 - start2)
+		{
+			return false;
+		}
+		for (int i = 0; i < end1 - start1; i++)
+		{
+			if (data[start1 + i] != data[start2 + i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Bytes read by the background thread.
+	 */
+	private static final class Chunk
+	{
+		/** Bytes. */
+		private final byte[] data;
+
+		/** Number of bytes read. */
+		private int length;
+
+		/** Error which ended the input, if any. */
+		private IOException error;
+
+
+		private Chunk(final int size)
+		{
+			this.data = new byte[size];
+		}
+	}
+}
@@ -0,0 +1,390 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+import java.util.Arrays;
+
+/**
+ * Accumulator of the quality scores of FASTQ formatted sequences: the distribution of quality scores at each
+ * position of the reads, from which means and medians are derived, and the expected number of errors of the reads.
+ *
+ * <p>
+ * Quality characters are converted through tables, never base by base through {@link FastqVariant}.  An accumulator
+ * is not thread-safe; to process batches in parallel, accumulate each batch, or each thread, separately and
+ * {@link #merge(FastqQualityStatistics)} the accumulators:
+ * <pre>
+ * FastqQualityStatistics statistics = batches.parallelStream()
+ *   .collect(() -&gt; new FastqQualityStatistics(variant), FastqQualityStatistics::add, FastqQualityStatistics::merge);
+ * </pre>
+ *
+ * @since 5.1.2
+ */
+public final class FastqQualityStatistics
+{
+	/** FASTQ sequence format variant. */
+	private final FastqVariant variant;
+
+	/** Smallest quality score of the variant. */
+	private final int minimumQualityScore;
+
+	/** Number of quality scores of the variant. */
+	private final int width;
+
+	/** Index of the quality score of each character, from the minimum quality score. */
+	private final int[] scoreIndex = new int[256];
+
+	/** Error probability of each character. */
+	private final double[] errorProbabilities;
+
+	/** Count of each quality score at each position, by position then quality score. */
+	private long[] counts = new long[0];
+
+	/** Length of the longest read. */
+	private int maximumLength;
+
+	/** Number of reads. */
+	private long recordCount;
+
+	/** Number of bases. */
+	private long baseCount;
+
+	/** Sum of the expected number of errors of each read. */
+	private double expectedErrors;
+
+
+	/**
+	 * Create a new empty accumulator.
+	 *
+	 * @param variant FASTQ sequence format variant, must not be null
+	 */
+	public FastqQualityStatistics(final FastqVariant variant)
+	{
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		this.variant = variant;
+		this.minimumQualityScore = variant.minimumQualityScore();
+		this.width = variant.maximumQualityScore() - minimumQualityScore + 1;
+		int[] qualityScores = FastqQualityTables.qualityScores(variant);
+		for (int c = 0; c < scoreIndex.length; c++)
+		{
+			// characters out of range are counted as the nearest quality score
+			scoreIndex[c] = Math.max(0, Math.min(width - 1, qualityScores[c] - minimumQualityScore));
+		}
+		this.errorProbabilities = FastqQualityTables.errorProbabilities(variant);
+	}
+
+
+	/**
+	 * Add the quality scores of all the records of the specified batch.
+	 *
+	 * @param batch batch of records, must not be null and must have the variant of this accumulator
+	 * @return this accumulator
+	 */
+	public FastqQualityStatistics add(final FastqRecordBatch batch)
+	{
+		if (batch == null)
+		{
+			throw new IllegalArgumentException("batch must not be null");
+		}
+		checkVariant(batch.getVariant());
+		for (int i = 0, size = batch.size(); i < size; i++)
+		{
+			add(batch.data, batch.qualityStart[i], batch.length[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * Add the quality scores of the specified FASTQ formatted sequence.
+	 *
+	 * @param fastq FASTQ formatted sequence, must not be null and must have the variant of this accumulator
+	 * @return this accumulator
+	 */
+	public FastqQualityStatistics add(final Fastq fastq)
+	{
+		if (fastq == null)
+		{
+			throw new IllegalArgumentException("fastq must not be null");
+		}
+		checkVariant(fastq.getVariant());
+		String quality = fastq.getQuality();
+		byte[] bytes = new byte[quality.length()];
+		for (int i = 0; i < bytes.length; i++)
+		{
+			bytes[i] = (byte) quality.charAt(i);
+		}
+		add(bytes, 0, bytes.length);
+		return this;
+	}
+
+	/**
+	 * Add the quality scores of one read, given as quality characters.
+	 *
+	 * @param quality quality characters
+	 * @param offset offset of the first character
+	 * @param length number of characters
+	 */
+	public void add(final byte[] quality, final int offset, final int length)
+	{
+		ensureLength(length);
+		final long[] counts = this.counts;
+		double errors = 0.0d;
+		for (int i = 0, row = 0; i < length; i++, row += width)
+		{
+			int c = quality[offset + i] & 0xff;
+			counts[row + scoreIndex[c]]++;
+			errors += errorProbabilities[c];
+		}
+		expectedErrors += errors;
+		baseCount += length;
+		recordCount++;
+	}
+
+	/**
+	 * Add the counts of the specified accumulator to this one.
+	 *
+	 * @param other accumulator, must not be null and must have the variant of this accumulator
+	 * @return this accumulator
+	 */
+	public FastqQualityStatistics merge(final FastqQualityStatistics other)
+	{
+		if (other == null)
+		{
+			throw new IllegalArgumentException("other must not be null");
+		}
+		checkVariant(other.variant);
+		ensureLength(other.maximumLength);
+		for (int i = 0, size = other.maximumLength * width; i < size; i++)
+		{
+			counts[i] += other.counts[i];
+		}
+		recordCount += other.recordCount;
+		baseCount += other.baseCount;
+		expectedErrors += other.expectedErrors;
+		return this;
+	}
+
+	/**
+	 * Return the FASTQ sequence format variant of this accumulator.
+	 *
+	 * @return the FASTQ sequence format variant of this accumulator
+	 */
+	public FastqVariant getVariant()
+	{
+		return variant;
+	}
+
+	/**
+	 * Return the number of reads added.
+	 *
+	 * @return the number of reads added
+	 */
+	public long getRecordCount()
+	{
+		return recordCount;
+	}
+
+	/**
+	 * Return the number of bases added.
+	 *
+	 * @return the number of bases added
+	 */
+	public long getBaseCount()
+	{
+		return baseCount;
+	}
+
+	/**
+	 * Return the length of the longest read added.
+	 *
+	 * @return the length of the longest read added
+	 */
+	public int getMaximumLength()
+	{
+		return maximumLength;
+	}
+
+	/**
+	 * Return the number of bases at the specified position, that is the number of reads longer than the position.
+	 *
+	 * @param position 0-based position in the reads
+	 * @return the number of bases at the position
+	 */
+	public long getBaseCount(final int position)
+	{
+		long n = 0;
+		for (long count : getQualityDistribution(position))
+		{
+			n += count;
+		}
+		return n;
+	}
+
+	/**
+	 * Return the number of bases at the specified position with each quality score.  Element <code>i</code> of the
+	 * returned array is the count of quality score <code>variant.minimumQualityScore() + i</code>.
+	 *
+	 * @param position 0-based position in the reads
+	 * @return a new array of counts, by quality score
+	 */
+	public long[] getQualityDistribution(final int position)
+	{
+		if (position < 0)
+		{
+			throw new IllegalArgumentException("position must be at least 0");
+		}
+		if (position >= maximumLength)
+		{
+			return new long[width];
+		}
+		return Arrays.copyOfRange(counts, position * width, (position + 1) * width);
+	}
+
+	/**
+	 * Return the number of bases with each quality score, over all positions.
+	 *
+	 * @return a new array of counts, by quality score from the minimum quality score of the variant
+	 */
+	public long[] getQualityDistribution()
+	{
+		long[] distribution = new long[width];
+		for (int i = 0, size = maximumLength * width; i < size; i++)
+		{
+			distribution[i % width] += counts[i];
+		}
+		return distribution;
+	}
+
+	/**
+	 * Return the mean quality score of all the bases, or NaN if there are none.
+	 *
+	 * @return the mean quality score of all the bases
+	 */
+	public double getMeanQuality()
+	{
+		return mean(getQualityDistribution());
+	}
+
+	/**
+	 * Return the mean quality score of the bases at the specified position, or NaN if there are none.
+	 *
+	 * @param position 0-based position in the reads
+	 * @return the mean quality score at the position
+	 */
+	public double getMeanQuality(final int position)
+	{
+		return mean(getQualityDistribution(position));
+	}
+
+	/**
+	 * Return the median quality score of the bases at the specified position, the lower one if there are two, or
+	 * the minimum quality score of the variant if there are no bases at the position.
+	 *
+	 * @param position 0-based position in the reads
+	 * @return the median quality score at the position
+	 */
+	public int getMedianQuality(final int position)
+	{
+		return quantile(getQualityDistribution(position), 0.5d);
+	}
+
+	/**
+	 * Return the smallest quality score at the specified position which is at least as great as the specified
+	 * fraction of the bases at the position.
+	 *
+	 * @param position 0-based position in the reads
+	 * @param fraction fraction of the bases, between 0 and 1
+	 * @return the quality score quantile at the position
+	 */
+	public int getQualityQuantile(final int position, final double fraction)
+	{
+		if (fraction < 0.0d || fraction > 1.0d)
+		{
+			throw new IllegalArgumentException("fraction must be between 0 and 1");
+		}
+		return quantile(getQualityDistribution(position), fraction);
+	}
+
+	/**
+	 * Return the mean expected number of errors of the reads, that is the mean sum of the error probabilities of
+	 * their bases, or NaN if there are no reads.
+	 *
+	 * @return the mean expected number of errors of the reads
+	 */
+	public double getMeanExpectedErrors()
+	{
+		return recordCount == 0 ? Double.NaN : expectedErrors / recordCount;
+	}
+
+	private double mean(final long[] distribution)
+	{
+		long n = 0;
+		double sum = 0.0d;
+		for (int i = 0; i < distribution.length; i++)
+		{
+			n += distribution[i];
+			sum += (double) distribution[i] * (minimumQualityScore + i);
+		}
+		return n == 0 ? Double.NaN : sum / n;
+	}
+
+	private int quantile(final long[] distribution, final double fraction)
+	{
+		long n = 0;
+		for (long count : distribution)
+		{
+			n += count;
+		}
+		double target = Math.max(1.0d, Math.ceil(fraction * n));
+		long cumulative = 0;
+		for (int i = 0; i < distribution.length; i++)
+		{
+			cumulative += distribution[i];
+			if (cumulative >= target)
+			{
+				return minimumQualityScore + i;
+			}
+		}
+		return minimumQualityScore;
+	}
+
+	private void ensureLength(final int length)
+	{
+		if (length > maximumLength)
+		{
+			if (length * width > counts.length)
+			{
+				counts = Arrays.copyOf(counts, Math.max(length, 2 * maximumLength) * width);
+			}
+			maximumLength = length;
+		}
+	}
+
+	private void checkVariant(final FastqVariant other)
+	{
+		if (other != variant)
+		{
+			throw new IllegalArgumentException("variant must be " + variant + ", was " + other);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+/**
+ * Quality score and error probability of each quality character, for each FASTQ sequence format variant,
+ * so that they need not be computed base by base.
+ *
+ * @since 5.1.2
+ */
+final class FastqQualityTables
+{
+	/** Quality score of each character, for each variant. */
+	private static final int[][] QUALITY_SCORES = new int[FastqVariant.values().length][];
+
+	/** Error probability of each character, for each variant. */
+	private static final double[][] ERROR_PROBABILITIES = new double[FastqVariant.values().length][];
+
+	static
+	{
+		for (FastqVariant variant : FastqVariant.values())
+		{
+			int[] qualityScores = new int[256];
+			double[] errorProbabilities = new double[256];
+			for (int c = 0; c < 256; c++)
+			{
+				qualityScores[c] = variant.qualityScore((char) c);
+				errorProbabilities[c] = variant.errorProbability(qualityScores[c]);
+			}
+			QUALITY_SCORES[variant.ordinal()] = qualityScores;
+			ERROR_PROBABILITIES[variant.ordinal()] = errorProbabilities;
+		}
+	}
+
+
+	/**
+	 * Private no-arg constructor.
+	 */
+	private FastqQualityTables()
+	{
+		// empty
+	}
+
+
+	/**
+	 * Return the quality score of each character from 0 to 255 in the specified variant.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @param variant FASTQ sequence format variant
+	 * @return the quality score of each character
+	 */
+	static int[] qualityScores(final FastqVariant variant)
+	{
+		return QUALITY_SCORES[variant.ordinal()];
+	}
+
+	/**
+	 * Return the error probability of each character from 0 to 255 in the specified variant.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @param variant FASTQ sequence format variant
+	 * @return the error probability of each character
+	 */
+	static double[] errorProbabilities(final FastqVariant variant)
+	{
+		return ERROR_PROBABILITIES[variant.ordinal()];
+	}
+}
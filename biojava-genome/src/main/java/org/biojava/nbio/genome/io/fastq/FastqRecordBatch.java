@@ -0,0 +1,237 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Batch of FASTQ formatted sequences read by a {@link FastqBatchReader}, held as slices of one byte buffer.
+ *
+ * <p>
+ * The sequence and the quality scores of record <code>i</code> are the {@link #getLength(int)} bytes of
+ * {@link #getData()} from {@link #getSequenceOffset(int)} and from {@link #getQualityOffset(int)}.  Multi-line
+ * sequences and quality scores are joined in the buffer, so that each is contiguous.  Nothing is copied until a
+ * description, sequence or quality is asked for as a String or a {@link Fastq}.  A {@link FastqTrimmer} shortens and
+ * removes the records of a batch in place.
+ *
+ * <p>
+ * Batches are pooled by their reader: once the records of a batch are no longer needed, {@link #release()} it so
+ * that its buffers are reused for a later batch.  A batch may be used by any thread, but by only one at a time.
+ *
+ * @since 5.1.2
+ */
+public final class FastqRecordBatch
+{
+	/** Reader which owns this batch. */
+	private final FastqBatchReader reader;
+
+	/** FASTQ sequence format variant of the records. */
+	private final FastqVariant variant;
+
+	/** Records, and the start of the next batch past them while this batch is filled. */
+	byte[] data;
+
+	/** Number of bytes of data in use. */
+	int dataLength;
+
+	/** Number of records. */
+	int size;
+
+	/** Start and end of the description of each record. */
+	final int[] descriptionStart, descriptionEnd;
+
+	/** Start of the sequence and of the quality scores of each record. */
+	final int[] sequenceStart, qualityStart;
+
+	/** Length of the sequence, and of the quality scores, of each record. */
+	final int[] length;
+
+
+	/**
+	 * Create a new empty batch.
+	 *
+	 * @param reader reader which owns this batch
+	 * @param variant FASTQ sequence format variant of the records
+	 * @param capacity greatest number of records
+	 * @param bufferSize initial size of the buffer
+	 */
+	FastqRecordBatch(final FastqBatchReader reader, final FastqVariant variant, final int capacity,
+		final int bufferSize)
+	{
+		this.reader = reader;
+		this.variant = variant;
+		this.data = new byte[bufferSize];
+		this.descriptionStart = new int[capacity];
+		this.descriptionEnd = new int[capacity];
+		this.sequenceStart = new int[capacity];
+		this.qualityStart = new int[capacity];
+		this.length = new int[capacity];
+	}
+
+
+	/**
+	 * Return the number of records in this batch.
+	 *
+	 * @return the number of records in this batch
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Return true if this batch has no records.
+	 *
+	 * @return true if this batch has no records
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Return the FASTQ sequence format variant of the records in this batch.
+	 *
+	 * @return the FASTQ sequence format variant of the records in this batch
+	 */
+	public FastqVariant getVariant()
+	{
+		return variant;
+	}
+
+	/**
+	 * Return the buffer which holds the records of this batch.  The buffer is reused once this batch is released.
+	 *
+	 * @return the buffer which holds the records of this batch
+	 */
+	public byte[] getData()
+	{
+		return data;
+	}
+
+	/**
+	 * Return the offset in {@link #getData()} of the sequence of the specified record.
+	 *
+	 * @param i index of the record
+	 * @return the offset of the sequence
+	 */
+	public int getSequenceOffset(final int i)
+	{
+		checkIndex(i);
+		return sequenceStart[i];
+	}
+
+	/**
+	 * Return the offset in {@link #getData()} of the quality scores of the specified record.
+	 *
+	 * @param i index of the record
+	 * @return the offset of the quality scores
+	 */
+	public int getQualityOffset(final int i)
+	{
+		checkIndex(i);
+		return qualityStart[i];
+	}
+
+	/**
+	 * Return the length of the sequence, which is also the length of the quality scores, of the specified record.
+	 *
+	 * @param i index of the record
+	 * @return the length of the sequence
+	 */
+	public int getLength(final int i)
+	{
+		checkIndex(i);
+		return length[i];
+	}
+
+	/**
+	 * Return the description of the specified record.
+	 *
+	 * @param i index of the record
+	 * @return the description
+	 */
+	public String getDescription(final int i)
+	{
+		checkIndex(i);
+		return new String(data, descriptionStart[i], descriptionEnd[i] - descriptionStart[i], StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Return the sequence of the specified record.
+	 *
+	 * @param i index of the record
+	 * @return the sequence
+	 */
+	public String getSequence(final int i)
+	{
+		checkIndex(i);
+		return new String(data, sequenceStart[i], length[i], StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Return the quality scores of the specified record.
+	 *
+	 * @param i index of the record
+	 * @return the quality scores
+	 */
+	public String getQuality(final int i)
+	{
+		checkIndex(i);
+		return new String(data, qualityStart[i], length[i], StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Create and return a new FASTQ formatted sequence from the specified record.
+	 *
+	 * @param i index of the record
+	 * @return a new FASTQ formatted sequence
+	 */
+	public Fastq toFastq(final int i)
+	{
+		return new Fastq(getDescription(i), getSequence(i), getQuality(i), variant);
+	}
+
+	/**
+	 * Return this batch to the pool of its reader.  The batch must not be used afterwards.
+	 */
+	public void release()
+	{
+		reader.release(this);
+	}
+
+	/**
+	 * Remove all the records and data of this batch.
+	 */
+	void clear()
+	{
+		size = 0;
+		dataLength = 0;
+	}
+
+	private void checkIndex(final int i)
+	{
+		if (i < 0 || i >= size)
+		{
+			throw new IndexOutOfBoundsException("record " + i + " of a batch of " + size);
+		}
+	}
+}
@@ -205,10 +205,12 @@ public final class FastqTools
 			throw new IllegalArgumentException("qualityScores must be the same length as the FASTQ formatted sequence quality");
 		}
 		FastqVariant variant = fastq.getVariant();
+		int[] table = FastqQualityTables.qualityScores(variant);
+		String quality = fastq.getQuality();
 		for (int i = 0; i < size; i++)
 		{
-			char c = fastq.getQuality().charAt(i);
-			qualityScores[i] = variant.qualityScore(c);
+			char c = quality.charAt(i);
+			qualityScores[i] = c < table.length ? table[c] : variant.qualityScore(c);
 		}
 		return qualityScores;
 	}
@@ -260,10 +262,12 @@ public final class FastqTools
 			throw new IllegalArgumentException("errorProbabilities must be the same length as the FASTQ formatted sequence quality");
 		}
 		FastqVariant variant = fastq.getVariant();
+		double[] table = FastqQualityTables.errorProbabilities(variant);
+		String quality = fastq.getQuality();
 		for (int i = 0; i < size; i++)
 		{
-			char c = fastq.getQuality().charAt(i);
-			errorProbabilities[i] = variant.errorProbability(c);
+			char c = quality.charAt(i);
+			errorProbabilities[i] = c < table.length ? table[c] : variant.errorProbability(c);
 		}
 		return errorProbabilities;
 	}
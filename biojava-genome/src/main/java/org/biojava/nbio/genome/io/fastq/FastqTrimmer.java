@@ -0,0 +1,224 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+/**
+ * Quality trimmer and filter for FASTQ formatted sequences, which needs no adapter sequences.
+ *
+ * <p>
+ * Each read is first cut at the start of the first window of bases, from its 5' end, whose mean quality score is
+ * below a threshold.  The trimmed read is then dropped if it is shorter than a minimum length, or if its expected
+ * number of errors, the sum of the error probabilities of its bases, is greater than a maximum.  Error probabilities
+ * are looked up in precomputed tables.
+ *
+ * <pre>
+ * FastqTrimmer trimmer = new FastqTrimmer()
+ *   .withSlidingWindow(4, 20)
+ *   .withMinimumLength(36)
+ *   .withMaximumExpectedErrors(2.0);
+ * </pre>
+ *
+ * Once configured, a trimmer may be used by any number of threads at once.
+ *
+ * @since 5.1.2
+ */
+public final class FastqTrimmer
+{
+	/** Number of bases in the sliding window, or 0 for no window trimming. */
+	private int windowSize = 0;
+
+	/** Smallest mean quality score of a window. */
+	private int windowQuality = 0;
+
+	/** Smallest length of a trimmed read. */
+	private int minimumLength = 0;
+
+	/** Greatest expected number of errors of a trimmed read. */
+	private double maximumExpectedErrors = Double.POSITIVE_INFINITY;
+
+
+	/**
+	 * Cut reads at the first window of the specified number of bases whose mean quality score is below the
+	 * specified quality score.
+	 *
+	 * @param windowSize number of bases in the window, must be at least 1
+	 * @param windowQuality smallest mean quality score of a window
+	 * @return this FASTQ trimmer
+	 */
+	public FastqTrimmer withSlidingWindow(final int windowSize, final int windowQuality)
+	{
+		if (windowSize < 1)
+		{
+			throw new IllegalArgumentException("windowSize must be at least 1");
+		}
+		this.windowSize = windowSize;
+		this.windowQuality = windowQuality;
+		return this;
+	}
+
+	/**
+	 * Drop reads which are shorter than the specified length once trimmed.
+	 *
+	 * @param minimumLength smallest length of a trimmed read, must be at least 0
+	 * @return this FASTQ trimmer
+	 */
+	public FastqTrimmer withMinimumLength(final int minimumLength)
+	{
+		if (minimumLength < 0)
+		{
+			throw new IllegalArgumentException("minimumLength must be at least 0");
+		}
+		this.minimumLength = minimumLength;
+		return this;
+	}
+
+	/**
+	 * Drop reads whose expected number of errors is greater than the specified number once trimmed.
+	 *
+	 * @param maximumExpectedErrors greatest expected number of errors of a trimmed read, must be at least 0
+	 * @return this FASTQ trimmer
+	 */
+	public FastqTrimmer withMaximumExpectedErrors(final double maximumExpectedErrors)
+	{
+		if (!(maximumExpectedErrors >= 0.0d))
+		{
+			throw new IllegalArgumentException("maximumExpectedErrors must be at least 0");
+		}
+		this.maximumExpectedErrors = maximumExpectedErrors;
+		return this;
+	}
+
+	/**
+	 * Trim the records of the specified batch in place, and remove the records which are dropped.
+	 * The remaining records keep their order.
+	 *
+	 * @param batch batch of records, must not be null
+	 * @return the number of records which remain in the batch
+	 */
+	public int trim(final FastqRecordBatch batch)
+	{
+		if (batch == null)
+		{
+			throw new IllegalArgumentException("batch must not be null");
+		}
+		final FastqVariant variant = batch.getVariant();
+		final int[] qualityScores = FastqQualityTables.qualityScores(variant);
+		final double[] errorProbabilities = FastqQualityTables.errorProbabilities(variant);
+		int kept = 0;
+		for (int i = 0, size = batch.size(); i < size; i++)
+		{
+			int length = trimmedLength(batch.data, batch.qualityStart[i], batch.length[i], qualityScores,
+				errorProbabilities);
+			if (length >= 0)
+			{
+				batch.descriptionStart[kept] = batch.descriptionStart[i];
+				batch.descriptionEnd[kept] = batch.descriptionEnd[i];
+				batch.sequenceStart[kept] = batch.sequenceStart[i];
+				batch.qualityStart[kept] = batch.qualityStart[i];
+				batch.length[kept] = length;
+				kept++;
+			}
+		}
+		batch.size = kept;
+		return kept;
+	}
+
+	/**
+	 * Trim the specified FASTQ formatted sequence.
+	 *
+	 * @param fastq FASTQ formatted sequence, must not be null
+	 * @return the trimmed FASTQ formatted sequence, or null if it is dropped
+	 */
+	public Fastq trim(final Fastq fastq)
+	{
+		if (fastq == null)
+		{
+			throw new IllegalArgumentException("fastq must not be null");
+		}
+		String quality = fastq.getQuality();
+		byte[] bytes = new byte[quality.length()];
+		for (int i = 0; i < bytes.length; i++)
+		{
+			char c = quality.charAt(i);
+			bytes[i] = (byte) (c < 256 ? c : 255);
+		}
+		int length = trimmedLength(bytes, 0, bytes.length, FastqQualityTables.qualityScores(fastq.getVariant()),
+			FastqQualityTables.errorProbabilities(fastq.getVariant()));
+		if (length < 0)
+		{
+			return null;
+		}
+		if (length == bytes.length)
+		{
+			return fastq;
+		}
+		return new Fastq(fastq.getDescription(), fastq.getSequence().substring(0, length), quality.substring(0, length),
+			fastq.getVariant());
+	}
+
+	/**
+	 * Return the length of a read once trimmed, or -1 if the read is dropped.
+	 */
+	private int trimmedLength(final byte[] quality, final int offset, final int length, final int[] qualityScores,
+		final double[] errorProbabilities)
+	{
+		int end = length;
+		if (windowSize > 0 && length > 0)
+		{
+			// compare sums instead of means, so that there is no division
+			final int window = Math.min(windowSize, length);
+			final long threshold = (long) windowQuality * window;
+			long sum = 0;
+			for (int i = 0; i < window; i++)
+			{
+				sum += qualityScores[quality[offset + i] & 0xff];
+			}
+			int start = 0;
+			while (sum >= threshold && start + window < length)
+			{
+				sum += qualityScores[quality[offset + start + window] & 0xff];
+				sum -= qualityScores[quality[offset + start] & 0xff];
+				start++;
+			}
+			if (sum < threshold)
+			{
+				end = start;
+			}
+		}
+		if (end < minimumLength)
+		{
+			return -1;
+		}
+		if (maximumExpectedErrors != Double.POSITIVE_INFINITY)
+		{
+			double errors = 0.0d;
+			for (int i = 0; i < end; i++)
+			{
+				errors += errorProbabilities[quality[offset + i] & 0xff];
+			}
+			if (errors > maximumExpectedErrors)
+			{
+				return -1;
+			}
+		}
+		return end;
+	}
+}
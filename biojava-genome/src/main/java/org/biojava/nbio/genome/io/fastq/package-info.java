@@ -39,6 +39,14 @@
  * writer.write(new File("sanger.fastq"), fastq);
  * </pre>
  *
+ * To read a large, possibly gzip or BGZF compressed, file in batches of records held as bytes:
+ * <pre>
+ * try (FastqBatchReader reader = FastqBatchReader.open(new File("reads.fastq.gz"), FastqVariant.FASTQ_SANGER))
+ * {
+ *   reader.read(batch -&gt; ...);
+ * }
+ * </pre>
+ *
  * For further documentation on the FASTQ sequence format,
  * its variants, and how they are handled in O|B|F projects,
  * see:
@@ -152,7 +152,6 @@ public class Feature implements FeatureI {
 		mScore = feature.mScore;
 		mFrame = feature.mFrame;
 		mAttributes = feature.mAttributes;
-		initAttributeHashMap();
 		mUserMap = new HashMap<String, String>(feature.mUserMap);
 	}
 
@@ -176,7 +175,6 @@ public class Feature implements FeatureI {
 		mScore = score;
 		mFrame = frame;
 		mAttributes = attributes;
-		initAttributeHashMap();
 		mUserMap = new HashMap<String, String>();
 
 	}
@@ -199,9 +197,21 @@ public class Feature implements FeatureI {
 		return mUserMap;
 	}
 
-	 HashMap<String,String> attributeHashMap = new HashMap<String,String>();
+	// parsed from mAttributes when first needed and never changed afterwards; volatile so that a feature shared
+	// between threads only ever sees a fully built map (threads racing on the first use each parse an equal one)
+	private volatile HashMap<String,String> attributeHashMap;
 
-	private void initAttributeHashMap(){
+	private HashMap<String,String> attributeHashMap(){
+		HashMap<String,String> map = attributeHashMap;
+		if (map == null) {
+			map = parseAttributes(mAttributes);
+			attributeHashMap = map;
+		}
+		return map;
+	}
+
+	private static HashMap<String,String> parseAttributes(String mAttributes){
+	   HashMap<String,String> attributeHashMap = new HashMap<String,String>();
 	   String[] values = mAttributes.split(";");
 	   for(String attribute : values){
 		   attribute = attribute.trim();
@@ -218,12 +228,14 @@ public class Feature implements FeatureI {
 		   }
 		   attributeHashMap.put(data[0].trim(), value);
 	   }
+	   return attributeHashMap;
 	}
 
 	/**
 	 * Get value of specified attribute key. Returns null if the attribute key has no value (does not exist).
 	 * Keys are case-sensitive. Assumes attributes are correctly formatted in GFF style.
 	 * Known bug: a semicolon within a quoted value will cause parse failure.
+	 * The attribute string is parsed on the first call to this method or to {@link #getAttributes()}.
 	 *
 	 * @param key The key.
 	 * @return The corresponding value. Null if the key has no value defined.
@@ -231,7 +243,7 @@ public class Feature implements FeatureI {
 	@Override
 	public String getAttribute(String key) {
 
-		return attributeHashMap.get(key);
+		return attributeHashMap().get(key);
 	}
 
 	public String getAttributeOld(String key) {
@@ -261,7 +273,7 @@ public class Feature implements FeatureI {
 
 	@Override
 	public boolean hasAttribute(String key) {
-		return attributeHashMap.containsKey(key);
+		return attributeHashMap().containsKey(key);
 	}
 
 	@Override
@@ -316,6 +328,6 @@ public class Feature implements FeatureI {
 	@Override
 	public HashMap<String, String> getAttributes() {
 
-		return attributeHashMap;
+		return attributeHashMap();
 	}
 }
@@ -0,0 +1,338 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.parsers.gff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * An index of the locations of a collection of features, which answers overlap, containment and nearest feature
+ * queries in O(log n + k) time instead of the linear scans of {@link FeatureList#selectOverlapping}.
+ *
+ * Features are grouped by sequence name and strand.  Each group is held as arrays sorted by start, laid out as an
+ * implicit interval tree in which each node records the greatest end of its subtree, as in cgranges.  The index is
+ * built once and never modified, so any number of threads may query it at once.  Features added to a
+ * {@link FeatureList} after its index has been created are not in the index.
+ *
+ * Locations follow the conventions of {@link Location}: negative strand features have negative coordinates, and
+ * queries with useBothStrands also look for features on the opposite strand of the location, as
+ * {@link FeatureList#selectOverlapping} does.  Query results list the features of the strand of the location first,
+ * each strand in order of start.
+ *
+ * @see FeatureList#createLocationIndex()
+ */
+public class FeatureIndex {
+
+	private final Map<String, Tree[]> trees = new HashMap<String, Tree[]>();
+	private final int size;
+
+	/**
+	 * Indexes the locations of the features.  Features without a location are left out.
+	 *
+	 * @param features the features to index
+	 */
+	public FeatureIndex(Collection<? extends FeatureI> features) {
+		Map<String, List<FeatureI>[]> groups = new HashMap<String, List<FeatureI>[]>();
+		int n = 0;
+		for (FeatureI feature : features) {
+			if (feature.location() == null) {
+				continue;
+			}
+			List<FeatureI>[] group = groups.get(feature.seqname());
+			if (group == null) {
+				@SuppressWarnings("unchecked")
+				List<FeatureI>[] strands = new List[] { new ArrayList<FeatureI>(), new ArrayList<FeatureI>() };
+				group = strands;
+				groups.put(feature.seqname(), group);
+			}
+			group[strand(feature.location())].add(feature);
+			n++;
+		}
+		for (Map.Entry<String, List<FeatureI>[]> entry : groups.entrySet()) {
+			trees.put(entry.getKey(), new Tree[] { new Tree(entry.getValue()[0]), new Tree(entry.getValue()[1]) });
+		}
+		size = n;
+	}
+
+	/**
+	 * Returns the number of features in the index.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Create a list of all features that overlap the specified location on the specified sequence.
+	 *
+	 * @param seqname The sequence name. Only features with this sequence name will be checked for overlap.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, features on the opposite strand which overlap the location are included.
+	 * @return The new list of features that overlap the location.
+	 */
+	public FeatureList selectOverlapping(String seqname, Location location, boolean useBothStrands) {
+		return select(seqname, location, useBothStrands, Mode.OVERLAPPING);
+	}
+
+	/**
+	 * Create a list of all features that lie entirely within the specified location on the specified sequence.
+	 *
+	 * @param seqname The sequence name.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, features on the opposite strand within the location are included.
+	 * @return The new list of features contained in the location.
+	 */
+	public FeatureList selectContained(String seqname, Location location, boolean useBothStrands) {
+		return select(seqname, location, useBothStrands, Mode.CONTAINED);
+	}
+
+	/**
+	 * Create a list of all features that contain the whole specified location on the specified sequence.
+	 *
+	 * @param seqname The sequence name.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, features on the opposite strand containing the location are included.
+	 * @return The new list of features that contain the location.
+	 */
+	public FeatureList selectContaining(String seqname, Location location, boolean useBothStrands) {
+		return select(seqname, location, useBothStrands, Mode.CONTAINING);
+	}
+
+	/**
+	 * Find the feature closest to the specified location on the specified sequence, as measured by
+	 * {@link Location#distance(Location)}.  A feature which overlaps the location is at distance -1.
+	 *
+	 * @param seqname The sequence name.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, features on the opposite strand are also considered.
+	 * @return The nearest feature, or null if there are no features on the sequence and strand(s).
+	 */
+	public FeatureI nearest(String seqname, Location location, boolean useBothStrands) {
+		Tree[] strands = trees.get(seqname);
+		if (strands == null) {
+			return null;
+		}
+		int strand = strand(location);
+		long[] best = strands[strand].nearest(location.start(), location.end());
+		FeatureI feature = best == null ? null : strands[strand].features[(int) best[1]];
+		if (useBothStrands) {
+			Location opposite = location.opposite();
+			long[] other = strands[1 - strand].nearest(opposite.start(), opposite.end());
+			if (other != null && (best == null || other[0] < best[0])) {
+				feature = strands[1 - strand].features[(int) other[1]];
+			}
+		}
+		return feature;
+	}
+
+	private FeatureList select(String seqname, Location location, boolean useBothStrands, Mode mode) {
+		FeatureList list = new FeatureList();
+		Tree[] strands = trees.get(seqname);
+		if (strands != null) {
+			int strand = strand(location);
+			strands[strand].select(location.start(), location.end(), mode, list);
+			if (useBothStrands) {
+				Location opposite = location.opposite();
+				strands[1 - strand].select(opposite.start(), opposite.end(), mode, list);
+			}
+		}
+		return list;
+	}
+
+	private static int strand(Location location) {
+		return location.isNegative() ? 1 : 0;
+	}
+
+	private enum Mode {
+		OVERLAPPING, CONTAINED, CONTAINING
+	}
+
+	// the features of one strand of one sequence, as an implicit interval tree over the features sorted by start
+	private static final class Tree {
+
+		// subtrees up to this level are scanned linearly
+		private static final int SCAN_LEVEL = 3;
+
+		private final FeatureI[] features;
+		private final int[] starts, ends;
+		// greatest end in the subtree of each node
+		private final int[] maxEnds;
+		private final int maxLevel;
+		// ends in increasing order, with the index of their feature
+		private final int[] sortedEnds, endOrder;
+
+		private Tree(List<FeatureI> list) {
+			List<FeatureI> sorted = new ArrayList<FeatureI>(list);
+			Collections.sort(sorted, (a, b) -> Integer.compare(a.location().start(), b.location().start()));
+			int n = sorted.size();
+			features = sorted.toArray(new FeatureI[n]);
+			starts = new int[n];
+			ends = new int[n];
+			for (int i = 0; i < n; i++) {
+				starts[i] = features[i].location().start();
+				ends[i] = features[i].location().end();
+			}
+			maxEnds = new int[n];
+			maxLevel = index();
+
+			Integer[] order = new Integer[n];
+			for (int i = 0; i < n; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> Integer.compare(ends[a], ends[b]));
+			sortedEnds = new int[n];
+			endOrder = new int[n];
+			for (int i = 0; i < n; i++) {
+				endOrder[i] = order[i];
+				sortedEnds[i] = ends[order[i]];
+			}
+		}
+
+		// fills maxEnds bottom up, and returns the level of the root
+		private int index() {
+			int n = starts.length;
+			if (n == 0) {
+				return -1;
+			}
+			int lastI = 0, last = 0;
+			for (int i = 0; i < n; i += 2) {
+				lastI = i;
+				last = maxEnds[i] = ends[i];
+			}
+			int k;
+			for (k = 1; 1L << k <= n; k++) {
+				int x = 1 << (k - 1), step = x << 2;
+				for (int i = (x << 1) - 1; i < n; i += step) {
+					int left = maxEnds[i - x];
+					int right = i + x < n ? maxEnds[i + x] : last;
+					maxEnds[i] = Math.max(ends[i], Math.max(left, right));
+				}
+				lastI = ((lastI >> k) & 1) != 0 ? lastI - x : lastI + x;
+				if (lastI < n && maxEnds[lastI] > last) {
+					last = maxEnds[lastI];
+				}
+			}
+			return k - 1;
+		}
+
+		private void select(final int start, final int end, final Mode mode, final FeatureList list) {
+			forEachOverlapping(start, end, i -> {
+				if (mode == Mode.CONTAINED && (starts[i] < start || ends[i] > end)
+						|| mode == Mode.CONTAINING && (starts[i] > start || ends[i] < end)) {
+					return true;
+				}
+				list.add(features[i]);
+				return true;
+			});
+		}
+
+		// passes the index of each feature overlapping the range, in order, until the visitor returns false
+		private void forEachOverlapping(int start, int end, IntPredicate visitor) {
+			int n = starts.length;
+			if (n == 0) {
+				return;
+			}
+			// depth first, in order traversal; each entry is a node, its level and whether its left child is done
+			int[] nodes = new int[64], levels = new int[64];
+			boolean[] leftDone = new boolean[64];
+			int t = 0;
+			nodes[t] = (1 << maxLevel) - 1;
+			levels[t] = maxLevel;
+			leftDone[t++] = false;
+			while (t > 0) {
+				t--;
+				int x = nodes[t], k = levels[t];
+				if (k <= SCAN_LEVEL) {
+					int i0 = x >> k << k, i1 = Math.min(n, i0 + (1 << (k + 1)) - 1);
+					for (int i = i0; i < i1 && starts[i] < end; i++) {
+						if (start < ends[i] && !visitor.test(i)) {
+							return;
+						}
+					}
+				} else if (!leftDone[t]) {
+					int y = x - (1 << (k - 1));
+					leftDone[t++] = true;
+					if (y >= n || maxEnds[y] > start) {
+						nodes[t] = y;
+						levels[t] = k - 1;
+						leftDone[t++] = false;
+					}
+				} else if (x < n && starts[x] < end) {
+					if (start < ends[x] && !visitor.test(x)) {
+						return;
+					}
+					nodes[t] = x + (1 << (k - 1));
+					levels[t] = k - 1;
+					leftDone[t++] = false;
+				}
+			}
+		}
+
+		// the distance to the nearest feature and its index, or null if there are no features
+		private long[] nearest(int start, int end) {
+			int n = starts.length;
+			if (n == 0) {
+				return null;
+			}
+			final int[] first = { -1 };
+			forEachOverlapping(start, end, i -> {
+				first[0] = i;
+				return false;
+			});
+			if (first[0] >= 0) {
+				return new long[] { -1, first[0] };
+			}
+			long[] best = null;
+			// the last feature to end at or before the start
+			int before = upperBound(sortedEnds, start) - 1;
+			if (before >= 0) {
+				best = new long[] { (long) start - sortedEnds[before], endOrder[before] };
+			}
+			// the first feature to start at or after the end
+			int after = upperBound(starts, end - 1);
+			if (after < n && (best == null || (long) starts[after] - end < best[0])) {
+				best = new long[] { (long) starts[after] - end, after };
+			}
+			return best;
+		}
+
+		// index of the first value greater than the key
+		private static int upperBound(int[] values, int key) {
+			int low = 0, high = values.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (values[mid] <= key) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+	}
+
+}
@@ -77,20 +77,21 @@ public class FeatureList extends ArrayList<FeatureI> {
 		} else if (null != feature.location()) {
 			mLocation = mLocation.union(feature.location().plus());
 		}
-		for (Entry<String, String> entry : feature.getAttributes().entrySet()){
-			if (featindex.containsKey(entry.getKey())){
-				Map<String,List<FeatureI>> feat = featindex.get(entry.getKey());
+		// only look at the attributes if some are indexed, so that they need not be parsed otherwise
+		for (Entry<String, Map<String,List<FeatureI>>> entry : featindex.entrySet()){
+			String value = feature.getAttribute(entry.getKey());
+			if (value != null || feature.hasAttribute(entry.getKey())){
+				Map<String,List<FeatureI>> feat = entry.getValue();
 				if (feat==null){
 					feat= new HashMap<String,List<FeatureI>>();
+					entry.setValue(feat);
 				}
-				List<FeatureI> features = feat.get(entry.getValue());
+				List<FeatureI> features = feat.get(value);
 				if (features==null){
 					features = new ArrayList<FeatureI>();
+					feat.put(value, features);
 				}
 				features.add(feature);
-				feat.put(entry.getValue(), features);
-				featindex.put(entry.getKey(), feat);
-				//featindex.put(key, value)
 			}
 		}
 
@@ -352,6 +353,7 @@ public class FeatureList extends ArrayList<FeatureI> {
 	 * before being checked for overlap. If false, only features whose locations are
 	 * on the same strand as the specified location will be considered for inclusion.
 	 * @return The new list of features that overlap the location.
+	 * @see #createLocationIndex()
 	 */
 	public FeatureList selectOverlapping(String seqname, Location location, boolean useBothStrands)
 			throws Exception {
@@ -497,6 +499,17 @@ public class FeatureList extends ArrayList<FeatureI> {
 		return new FeatureList(Arrays.asList(array));
 	}
 
+	/**
+	 * Create an index of the locations of the features in this list, which answers overlap, containment
+	 * and nearest feature queries in logarithmic time and may be shared between threads. The index holds
+	 * the features in the list when it is created; features added afterwards are not indexed.
+	 *
+	 * @return An index of the feature locations.
+	 */
+	public FeatureIndex createLocationIndex() {
+		return new FeatureIndex(this);
+	}
+
 	/**
 	 * Add a list of attributes that will be used as indexes for queries
 	 * @param indexes  the List containing the attribute_id
@@ -23,12 +23,10 @@ package org.biojava.nbio.genome.parsers.gff;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 
 /**
@@ -50,14 +48,13 @@ import java.util.regex.Pattern;
  * ease the task of accessing and using the attributes. The proper interpretation of any
  * particular attribute, however, is left to you.
  *
+ * @see GFFStreamReader to read large files one feature at a time
  * @author Hanno Hinsch
  */
 public class GFF3Reader {
 
 	private static final Logger logger = LoggerFactory.getLogger(GFF3Reader.class);
 
-	private static final  Pattern p = Pattern.compile("\t");
-
 	/**
 	 * Read a file into a FeatureList. Each line of the file becomes one Feature object.
 	 *
@@ -71,30 +68,9 @@ public class GFF3Reader {
 
 		FeatureList features = new FeatureList();
 		features.addIndexes(indexes);
-		BufferedReader br = new BufferedReader(new FileReader(filename));
-
-		String s;
-		for (s = br.readLine(); null != s; s = br.readLine()) {
-			s = s.trim();
-
-			if (s.length() > 0) {
-				if (s.charAt(0) == '#') {
-					//ignore comment lines
-					if(s.startsWith("##fasta"))
-						break;
-				} else {
-
-					FeatureI f = parseLine(s);
-					if (f != null) {
-						features.add(f);
-
-					}
-				}
-			}
-
+		try (GFFStreamReader reader = new GFFStreamReader(new File(filename))) {
+			reader.read(features::add);
 		}
-
-		br.close();
 		return features;
 	}
 
@@ -104,72 +80,6 @@ public class GFF3Reader {
 	}
 
 
-	/**
-	 * create Feature from line of GFF file
-	 */
-	private static Feature parseLine(String s) {
-		//FIXME update to use regex split on tabs
-		//FIXME better errors on parse failures
-		String[] line = p.split(s);
-		String seqname =line[0].trim();
-
-		String source =line[1].trim();
-
-		String type =line[2].trim();
-
-
-		String locStart =line[3].trim();
-
-		String locEnd =line[4].trim();
-
-		Double score;
-
-		try {
-			score = Double.parseDouble(line[5].trim());
-		} catch (Exception e) {
-			score = 0.0;
-		}
-
-
-		char strand = line[6].trim().charAt(0);
-		//added by scooter willis to deal with glimmer predictions that
-		//have the start after the end but is a negative strand
-		int locationStart = Integer.parseInt(locStart);
-		int locationEnd = Integer.parseInt(locEnd);
-		if(locationStart > locationEnd){
-			int temp = locationStart;
-			locationStart = locationEnd;
-			locationEnd = temp;
-
-		}
-		Location location = Location.fromBio(locationStart, locationEnd, strand);
-
-		assert (strand == '-') == location.isNegative();
-
-		int frame;
-		try {
-			frame = Integer.parseInt(line[7].trim());
-		} catch (Exception e) {
-			frame = -1;
-		}
-		String attributes=line[8];
-	/*    //grab everything until end of line (or # comment)
-		start = end + 1;
-		end = s.indexOf('#', start);
-		String attributes = null;
-		if (end < 0) {
-			attributes = new String(s.substring(start));
-		} else {
-			attributes = new String(s.substring(start, end));
-		}
- */
-		return new Feature(seqname, source, type, location, score, frame, attributes.split("#")[0]);
-
-	}
-
-
-
-
 	public static void main(String[] args) throws Exception {
 		long start = System.currentTimeMillis();
 		@SuppressWarnings("unused")
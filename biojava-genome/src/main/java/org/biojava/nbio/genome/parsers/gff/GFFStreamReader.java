@@ -0,0 +1,395 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.parsers.gff;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the features of a GFF3, GTF or GFF2 file one line at a time, without loading the file into a
+ * {@link FeatureList}.  Features are passed to a callback, or returned by an iterator or a {@link Stream}.
+ *
+ * Lines are parsed as by {@link GFF3Reader}, but with less garbage: the columns are located in the line without
+ * splitting it, lines are dropped by type or region before any object is created for them, the sequence name, source
+ * and type of each feature are shared with the previous features which have the same value, and the attribute column
+ * is kept as a String which the {@link Feature} only parses when an attribute is asked for.
+ *
+ * <pre>
+ * try (GFFStreamReader reader = new GFFStreamReader(new File("gencode.gff3"))) {
+ *	reader.setTypes("exon", "CDS");
+ *	reader.read(feature -&gt; ...);
+ * }
+ * </pre>
+ *
+ * A reader is not thread-safe.
+ *
+ * @since 5.1.2
+ */
+public class GFFStreamReader implements Closeable {
+
+	private final BufferedReader reader;
+	private Set<String> types;
+	private String regionSeqname;
+	private int regionStart, regionEnd;
+
+	// recently seen column values, so that equal values are shared
+	private final Map<String, String> pool = new HashMap<String, String>();
+	private String lastSeqname = "", lastSource = "", lastType = "";
+	private long lineNumber;
+	private boolean done;
+
+	/**
+	 * Reads a GFF file.
+	 *
+	 * @param file the GFF file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public GFFStreamReader(File file) throws IOException {
+		this(new FileInputStream(file));
+	}
+
+	/**
+	 * Reads GFF lines from a stream.
+	 *
+	 * @param inputStream the GFF lines, in UTF-8
+	 */
+	public GFFStreamReader(InputStream inputStream) {
+		this(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 1 << 16));
+	}
+
+	/**
+	 * Reads GFF lines from a reader.
+	 *
+	 * @param reader the GFF lines
+	 */
+	public GFFStreamReader(BufferedReader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Only reads features of the given types, such as "exon" or "CDS".
+	 *
+	 * @param types the types to read, or none to read all types
+	 */
+	public void setTypes(String... types) {
+		this.types = types.length == 0 ? null : new HashSet<String>(Arrays.asList(types));
+	}
+
+	/**
+	 * Only reads features which overlap the given region, on either strand.
+	 *
+	 * @param seqname the sequence name
+	 * @param bioStart origin 1 index of the first base of the region
+	 * @param bioEnd origin 1 index of the last base of the region
+	 */
+	public void setRegion(String seqname, int bioStart, int bioEnd) {
+		if (bioStart > bioEnd) {
+			throw new IllegalArgumentException("Region start " + bioStart + " is after its end " + bioEnd);
+		}
+		this.regionSeqname = seqname;
+		this.regionStart = bioStart;
+		this.regionEnd = bioEnd;
+	}
+
+	/**
+	 * Passes each feature read to a consumer, until the end of the file or of the features.
+	 *
+	 * @param consumer receives each feature
+	 * @throws IOException if the file cannot be read or has a malformed line
+	 */
+	public void read(Consumer<? super Feature> consumer) throws IOException {
+		Feature feature;
+		while ((feature = next()) != null) {
+			consumer.accept(feature);
+		}
+	}
+
+	/**
+	 * Returns the next feature.
+	 *
+	 * @return the next feature, or null at the end of the file or of the features
+	 * @throws IOException if the file cannot be read or has a malformed line
+	 */
+	public Feature next() throws IOException {
+		while (!done) {
+			String s = reader.readLine();
+			lineNumber++;
+			if (s == null) {
+				done = true;
+				break;
+			}
+			s = s.trim();
+			if (s.isEmpty()) {
+				continue;
+			}
+			if (s.charAt(0) == '#') {
+				// features end where an embedded FASTA section starts
+				if (s.regionMatches(true, 0, "##fasta", 0, 7)) {
+					done = true;
+				}
+				continue;
+			}
+			Feature feature = parseLine(s);
+			if (feature != null) {
+				return feature;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns an iterator over the features.  Errors while reading are thrown as {@link UncheckedIOException}.
+	 */
+	public Iterator<Feature> iterator() {
+		return new Iterator<Feature>() {
+
+			private Feature next;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = GFFStreamReader.this.next();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public Feature next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Feature feature = next;
+				next = null;
+				return feature;
+			}
+		};
+	}
+
+	/**
+	 * Returns a sequential stream of the features, which closes this reader when it is closed.
+	 */
+	public Stream<Feature> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Reads a GFF file as a stream of features.
+	 *
+	 * @param filename the path to the GFF file
+	 * @param types the types to read, or none to read all types
+	 * @return a stream to close after use
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static Stream<Feature> stream(String filename, String... types) throws IOException {
+		GFFStreamReader reader = new GFFStreamReader(new File(filename));
+		reader.setTypes(types);
+		return reader.stream();
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	// the feature of a line, or null if it is filtered out
+	private Feature parseLine(String s) throws IOException {
+		int[] tabs = new int[8];
+		int count = 0;
+		for (int i = s.indexOf('\t'); i >= 0 && count < tabs.length; i = s.indexOf('\t', i + 1)) {
+			tabs[count++] = i;
+		}
+		if (count < 7) {
+			throw new IOException("Expected at least 8 tab separated columns on line " + lineNumber + ": " + s);
+		}
+
+		int typeStart = tabs[1] + 1, typeEnd = tabs[2];
+		if (types != null && !matchesType(s, typeStart, typeEnd)) {
+			return null;
+		}
+		int start, end;
+		try {
+			start = parseInt(s, tabs[2] + 1, tabs[3]);
+			end = parseInt(s, tabs[3] + 1, tabs[4]);
+		} catch (NumberFormatException e) {
+			throw new IOException("Bad location on line " + lineNumber + ": " + s, e);
+		}
+		if (start > end) {
+			int temp = start;
+			start = end;
+			end = temp;
+		}
+		if (regionSeqname != null) {
+			if (start > regionEnd || end < regionStart || !matches(regionSeqname, s, 0, tabs[0])) {
+				return null;
+			}
+		}
+
+		String seqname = lastSeqname = share(lastSeqname, s, 0, tabs[0]);
+		String source = lastSource = share(lastSource, s, tabs[0] + 1, tabs[1]);
+		String type = lastType = share(lastType, s, typeStart, typeEnd);
+
+		double score = 0.0;
+		String scoreColumn = s.substring(tabs[4] + 1, tabs[5]).trim();
+		if (!scoreColumn.equals(".")) {
+			try {
+				score = Double.parseDouble(scoreColumn);
+			} catch (NumberFormatException e) {
+				score = 0.0;
+			}
+		}
+
+		int strandIndex = tabs[5] + 1;
+		while (strandIndex < tabs[6] && s.charAt(strandIndex) == ' ') {
+			strandIndex++;
+		}
+		char strand = strandIndex < tabs[6] ? s.charAt(strandIndex) : '.';
+		Location location;
+		try {
+			location = Location.fromBio(start, end, strand);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Bad strand on line " + lineNumber + ": " + s, e);
+		}
+
+		int frame;
+		int frameEnd = count > 7 ? tabs[7] : s.length();
+		try {
+			frame = parseInt(s, tabs[6] + 1, frameEnd);
+		} catch (NumberFormatException e) {
+			frame = -1;
+		}
+
+		String attributes = "";
+		if (count > 7) {
+			int comment = s.indexOf('#', tabs[7] + 1);
+			attributes = s.substring(tabs[7] + 1, comment < 0 ? s.length() : comment);
+		}
+		return new Feature(seqname, source, type, location, score, frame, attributes);
+	}
+
+	private boolean matchesType(String s, int start, int end) {
+		while (start < end && s.charAt(start) == ' ') {
+			start++;
+		}
+		while (end > start && s.charAt(end - 1) == ' ') {
+			end--;
+		}
+		// the type of the last feature read, unless the types changed since or no feature has been read
+		if (types.contains(lastType) && matches(lastType, s, start, end)) {
+			return true;
+		}
+		for (String type : types) {
+			if (matches(type, s, start, end)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// the trimmed column, as the previous value or a pooled copy if it is equal to one
+	private String share(String last, String s, int start, int end) {
+		while (start < end && s.charAt(start) == ' ') {
+			start++;
+		}
+		while (end > start && s.charAt(end - 1) == ' ') {
+			end--;
+		}
+		if (matches(last, s, start, end)) {
+			return last;
+		}
+		String value = s.substring(start, end);
+		String pooled = pool.get(value);
+		if (pooled == null) {
+			// the substring may share the array of the whole line on older JVMs
+			pooled = new String(value);
+			if (pool.size() < 100000) {
+				pool.put(pooled, pooled);
+			}
+		}
+		return pooled;
+	}
+
+	private static boolean matches(String value, String s, int start, int end) {
+		return value.length() == end - start && s.regionMatches(start, value, 0, value.length());
+	}
+
+	private static int parseInt(String s, int start, int end) {
+		while (start < end && s.charAt(start) == ' ') {
+			start++;
+		}
+		while (end > start && s.charAt(end - 1) == ' ') {
+			end--;
+		}
+		if (start == end) {
+			throw new NumberFormatException("Empty number");
+		}
+		boolean negative = s.charAt(start) == '-';
+		if (negative || s.charAt(start) == '+') {
+			start++;
+		}
+		if (start == end || end - start > 10) {
+			throw new NumberFormatException(s.substring(start, end));
+		}
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = s.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException(s.substring(start, end));
+			}
+			value = 10 * value + digit;
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+			throw new NumberFormatException(s.substring(start, end));
+		}
+		return (int) value;
+	}
+
+}
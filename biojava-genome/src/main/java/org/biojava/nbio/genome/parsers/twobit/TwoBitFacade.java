@@ -23,12 +23,15 @@ package org.biojava.nbio.genome.parsers.twobit;
 import java.io.File;
 
 /** A facade that makes it easier to work with a 2bit file.
+ *
+ * The file is read through a {@link TwoBitReader}, so one facade may serve concurrent requests.
  *
  * Created by yana on 3/27/17.
  */
 public class TwoBitFacade {
 
-    private TwoBitParser twoBitParser = null;
+    private final TwoBitReader twoBitReader;
+    private volatile String chromosome;
 
 
     /**
@@ -37,47 +40,92 @@ public class TwoBitFacade {
      *  @param file the File to a .2bit file.
      */
     public TwoBitFacade(File file) throws Exception {
-        twoBitParser = new TwoBitParser(file);
+        this(new TwoBitReader(file));
     }
 
     /**
-     *  Closes .2bit file twoBitParser.
+     *  Reads a genome through an open reader.
+     *
+     *  @param twoBitReader the reader of a .2bit file.
      */
-    public void close() throws Exception {
-        if (twoBitParser != null)
-            twoBitParser.close();
+    public TwoBitFacade(TwoBitReader twoBitReader) {
+        this.twoBitReader = twoBitReader;
+    }
+
+    /**
+     * @return the reader of the .2bit file
+     */
+    public TwoBitReader getTwoBitReader() {
+        return twoBitReader;
+    }
 
+    /**
+     *  Closes .2bit file twoBitReader.
+     */
+    public void close() throws Exception {
+        twoBitReader.close();
     }
 
-    /** Sets a chromosome for TwoBitParser.
+    /** Sets the current chromosome of the facade. The name is matched case-insensitively against the sequence
+     * names of the .2bit file.
      *
      * @param chr The chromosome name (e.g. chr21)
+     * @throws IllegalArgumentException if the file has no sequence of that name
      */
     public void setChromosome(String chr) throws Exception {
-        if ( twoBitParser == null){
+        chromosome = getSequenceName(chr);
+    }
 
+    /**
+     * @return the sequence name of the current chromosome, or null if none was set
+     */
+    public String getChromosome() {
+        return chromosome;
+    }
+
+    /** Looks up the sequence name of a chromosome, ignoring case.
+     *
+     * @param chr The chromosome name (e.g. chr21)
+     * @return the name of the sequence in the .2bit file
+     * @throws IllegalArgumentException if the file has no sequence of that name
+     */
+    public String getSequenceName(String chr) {
+        if (twoBitReader.hasSequence(chr)) {
+            return chr;
         }
-        twoBitParser.close();
-        String[] names = twoBitParser.getSequenceNames();
-        for(int i=0;i<names.length;i++) {
-            if ( names[i].equalsIgnoreCase(chr) ) {
-                twoBitParser.setCurrentSequence(names[i]);
-                break;
+        for (String name : twoBitReader.getSequenceNames()) {
+            if (name.equalsIgnoreCase(chr)) {
+                return name;
             }
         }
+        throw new IllegalArgumentException("Chromosome [" + chr + "] was not found in 2bit file");
+    }
+
+    /** Extract a sequence from the current chromosome, using chromosomal coordinates
+     *
+     * @param start
+     * @param end
+     * @return the DNASequence from the requested coordinates.
+     * @throws IllegalStateException if no chromosome was set
+     * @see #setChromosome(String)
+     */
+    public String getSequence(int start, int end) throws Exception {
+        String chr = chromosome;
+        if (chr == null) {
+            throw new IllegalStateException("No chromosome was set");
+        }
+        return twoBitReader.loadFragment(chr, start, end - start);
     }
 
     /** Extract a sequence from a chromosome, using chromosomal coordinates
      *
-     * @param chromosomeName
+     * @param chromosomeName the chromosome name, matched ignoring case
      * @param start
      * @param end
      * @return the DNASequence from the requested coordinates.
      * @throws Exception
      */
     public String getSequence(String chromosomeName, int start, int end) throws Exception {
-        twoBitParser.close();
-        twoBitParser.setCurrentSequence(chromosomeName);
-        return twoBitParser.loadFragment(start,end-start);
+        return twoBitReader.loadFragment(getSequenceName(chromosomeName), start, end - start);
     }
 }
@@ -40,6 +40,9 @@ import java.util.HashMap;
  * it just run this class with input file path as single parameter and set
  * stdout stream into output file. If you have any problems or ideas don't
  * hesitate to contact me through email: rsutormin[at]gmail.com.
+ *
+ * A parser keeps a current sequence and position, so it cannot be shared between threads.  Use a
+ * {@link TwoBitReader} to load fragments concurrently.
  * @author Roman Sutormin
  */
 public class TwoBitParser extends InputStream {
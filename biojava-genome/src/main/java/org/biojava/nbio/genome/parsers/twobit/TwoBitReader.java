@@ -0,0 +1,330 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.parsers.twobit;
+
+import org.biojava.nbio.core.sequence.io.util.MappedFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads fragments of the sequences of a UCSC .2bit file through a memory mapping of the file.  Unlike
+ * {@link TwoBitParser}, a reader has no current sequence or position: the header of each sequence, with its blocks of
+ * N and of soft-masked bases, is parsed once into an immutable index, and every call to
+ * {@link #loadFragment(String, long, int)} decodes its range independently.  One reader may therefore serve any number
+ * of threads at once.
+ *
+ * Fragments are decoded a byte, that is four bases, at a time through a lookup table, and the N and mask blocks which
+ * overlap the fragment are found by binary search.
+ *
+ * @see <a href="https://genome.ucsc.edu/FAQ/FAQformat.html#format7">The .2bit format</a>
+ */
+public class TwoBitReader implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(TwoBitReader.class);
+
+	private static final int SIGNATURE = 0x1A412743;
+	private static final int REVERSED_SIGNATURE = 0x4327411A;
+
+	// the four bases packed in each possible byte, first base in the highest bits
+	private static final char[] DECODED = new char[256 * 4];
+
+	static {
+		char[] bases = { 'T', 'C', 'A', 'G' };
+		for (int b = 0; b < 256; b++) {
+			for (int i = 0; i < 4; i++) {
+				DECODED[4 * b + i] = bases[(b >>> (6 - 2 * i)) & 3];
+			}
+		}
+	}
+
+	private final MappedFile mapped;
+	private final boolean reversed;
+	private final boolean longOffsets;
+	private final Map<String, Long> offsets;
+	private final ConcurrentHashMap<String, SequenceIndex> indexes = new ConcurrentHashMap<String, SequenceIndex>();
+
+	/**
+	 * Maps a .2bit file and reads the names of its sequences.
+	 *
+	 * @param file the .2bit file
+	 * @throws IOException if the file cannot be mapped or is not a .2bit file
+	 */
+	public TwoBitReader(File file) throws IOException {
+		mapped = new MappedFile(file);
+		try {
+			if (mapped.length() < 16) {
+				throw new IOException(file + " is too short for a 2bit file");
+			}
+			long signature = readInt(0, false);
+			if (signature == SIGNATURE) {
+				reversed = false;
+			} else if (signature == REVERSED_SIGNATURE) {
+				reversed = true;
+			} else {
+				throw new IOException("Wrong start signature in 2BIT format: " + file);
+			}
+			long version = readInt(4);
+			if (version > 1) {
+				throw new IOException("Unsupported 2BIT version " + version + ": " + file);
+			}
+			longOffsets = version == 1;
+			long count = readInt(8);
+			Map<String, Long> names = new LinkedHashMap<String, Long>();
+			long position = 16;
+			for (long i = 0; i < count; i++) {
+				int nameLength = mapped.get(position) & 0xff;
+				byte[] name = new byte[nameLength];
+				mapped.get(position + 1, name, 0, nameLength);
+				position += 1 + nameLength;
+				long offset = longOffsets ? readLong(position) : readInt(position);
+				position += longOffsets ? 8 : 4;
+				names.put(new String(name, "US-ASCII"), offset);
+			}
+			offsets = Collections.unmodifiableMap(names);
+			logger.debug("2bit: {} sequences in {}", offsets.size(), file);
+		} catch (IOException | RuntimeException e) {
+			mapped.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the names of the sequences, in file order.
+	 */
+	public Set<String> getSequenceNames() {
+		return offsets.keySet();
+	}
+
+	/**
+	 * Returns true if the file holds a sequence with the given name.
+	 */
+	public boolean hasSequence(String name) {
+		return offsets.containsKey(name);
+	}
+
+	/**
+	 * Returns the number of bases of a sequence.
+	 *
+	 * @param name name of the sequence
+	 * @throws IllegalArgumentException if there is no such sequence
+	 */
+	public long getSequenceLength(String name) {
+		return getIndex(name).length;
+	}
+
+	/**
+	 * Returns the bases of a whole sequence.
+	 *
+	 * @param name name of the sequence
+	 * @throws IllegalArgumentException if there is no such sequence, or if it is too long for a String
+	 */
+	public String loadSequence(String name) {
+		long length = getSequenceLength(name);
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Sequence [" + name + "] is too long to load at once: " + length);
+		}
+		return loadFragment(name, 0, (int) length);
+	}
+
+	/**
+	 * Returns the bases of a range of a sequence, N in N blocks and lower case in mask blocks, as
+	 * {@link TwoBitParser#loadFragment(long, int)} does.  The range is cut at the end of the sequence.
+	 *
+	 * @param name name of the sequence
+	 * @param start 0-based offset of the first base
+	 * @param length number of bases
+	 * @throws IllegalArgumentException if there is no such sequence, or if the range is outside of it
+	 */
+	public String loadFragment(String name, long start, int length) {
+		SequenceIndex index = getIndex(name);
+		if (start < 0 || length < 0 || start > index.length) {
+			throw new IllegalArgumentException("Range " + start + "+" + length + " is outside of sequence ["
+					+ name + "] of length " + index.length);
+		}
+		int n = (int) Math.min(length, index.length - start);
+		char[] bases = new char[n];
+		if (n == 0) {
+			return "";
+		}
+		decode(index.dnaOffset, start, bases);
+		long end = start + n;
+		long[] starts = index.nStarts, sizes = index.nSizes;
+		for (int i = firstBlock(starts, sizes, start); i < starts.length && starts[i] < end; i++) {
+			int from = (int) (Math.max(start, starts[i]) - start);
+			int to = (int) (Math.min(end, starts[i] + sizes[i]) - start);
+			Arrays.fill(bases, from, to, 'N');
+		}
+		starts = index.maskStarts;
+		sizes = index.maskSizes;
+		for (int i = firstBlock(starts, sizes, start); i < starts.length && starts[i] < end; i++) {
+			int from = (int) (Math.max(start, starts[i]) - start);
+			int to = (int) (Math.min(end, starts[i] + sizes[i]) - start);
+			for (int j = from; j < to; j++) {
+				bases[j] |= 0x20;
+			}
+		}
+		return new String(bases);
+	}
+
+	/**
+	 * Releases the mapping of the file.
+	 */
+	@Override
+	public void close() {
+		mapped.close();
+	}
+
+	// fills the bases with the packed bases from a 0-based position
+	private void decode(long dnaOffset, long start, char[] bases) {
+		long firstByte = start >>> 2, lastByte = (start + bases.length - 1) >>> 2;
+		byte[] packed = new byte[(int) (lastByte - firstByte + 1)];
+		mapped.get(dnaOffset + firstByte, packed, 0, packed.length);
+		int skip = (int) (start & 3), o = 0;
+		int first = 4 * (packed[0] & 0xff);
+		for (int j = skip; j < 4 && o < bases.length; j++) {
+			bases[o++] = DECODED[first + j];
+		}
+		int full = packed.length - 1;
+		for (int i = 1; i < full; i++) {
+			int b = 4 * (packed[i] & 0xff);
+			bases[o] = DECODED[b];
+			bases[o + 1] = DECODED[b + 1];
+			bases[o + 2] = DECODED[b + 2];
+			bases[o + 3] = DECODED[b + 3];
+			o += 4;
+		}
+		if (full > 0) {
+			int last = 4 * (packed[full] & 0xff);
+			for (int j = 0; o < bases.length; j++) {
+				bases[o++] = DECODED[last + j];
+			}
+		}
+	}
+
+	// index of the first block which ends after the position
+	private static int firstBlock(long[] starts, long[] sizes, long position) {
+		int i = Arrays.binarySearch(starts, position);
+		if (i < 0) {
+			i = -i - 2;
+		}
+		if (i < 0) {
+			return 0;
+		}
+		return starts[i] + sizes[i] > position ? i : i + 1;
+	}
+
+	private SequenceIndex getIndex(String name) {
+		SequenceIndex index = indexes.get(name);
+		if (index == null) {
+			Long offset = offsets.get(name);
+			if (offset == null) {
+				throw new IllegalArgumentException("Sequence [" + name + "] was not found in 2bit file");
+			}
+			index = indexes.computeIfAbsent(name, k -> new SequenceIndex(offset));
+		}
+		return index;
+	}
+
+	private long readInt(long position) {
+		return readInt(position, reversed);
+	}
+
+	private long readInt(long position, boolean bigEndian) {
+		long value = 0;
+		for (int i = 0; i < 4; i++) {
+			long b = mapped.get(position + i) & 0xff;
+			value |= bigEndian ? b << (8 * (3 - i)) : b << (8 * i);
+		}
+		return value;
+	}
+
+	private long readLong(long position) {
+		long first = readInt(position), second = readInt(position + 4);
+		return reversed ? (first << 32) | second : (second << 32) | first;
+	}
+
+	// the header of a sequence, with block starts sorted so that they can be searched
+	private class SequenceIndex {
+
+		private final long length;
+		private final long[] nStarts, nSizes, maskStarts, maskSizes;
+		private final long dnaOffset;
+
+		private SequenceIndex(long offset) {
+			long position = offset;
+			length = readInt(position);
+			position += 4;
+			int nCount = (int) readInt(position);
+			position += 4;
+			nStarts = readInts(position, nCount);
+			nSizes = readInts(position + 4L * nCount, nCount);
+			position += 8L * nCount;
+			int maskCount = (int) readInt(position);
+			position += 4;
+			maskStarts = readInts(position, maskCount);
+			maskSizes = readInts(position + 4L * maskCount, maskCount);
+			position += 8L * maskCount;
+			// reserved word
+			dnaOffset = position + 4;
+			sort(nStarts, nSizes);
+			sort(maskStarts, maskSizes);
+		}
+
+		private long[] readInts(long position, int count) {
+			long[] values = new long[count];
+			for (int i = 0; i < count; i++) {
+				values[i] = readInt(position + 4L * i);
+			}
+			return values;
+		}
+
+		// blocks are written in order, but other writers may not guarantee it
+		private void sort(long[] starts, long[] sizes) {
+			for (int i = 1; i < starts.length; i++) {
+				if (starts[i] < starts[i - 1]) {
+					Integer[] order = new Integer[starts.length];
+					for (int j = 0; j < order.length; j++) {
+						order[j] = j;
+					}
+					Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+					long[] s = starts.clone(), z = sizes.clone();
+					for (int j = 0; j < order.length; j++) {
+						starts[j] = s[order[j]];
+						sizes[j] = z[order[j]];
+					}
+					return;
+				}
+			}
+		}
+
+	}
+
+}
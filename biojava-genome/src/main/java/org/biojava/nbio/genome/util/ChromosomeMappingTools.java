@@ -956,17 +956,16 @@ public class ChromosomeMappingTools {
 
 		List<Range<Integer>> cdsRegion = getCDSRegions(exonStarts, exonEnds, cdsStart, cdsEnd);
 
-		String dnaSequence = "";
+		StringBuilder dnaSequence = new StringBuilder();
 		for (Range<Integer> range : cdsRegion) {
-			String exonSequence = twoBitFacade.getSequence(chromosome,range.lowerEndpoint(), range.upperEndpoint());
-            dnaSequence += exonSequence;
+			dnaSequence.append(twoBitFacade.getSequence(chromosome, range.lowerEndpoint(), range.upperEndpoint()));
 		}
 		if (orientation.equals('-')) {
-            dnaSequence = new StringBuilder(dnaSequence).reverse().toString();
-			DNASequence dna = new DNASequence(dnaSequence);
+			dnaSequence.reverse();
+			DNASequence dna = new DNASequence(dnaSequence.toString());
 			SequenceView<NucleotideCompound> compliment = dna.getComplement();
-            dnaSequence = compliment.getSequenceAsString();
+			return new DNASequence(compliment.getSequenceAsString().toUpperCase());
 		}
-		return new DNASequence(dnaSequence.toUpperCase());
+		return new DNASequence(dnaSequence.toString().toUpperCase());
 	}
 }
@@ -24,11 +24,16 @@
 package org.biojava.nbio.genome;
 
 import org.biojava.nbio.genome.parsers.gff.Feature;
+import org.biojava.nbio.genome.parsers.gff.FeatureI;
+import org.biojava.nbio.genome.parsers.gff.FeatureIndex;
 import org.biojava.nbio.genome.parsers.gff.FeatureList;
 import org.biojava.nbio.genome.parsers.gff.Location;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Random;
+
 /**
  * @author mckeee1
  *
@@ -48,4 +53,56 @@ public class FeatureListTest {
 		f2.add(new Feature("seqname", "source", "type", new Location(1, 2), (double)0, 0, "gene_id \"gene_id_1\"; transcript_id \"transcript_id_1\";"));
 		Assert.assertEquals(1, f2.selectByAttribute("transcript_id").size());
 	}
+	@Test
+	public void testLocationIndex() throws Exception
+	{
+		Random random = new Random(42);
+		FeatureList fl = new FeatureList();
+		for (int i = 0; i < 2000; i++) {
+			int start = random.nextInt(100000), length = 1 + random.nextInt(i % 50 == 0 ? 20000 : 500);
+			Location location = new Location(start, start + length);
+			fl.add(new Feature(i % 3 == 0 ? "chr2" : "chr1", "source", "exon",
+					random.nextBoolean() ? location : location.opposite(), (double)0, 0, "gene_id \"g" + i + "\";"));
+		}
+		FeatureIndex index = fl.createLocationIndex();
+		Assert.assertEquals(fl.size(), index.size());
+
+		for (int i = 0; i < 500; i++) {
+			int start = random.nextInt(110000);
+			Location location = new Location(start, start + 1 + random.nextInt(2000));
+			if (random.nextBoolean()) {
+				location = location.opposite();
+			}
+			for (boolean both : new boolean[] { false, true }) {
+				FeatureList expected = fl.selectOverlapping("chr1", location, both);
+				FeatureList actual = index.selectOverlapping("chr1", location, both);
+				Assert.assertEquals(new HashSet<FeatureI>(expected), new HashSet<FeatureI>(actual));
+				Assert.assertEquals(expected.size(), actual.size());
+
+				for (FeatureI f : index.selectContained("chr1", location, both)) {
+					Location l = location.isSameStrand(f.location()) ? location : location.opposite();
+					Assert.assertTrue(l.contains(f.location()));
+				}
+				int containing = 0;
+				for (FeatureI f : expected) {
+					Location l = location.isSameStrand(f.location()) ? location : location.opposite();
+					if (f.location().contains(l)) {
+						containing++;
+					}
+				}
+				Assert.assertEquals(containing, index.selectContaining("chr1", location, both).size());
+			}
+
+			FeatureI nearest = index.nearest("chr2", location, false);
+			int best = Integer.MAX_VALUE;
+			for (FeatureI f : fl) {
+				if (f.seqname().equals("chr2") && f.location().isSameStrand(location)) {
+					best = Math.min(best, f.location().distance(location));
+				}
+			}
+			Assert.assertEquals(best, nearest.location().distance(location));
+		}
+		Assert.assertTrue(index.selectOverlapping("chrX", new Location(1, 10), true).isEmpty());
+		Assert.assertNull(index.nearest("chrX", new Location(1, 10), true));
+	}
 }
@@ -0,0 +1,286 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Unit test for FastqBatchReader.
+ */
+public class FastqBatchReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static List<Fastq> readBatches(final FastqBatchReader reader) throws IOException
+	{
+		final List<Fastq> fastqs = new ArrayList<Fastq>();
+		try
+		{
+			reader.read(batch -> {
+				for (int i = 0; i < batch.size(); i++)
+				{
+					Assert.assertEquals(batch.getLength(i), batch.getSequence(i).length());
+					fastqs.add(batch.toFastq(i));
+				}
+			});
+		}
+		finally
+		{
+			reader.close();
+		}
+		return fastqs;
+	}
+
+	private static void assertSameFastq(final List<Fastq> expected, final List<Fastq> actual)
+	{
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			Assert.assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+			Assert.assertEquals(expected.get(i).getSequence(), actual.get(i).getSequence());
+			Assert.assertEquals(expected.get(i).getQuality(), actual.get(i).getQuality());
+			Assert.assertEquals(expected.get(i).getVariant(), actual.get(i).getVariant());
+		}
+	}
+
+	@Test
+	public void testSameAsSangerFastqReader() throws Exception
+	{
+		File directory = new File(getClass().getResource("example.fastq").toURI()).getParentFile();
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(".fastq"));
+		Assert.assertTrue(files.length > 10);
+		for (File file : files)
+		{
+			List<Fastq> expected = new ArrayList<Fastq>();
+			try
+			{
+				for (Fastq fastq : new SangerFastqReader().read(file))
+				{
+					expected.add(fastq);
+				}
+			}
+			catch (IOException e)
+			{
+				expected = null;
+			}
+			for (int batchSize : new int[] { 1, 3, FastqBatchReader.DEFAULT_BATCH_SIZE })
+			{
+				List<Fastq> actual;
+				try
+				{
+					actual = readBatches(new FastqBatchReader(Files.newInputStream(file.toPath()),
+						FastqVariant.FASTQ_SANGER, batchSize));
+				}
+				catch (IOException e)
+				{
+					actual = null;
+				}
+				if (expected == null || actual == null)
+				{
+					Assert.assertTrue(file.getName(), expected == null && actual == null);
+				}
+				else
+				{
+					assertSameFastq(expected, actual);
+				}
+			}
+		}
+	}
+
+	private static byte[] randomFastq(final Random random, final int records)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < records; i++)
+		{
+			int length = random.nextInt(300);
+			StringBuilder sequence = new StringBuilder();
+			StringBuilder quality = new StringBuilder();
+			for (int j = 0; j < length; j++)
+			{
+				sequence.append("ACGTN".charAt(random.nextInt(5)));
+				quality.append((char) (33 + random.nextInt(42)));
+			}
+			sb.append("@read").append(i).append('\n');
+			// some records are wrapped
+			int wrap = i % 7 == 0 ? 60 : Integer.MAX_VALUE;
+			for (int j = 0; j < length || j == 0; j += wrap)
+			{
+				sb.append(sequence, j, Math.min(length, j + wrap)).append('\n');
+			}
+			sb.append(i % 2 == 0 ? "+\n" : "+read" + i + "\n");
+			for (int j = 0; j < length || j == 0; j += wrap)
+			{
+				sb.append(quality, j, Math.min(length, j + wrap)).append(i % 5 == 0 ? "\r\n" : "\n");
+			}
+		}
+		return sb.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static List<Fastq> readSanger(final byte[] bytes) throws IOException
+	{
+		List<Fastq> fastqs = new ArrayList<Fastq>();
+		for (Fastq fastq : new SangerFastqReader().read(new ByteArrayInputStream(bytes)))
+		{
+			fastqs.add(fastq);
+		}
+		return fastqs;
+	}
+
+	// writes the bytes as BGZF blocks of at most 60000 bytes, with an empty last block
+	private static byte[] bgzf(final byte[] bytes) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		byte[] compressed = new byte[70000];
+		for (int start = 0; start <= bytes.length; start += 60000)
+		{
+			int length = Math.min(60000, bytes.length - start);
+			deflater.reset();
+			deflater.setInput(bytes, start, length);
+			deflater.finish();
+			int n = deflater.deflate(compressed);
+			int blockSize = 18 + n + 8;
+			out.write(new byte[] { 31, (byte) 139, 8, 4, 0, 0, 0, 0, 0, (byte) 255, 6, 0, 'B', 'C', 2, 0,
+				(byte) (blockSize - 1), (byte) ((blockSize - 1) >> 8) });
+			out.write(compressed, 0, n);
+			CRC32 crc = new CRC32();
+			crc.update(bytes, start, length);
+			writeInt(out, (int) crc.getValue());
+			writeInt(out, length);
+			if (length == 0)
+			{
+				break;
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static void writeInt(final OutputStream out, final int value) throws IOException
+	{
+		for (int i = 0; i < 4; i++)
+		{
+			out.write(value >>> (8 * i));
+		}
+	}
+
+	private File write(final String name, final byte[] bytes) throws IOException
+	{
+		File file = folder.newFile(name);
+		OutputStream out = new FileOutputStream(file);
+		try
+		{
+			out.write(bytes);
+		}
+		finally
+		{
+			out.close();
+		}
+		return file;
+	}
+
+	@Test
+	public void testCompressed() throws Exception
+	{
+		byte[] bytes = randomFastq(new Random(7), 10000);
+		Assert.assertTrue(bytes.length > 2 << 20);
+		List<Fastq> expected = readSanger(bytes);
+
+		assertSameFastq(expected, readBatches(FastqBatchReader.open(write("reads.fastq", bytes),
+			FastqVariant.FASTQ_SANGER)));
+
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		GZIPOutputStream out = new GZIPOutputStream(gzip);
+		out.write(bytes);
+		out.close();
+		assertSameFastq(expected, readBatches(FastqBatchReader.open(write("reads.fastq.gz", gzip.toByteArray()),
+			FastqVariant.FASTQ_SANGER)));
+
+		File bgzf = write("reads.fastq.bgz", bgzf(bytes));
+		for (int threads : new int[] { 1, 4 })
+		{
+			assertSameFastq(expected, readBatches(FastqBatchReader.open(bgzf, FastqVariant.FASTQ_SANGER, threads)));
+		}
+	}
+
+	@Test
+	public void testCorruptBgzf() throws Exception
+	{
+		byte[] bytes = bgzf(randomFastq(new Random(3), 1000));
+		bytes[bytes.length / 2] ^= 0x55;
+		try
+		{
+			readBatches(FastqBatchReader.open(write("corrupt.fastq.bgz", bytes), FastqVariant.FASTQ_SANGER, 2));
+			Assert.fail("read a corrupt BGZF file");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void testReleasedBatchesAreReused() throws Exception
+	{
+		byte[] bytes = randomFastq(new Random(11), 100);
+		FastqBatchReader reader = new FastqBatchReader(new ByteArrayInputStream(bytes), FastqVariant.FASTQ_SANGER, 10);
+		try
+		{
+			FastqRecordBatch first = reader.next();
+			Assert.assertEquals(10, first.size());
+			Assert.assertEquals("read0", first.getDescription(0));
+			first.release();
+			int records = 10;
+			boolean reused = false;
+			FastqRecordBatch batch;
+			while ((batch = reader.next()) != null)
+			{
+				reused |= batch == first;
+				records += batch.size();
+				batch.release();
+			}
+			Assert.assertEquals(100, records);
+			Assert.assertTrue(reused);
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+}
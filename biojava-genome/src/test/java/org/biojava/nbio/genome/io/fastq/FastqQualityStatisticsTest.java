@@ -0,0 +1,202 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.io.fastq;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit test for FastqQualityStatistics and FastqTrimmer.
+ */
+public class FastqQualityStatisticsTest {
+
+	private static List<Fastq> randomFastq(final Random random, final int records)
+	{
+		List<Fastq> fastqs = new ArrayList<Fastq>();
+		for (int i = 0; i < records; i++)
+		{
+			int length = 1 + random.nextInt(150);
+			StringBuilder sequence = new StringBuilder();
+			StringBuilder quality = new StringBuilder();
+			for (int j = 0; j < length; j++)
+			{
+				sequence.append("ACGT".charAt(random.nextInt(4)));
+				// quality decreases along the read
+				int score = Math.max(0, 40 - j / 4 - random.nextInt(15));
+				quality.append(FastqVariant.FASTQ_SANGER.quality(score));
+			}
+			fastqs.add(new FastqBuilder().withDescription("read" + i).withSequence(sequence.toString())
+				.withQuality(quality.toString()).build());
+		}
+		return fastqs;
+	}
+
+	private static byte[] toBytes(final List<Fastq> fastqs)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (Fastq fastq : fastqs)
+		{
+			sb.append('@').append(fastq.getDescription()).append('\n').append(fastq.getSequence()).append("\n+\n")
+				.append(fastq.getQuality()).append('\n');
+		}
+		return sb.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Test
+	public void testStatistics() throws Exception
+	{
+		List<Fastq> fastqs = randomFastq(new Random(1), 500);
+
+		// naive statistics from FastqTools
+		List<List<Integer>> scoresByPosition = new ArrayList<List<Integer>>();
+		double expectedErrors = 0.0d;
+		long bases = 0;
+		for (Fastq fastq : fastqs)
+		{
+			int[] scores = FastqTools.qualityScores(fastq, new int[fastq.getQuality().length()]);
+			for (int j = 0; j < scores.length; j++)
+			{
+				while (scoresByPosition.size() <= j)
+				{
+					scoresByPosition.add(new ArrayList<Integer>());
+				}
+				scoresByPosition.get(j).add(scores[j]);
+				expectedErrors += FastqVariant.FASTQ_SANGER.errorProbability(scores[j]);
+			}
+			bases += scores.length;
+		}
+
+		// one batch at a time, in parallel, then merged
+		final List<FastqRecordBatch> batches = new ArrayList<FastqRecordBatch>();
+		FastqBatchReader reader = new FastqBatchReader(new ByteArrayInputStream(toBytes(fastqs)),
+			FastqVariant.FASTQ_SANGER, 37);
+		FastqRecordBatch batch;
+		while ((batch = reader.next()) != null)
+		{
+			batches.add(batch);
+		}
+		reader.close();
+		FastqQualityStatistics statistics = batches.parallelStream().collect(
+			() -> new FastqQualityStatistics(FastqVariant.FASTQ_SANGER), FastqQualityStatistics::add,
+			FastqQualityStatistics::merge);
+
+		FastqQualityStatistics fromFastq = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+		for (Fastq fastq : fastqs)
+		{
+			fromFastq.add(fastq);
+		}
+
+		for (FastqQualityStatistics s : Arrays.asList(statistics, fromFastq))
+		{
+			Assert.assertEquals(fastqs.size(), s.getRecordCount());
+			Assert.assertEquals(bases, s.getBaseCount());
+			Assert.assertEquals(scoresByPosition.size(), s.getMaximumLength());
+			Assert.assertEquals(expectedErrors / fastqs.size(), s.getMeanExpectedErrors(), 1e-9);
+			for (int j = 0; j < scoresByPosition.size(); j++)
+			{
+				List<Integer> scores = new ArrayList<Integer>(scoresByPosition.get(j));
+				scores.sort(null);
+				double sum = 0.0d;
+				for (int score : scores)
+				{
+					sum += score;
+				}
+				Assert.assertEquals(scores.size(), s.getBaseCount(j));
+				Assert.assertEquals(sum / scores.size(), s.getMeanQuality(j), 1e-9);
+				Assert.assertEquals(scores.get((scores.size() - 1) / 2).intValue(), s.getMedianQuality(j));
+				Assert.assertEquals(scores.get(scores.size() - 1).intValue(), s.getQualityQuantile(j, 1.0d));
+			}
+		}
+		Assert.assertTrue(Double.isNaN(new FastqQualityStatistics(FastqVariant.FASTQ_SANGER).getMeanQuality()));
+		Assert.assertEquals(0, statistics.getBaseCount(1000));
+
+		try
+		{
+			statistics.merge(new FastqQualityStatistics(FastqVariant.FASTQ_SOLEXA));
+			Assert.fail("merged statistics of different variants");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void testTrimmer() throws Exception
+	{
+		Fastq fastq = new FastqBuilder().withDescription("read").withSequence("ACGTACGTAC")
+			.withQuality("IIIII#I###").build();
+
+		Assert.assertSame(fastq, new FastqTrimmer().trim(fastq));
+		Fastq trimmed = new FastqTrimmer().withSlidingWindow(3, 20).trim(fastq);
+		// the window from position 4 has a mean quality of (40 + 2 + 40) / 3 = 27, the next one of 14
+		Assert.assertEquals("ACGTA", trimmed.getSequence());
+		Assert.assertEquals("IIIII", trimmed.getQuality());
+		Assert.assertNull(new FastqTrimmer().withSlidingWindow(3, 20).withMinimumLength(6).trim(fastq));
+		Assert.assertNull(new FastqTrimmer().withMaximumExpectedErrors(1.0d).trim(fastq));
+		Assert.assertNotNull(new FastqTrimmer().withSlidingWindow(3, 20).withMaximumExpectedErrors(0.001d)
+			.trim(fastq));
+
+		List<Fastq> fastqs = randomFastq(new Random(2), 300);
+		FastqTrimmer trimmer = new FastqTrimmer().withSlidingWindow(4, 20).withMinimumLength(20)
+			.withMaximumExpectedErrors(1.0d);
+		List<Fastq> expected = new ArrayList<Fastq>();
+		for (Fastq f : fastqs)
+		{
+			Fastq t = trimmer.trim(f);
+			if (t != null)
+			{
+				expected.add(t);
+			}
+		}
+		Assert.assertTrue(expected.size() > 0 && expected.size() < fastqs.size());
+
+		FastqBatchReader reader = new FastqBatchReader(new ByteArrayInputStream(toBytes(fastqs)),
+			FastqVariant.FASTQ_SANGER, 50);
+		List<Fastq> actual = new ArrayList<Fastq>();
+		FastqRecordBatch batch;
+		while ((batch = reader.next()) != null)
+		{
+			int kept = trimmer.trim(batch);
+			Assert.assertEquals(kept, batch.size());
+			for (int i = 0; i < batch.size(); i++)
+			{
+				actual.add(batch.toFastq(i));
+			}
+			batch.release();
+		}
+		reader.close();
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			Assert.assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+			Assert.assertEquals(expected.get(i).getSequence(), actual.get(i).getSequence());
+			Assert.assertEquals(expected.get(i).getQuality(), actual.get(i).getQuality());
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.parsers.gff;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class GFFStreamReaderTest {
+
+	private static final String GTF = "#!genome-build test\n"
+			+ "chr1\tHAVANA\tgene\t11869\t14409\t.\t+\t.\tgene_id \"ENSG1\"; gene_name \"DDX11L1\";\n"
+			+ "chr1\tHAVANA\texon\t11869\t12227\t.\t+\t.\tgene_id \"ENSG1\"; exon_number 1; # comment\n"
+			+ "chr1\tHAVANA\tCDS\t12010\t12057\t0.5\t+\t0\tgene_id \"ENSG1\";\n"
+			+ "\n"
+			+ "chr1\tENSEMBL\texon\t14404\t14501\t.\t-\t.\tgene_id \"ENSG2\";\n"
+			+ "chr2\tHAVANA\texon\t200\t100\t.\t-\t.\tgene_id \"ENSG3\";\n"
+			+ "##FASTA\n"
+			+ ">chr1\n"
+			+ "ACGT\n";
+
+	private static GFFStreamReader reader(String lines) {
+		return new GFFStreamReader(new BufferedReader(new StringReader(lines)));
+	}
+
+	@Test
+	public void testRead() throws IOException {
+		final List<Feature> features = new ArrayList<Feature>();
+		try (GFFStreamReader reader = reader(GTF)) {
+			reader.read(features::add);
+		}
+		assertEquals(5, features.size());
+
+		Feature gene = features.get(0);
+		assertEquals("chr1", gene.seqname());
+		assertEquals("HAVANA", gene.source());
+		assertEquals("gene", gene.type());
+		assertEquals(Location.fromBio(11869, 14409, '+'), gene.location());
+		assertEquals(-1, gene.frame());
+		assertEquals("DDX11L1", gene.getAttribute("gene_name"));
+
+		Feature exon = features.get(1);
+		assertEquals("1", exon.getAttribute("exon_number"));
+		assertFalse(exon.attributes().contains("comment"));
+		// equal column values are shared
+		assertSame(gene.seqname(), exon.seqname());
+		assertSame(gene.source(), exon.source());
+		assertSame(exon.type(), features.get(3).type());
+
+		Feature cds = features.get(2);
+		assertEquals(0.5, cds.score(), 0.0);
+		assertEquals(0, cds.frame());
+
+		// start and end are swapped if needed
+		Feature reversed = features.get(4);
+		assertEquals(Location.fromBio(100, 200, '-'), reversed.location());
+		assertTrue(reversed.location().isNegative());
+	}
+
+	@Test
+	public void testFilters() throws IOException {
+		try (GFFStreamReader reader = reader(GTF)) {
+			reader.setTypes("exon", "CDS");
+			List<String> types = reader.stream().map(Feature::type).collect(Collectors.toList());
+			assertEquals(4, types.size());
+			assertFalse(types.contains("gene"));
+		}
+		try (GFFStreamReader reader = reader(GTF)) {
+			reader.setTypes("exon");
+			reader.setRegion("chr1", 12300, 20000);
+			List<Feature> features = reader.stream().collect(Collectors.toList());
+			assertEquals(1, features.size());
+			assertEquals("ENSG2", features.get(0).getAttribute("gene_id"));
+		}
+		// an empty type column is not one of the types, nor is the type of the last feature once the types change
+		try (GFFStreamReader reader = reader("chr1\tsource\t\t1\t10\t.\t+\t.\tgene_id \"g\";\n" + GTF)) {
+			reader.setTypes("gene");
+			assertEquals("gene", reader.next().type());
+			reader.setTypes("CDS");
+			assertEquals("CDS", reader.next().type());
+			assertNull(reader.next());
+		}
+		try (GFFStreamReader reader = reader(GTF)) {
+			reader.setRegion("chr2", 1, 100);
+			assertNotNull(reader.next());
+			assertNull(reader.next());
+		}
+	}
+
+	@Test
+	public void testMatchesGFF3Reader() throws Exception {
+		String filename = getClass().getResource("/volvox.gff3").getFile();
+		FeatureList list = GFF3Reader.read(filename);
+		try (Stream<Feature> stream = GFFStreamReader.stream(filename)) {
+			List<Feature> features = stream.collect(Collectors.toList());
+			assertEquals(list.size(), features.size());
+			for (int i = 0; i < features.size(); i++) {
+				assertEquals(list.get(i).toString(), features.get(i).toString());
+			}
+		}
+		try (Stream<Feature> stream = GFFStreamReader.stream(filename, "mRNA")) {
+			assertEquals(list.selectByType("mRNA").size(), stream.count());
+		}
+	}
+
+	@Test
+	public void testBadLine() {
+		try (GFFStreamReader reader = reader("chr1\tsource\texon\t1\tten\t.\t+\t.\tgene_id \"g\";\n")) {
+			reader.next();
+			fail("Read a feature with a bad end");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("line 1"));
+		}
+		try (GFFStreamReader reader = reader("chr1\tsource\texon\t1\n")) {
+			reader.next();
+			fail("Read a line with too few columns");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("columns"));
+		}
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.parsers.twobit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class TwoBitReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void writeInt(ByteArrayOutputStream out, long value) {
+		for (int i = 0; i < 4; i++) {
+			out.write((int) (value >>> (8 * i)));
+		}
+	}
+
+	// start and size of each run of the bases which match the condition
+	private static List<int[]> blocks(String bases, boolean n) {
+		List<int[]> blocks = new ArrayList<int[]>();
+		int start = -1;
+		for (int i = 0; i <= bases.length(); i++) {
+			boolean in = i < bases.length()
+					&& (n ? Character.toUpperCase(bases.charAt(i)) == 'N' : Character.isLowerCase(bases.charAt(i)));
+			if (in && start < 0) {
+				start = i;
+			} else if (!in && start >= 0) {
+				blocks.add(new int[] { start, i - start });
+				start = -1;
+			}
+		}
+		return blocks;
+	}
+
+	private static void writeBlocks(ByteArrayOutputStream out, List<int[]> blocks) {
+		writeInt(out, blocks.size());
+		for (int[] block : blocks) {
+			writeInt(out, block[0]);
+		}
+		for (int[] block : blocks) {
+			writeInt(out, block[1]);
+		}
+	}
+
+	// writes sequences in the little-endian 2bit format
+	private File writeTwoBit(Map<String, String> sequences) throws IOException {
+		List<byte[]> records = new ArrayList<byte[]>();
+		for (String bases : sequences.values()) {
+			ByteArrayOutputStream record = new ByteArrayOutputStream();
+			writeInt(record, bases.length());
+			writeBlocks(record, blocks(bases, true));
+			writeBlocks(record, blocks(bases, false));
+			writeInt(record, 0);
+			for (int i = 0; i < bases.length(); i += 4) {
+				int packed = 0;
+				for (int j = i; j < i + 4; j++) {
+					int code = j < bases.length() ? "TCAG".indexOf(Character.toUpperCase(bases.charAt(j))) : 0;
+					packed = (packed << 2) | Math.max(code, 0);
+				}
+				record.write(packed);
+			}
+			records.add(record.toByteArray());
+		}
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		writeInt(header, 0x1A412743);
+		writeInt(header, 0);
+		writeInt(header, sequences.size());
+		writeInt(header, 0);
+		long offset = 16;
+		for (String name : sequences.keySet()) {
+			offset += 1 + name.length() + 4;
+		}
+		int i = 0;
+		for (String name : sequences.keySet()) {
+			header.write(name.length());
+			header.write(name.getBytes("US-ASCII"));
+			writeInt(header, offset);
+			offset += records.get(i++).length;
+		}
+		File file = folder.newFile("test.2bit");
+		OutputStream out = new FileOutputStream(file);
+		try {
+			header.writeTo(out);
+			for (byte[] record : records) {
+				out.write(record);
+			}
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	// runs of upper case, lower case and N bases
+	private static String randomBases(Random random, int length) {
+		String[] alphabets = { "ACGT", "acgt", "N", "n" };
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length) {
+			String alphabet = alphabets[random.nextInt(alphabets.length)];
+			for (int n = 1 + random.nextInt(20); n > 0 && sb.length() < length; n--) {
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testLoadFragment() throws Exception {
+		Random random = new Random(13);
+		Map<String, String> sequences = new LinkedHashMap<String, String>();
+		sequences.put("chr1", randomBases(random, 1001));
+		sequences.put("chr2", randomBases(random, 3));
+		sequences.put("chrM", randomBases(random, 256));
+		File file = writeTwoBit(sequences);
+
+		TwoBitReader reader = new TwoBitReader(file);
+		try {
+			assertEquals(new ArrayList<String>(sequences.keySet()), new ArrayList<String>(reader.getSequenceNames()));
+			for (Map.Entry<String, String> entry : sequences.entrySet()) {
+				String bases = entry.getValue();
+				assertEquals(bases.length(), reader.getSequenceLength(entry.getKey()));
+				assertEquals(bases, reader.loadSequence(entry.getKey()));
+				for (int i = 0; i < 200; i++) {
+					int start = random.nextInt(bases.length() + 1), length = random.nextInt(40);
+					String expected = bases.substring(start, Math.min(bases.length(), start + length));
+					assertEquals(expected, reader.loadFragment(entry.getKey(), start, length));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testConcurrentFragments() throws Exception {
+		Random random = new Random(17);
+		final String bases = randomBases(random, 5000);
+		File file = writeTwoBit(Collections.singletonMap("chr21", bases));
+		final TwoBitFacade facade = new TwoBitFacade(file);
+		try {
+			final int[] starts = new int[2000];
+			for (int i = 0; i < starts.length; i++) {
+				starts[i] = random.nextInt(bases.length() - 100);
+			}
+			String[] fragments = IntStream.range(0, starts.length).parallel().mapToObj(i -> {
+				try {
+					return facade.getSequence("chr21", starts[i], starts[i] + 100);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}).toArray(String[]::new);
+			for (int i = 0; i < starts.length; i++) {
+				assertEquals(bases.substring(starts[i], starts[i] + 100), fragments[i]);
+			}
+		} finally {
+			facade.close();
+		}
+	}
+
+	@Test
+	public void testFacadeChromosome() throws Exception {
+		File file = writeTwoBit(Collections.singletonMap("chr21", "ACGTNNacgt"));
+		TwoBitFacade facade = new TwoBitFacade(file);
+		try {
+			facade.setChromosome("CHR21");
+			assertEquals("chr21", facade.getChromosome());
+			assertEquals("GTNNa", facade.getSequence(2, 7));
+			assertEquals("GTNNa", facade.getSequence("Chr21", 2, 7));
+			try {
+				facade.setChromosome("chr22");
+				fail("Set a missing chromosome");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().contains("chr22"));
+			}
+			assertEquals("chr21", facade.getChromosome());
+		} finally {
+			facade.close();
+		}
+	}
+
+	@Test
+	public void testErrors() throws Exception {
+		File file = writeTwoBit(Collections.singletonMap("chr1", "ACGT"));
+		TwoBitReader reader = new TwoBitReader(file);
+		try {
+			reader.loadFragment("chr2", 0, 1);
+			fail("Loaded a missing sequence");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("chr2"));
+		}
+		try {
+			reader.loadFragment("chr1", 5, 1);
+			fail("Loaded a fragment after the end of the sequence");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		reader.close();
+
+		File notTwoBit = folder.newFile("test.fa");
+		OutputStream out = new FileOutputStream(notTwoBit);
+		out.write(">chr1\nACGTACGTACGTACGTACGT\n".getBytes("US-ASCII"));
+		out.close();
+		try {
+			new TwoBitReader(notTwoBit);
+			fail("Read a file which is not 2bit");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("signature"));
+		}
+	}
+
+}
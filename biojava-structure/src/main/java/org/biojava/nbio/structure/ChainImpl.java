@@ -346,6 +346,14 @@ public class ChainImpl implements Chain {
 	@Override
 	public Group[] getGroupsByPDB(ResidueNumber start, ResidueNumber end, boolean ignoreMissing)
 			throws StructureException {
+		return getGroupsByPDB(groups, authId, start, end, ignoreMissing);
+	}
+
+	/**
+	 * The groups of a chain between two residue numbers, see {@link Chain#getGroupsByPDB(ResidueNumber, ResidueNumber, boolean)}.
+	 */
+	static Group[] getGroupsByPDB(List<Group> groups, String authId, ResidueNumber start, ResidueNumber end,
+			boolean ignoreMissing) throws StructureException {
 		// Short-circut for include all groups
 		if(start == null && end == null) {
 			return groups.toArray(new Group[groups.size()]);
@@ -516,9 +524,13 @@ public class ChainImpl implements Chain {
 	 */
 	@Override
 	public String getAtomSequence(){
+		return getAtomSequence(getAtomGroups());
+	}
 
-
-		List<Group> groups = getAtomGroups();
+	/**
+	 * The one letter sequence of the polymeric groups of a chain, see {@link Chain#getAtomSequence()}.
+	 */
+	static String getAtomSequence(List<Group> groups) {
 		StringBuilder sequence = new StringBuilder() ;
 
 		for ( Group g: groups){
@@ -734,12 +746,19 @@ public class ChainImpl implements Chain {
 
 	@Override
 	public GroupType getPredominantGroupType(){
+		return getPredominantGroupType(this);
+	}
+
+	/**
+	 * The predominant group type of a chain, see {@link Chain#getPredominantGroupType()}.
+	 */
+	static GroupType getPredominantGroupType(Chain chain) {
 
 		double ratioResiduesToTotal = StructureTools.RATIO_RESIDUES_TO_TOTAL;
 
-		int sizeAminos = getAtomGroups(GroupType.AMINOACID).size();
-		int sizeNucleotides = getAtomGroups(GroupType.NUCLEOTIDE).size();
-		List<Group> hetAtoms = getAtomGroups(GroupType.HETATM);
+		int sizeAminos = chain.getAtomGroups(GroupType.AMINOACID).size();
+		int sizeNucleotides = chain.getAtomGroups(GroupType.NUCLEOTIDE).size();
+		List<Group> hetAtoms = chain.getAtomGroups(GroupType.HETATM);
 		int sizeHetatoms = hetAtoms.size();
 		int sizeWaters = 0;
 		for (Group g : hetAtoms) {
@@ -779,7 +798,7 @@ public class ChainImpl implements Chain {
 				"Ratio of residues to total for chain with asym_id {} is below {}. Assuming it is a {} chain. "
 						+ "Counts: # aa residues: {}, # nuc residues: {}, # non-water het residues: {}, # waters: {}, "
 						+ "ratio aa/total: {}, ratio nuc/total: {}",
-				getId(), ratioResiduesToTotal, max, sizeAminos,
+				chain.getId(), ratioResiduesToTotal, max, sizeAminos,
 				sizeNucleotides, sizeHetatomsWithoutWater, sizeWaters,
 				(double) sizeAminos / (double) fullSize,
 				(double) sizeNucleotides / (double) fullSize);
@@ -0,0 +1,246 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import java.util.List;
+
+import javax.vecmath.Point3d;
+
+import org.biojava.nbio.structure.io.FileConvert;
+
+/**
+ * A view of an atom of a {@link ColumnarStructure}. Reads and writes its columns, except for the bonds which are
+ * not held.
+ *
+ * @since 5.1.2
+ */
+final class ColumnarAtom implements Atom {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ColumnarStructure columns;
+	private final int index;
+
+	ColumnarAtom(ColumnarStructure columns, int index) {
+		this.columns = columns;
+		this.index = index;
+	}
+
+	@Override
+	public void setName(String s) {
+		columns.atomName[index] = columns.code(s);
+	}
+
+	@Override
+	public String getName() {
+		return columns.getName(columns.atomName[index]);
+	}
+
+	@Override
+	public void setElement(Element e) {
+		columns.element[index] = (byte) e.ordinal();
+	}
+
+	@Override
+	public Element getElement() {
+		return columns.element(index);
+	}
+
+	@Override
+	public void setPDBserial(int i) {
+		columns.serial[index] = i;
+	}
+
+	@Override
+	public int getPDBserial() {
+		return columns.serial[index];
+	}
+
+	@Override
+	public void setCoords(double[] c) {
+		columns.setCoords(index, c[0], c[1], c[2]);
+	}
+
+	@Override
+	public double[] getCoords() {
+		return new double[] { getX(), getY(), getZ() };
+	}
+
+	/**
+	 * @return a copy of the coordinates: changing it does not move the atom
+	 */
+	@Override
+	public Point3d getCoordsAsPoint3d() {
+		return new Point3d(getX(), getY(), getZ());
+	}
+
+	@Override
+	public void setX(double x) {
+		columns.x[index] = (float) x;
+	}
+
+	@Override
+	public void setY(double y) {
+		columns.y[index] = (float) y;
+	}
+
+	@Override
+	public void setZ(double z) {
+		columns.z[index] = (float) z;
+	}
+
+	@Override
+	public double getX() {
+		return columns.x[index];
+	}
+
+	@Override
+	public double getY() {
+		return columns.y[index];
+	}
+
+	@Override
+	public double getZ() {
+		return columns.z[index];
+	}
+
+	@Override
+	public void setAltLoc(Character c) {
+		columns.altLoc[index] = ColumnarStructure.character(c);
+	}
+
+	@Override
+	public Character getAltLoc() {
+		return ColumnarStructure.character(columns.altLoc[index]);
+	}
+
+	@Override
+	public void setOccupancy(float occupancy) {
+		columns.occupancy[index] = occupancy;
+	}
+
+	@Override
+	public float getOccupancy() {
+		return columns.occupancy[index];
+	}
+
+	@Override
+	public void setTempFactor(float temp) {
+		columns.tempFactor[index] = temp;
+	}
+
+	@Override
+	public float getTempFactor() {
+		return columns.tempFactor[index];
+	}
+
+	/**
+	 * @return an {@link AtomImpl} with the values of this atom, without group
+	 */
+	@Override
+	public Object clone() {
+		AtomImpl n = new AtomImpl();
+		n.setName(getName());
+		n.setElement(getElement());
+		n.setPDBserial(getPDBserial());
+		n.setX(getX());
+		n.setY(getY());
+		n.setZ(getZ());
+		n.setAltLoc(getAltLoc());
+		n.setOccupancy(getOccupancy());
+		n.setTempFactor(getTempFactor());
+		n.setCharge(getCharge());
+		return n;
+	}
+
+	@Override
+	public void setGroup(Group parent) {
+		throw new UnsupportedOperationException("The group of a columnar atom can not be changed");
+	}
+
+	@Override
+	public Group getGroup() {
+		return columns.getGroup(columns.getGroupIndex(index));
+	}
+
+	@Override
+	public void addBond(Bond bond) {
+		throw new UnsupportedOperationException("Columnar atoms have no bonds");
+	}
+
+	/**
+	 * @return null, columnar atoms have no bonds
+	 */
+	@Override
+	public List<Bond> getBonds() {
+		return null;
+	}
+
+	@Override
+	public void setBonds(List<Bond> bonds) {
+		throw new UnsupportedOperationException("Columnar atoms have no bonds");
+	}
+
+	@Override
+	public boolean hasBond(Atom other) {
+		return false;
+	}
+
+	@Override
+	public short getCharge() {
+		return columns.charge[index];
+	}
+
+	@Override
+	public void setCharge(short charge) {
+		columns.charge[index] = charge;
+	}
+
+	@Override
+	public String toPDB() {
+		return FileConvert.toPDB(this);
+	}
+
+	@Override
+	public void toPDB(StringBuffer buf) {
+		FileConvert.toPDB(this, buf);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(columns) + index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ColumnarAtom))
+			return false;
+		ColumnarAtom other = (ColumnarAtom) obj;
+		return columns == other.columns && index == other.index;
+	}
+
+	@Override
+	public String toString() {
+		return getName() + " " + getElement() + " " + getPDBserial() + " " + getX() + " " + getY() + " " + getZ();
+	}
+}
@@ -0,0 +1,386 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.structure.io.FileConvert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A view of a chain of a {@link ColumnarStructure}, whose groups are {@link ColumnarGroup} views. Its structure is
+ * {@link ColumnarStructure#getStructure()}. The ids can be changed, the groups can not. It has no SEQRES groups.
+ *
+ * @since 5.1.2
+ */
+final class ColumnarChain implements Chain {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger logger = LoggerFactory.getLogger(ColumnarChain.class);
+
+	private final ColumnarStructure columns;
+	private final int index;
+
+	ColumnarChain(ColumnarStructure columns, int index) {
+		this.columns = columns;
+		this.index = index;
+	}
+
+	private int start() {
+		return columns.chainStart[index];
+	}
+
+	/**
+	 * @return an ordinary {@link ChainImpl} with copies of the groups, sharing the entity of this chain
+	 */
+	@Override
+	public Object clone() {
+		ChainImpl n = new ChainImpl();
+		n.setId(getId());
+		n.setName(getName());
+		n.setEntityInfo(getEntityInfo());
+		for (Group group : getAtomGroups()) {
+			Group g = (Group) group.clone();
+			n.addGroup(g);
+			g.setChain(n);
+		}
+		return n;
+	}
+
+	@Override
+	public void addGroup(Group group) {
+		throw new UnsupportedOperationException("The groups of a columnar chain can not be changed");
+	}
+
+	@Override
+	public String getId() {
+		return columns.chainId[index];
+	}
+
+	@Override
+	public void setId(String asymId) {
+		columns.chainId[index] = asymId;
+	}
+
+	@Override
+	public void setName(String authId) {
+		columns.chainName[index] = authId;
+	}
+
+	@Override
+	public String getName() {
+		return columns.chainName[index];
+	}
+
+	@Override
+	public Group getAtomGroup(int position) {
+		return getAtomGroups().get(position);
+	}
+
+	@Override
+	public Group getSeqResGroup(int position) {
+		return getSeqResGroups().get(position);
+	}
+
+	@Override
+	public List<Group> getAtomGroups() {
+		return new AbstractList<Group>() {
+			@Override
+			public Group get(int i) {
+				if (i < 0 || i >= size()) {
+					throw new IndexOutOfBoundsException("Index: " + i);
+				}
+				return new ColumnarGroup(columns, start() + i);
+			}
+
+			@Override
+			public int size() {
+				return getAtomLength();
+			}
+		};
+	}
+
+	@Override
+	public void setAtomGroups(List<Group> groups) {
+		throw new UnsupportedOperationException("The groups of a columnar chain can not be changed");
+	}
+
+	@Override
+	public List<Group> getAtomGroups(GroupType type) {
+		List<Group> groups = new ArrayList<>();
+		for (int g = start(), end = g + getAtomLength(); g < end; g++) {
+			if (columns.groupType(g) == type) {
+				groups.add(new ColumnarGroup(columns, g));
+			}
+		}
+		return groups;
+	}
+
+	@Override
+	public Group getGroupByPDB(ResidueNumber resNum) throws StructureException {
+		Character insCode = resNum.getInsCode();
+		char ins = ColumnarStructure.character(insCode);
+		for (int g = start(), end = g + getAtomLength(); g < end; g++) {
+			if (columns.residueNumber[g] == resNum.getSeqNum() && columns.insCode[g] == ins) {
+				return new ColumnarGroup(columns, g);
+			}
+		}
+		throw new StructureException("unknown PDB residue number " + resNum + " in chain " + getName());
+	}
+
+	@Override
+	public Group[] getGroupsByPDB(ResidueNumber pdbresnumStart, ResidueNumber pdbresnumEnd)
+			throws StructureException {
+		return getGroupsByPDB(pdbresnumStart, pdbresnumEnd, false);
+	}
+
+	@Override
+	public Group[] getGroupsByPDB(ResidueNumber pdbresnumStart, ResidueNumber pdbresnumEnd, boolean ignoreMissing)
+			throws StructureException {
+		return ChainImpl.getGroupsByPDB(getAtomGroups(), getName(), pdbresnumStart, pdbresnumEnd, ignoreMissing);
+	}
+
+	@Override
+	public int getAtomLength() {
+		return columns.chainStart[index + 1] - start();
+	}
+
+	/**
+	 * @return 0, columnar chains have no SEQRES groups
+	 */
+	@Override
+	public int getSeqResLength() {
+		return 0;
+	}
+
+	@Override
+	public void setEntityInfo(EntityInfo entityInfo) {
+		throw new UnsupportedOperationException("The entity of a columnar chain can not be changed");
+	}
+
+	@Override
+	public EntityInfo getEntityInfo() {
+		return columns.entity(index);
+	}
+
+	@Override
+	@Deprecated
+	public void setChainID(String asymId) {
+		setId(asymId);
+	}
+
+	@Override
+	@Deprecated
+	public String getChainID() {
+		return getId();
+	}
+
+	@Override
+	@Deprecated
+	public String getInternalChainID() {
+		return getId();
+	}
+
+	@Override
+	@Deprecated
+	public void setInternalChainID(String internalChainID) {
+		setId(internalChainID);
+	}
+
+	/**
+	 * @return the sequence of the atom groups, since columnar chains have no SEQRES groups
+	 */
+	@Override
+	public Sequence<?> getBJSequence() {
+		try {
+			return new ProteinSequence(getAtomSequence());
+		} catch (CompoundNotFoundException e) {
+			logger.error("Could not create sequence object from atom sequence. Some unknown compound: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public String getAtomSequence() {
+		return ChainImpl.getAtomSequence(getAtomGroups());
+	}
+
+	/**
+	 * @return an empty String, columnar chains have no SEQRES groups
+	 */
+	@Override
+	public String getSeqResSequence() {
+		return "";
+	}
+
+	@Override
+	public void setSwissprotId(String sp_id) {
+		throw new UnsupportedOperationException("Columnar chains have no SwissProt id");
+	}
+
+	@Override
+	public String getSwissprotId() {
+		return null;
+	}
+
+	@Override
+	public List<Group> getSeqResGroups(GroupType type) {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return an empty list, columnar chains have no SEQRES groups
+	 */
+	@Override
+	public List<Group> getSeqResGroups() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void setSeqResGroups(List<Group> seqResGroups) {
+		throw new UnsupportedOperationException("Columnar chains have no SEQRES groups");
+	}
+
+	@Override
+	@Deprecated
+	public void setParent(Structure parent) {
+		setStructure(parent);
+	}
+
+	/**
+	 * Only accepts the {@link ColumnarStructure#getStructure() structure} of the columns.
+	 */
+	@Override
+	public void setStructure(Structure parent) {
+		if (parent != columns.getStructure()) {
+			throw new UnsupportedOperationException("The structure of a columnar chain can not be changed");
+		}
+	}
+
+	@Override
+	@Deprecated
+	public Structure getParent() {
+		return getStructure();
+	}
+
+	@Override
+	public Structure getStructure() {
+		return columns.getStructure();
+	}
+
+	@Override
+	public List<Group> getAtomLigands() {
+		List<Group> ligands = new ArrayList<>();
+		for (Group g : getAtomGroups(GroupType.HETATM)) {
+			if (!g.isWater())
+				ligands.add(g);
+		}
+		return ligands;
+	}
+
+	@Override
+	public String toPDB() {
+		return FileConvert.toPDB(this);
+	}
+
+	@Override
+	public String toMMCIF() {
+		return FileConvert.toMMCIF(this, true);
+	}
+
+	@Override
+	public void setSeqMisMatches(List<SeqMisMatch> seqMisMatches) {
+		throw new UnsupportedOperationException("Columnar chains have no sequence mismatches");
+	}
+
+	@Override
+	public List<SeqMisMatch> getSeqMisMatches() {
+		return null;
+	}
+
+	@Override
+	public EntityType getEntityType() {
+		EntityInfo entity = getEntityInfo();
+		return entity == null ? null : entity.getType();
+	}
+
+	@Override
+	public boolean isWaterOnly() {
+		for (Group g : getAtomGroups()) {
+			if (!g.isWater())
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isPureNonPolymer() {
+		for (Group g : getAtomGroups()) {
+			if (g.isPolymeric() && !g.isHetAtomInFile())
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public GroupType getPredominantGroupType() {
+		return ChainImpl.getPredominantGroupType(this);
+	}
+
+	@Override
+	public boolean isProtein() {
+		return getPredominantGroupType() == GroupType.AMINOACID;
+	}
+
+	@Override
+	public boolean isNucleicAcid() {
+		return getPredominantGroupType() == GroupType.NUCLEOTIDE;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(columns) + index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ColumnarChain))
+			return false;
+		ColumnarChain other = (ColumnarChain) obj;
+		return columns == other.columns && index == other.index;
+	}
+
+	@Override
+	public String toString() {
+		return "Chain asymId:" + getId() + " authId:" + getName() + " total ATOM length:" + getAtomLength()
+				+ " residues";
+	}
+}
@@ -0,0 +1,369 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava.nbio.structure.io.GroupToSDF;
+import org.biojava.nbio.structure.io.mmcif.ChemCompGroupFactory;
+import org.biojava.nbio.structure.io.mmcif.chem.PolymerType;
+import org.biojava.nbio.structure.io.mmcif.chem.ResidueType;
+import org.biojava.nbio.structure.io.mmcif.model.ChemComp;
+
+/**
+ * A view of a group of a {@link ColumnarStructure}, whose atoms are {@link ColumnarAtom} views. The name, residue
+ * number and HETATM flag can be changed, the atoms can not. It has no alternate location groups and no
+ * properties.
+ *
+ * @since 5.1.2
+ */
+final class ColumnarGroup implements Group {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ColumnarStructure columns;
+	private final int index;
+
+	ColumnarGroup(ColumnarStructure columns, int index) {
+		this.columns = columns;
+		this.index = index;
+	}
+
+	private int start() {
+		return columns.groupStart[index];
+	}
+
+	@Override
+	public int size() {
+		return columns.groupStart[index + 1] - start();
+	}
+
+	@Override
+	public boolean has3D() {
+		return size() > 0;
+	}
+
+	@Override
+	public void setPDBFlag(boolean flag) {
+		throw new UnsupportedOperationException("Columnar groups have 3D data if they have atoms");
+	}
+
+	@Override
+	public GroupType getType() {
+		return columns.groupType(index);
+	}
+
+	@Override
+	public void addAtom(Atom atom) {
+		throw new UnsupportedOperationException("The atoms of a columnar group can not be changed");
+	}
+
+	@Override
+	public List<Atom> getAtoms() {
+		return new AbstractList<Atom>() {
+			@Override
+			public Atom get(int i) {
+				if (i < 0 || i >= size()) {
+					throw new IndexOutOfBoundsException("Index: " + i);
+				}
+				return new ColumnarAtom(columns, start() + i);
+			}
+
+			@Override
+			public int size() {
+				return ColumnarGroup.this.size();
+			}
+		};
+	}
+
+	@Override
+	public void setAtoms(List<Atom> atoms) {
+		throw new UnsupportedOperationException("The atoms of a columnar group can not be changed");
+	}
+
+	@Override
+	public void clearAtoms() {
+		throw new UnsupportedOperationException("The atoms of a columnar group can not be changed");
+	}
+
+	@Override
+	public Atom getAtom(String name) {
+		int code = columns.getNameCode(name);
+		if (code < 0) {
+			return null;
+		}
+		for (int i = start(), end = i + size(); i < end; i++) {
+			if (columns.atomName[i] == code) {
+				return new ColumnarAtom(columns, i);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Atom getAtom(int position) {
+		if (position < 0 || position >= size()) {
+			return null;
+		}
+		return new ColumnarAtom(columns, start() + position);
+	}
+
+	@Override
+	public boolean hasAtom(String name) {
+		return getAtom(name) != null;
+	}
+
+	@Override
+	public String getPDBName() {
+		return columns.getName(columns.groupName[index]);
+	}
+
+	@Override
+	public void setPDBName(String s) {
+		columns.groupName[index] = columns.code(s);
+	}
+
+	@Override
+	public boolean hasAminoAtoms() {
+		return hasAtom(StructureTools.CA_ATOM_NAME) &&
+				hasAtom(StructureTools.C_ATOM_NAME) &&
+				hasAtom(StructureTools.N_ATOM_NAME) &&
+				hasAtom(StructureTools.O_ATOM_NAME);
+	}
+
+	@Override
+	public boolean isPolymeric() {
+		ChemComp cc = getChemComp();
+		if (cc == null)
+			return getType().equals(GroupType.AMINOACID) || getType().equals(GroupType.NUCLEOTIDE);
+		ResidueType rt = cc.getResidueType();
+		if (rt.equals(ResidueType.nonPolymer))
+			return false;
+		PolymerType pt = rt.getPolymerType();
+		return PolymerType.PROTEIN_ONLY.contains(pt) ||
+				PolymerType.POLYNUCLEOTIDE_ONLY.contains(pt) ||
+				ResidueType.lPeptideLinking.equals(rt);
+	}
+
+	@Override
+	public boolean isAminoAcid() {
+		ChemComp cc = getChemComp();
+		if (cc == null)
+			return getType().equals(GroupType.AMINOACID);
+		ResidueType rt = cc.getResidueType();
+		if (rt.equals(ResidueType.nonPolymer))
+			return false;
+		return PolymerType.PROTEIN_ONLY.contains(rt.getPolymerType());
+	}
+
+	@Override
+	public boolean isNucleotide() {
+		ChemComp cc = getChemComp();
+		if (cc == null)
+			return getType().equals(GroupType.NUCLEOTIDE);
+		ResidueType rt = cc.getResidueType();
+		if (rt.equals(ResidueType.nonPolymer))
+			return false;
+		return PolymerType.POLYNUCLEOTIDE_ONLY.contains(rt.getPolymerType());
+	}
+
+	@Override
+	public void setProperties(Map<String, Object> properties) {
+		throw new UnsupportedOperationException("Columnar groups have no properties");
+	}
+
+	/**
+	 * @return an empty map, columnar groups have no properties
+	 */
+	@Override
+	public Map<String, Object> getProperties() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	public void setProperty(String key, Object value) {
+		throw new UnsupportedOperationException("Columnar groups have no properties");
+	}
+
+	@Override
+	public Object getProperty(String key) {
+		return null;
+	}
+
+	@Override
+	public Iterator<Atom> iterator() {
+		return new AtomIterator(this);
+	}
+
+	/**
+	 * @return an ordinary group ({@link AminoAcidImpl}, {@link NucleotideImpl} or {@link HetatomImpl} according to
+	 * the type) with copies of the atoms, without chain
+	 */
+	@Override
+	public Object clone() {
+		Group n;
+		switch (getType()) {
+		case AMINOACID:
+			n = new AminoAcidImpl();
+			break;
+		case NUCLEOTIDE:
+			n = new NucleotideImpl();
+			break;
+		default:
+			n = new HetatomImpl();
+		}
+		n.setPDBFlag(has3D());
+		n.setResidueNumber(getResidueNumber());
+		n.setPDBName(getPDBName());
+		n.setHetAtomInFile(isHetAtomInFile());
+		for (int i = start(), end = i + size(); i < end; i++) {
+			Atom atom = (Atom) new ColumnarAtom(columns, i).clone();
+			n.addAtom(atom);
+			atom.setGroup(n);
+		}
+		return n;
+	}
+
+	@Override
+	public void setChain(Chain chain) {
+		throw new UnsupportedOperationException("The chain of a columnar group can not be changed");
+	}
+
+	@Override
+	public Chain getChain() {
+		return columns.getChain(columns.getChainIndex(index));
+	}
+
+	@Override
+	public ResidueNumber getResidueNumber() {
+		return new ResidueNumber(columns.chainName[columns.getChainIndex(index)], columns.residueNumber[index],
+				ColumnarStructure.character(columns.insCode[index]));
+	}
+
+	/**
+	 * Sets the number and insertion code of the residue. The chain name stays the one of the chain.
+	 */
+	@Override
+	public void setResidueNumber(ResidueNumber residueNumber) {
+		columns.residueNumber[index] = residueNumber.getSeqNum();
+		columns.insCode[index] = ColumnarStructure.character(residueNumber.getInsCode());
+	}
+
+	/**
+	 * Sets the number and insertion code of the residue. The chain name stays the one of the chain.
+	 */
+	@Override
+	public void setResidueNumber(String chainId, Integer residueNumber, Character iCode) {
+		columns.residueNumber[index] = residueNumber;
+		columns.insCode[index] = ColumnarStructure.character(iCode);
+	}
+
+	@Override
+	public String getChainId() {
+		return columns.chainId[columns.getChainIndex(index)];
+	}
+
+	@Override
+	public void setChemComp(ChemComp cc) {
+		throw new UnsupportedOperationException("The chemical component of a columnar group is the one of its name");
+	}
+
+	@Override
+	public ChemComp getChemComp() {
+		return ChemCompGroupFactory.getChemComp(getPDBName());
+	}
+
+	@Override
+	public boolean hasAltLoc() {
+		return false;
+	}
+
+	/**
+	 * @return an empty list, columnar groups have no alternate location groups
+	 */
+	@Override
+	public List<Group> getAltLocs() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void addAltLoc(Group g) {
+		throw new UnsupportedOperationException("Columnar groups have no alternate location groups");
+	}
+
+	@Override
+	public boolean isWater() {
+		return GroupType.WATERNAMES.contains(getPDBName());
+	}
+
+	@Override
+	public Group getAltLocGroup(Character altLoc) {
+		if (size() == 0) {
+			return null;
+		}
+		Character first = ColumnarStructure.character(columns.altLoc[start()]);
+		return first != null && first.equals(altLoc) ? this : null;
+	}
+
+	@Override
+	public void trimToSize() {
+		// nothing to trim
+	}
+
+	@Override
+	public String toSDF() {
+		return new GroupToSDF().getText(this);
+	}
+
+	@Override
+	public boolean isHetAtomInFile() {
+		return columns.hetAtomInFile[index];
+	}
+
+	@Override
+	public void setHetAtomInFile(boolean isHetAtomInFile) {
+		columns.hetAtomInFile[index] = isHetAtomInFile;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(columns) + index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ColumnarGroup))
+			return false;
+		ColumnarGroup other = (ColumnarGroup) obj;
+		return columns == other.columns && index == other.index;
+	}
+
+	@Override
+	public String toString() {
+		return "Group " + getResidueNumber() + " " + getPDBName() + " " + getType() + " atoms: " + size();
+	}
+}
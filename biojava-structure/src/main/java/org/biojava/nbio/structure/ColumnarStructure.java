@@ -0,0 +1,622 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, column oriented copy of the atoms of a {@link Structure}.
+ * <p>
+ * Instead of an {@link AtomImpl} with its own coordinates, name and list of bonds per atom, the atoms are held as
+ * arrays: single precision x, y and z coordinates, occupancies and temperature factors, codes of the interned atom
+ * names and the elements, serial numbers, alternate locations and charges. The groups, chains and models are
+ * ranges of atoms, groups and chains respectively. An atom takes about 35 bytes instead of the 150 or more of
+ * an AtomImpl, and loops over the coordinates ({@link #getX(int)} and friends) read them sequentially.
+ * <p>
+ * The {@link Atom}, {@link Group} and {@link Chain} interfaces are available as views of the columns: flyweight
+ * objects made on demand from the index of their atom, group or chain, which read and write the columns.
+ * Views of the same index are {@link Object#equals(Object) equal} but not always the same object. They do not
+ * hold what the columns do not: bonds, alternate location groups, SEQRES groups, properties and the
+ * {@link AminoAcid} details. Adding or removing atoms, groups or chains through them is not supported. Their
+ * {@link Group#clone()} and {@link Chain#clone()} make ordinary groups and chains.
+ * {@link #getStructure()} gives a {@link Structure} over the chain views.
+ * <p>
+ * Structures can be built from a parsed {@link Structure} with {@link #of(Structure)}, or atom by atom with a
+ * {@link Builder}. {@link #of(Structure)} needs the full object model first, so it only lowers the memory held
+ * once that structure is dropped. To keep the peak low as well, read an mmCIF file with a
+ * {@link org.biojava.nbio.structure.io.mmcif.ColumnarStructureConsumer}, which fills a Builder straight from the
+ * atom site rows of the parser. Like the rest of the model, this class is not thread-safe for writes.
+ *
+ * @since 5.1.2
+ */
+public final class ColumnarStructure implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Element[] ELEMENTS = Element.values();
+	private static final GroupType[] GROUP_TYPES = GroupType.values();
+
+	/** The value of the char columns for no alternate location and no insertion code */
+	private static final char NONE = 0;
+
+	// atoms
+	final float[] x;
+	final float[] y;
+	final float[] z;
+	final float[] occupancy;
+	final float[] tempFactor;
+	final char[] atomName;
+	final byte[] element;
+	final int[] serial;
+	final char[] altLoc;
+	final short[] charge;
+
+	// groups: the atoms of group g are groupStart[g] to groupStart[g + 1]
+	final int[] groupStart;
+	final char[] groupName;
+	final int[] residueNumber;
+	final char[] insCode;
+	final byte[] groupType;
+	final boolean[] hetAtomInFile;
+
+	// chains: the groups of chain c are chainStart[c] to chainStart[c + 1]
+	final int[] chainStart;
+	final String[] chainId;
+	final String[] chainName;
+	final int[] chainEntity;
+
+	// models: the chains of model m are modelStart[m] to modelStart[m + 1]
+	final int[] modelStart;
+
+	final EntityInfo[] entities;
+
+	// the atom and group names, their codes are unsigned 16 bit indexes
+	private final List<String> names;
+	private final Map<String, Character> nameCodes;
+
+	private final String pdbCode;
+	private final PDBHeader pdbHeader;
+
+	private transient Structure structure;
+
+	private ColumnarStructure(Builder b) {
+		x = Arrays.copyOf(b.x, b.atoms);
+		y = Arrays.copyOf(b.y, b.atoms);
+		z = Arrays.copyOf(b.z, b.atoms);
+		occupancy = Arrays.copyOf(b.occupancy, b.atoms);
+		tempFactor = Arrays.copyOf(b.tempFactor, b.atoms);
+		atomName = Arrays.copyOf(b.atomName, b.atoms);
+		element = Arrays.copyOf(b.element, b.atoms);
+		serial = Arrays.copyOf(b.serial, b.atoms);
+		altLoc = Arrays.copyOf(b.altLoc, b.atoms);
+		charge = Arrays.copyOf(b.charge, b.atoms);
+
+		groupStart = Arrays.copyOf(b.groupStart, b.groups + 1);
+		groupStart[b.groups] = b.atoms;
+		groupName = Arrays.copyOf(b.groupName, b.groups);
+		residueNumber = Arrays.copyOf(b.residueNumber, b.groups);
+		insCode = Arrays.copyOf(b.insCode, b.groups);
+		groupType = Arrays.copyOf(b.groupType, b.groups);
+		hetAtomInFile = Arrays.copyOf(b.hetAtomInFile, b.groups);
+
+		chainStart = Arrays.copyOf(b.chainStart, b.chains + 1);
+		chainStart[b.chains] = b.groups;
+		chainId = Arrays.copyOf(b.chainId, b.chains);
+		chainName = Arrays.copyOf(b.chainName, b.chains);
+		chainEntity = Arrays.copyOf(b.chainEntity, b.chains);
+
+		modelStart = Arrays.copyOf(b.modelStart, b.models + 1);
+		modelStart[b.models] = b.chains;
+
+		entities = b.entities.toArray(new EntityInfo[b.entities.size()]);
+		names = new ArrayList<>(b.names);
+		nameCodes = new HashMap<>(b.nameCodes);
+		pdbCode = b.pdbCode;
+		pdbHeader = b.pdbHeader;
+	}
+
+	/**
+	 * Copies the atoms of all the models of a structure, as well as its groups and chains. The atoms of the
+	 * alternate location groups, the bonds and the SEQRES groups are left out.
+	 *
+	 * @param s a structure
+	 * @return the columns of its atoms
+	 */
+	public static ColumnarStructure of(Structure s) {
+		Builder builder = new Builder();
+		builder.setPDBCode(s.getPDBCode());
+		builder.setPDBHeader(s.getPDBHeader());
+		for (int m = 0; m < s.nrModels(); m++) {
+			builder.newModel();
+			for (Chain c : s.getModel(m)) {
+				builder.newChain(c.getId(), c.getName(), c.getEntityInfo());
+				for (Group g : c.getAtomGroups()) {
+					ResidueNumber number = g.getResidueNumber();
+					builder.newGroup(g.getPDBName(), number == null ? 0 : number.getSeqNum(),
+							number == null ? null : number.getInsCode(), g.getType(), g.isHetAtomInFile());
+					for (Atom a : g.getAtoms()) {
+						builder.addAtom(a.getName(), a.getElement(), a.getX(), a.getY(), a.getZ(),
+								a.getOccupancy(), a.getTempFactor(), a.getPDBserial(), a.getAltLoc(), a.getCharge());
+					}
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Builds a {@link ColumnarStructure} atom by atom, without making the objects of a {@link Structure}: new
+	 * atoms go into the last group, new groups into the last chain and new chains into the last model.
+	 */
+	public static final class Builder {
+
+		private int atoms;
+		private float[] x = new float[64];
+		private float[] y = new float[64];
+		private float[] z = new float[64];
+		private float[] occupancy = new float[64];
+		private float[] tempFactor = new float[64];
+		private char[] atomName = new char[64];
+		private byte[] element = new byte[64];
+		private int[] serial = new int[64];
+		private char[] altLoc = new char[64];
+		private short[] charge = new short[64];
+
+		private int groups;
+		private int[] groupStart = new int[16];
+		private char[] groupName = new char[16];
+		private int[] residueNumber = new int[16];
+		private char[] insCode = new char[16];
+		private byte[] groupType = new byte[16];
+		private boolean[] hetAtomInFile = new boolean[16];
+
+		private int chains;
+		private int[] chainStart = new int[4];
+		private String[] chainId = new String[4];
+		private String[] chainName = new String[4];
+		private int[] chainEntity = new int[4];
+
+		private int models;
+		private int[] modelStart = new int[2];
+
+		private final List<EntityInfo> entities = new ArrayList<>();
+		private final Map<EntityInfo, Integer> entityIndexes = new IdentityHashMap<>();
+		private final List<String> names = new ArrayList<>();
+		private final Map<String, Character> nameCodes = new HashMap<>();
+
+		private String pdbCode;
+		private PDBHeader pdbHeader;
+
+		public Builder setPDBCode(String pdbCode) {
+			this.pdbCode = pdbCode;
+			return this;
+		}
+
+		public Builder setPDBHeader(PDBHeader pdbHeader) {
+			this.pdbHeader = pdbHeader;
+			return this;
+		}
+
+		/**
+		 * Starts a model.
+		 */
+		public Builder newModel() {
+			if (models + 2 > modelStart.length) {
+				modelStart = Arrays.copyOf(modelStart, modelStart.length * 2);
+			}
+			modelStart[models++] = chains;
+			return this;
+		}
+
+		/**
+		 * Starts a chain in the last model, starting the first model if needed.
+		 *
+		 * @param id the asym id
+		 * @param name the author id
+		 * @param entity the entity of the chain, or null. Chains of the same entity share a copy of it, without
+		 * its chains
+		 */
+		public Builder newChain(String id, String name, EntityInfo entity) {
+			if (models == 0) {
+				newModel();
+			}
+			if (chains + 2 > chainStart.length) {
+				int n = chainStart.length * 2;
+				chainStart = Arrays.copyOf(chainStart, n);
+				chainId = Arrays.copyOf(chainId, n);
+				chainName = Arrays.copyOf(chainName, n);
+				chainEntity = Arrays.copyOf(chainEntity, n);
+			}
+			chainStart[chains] = groups;
+			chainId[chains] = id;
+			chainName[chains] = name;
+			if (entity == null) {
+				chainEntity[chains] = -1;
+			} else {
+				Integer index = entityIndexes.get(entity);
+				if (index == null) {
+					index = entities.size();
+					entities.add(new EntityInfo(entity));
+					entityIndexes.put(entity, index);
+				}
+				chainEntity[chains] = index;
+			}
+			chains++;
+			return this;
+		}
+
+		/**
+		 * Starts a group in the last chain.
+		 *
+		 * @param pdbName the three letter name
+		 * @param residueNumber the author residue number
+		 * @param insCode the insertion code, or null
+		 * @param type the type of the group
+		 * @param hetAtomInFile whether the atoms are HETATM records
+		 * @throws IllegalStateException if no chain was started
+		 */
+		public Builder newGroup(String pdbName, int residueNumber, Character insCode, GroupType type,
+				boolean hetAtomInFile) {
+			if (chains == 0) {
+				throw new IllegalStateException("A group needs a chain");
+			}
+			if (groups + 2 > groupStart.length) {
+				int n = groupStart.length * 2;
+				groupStart = Arrays.copyOf(groupStart, n);
+				groupName = Arrays.copyOf(groupName, n);
+				this.residueNumber = Arrays.copyOf(this.residueNumber, n);
+				this.insCode = Arrays.copyOf(this.insCode, n);
+				groupType = Arrays.copyOf(groupType, n);
+				this.hetAtomInFile = Arrays.copyOf(this.hetAtomInFile, n);
+			}
+			groupStart[groups] = atoms;
+			groupName[groups] = code(pdbName);
+			this.residueNumber[groups] = residueNumber;
+			this.insCode[groups] = insCode == null ? NONE : insCode;
+			groupType[groups] = (byte) type.ordinal();
+			this.hetAtomInFile[groups] = hetAtomInFile;
+			groups++;
+			return this;
+		}
+
+		/**
+		 * Adds an atom to the last group.
+		 *
+		 * @param altLoc the alternate location, or null
+		 * @throws IllegalStateException if no group was started
+		 */
+		public Builder addAtom(String name, Element element, double x, double y, double z, float occupancy,
+				float tempFactor, int serial, Character altLoc, short charge) {
+			if (groups == 0) {
+				throw new IllegalStateException("An atom needs a group");
+			}
+			if (atoms == this.x.length) {
+				int n = atoms * 2;
+				this.x = Arrays.copyOf(this.x, n);
+				this.y = Arrays.copyOf(this.y, n);
+				this.z = Arrays.copyOf(this.z, n);
+				this.occupancy = Arrays.copyOf(this.occupancy, n);
+				this.tempFactor = Arrays.copyOf(this.tempFactor, n);
+				this.atomName = Arrays.copyOf(this.atomName, n);
+				this.element = Arrays.copyOf(this.element, n);
+				this.serial = Arrays.copyOf(this.serial, n);
+				this.altLoc = Arrays.copyOf(this.altLoc, n);
+				this.charge = Arrays.copyOf(this.charge, n);
+			}
+			this.x[atoms] = (float) x;
+			this.y[atoms] = (float) y;
+			this.z[atoms] = (float) z;
+			this.occupancy[atoms] = occupancy;
+			this.tempFactor[atoms] = tempFactor;
+			this.atomName[atoms] = code(name);
+			this.element[atoms] = (byte) (element == null ? Element.R : element).ordinal();
+			this.serial[atoms] = serial;
+			this.altLoc[atoms] = altLoc == null ? NONE : altLoc;
+			this.charge[atoms] = charge;
+			atoms++;
+			return this;
+		}
+
+		private char code(String name) {
+			return ColumnarStructure.code(names, nameCodes, name);
+		}
+
+		public ColumnarStructure build() {
+			return new ColumnarStructure(this);
+		}
+	}
+
+	private static char code(List<String> names, Map<String, Character> nameCodes, String name) {
+		Character code = nameCodes.get(name);
+		if (code == null) {
+			if (names.size() > Character.MAX_VALUE) {
+				throw new IllegalStateException("More than " + (Character.MAX_VALUE + 1) + " atom and group names");
+			}
+			code = (char) names.size();
+			names.add(name);
+			nameCodes.put(name, code);
+		}
+		return code;
+	}
+
+	public String getPDBCode() {
+		return pdbCode;
+	}
+
+	public int getAtomCount() {
+		return x.length;
+	}
+
+	public int getGroupCount() {
+		return groupName.length;
+	}
+
+	public int getChainCount() {
+		return chainId.length;
+	}
+
+	public int getModelCount() {
+		return modelStart.length - 1;
+	}
+
+	public double getX(int atom) {
+		return x[atom];
+	}
+
+	public double getY(int atom) {
+		return y[atom];
+	}
+
+	public double getZ(int atom) {
+		return z[atom];
+	}
+
+	public void setCoords(int atom, double x, double y, double z) {
+		this.x[atom] = (float) x;
+		this.y[atom] = (float) y;
+		this.z[atom] = (float) z;
+	}
+
+	public float getOccupancy(int atom) {
+		return occupancy[atom];
+	}
+
+	public float getTempFactor(int atom) {
+		return tempFactor[atom];
+	}
+
+	public String getAtomName(int atom) {
+		return names.get(atomName[atom]);
+	}
+
+	/**
+	 * The code of the name of an atom, to compare names without comparing strings.
+	 *
+	 * @see #getNameCode(String)
+	 */
+	public int getAtomNameCode(int atom) {
+		return atomName[atom];
+	}
+
+	/**
+	 * @param name an atom or group name
+	 * @return its code, or -1 if no atom or group has that name
+	 */
+	public int getNameCode(String name) {
+		Character code = nameCodes.get(name);
+		return code == null ? -1 : code;
+	}
+
+	public Element getElement(int atom) {
+		return ELEMENTS[element[atom]];
+	}
+
+	/**
+	 * @return the group of an atom
+	 */
+	public int getGroupIndex(int atom) {
+		return range(groupStart, atom);
+	}
+
+	/**
+	 * @return the chain of a group
+	 */
+	public int getChainIndex(int group) {
+		return range(chainStart, group);
+	}
+
+	/**
+	 * @return the model of a chain
+	 */
+	public int getModelIndex(int chain) {
+		return range(modelStart, chain);
+	}
+
+	/**
+	 * @return the first atom of a group. Its atoms go up to the first atom of the next group
+	 */
+	public int getAtomStart(int group) {
+		return groupStart[group];
+	}
+
+	/**
+	 * @return the first group of a chain. Its groups go up to the first group of the next chain
+	 */
+	public int getGroupStart(int chain) {
+		return chainStart[chain];
+	}
+
+	/**
+	 * @return the first chain of a model. Its chains go up to the first chain of the next model
+	 */
+	public int getChainStart(int model) {
+		return modelStart[model];
+	}
+
+	/**
+	 * The range that holds an index, given the starts of the ranges followed by the end of the last one. Empty
+	 * ranges are skipped.
+	 */
+	private static int range(int[] starts, int index) {
+		if (index < 0 || index >= starts[starts.length - 1]) {
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+		int low = 0;
+		int high = starts.length - 1;
+		// the last range starting at or before index
+		while (high - low > 1) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= index) {
+				low = mid;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return a view of an atom
+	 */
+	public Atom getAtom(int atom) {
+		if (atom < 0 || atom >= x.length) {
+			throw new IndexOutOfBoundsException("Atom: " + atom);
+		}
+		return new ColumnarAtom(this, atom);
+	}
+
+	/**
+	 * @return a view of a group
+	 */
+	public Group getGroup(int group) {
+		if (group < 0 || group >= groupName.length) {
+			throw new IndexOutOfBoundsException("Group: " + group);
+		}
+		return new ColumnarGroup(this, group);
+	}
+
+	/**
+	 * @return a view of a chain
+	 */
+	public Chain getChain(int chain) {
+		if (chain < 0 || chain >= chainId.length) {
+			throw new IndexOutOfBoundsException("Chain: " + chain);
+		}
+		return new ColumnarChain(this, chain);
+	}
+
+	/**
+	 * @return views of the chains of a model
+	 */
+	public List<Chain> getChains(int model) {
+		int start = modelStart[model];
+		int end = modelStart[model + 1];
+		return new AbstractList<Chain>() {
+			@Override
+			public Chain get(int index) {
+				if (index < 0 || index >= end - start) {
+					throw new IndexOutOfBoundsException("Index: " + index);
+				}
+				return new ColumnarChain(ColumnarStructure.this, start + index);
+			}
+
+			@Override
+			public int size() {
+				return end - start;
+			}
+		};
+	}
+
+	/**
+	 * A {@link Structure} of chain views, with the PDB code and the header this was made with. The structure is
+	 * made once and is the {@link Chain#getStructure() structure} of all the chain views.
+	 * <p>
+	 * The atoms stay in the columns: for the few chains and entities of a structure, this is only about the size
+	 * of the columns. Adding chains or models to the structure is not supported.
+	 *
+	 * @return the structure of the columns
+	 */
+	public synchronized Structure getStructure() {
+		if (structure == null) {
+			StructureImpl s = new StructureImpl();
+			// set first, since the chains check their structure
+			structure = s;
+			s.setPDBCode(pdbCode);
+			if (pdbHeader != null) {
+				s.setPDBHeader(pdbHeader);
+			}
+			List<EntityInfo> entityInfos = new ArrayList<>(Arrays.asList(entities));
+			for (int m = 0; m < getModelCount(); m++) {
+				List<Chain> chains = new ArrayList<>(getChains(m));
+				s.addModel(chains);
+				for (Chain c : chains) {
+					if (c.getEntityInfo() != null) {
+						c.getEntityInfo().addChain(c);
+					}
+				}
+			}
+			s.setEntityInfos(entityInfos);
+		}
+		return structure;
+	}
+
+	String getName(char code) {
+		return names.get(code);
+	}
+
+	char code(String name) {
+		return code(names, nameCodes, name);
+	}
+
+	Element element(int atom) {
+		return ELEMENTS[element[atom]];
+	}
+
+	GroupType groupType(int group) {
+		return GROUP_TYPES[groupType[group]];
+	}
+
+	EntityInfo entity(int chain) {
+		int e = chainEntity[chain];
+		return e < 0 ? null : entities[e];
+	}
+
+	static Character character(char c) {
+		return c == NONE ? null : c;
+	}
+
+	static char character(Character c) {
+		return c == null ? NONE : c;
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnarStructure " + pdbCode + " models: " + getModelCount() + " chains: " + getChainCount()
+				+ " groups: " + getGroupCount() + " atoms: " + getAtomCount();
+	}
+}
@@ -95,6 +95,33 @@ public class PDBHeader implements PDBRecord {
 
 	}
 
+	/**
+	 * Copies a header. The collections are copied, the objects in them and the other records are shared.
+	 *
+	 * @param h the header to copy
+	 * @since 5.1.2
+	 */
+	public PDBHeader(PDBHeader h) {
+		title = h.title;
+		description = h.description;
+		idCode = h.idCode;
+		classification = h.classification;
+		depDate = h.depDate;
+		relDate = h.relDate;
+		modDate = h.modDate;
+		techniques = h.techniques == null ? null : new LinkedHashSet<ExperimentalTechnique>(h.techniques);
+		crystallographicInfo = h.crystallographicInfo;
+		resolution = h.resolution;
+		rFree = h.rFree;
+		rWork = h.rWork;
+		journalArticle = h.journalArticle;
+		authors = h.authors;
+		id = h.id;
+		dateFormat = new SimpleDateFormat("dd-MMM-yy",Locale.US);
+		bioAssemblies = h.bioAssemblies == null ? null : new LinkedHashMap<Integer, BioAssemblyInfo>(h.bioAssemblies);
+		revisionRecords = h.revisionRecords == null ? null : new ArrayList<DatabasePdbrevRecord>(h.revisionRecords);
+	}
+
 	/** String representation
 	 *
 	 */
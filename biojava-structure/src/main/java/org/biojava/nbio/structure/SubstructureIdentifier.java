@@ -182,7 +182,8 @@ public class SubstructureIdentifier implements StructureIdentifier {
 		Structure newS = new StructureImpl();
 
 		newS.setPDBCode(s.getPDBCode());
-		newS.setPDBHeader(s.getPDBHeader());
+		// a copy, so that the description below does not change the input
+		newS.setPDBHeader(new PDBHeader(s.getPDBHeader()));
 		newS.setName(this.toString());
 		newS.setDBRefs(s.getDBRefs());
 		newS.setBiologicalAssembly(s.isBiologicalAssembly());
@@ -24,8 +24,20 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.biojava.nbio.core.util.InputStreamProvider;
 import org.biojava.nbio.structure.*;
@@ -56,7 +68,8 @@ import org.slf4j.LoggerFactory;
  * A utility class that provides easy access to Structure objects. If you are running a script that is frequently
  * re-using the same PDB structures, the AtomCache keeps an in-memory cache of the files for quicker access. The cache
  * is a soft-cache, this means it won't cause out of memory exceptions, but garbage collects the data if the Java
- * virtual machine needs to free up space. The AtomCache is thread-safe.
+ * virtual machine needs to free up space. The parsed structures can be cached as well, see
+ * {@link #setStructureCache(StructureCache)}. The AtomCache is thread-safe.
  *
  * @author Andreas Prlic
  * @author Spencer Bliven
@@ -91,8 +104,10 @@ public class AtomCache {
 
 	private String cachePath;
 
-	// make sure IDs are loaded uniquely
-	private Collection<String> currentlyLoading = Collections.synchronizedCollection(new TreeSet<String>());
+	// make sure IDs are loaded uniquely: completed when the load of an ID is finished
+	private final ConcurrentMap<String, CompletableFuture<Void>> currentlyLoading = new ConcurrentHashMap<>();
+
+	private StructureCache structureCache;
 
 	private String path;
 
@@ -510,12 +525,149 @@ public class AtomCache {
 	 * @throws StructureException
 	 */
 	public Structure getStructure(StructureIdentifier strucId) throws IOException, StructureException {
-		Structure s = strucId.loadStructure(this);
+		Structure s = ownCopy(strucId.loadStructure(this));
 		Structure r = strucId.reduce(s);
 		r.setStructureIdentifier(strucId);
 		return r;
 	}
 
+	/**
+	 * Loads the structures of many identifiers concurrently, with a thread per available processor.
+	 *
+	 * @see #getStructures(Collection, Executor, Consumer)
+	 * @since 5.1.2
+	 */
+	public void getStructures(Collection<? extends StructureIdentifier> identifiers,
+			Consumer<? super StructureLoadResult> results) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			getStructures(identifiers, executor, results);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Loads the structures of many identifiers concurrently, as {@link #getStructure(StructureIdentifier)} would.
+	 * <p>
+	 * The identifiers of the same PDB entry, for instance "4hhb.A" and "4hhb.B", share a single download and parse
+	 * of the entry: each gets its own copy of the full structure to reduce. The other identifiers, such as files or
+	 * URLs, are loaded one by one. The files are fetched, decompressed and parsed by the tasks of the executor.
+	 * <p>
+	 * Each identifier gets a result, in the order the loads complete rather than the order of the identifiers.
+	 * A failure is reported in the results of the identifiers it concerns and does not stop the other loads.
+	 * The results are given to the consumer in the calling thread, which returns once all have been given.
+	 *
+	 * @param identifiers the identifiers to load. Repeated identifiers get a result each
+	 * @param executor runs the loads. It is not shut down
+	 * @param results receives the result of every identifier
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the loads, in which case
+	 * the loads that have not started are cancelled
+	 * @since 5.1.2
+	 */
+	public void getStructures(Collection<? extends StructureIdentifier> identifiers, Executor executor,
+			Consumer<? super StructureLoadResult> results) throws InterruptedException {
+		// the identifiers of each PDB entry, in the order of their first appearance
+		Map<String, List<StructureIdentifier>> byPdbId = new LinkedHashMap<>();
+		List<StructureIdentifier> others = new ArrayList<>();
+		for (StructureIdentifier identifier : identifiers) {
+			String pdbId = getPdbId(identifier);
+			if (pdbId == null) {
+				others.add(identifier);
+			} else {
+				byPdbId.computeIfAbsent(pdbId, k -> new ArrayList<>()).add(identifier);
+			}
+		}
+
+		CompletionService<List<StructureLoadResult>> completion = new ExecutorCompletionService<>(executor);
+		List<Future<List<StructureLoadResult>>> futures = new ArrayList<>();
+		for (Map.Entry<String, List<StructureIdentifier>> entry : byPdbId.entrySet()) {
+			futures.add(completion.submit(() -> loadEntry(entry.getKey(), entry.getValue())));
+		}
+		for (StructureIdentifier identifier : others) {
+			futures.add(completion.submit(() -> Collections.singletonList(load(identifier))));
+		}
+
+		try {
+			for (int i = 0; i < futures.size(); i++) {
+				List<StructureLoadResult> loaded;
+				try {
+					loaded = completion.take().get();
+				} catch (ExecutionException e) {
+					// the loads catch their exceptions, so only errors end up here
+					Throwable cause = e.getCause();
+					if (cause instanceof Error) throw (Error) cause;
+					throw new IllegalStateException(cause);
+				}
+				for (StructureLoadResult result : loaded) {
+					results.accept(result);
+				}
+			}
+		} finally {
+			for (Future<List<StructureLoadResult>> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * The PDB ID that an identifier loads, if it is known without looking up a domain database.
+	 */
+	private static String getPdbId(StructureIdentifier identifier) {
+		try {
+			if (identifier instanceof SubstructureIdentifier) {
+				return ((SubstructureIdentifier) identifier).getPdbId().toLowerCase();
+			}
+			if (identifier instanceof StructureName && ((StructureName) identifier).isPdbId()) {
+				return ((StructureName) identifier).getPdbId().toLowerCase();
+			}
+		} catch (StructureException | RuntimeException e) {
+			logger.debug("No PDB ID for {}, loading it on its own", identifier, e);
+		}
+		return null;
+	}
+
+	private StructureLoadResult load(StructureIdentifier identifier) {
+		try {
+			return StructureLoadResult.success(identifier, getStructure(identifier));
+		} catch (IOException | StructureException | RuntimeException e) {
+			return StructureLoadResult.failure(identifier, e);
+		}
+	}
+
+	/**
+	 * Loads a PDB entry once and reduces it to each of its identifiers.
+	 */
+	private List<StructureLoadResult> loadEntry(String pdbId, List<StructureIdentifier> identifiers) {
+		List<StructureLoadResult> loaded = new ArrayList<>(identifiers.size());
+		Structure full;
+		try {
+			full = getStructureForPdbId(pdbId);
+			if (full == null) {
+				throw new StructureException("No structure found for " + pdbId);
+			}
+		} catch (IOException | StructureException | RuntimeException e) {
+			for (StructureIdentifier identifier : identifiers) {
+				loaded.add(StructureLoadResult.failure(identifier, e));
+			}
+			return loaded;
+		}
+		for (int i = 0; i < identifiers.size(); i++) {
+			StructureIdentifier identifier = identifiers.get(i);
+			try {
+				// reduce shares and modifies parts of its input, so every identifier but the last gets a copy, and
+				// the last one too when full is the instance shared by the structure cache
+				Structure s = i == identifiers.size() - 1 ? ownCopy(full) : full.clone();
+				Structure r = identifier.reduce(s);
+				r.setStructureIdentifier(identifier);
+				loaded.add(StructureLoadResult.success(identifier, r));
+			} catch (StructureException | RuntimeException e) {
+				loaded.add(StructureLoadResult.failure(identifier, e));
+			}
+		}
+		return loaded;
+	}
+
 	/**
 	 * Returns the representation of a {@link ScopDomain} as a BioJava {@link Structure} object.
 	 *
@@ -564,7 +716,7 @@ public class AtomCache {
 			throws IOException, StructureException {
 
 		String pdbId = domain.getPdbId();
-		Structure fullStructure = getStructureForPdbId(pdbId);
+		Structure fullStructure = ownCopy(getStructureForPdbId(pdbId));
 		Structure structure = domain.reduce(fullStructure);
 
 		// TODO It would be better to move all of this into the reduce method,
@@ -805,9 +957,87 @@ public class AtomCache {
 		return this.useMmtf;
 	}
 
-	private boolean checkLoading(String name) {
-		return currentlyLoading.contains(name);
+	/**
+	 * Waits until the loading of an ID by another thread is finished, if any.
+	 */
+	private void waitForLoading(String name) {
+		CompletableFuture<Void> loading = currentlyLoading.get(name);
+		if (loading != null) {
+			loading.join();
+		}
+	}
+
+	/**
+	 * Returns the in-memory cache of parsed structures.
+	 *
+	 * @return the cache, or null if structures are parsed for every request
+	 * @since 5.1.2
+	 */
+	public StructureCache getStructureCache() {
+		return structureCache;
+	}
+
+	/**
+	 * <b>[Optional]</b> Sets an in-memory cache of parsed structures, so that structures requested again are
+	 * not parsed again. The structures are cached by PDB ID, file format, local path, obsolete behavior and
+	 * {@link FileParsingParameters}, so that changing these settings does not return structures parsed
+	 * differently. The same cache can be shared by several AtomCaches.
+	 *
+	 * @param structureCache the cache, or null (the default) to parse structures for every request
+	 * @since 5.1.2
+	 */
+	public void setStructureCache(StructureCache structureCache) {
+		this.structureCache = structureCache;
+	}
+
+	/**
+	 * The key of a structure in the {@link StructureCache}: everything that changes the parsed structure.
+	 */
+	private static final class StructureKey {
+		private final String pdbId;
+		private final String format;
+		private final String path;
+		private final ObsoleteBehavior obsoleteBehavior;
+		private final FileParsingParameters params;
+
+		StructureKey(String pdbId, String format, String path, ObsoleteBehavior obsoleteBehavior,
+				FileParsingParameters params) {
+			this.pdbId = pdbId;
+			this.format = format;
+			this.path = path;
+			this.obsoleteBehavior = obsoleteBehavior;
+			// a copy, since the parameters of the cache may be changed later
+			this.params = new FileParsingParameters(params);
+		}
 
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + pdbId.hashCode();
+			result = prime * result + format.hashCode();
+			result = prime * result + ((path == null) ? 0 : path.hashCode());
+			result = prime * result + ((obsoleteBehavior == null) ? 0 : obsoleteBehavior.hashCode());
+			result = prime * result + params.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof StructureKey))
+				return false;
+			StructureKey other = (StructureKey) obj;
+			return pdbId.equals(other.pdbId) && format.equals(other.format)
+					&& (path == null ? other.path == null : path.equals(other.path))
+					&& obsoleteBehavior == other.obsoleteBehavior && params.equals(other.params);
+		}
+
+		@Override
+		public String toString() {
+			return pdbId + " (" + format + ")";
+		}
 	}
 
 	/**
@@ -825,7 +1055,7 @@ public class AtomCache {
 
 		CathDomain cathDomain = cathInstall.getDomainByCathId(structureName.getIdentifier());
 
-		Structure s = getStructureForPdbId(cathDomain.getIdentifier());
+		Structure s = ownCopy(getStructureForPdbId(cathDomain.getIdentifier()));
 		Structure n = cathDomain.reduce(s);
 
 		// add the ligands of the chain...
@@ -846,15 +1076,15 @@ public class AtomCache {
 	}
 
 	protected void flagLoading(String name) {
-		if (!currentlyLoading.contains(name)) {
-
-			currentlyLoading.add(name);
-		}
+		currentlyLoading.putIfAbsent(name, new CompletableFuture<Void>());
 	}
 
 	protected void flagLoadingFinished(String name) {
 
-		currentlyLoading.remove(name);
+		CompletableFuture<Void> loading = currentlyLoading.remove(name);
+		if (loading != null) {
+			loading.complete(null);
+		}
 	}
 
 	/**
@@ -870,17 +1100,31 @@ public class AtomCache {
 		if(pdbId.length() != 4) {
 			throw new StructureException("Unrecognized PDB ID: "+pdbId);
 		}
-		while (checkLoading(pdbId)) {
-			// waiting for loading to be finished...
+		StructureCache cache = structureCache;
+		if (cache != null) {
+			// loads of the same key share a single load, and the structure is kept for later requests
+			String format = useMmtf ? "mmtf" : useMmCif ? "mmcif" : "pdb";
+			StructureKey key = new StructureKey(pdbId.toLowerCase(), format, path, obsoleteBehavior, params);
+			return cache.get(key, () -> loadStructureByPdbId(pdbId));
+		}
 
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				logger.error(e.getMessage());
-			}
+		// waiting for loading to be finished...
+		waitForLoading(pdbId);
 
-		}
+		return loadStructureByPdbId(pdbId);
+	}
+
+	/**
+	 * Returns a copy of a structure that may be shared through a {@link StructureCache} without copy-on-read.
+	 * {@link StructureIdentifier#reduce(Structure)} changes the header and the groups of its input, so it must not
+	 * be given a cached instance.
+	 */
+	private Structure ownCopy(Structure s) {
+		StructureCache cache = structureCache;
+		return s != null && cache != null && !cache.isCopyOnRead() ? s.clone() : s;
+	}
 
+	private Structure loadStructureByPdbId(String pdbId) throws IOException, StructureException {
 		Structure s;
 		if (useMmtf) {
 			logger.debug("loading from mmtf");
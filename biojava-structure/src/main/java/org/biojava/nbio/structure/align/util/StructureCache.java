@@ -0,0 +1,386 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.util;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded in-memory cache of parsed {@link Structure} objects, as used by {@link AtomCache#setStructureCache(StructureCache)}.
+ * <p>
+ * The cache holds structures up to a maximum total weight, by default one per structure, and evicts the least
+ * recently used ones beyond it. Structures are loaded at most once at a time per key: concurrent requests for a
+ * key that is being loaded wait for that load instead of starting their own. Failed loads are not cached.
+ * <p>
+ * Since structures are mutable, callers get their own {@link Structure#clone() copy} of the cached structure,
+ * unless {@link #setCopyOnRead(boolean)} is turned off for read-only callers. The cache is thread-safe.
+ *
+ * @since 5.1.2
+ */
+public class StructureCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(StructureCache.class);
+
+	/**
+	 * Loads the structure of a key that is not in the cache.
+	 */
+	@FunctionalInterface
+	public interface Loader {
+		Structure load() throws IOException, StructureException;
+	}
+
+	/**
+	 * A snapshot of the statistics of a cache.
+	 */
+	public static final class Stats {
+
+		private final long hitCount;
+		private final long missCount;
+		private final long loadSuccessCount;
+		private final long loadFailureCount;
+		private final long totalLoadTime;
+		private final long evictionCount;
+
+		private Stats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+				long totalLoadTime, long evictionCount) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.loadSuccessCount = loadSuccessCount;
+			this.loadFailureCount = loadFailureCount;
+			this.totalLoadTime = totalLoadTime;
+			this.evictionCount = evictionCount;
+		}
+
+		/**
+		 * @return the number of requests answered from the cache or by waiting for the load of another request
+		 */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * @return the number of requests that loaded their structure
+		 */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		public long getRequestCount() {
+			return hitCount + missCount;
+		}
+
+		/**
+		 * @return the ratio of hits to requests, 1 if there was no request
+		 */
+		public double getHitRate() {
+			long requests = getRequestCount();
+			return requests == 0 ? 1.0 : (double) hitCount / requests;
+		}
+
+		public long getLoadSuccessCount() {
+			return loadSuccessCount;
+		}
+
+		public long getLoadFailureCount() {
+			return loadFailureCount;
+		}
+
+		/**
+		 * @return the time spent loading structures, in nanoseconds
+		 */
+		public long getTotalLoadTime() {
+			return totalLoadTime;
+		}
+
+		/**
+		 * @return the average time of a load, in nanoseconds
+		 */
+		public double getAverageLoadPenalty() {
+			long loads = loadSuccessCount + loadFailureCount;
+			return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+		}
+
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Stats [hitCount=" + hitCount + ", missCount=" + missCount + ", loadSuccessCount="
+					+ loadSuccessCount + ", loadFailureCount=" + loadFailureCount + ", totalLoadTime="
+					+ totalLoadTime + ", evictionCount=" + evictionCount + "]";
+		}
+	}
+
+	private static final class Entry {
+		final Structure structure;
+		final long weight;
+
+		Entry(Structure structure, long weight) {
+			this.structure = structure;
+			this.weight = weight;
+		}
+	}
+
+	private final long maximumWeight;
+	private final ToLongFunction<Structure> weigher;
+
+	// in access order, guarded by itself
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long weight;
+
+	private final ConcurrentMap<Object, CompletableFuture<Structure>> loading = new ConcurrentHashMap<>();
+
+	private volatile boolean copyOnRead = true;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadSuccessCount = new LongAdder();
+	private final LongAdder loadFailureCount = new LongAdder();
+	private final LongAdder totalLoadTime = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * A cache of at most the given number of structures.
+	 *
+	 * @param maximumSize the maximum number of structures
+	 */
+	public StructureCache(int maximumSize) {
+		this(maximumSize, s -> 1);
+	}
+
+	/**
+	 * A cache of structures up to the given total weight.
+	 *
+	 * @param maximumWeight the maximum total weight of the structures
+	 * @param weigher the weight of a structure, for instance its number of atoms
+	 */
+	public StructureCache(long maximumWeight, ToLongFunction<Structure> weigher) {
+		if (maximumWeight < 0) {
+			throw new IllegalArgumentException("Maximum weight must not be negative: " + maximumWeight);
+		}
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+	}
+
+	/**
+	 * A cache of structures up to the given total number of atoms, which follows their memory use.
+	 *
+	 * @param maximumAtoms the maximum total number of atoms of the structures
+	 * @return a new cache
+	 */
+	public static StructureCache ofMaximumAtoms(long maximumAtoms) {
+		return new StructureCache(maximumAtoms, s -> Math.max(1, StructureTools.getNrAtoms(s)));
+	}
+
+	/**
+	 * Returns the structure of a key, loading it if it is not in the cache. If it is already being loaded, waits
+	 * for that load.
+	 *
+	 * @param key the key, with equals and hashCode
+	 * @param loader loads the structure if needed
+	 * @return a copy of the structure, or the structure itself if copies are turned off. null if the loader returns null,
+	 * which is not cached
+	 * @throws IOException if the load fails, or if the wait for another load is interrupted
+	 * @throws StructureException if the load fails
+	 */
+	public Structure get(Object key, Loader loader) throws IOException, StructureException {
+		Structure s = lookup(key);
+		if (s != null) {
+			hitCount.increment();
+			return copy(s);
+		}
+
+		CompletableFuture<Structure> future = new CompletableFuture<>();
+		CompletableFuture<Structure> running = loading.putIfAbsent(key, future);
+		if (running != null) {
+			hitCount.increment();
+			return copy(await(key, running));
+		}
+
+		missCount.increment();
+		try {
+			// another load may have finished since the lookup
+			s = lookup(key);
+			if (s == null) {
+				s = load(key, loader);
+			}
+			future.complete(s);
+		} catch (IOException | StructureException | RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, future);
+		}
+		return copy(s);
+	}
+
+	private Structure load(Object key, Loader loader) throws IOException, StructureException {
+		long start = System.nanoTime();
+		Structure s;
+		try {
+			s = loader.load();
+		} catch (IOException | StructureException | RuntimeException | Error e) {
+			loadFailureCount.increment();
+			totalLoadTime.add(System.nanoTime() - start);
+			throw e;
+		}
+		loadSuccessCount.increment();
+		totalLoadTime.add(System.nanoTime() - start);
+		if (s != null) {
+			put(key, s);
+		}
+		return s;
+	}
+
+	private static Structure await(Object key, CompletableFuture<Structure> future)
+			throws IOException, StructureException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the load of " + key, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof StructureException) throw (StructureException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+	private Structure copy(Structure s) {
+		return s == null || !copyOnRead ? s : s.clone();
+	}
+
+	private Structure lookup(Object key) {
+		synchronized (entries) {
+			Entry entry = entries.get(key);
+			return entry == null ? null : entry.structure;
+		}
+	}
+
+	private void put(Object key, Structure s) {
+		long w = weigher.applyAsLong(s);
+		synchronized (entries) {
+			Entry old = entries.put(key, new Entry(s, w));
+			if (old != null) weight -= old.weight;
+			weight += w;
+			Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+			while (weight > maximumWeight && it.hasNext()) {
+				Map.Entry<Object, Entry> eldest = it.next();
+				logger.debug("Evicting {} from the structure cache", eldest.getKey());
+				weight -= eldest.getValue().weight;
+				it.remove();
+				evictionCount.increment();
+			}
+		}
+	}
+
+	/**
+	 * @param key the key
+	 * @return a copy of the cached structure of a key, or the structure itself if copies are turned off. null if it
+	 * is not in the cache, without loading it
+	 */
+	public Structure getIfPresent(Object key) {
+		return copy(lookup(key));
+	}
+
+	/**
+	 * Removes the structure of a key from the cache.
+	 */
+	public void invalidate(Object key) {
+		synchronized (entries) {
+			Entry old = entries.remove(key);
+			if (old != null) weight -= old.weight;
+		}
+	}
+
+	/**
+	 * Removes all the structures from the cache.
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+			weight = 0;
+		}
+	}
+
+	/**
+	 * @return the number of cached structures
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the total weight of the cached structures
+	 */
+	public long getWeight() {
+		synchronized (entries) {
+			return weight;
+		}
+	}
+
+	public long getMaximumWeight() {
+		return maximumWeight;
+	}
+
+	public boolean isCopyOnRead() {
+		return copyOnRead;
+	}
+
+	/**
+	 * Sets whether callers get copies of the cached structures, true by default. Turn it off only if no caller
+	 * modifies the structures it gets. {@link AtomCache} still copies a cached structure before reducing it to a
+	 * chain or domain, since that changes the structure, so only requests for whole entries get the shared one.
+	 *
+	 * @param copyOnRead
+	 */
+	public void setCopyOnRead(boolean copyOnRead) {
+		this.copyOnRead = copyOnRead;
+	}
+
+	/**
+	 * @return a snapshot of the statistics of this cache
+	 */
+	public Stats getStats() {
+		return new Stats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+				totalLoadTime.sum(), evictionCount.sum());
+	}
+}
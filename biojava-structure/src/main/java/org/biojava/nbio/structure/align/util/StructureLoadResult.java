@@ -0,0 +1,83 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.util;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureIdentifier;
+
+/**
+ * The outcome of loading one of the identifiers given to
+ * {@link AtomCache#getStructures(java.util.Collection, java.util.concurrent.Executor, java.util.function.Consumer)}:
+ * either its structure, or the exception that prevented loading it.
+ *
+ * @since 5.1.2
+ */
+public final class StructureLoadResult {
+
+	private final StructureIdentifier identifier;
+	private final Structure structure;
+	private final Exception exception;
+
+	private StructureLoadResult(StructureIdentifier identifier, Structure structure, Exception exception) {
+		this.identifier = identifier;
+		this.structure = structure;
+		this.exception = exception;
+	}
+
+	static StructureLoadResult success(StructureIdentifier identifier, Structure structure) {
+		return new StructureLoadResult(identifier, structure, null);
+	}
+
+	static StructureLoadResult failure(StructureIdentifier identifier, Exception exception) {
+		return new StructureLoadResult(identifier, null, exception);
+	}
+
+	/**
+	 * @return the identifier, as it was given
+	 */
+	public StructureIdentifier getIdentifier() {
+		return identifier;
+	}
+
+	/**
+	 * @return the structure of the identifier, or null if it failed to load
+	 */
+	public Structure getStructure() {
+		return structure;
+	}
+
+	/**
+	 * @return the exception thrown while loading the identifier, usually an IOException or a StructureException.
+	 * null if it was loaded
+	 */
+	public Exception getException() {
+		return exception;
+	}
+
+	public boolean isSuccess() {
+		return exception == null;
+	}
+
+	@Override
+	public String toString() {
+		return identifier + (exception == null ? "" : " (" + exception + ")");
+	}
+}
@@ -25,6 +25,7 @@
 package org.biojava.nbio.structure.io;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.biojava.nbio.structure.AminoAcid;
 
@@ -114,6 +115,25 @@ public class FileParsingParameters implements Serializable
 		setDefault();
 	}
 
+	/**
+	 * A copy of other parameters.
+	 *
+	 * @param other the parameters to copy
+	 * @since 5.1.2
+	 */
+	public FileParsingParameters(FileParsingParameters other){
+		parseSecStruc = other.parseSecStruc;
+		alignSeqRes = other.alignSeqRes;
+		parseCAOnly = other.parseCAOnly;
+		headerOnly = other.headerOnly;
+		fullAtomNames = other.fullAtomNames == null ? null : other.fullAtomNames.clone();
+		maxAtoms = other.maxAtoms;
+		atomCaThreshold = other.atomCaThreshold;
+		parseBioAssembly = other.parseBioAssembly;
+		createAtomBonds = other.createAtomBonds;
+		createAtomCharges = other.createAtomCharges;
+	}
+
 	public void setDefault(){
 
 		parseSecStruc = false;
@@ -333,6 +353,44 @@ public class FileParsingParameters implements Serializable
 		this.createAtomCharges = createAtomCharges;
 	}
 
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (alignSeqRes ? 1231 : 1237);
+		result = prime * result + atomCaThreshold;
+		result = prime * result + (createAtomBonds ? 1231 : 1237);
+		result = prime * result + (createAtomCharges ? 1231 : 1237);
+		result = prime * result + Arrays.hashCode(fullAtomNames);
+		result = prime * result + (headerOnly ? 1231 : 1237);
+		result = prime * result + maxAtoms;
+		result = prime * result + (parseBioAssembly ? 1231 : 1237);
+		result = prime * result + (parseCAOnly ? 1231 : 1237);
+		result = prime * result + (parseSecStruc ? 1231 : 1237);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FileParsingParameters other = (FileParsingParameters) obj;
+		return alignSeqRes == other.alignSeqRes
+				&& atomCaThreshold == other.atomCaThreshold
+				&& createAtomBonds == other.createAtomBonds
+				&& createAtomCharges == other.createAtomCharges
+				&& Arrays.equals(fullAtomNames, other.fullAtomNames)
+				&& headerOnly == other.headerOnly
+				&& maxAtoms == other.maxAtoms
+				&& parseBioAssembly == other.parseBioAssembly
+				&& parseCAOnly == other.parseCAOnly
+				&& parseSecStruc == other.parseSecStruc;
+	}
+
 
 
 }
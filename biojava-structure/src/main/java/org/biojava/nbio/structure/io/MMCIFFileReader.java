@@ -23,14 +23,13 @@ package org.biojava.nbio.structure.io;
 
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.align.util.UserConfiguration;
-import org.biojava.nbio.structure.io.mmcif.MMcifParser;
 import org.biojava.nbio.structure.io.mmcif.SimpleMMcifConsumer;
 import org.biojava.nbio.structure.io.mmcif.SimpleMMcifParser;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 
 /** How to parse an mmCif file:
@@ -97,7 +96,7 @@ public class MMCIFFileReader extends LocalPDBDirectory {
 	@Override
 	public Structure getStructure(InputStream inStream) throws IOException{
 
-		MMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifParser parser = new SimpleMMcifParser();
 
 		consumer = new SimpleMMcifConsumer();
 
@@ -108,7 +107,8 @@ public class MMCIFFileReader extends LocalPDBDirectory {
 		// you could also hook in your own and build up you own data model.
 		parser.addMMcifConsumer(consumer);
 
-		parser.parse(new BufferedReader(new InputStreamReader(inStream)));
+		// the file is tokenized in memory, which is much faster than reading lines
+		parser.parse(readFully(inStream));
 
 
 		// now get the protein structure.
@@ -117,6 +117,22 @@ public class MMCIFFileReader extends LocalPDBDirectory {
 		return cifStructure;
 	}
 
+	private static ByteBuffer readFully(InputStream inStream) throws IOException {
+		byte[] bytes = new byte[1 << 16];
+		int length = 0;
+		int n;
+		while ((n = inStream.read(bytes, length, bytes.length - length)) >= 0) {
+			length += n;
+			if (length == bytes.length) {
+				if (bytes.length == Integer.MAX_VALUE - 8) {
+					throw new IOException("mmCIF file larger than 2GB");
+				}
+				bytes = Arrays.copyOf(bytes, (int) Math.min(2L * bytes.length, Integer.MAX_VALUE - 8));
+			}
+		}
+		return ByteBuffer.wrap(bytes, 0, length);
+	}
+
 	public SimpleMMcifConsumer getMMcifConsumer(){
 		return consumer;
 	}
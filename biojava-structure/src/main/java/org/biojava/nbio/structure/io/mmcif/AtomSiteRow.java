@@ -0,0 +1,296 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.biojava.nbio.structure.io.mmcif.model.AtomSite;
+
+/**
+ * A row of the _atom_site category, read straight from the values of the loop.
+ * <p>
+ * The columns of the loop header are resolved once and the same row is then moved over all the rows of the
+ * loop, so that no {@link AtomSite} bean is built per atom.  A row is only valid during the
+ * {@link MMcifConsumer#newAtomSite(AtomSiteRow)} call it is passed to: use {@link #toAtomSite()} to keep it.
+ * The String getters have the names of the {@link AtomSite} getters and return null for columns missing from
+ * the file; the numeric getters parse their column, straight from the bytes of the file when it is read by
+ * {@link SimpleMMcifParser#parse(ByteBuffer)}.
+ *
+ * @since 5.1.2
+ */
+public final class AtomSiteRow {
+
+	private static final int GROUP_PDB = 0;
+	private static final int ID = 1;
+	private static final int TYPE_SYMBOL = 2;
+	private static final int LABEL_ATOM_ID = 3;
+	private static final int LABEL_ALT_ID = 4;
+	private static final int LABEL_COMP_ID = 5;
+	private static final int LABEL_ASYM_ID = 6;
+	private static final int LABEL_SEQ_ID = 7;
+	private static final int PDBX_PDB_INS_CODE = 8;
+	private static final int CARTN_X = 9;
+	private static final int CARTN_Y = 10;
+	private static final int CARTN_Z = 11;
+	private static final int OCCUPANCY = 12;
+	private static final int B_ISO_OR_EQUIV = 13;
+	private static final int AUTH_SEQ_ID = 14;
+	private static final int AUTH_ASYM_ID = 15;
+	private static final int PDBX_PDB_MODEL_NUM = 16;
+
+	private static final List<String> COLUMNS = Arrays.asList("group_PDB", "id", "type_symbol", "label_atom_id",
+			"label_alt_id", "label_comp_id", "label_asym_id", "label_seq_id", "pdbx_PDB_ins_code", "Cartn_x",
+			"Cartn_y", "Cartn_z", "occupancy", "B_iso_or_equiv", "auth_seq_id", "auth_asym_id",
+			"pdbx_PDB_model_num");
+
+	private final CategoryBinder.Binding<AtomSite> binding;
+	private final int[] columns;
+	private List<String> values;
+
+	// the values as ranges of the file, when there is no list of values
+	private ByteBuffer buffer;
+	private int[] starts;
+	private int[] ends;
+	private boolean[] textFields;
+
+	/**
+	 * A row over the values of a loop with the given header.
+	 */
+	AtomSiteRow(List<String> loopFields) {
+		this(CategoryBinder.of(AtomSite.class).bind(loopFields), loopFields);
+	}
+
+	private AtomSiteRow(CategoryBinder.Binding<AtomSite> binding, List<String> loopFields) {
+		this.binding = binding;
+		columns = new int[COLUMNS.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = loopFields.indexOf(COLUMNS.get(i));
+		}
+	}
+
+	/**
+	 * A row with the values of an AtomSite bean.
+	 *
+	 * @param atom the bean
+	 * @return a row, which stays valid
+	 */
+	public static AtomSiteRow of(AtomSite atom) {
+		AtomSiteRow row = new AtomSiteRow(null, COLUMNS);
+		row.setValues(Arrays.asList(atom.getGroup_PDB(), atom.getId(), atom.getType_symbol(),
+				atom.getLabel_atom_id(), atom.getLabel_alt_id(), atom.getLabel_comp_id(), atom.getLabel_asym_id(),
+				atom.getLabel_seq_id(), atom.getPdbx_PDB_ins_code(), atom.getCartn_x(), atom.getCartn_y(),
+				atom.getCartn_z(), atom.getOccupancy(), atom.getB_iso_or_equiv(), atom.getAuth_seq_id(),
+				atom.getAuth_asym_id(), atom.getPdbx_PDB_model_num()));
+		return row;
+	}
+
+	/**
+	 * Whether this row reads a loop with the given header.
+	 */
+	boolean matches(List<String> loopFields) {
+		return binding != null && binding.matches(AtomSite.class, loopFields);
+	}
+
+	CategoryBinder.Binding<AtomSite> getBinding() {
+		return binding;
+	}
+
+	/**
+	 * Moves this row to the given values, one per column of the loop header.
+	 */
+	void setValues(List<String> values) {
+		this.values = values;
+	}
+
+	/**
+	 * Moves this row to the given ranges of a buffer, one per column of the loop header.
+	 */
+	void setValues(ByteBuffer buffer, int[] starts, int[] ends, boolean[] textFields) {
+		this.values = null;
+		this.buffer = buffer;
+		this.starts = starts;
+		this.ends = ends;
+		this.textFields = textFields;
+	}
+
+	/**
+	 * The value of a column of the loop header.
+	 */
+	String getValue(int i) {
+		if (values != null) return values.get(i);
+		return textFields[i] ? MMcifLexer.textField(buffer, starts[i], ends[i])
+				: MMcifLexer.string(buffer, starts[i], ends[i]);
+	}
+
+	private String get(int column) {
+		int i = columns[column];
+		return i < 0 ? null : getValue(i);
+	}
+
+	// the column in the buffer, if it can be parsed without a String
+	private int range(int column) {
+		int i = columns[column];
+		return values != null || i < 0 || textFields[i] ? -1 : i;
+	}
+
+	/**
+	 * Copies this row to an AtomSite bean, with all the columns of the loop.
+	 *
+	 * @return a new AtomSite
+	 */
+	public AtomSite toAtomSite() {
+		if (binding != null) {
+			if (values != null) {
+				return binding.build(values);
+			}
+			List<String> strings = new ArrayList<>(starts.length);
+			for (int i = 0; i < starts.length; i++) {
+				strings.add(getValue(i));
+			}
+			return binding.build(strings);
+		}
+		AtomSite atom = new AtomSite();
+		atom.setGroup_PDB(get(GROUP_PDB));
+		atom.setId(get(ID));
+		atom.setType_symbol(get(TYPE_SYMBOL));
+		atom.setLabel_atom_id(get(LABEL_ATOM_ID));
+		atom.setLabel_alt_id(get(LABEL_ALT_ID));
+		atom.setLabel_comp_id(get(LABEL_COMP_ID));
+		atom.setLabel_asym_id(get(LABEL_ASYM_ID));
+		atom.setLabel_seq_id(get(LABEL_SEQ_ID));
+		atom.setPdbx_PDB_ins_code(get(PDBX_PDB_INS_CODE));
+		atom.setCartn_x(get(CARTN_X));
+		atom.setCartn_y(get(CARTN_Y));
+		atom.setCartn_z(get(CARTN_Z));
+		atom.setOccupancy(get(OCCUPANCY));
+		atom.setB_iso_or_equiv(get(B_ISO_OR_EQUIV));
+		atom.setAuth_seq_id(get(AUTH_SEQ_ID));
+		atom.setAuth_asym_id(get(AUTH_ASYM_ID));
+		atom.setPdbx_PDB_model_num(get(PDBX_PDB_MODEL_NUM));
+		return atom;
+	}
+
+	public String getGroup_PDB() {
+		return get(GROUP_PDB);
+	}
+
+	public String getId() {
+		return get(ID);
+	}
+
+	public String getType_symbol() {
+		return get(TYPE_SYMBOL);
+	}
+
+	public String getLabel_atom_id() {
+		return get(LABEL_ATOM_ID);
+	}
+
+	public String getLabel_alt_id() {
+		return get(LABEL_ALT_ID);
+	}
+
+	public String getLabel_comp_id() {
+		return get(LABEL_COMP_ID);
+	}
+
+	public String getLabel_asym_id() {
+		return get(LABEL_ASYM_ID);
+	}
+
+	public String getLabel_seq_id() {
+		return get(LABEL_SEQ_ID);
+	}
+
+	public String getPdbx_PDB_ins_code() {
+		return get(PDBX_PDB_INS_CODE);
+	}
+
+	public String getAuth_seq_id() {
+		return get(AUTH_SEQ_ID);
+	}
+
+	public String getAuth_asym_id() {
+		return get(AUTH_ASYM_ID);
+	}
+
+	public String getPdbx_PDB_model_num() {
+		return get(PDBX_PDB_MODEL_NUM);
+	}
+
+	/**
+	 * @return the atom serial number of the id column
+	 * @throws NumberFormatException if the column is not an integer
+	 */
+	public int getSerial() {
+		int i = range(ID);
+		return i < 0 ? Integer.parseInt(get(ID)) : MMcifLexer.parseInt(buffer, starts[i], ends[i]);
+	}
+
+	/**
+	 * @return the residue number of the auth_seq_id column
+	 * @throws NumberFormatException if the column is not an integer
+	 */
+	public int getAuthSeqNum() {
+		int i = range(AUTH_SEQ_ID);
+		return i < 0 ? Integer.parseInt(get(AUTH_SEQ_ID)) : MMcifLexer.parseInt(buffer, starts[i], ends[i]);
+	}
+
+	/**
+	 * @return the label_seq_id column, or -1 for non-polymers, which have '.' there
+	 */
+	public long getLabelSeqNum() {
+		try {
+			int i = range(LABEL_SEQ_ID);
+			return i < 0 ? Long.parseLong(get(LABEL_SEQ_ID)) : MMcifLexer.parseLong(buffer, starts[i], ends[i]);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	public double getX() {
+		int i = range(CARTN_X);
+		return i < 0 ? Double.parseDouble(get(CARTN_X)) : MMcifLexer.parseDouble(buffer, starts[i], ends[i]);
+	}
+
+	public double getY() {
+		int i = range(CARTN_Y);
+		return i < 0 ? Double.parseDouble(get(CARTN_Y)) : MMcifLexer.parseDouble(buffer, starts[i], ends[i]);
+	}
+
+	public double getZ() {
+		int i = range(CARTN_Z);
+		return i < 0 ? Double.parseDouble(get(CARTN_Z)) : MMcifLexer.parseDouble(buffer, starts[i], ends[i]);
+	}
+
+	public float getOccupancyValue() {
+		int i = range(OCCUPANCY);
+		return i < 0 ? Float.parseFloat(get(OCCUPANCY)) : MMcifLexer.parseFloat(buffer, starts[i], ends[i]);
+	}
+
+	public float getTempFactor() {
+		int i = range(B_ISO_OR_EQUIV);
+		return i < 0 ? Float.parseFloat(get(B_ISO_OR_EQUIV)) : MMcifLexer.parseFloat(buffer, starts[i], ends[i]);
+	}
+}
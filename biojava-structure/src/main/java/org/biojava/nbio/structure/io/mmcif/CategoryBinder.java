@@ -0,0 +1,204 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds the beans of a mmCIF category from rows of values without per row reflection.
+ * <p>
+ * The setters of a bean class are looked up once, by the mmCIF name of their field (see
+ * {@link MMCIFFileTools#getFieldNames(Field[])}), and kept as {@link MethodHandle}s.  The columns of a loop are
+ * then {@link #bind(List) bound} to setters once per loop header, so that building a bean from a row is a
+ * constructor call and one setter call per column.
+ *
+ * @param <T> the bean class
+ * @since 5.1.2
+ */
+final class CategoryBinder<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(CategoryBinder.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+	private static final ClassValue<CategoryBinder<?>> BINDERS = new ClassValue<CategoryBinder<?>>() {
+		@Override
+		protected CategoryBinder<?> computeValue(Class<?> type) {
+			return new CategoryBinder<>(type);
+		}
+	};
+
+	/**
+	 * A setter of a bean, which parses its value first if it takes an Integer.
+	 */
+	private static final class Setter {
+		final String name;
+		final MethodHandle handle;
+		final boolean integer;
+
+		Setter(String name, MethodHandle handle, boolean integer) {
+			this.name = name;
+			this.handle = handle;
+			this.integer = integer;
+		}
+	}
+
+	/**
+	 * The setters of the columns of a loop header, null for columns without a field in the bean class.
+	 */
+	static final class Binding<T> {
+		private final CategoryBinder<T> binder;
+		private final List<String> fields;
+		private final Setter[] setters;
+
+		private Binding(CategoryBinder<T> binder, List<String> fields, Setter[] setters) {
+			this.binder = binder;
+			this.fields = fields;
+			this.setters = setters;
+		}
+
+		CategoryBinder<T> getBinder() {
+			return binder;
+		}
+
+		/** Whether this binding is for the given bean class and columns. */
+		boolean matches(Class<?> type, List<String> loopFields) {
+			return binder.type == type && fields.equals(loopFields);
+		}
+
+		/** Whether a column has a field in the bean class. */
+		boolean isBound(int column) {
+			return setters[column] != null;
+		}
+
+		/** Builds a bean from a row of values, one per column. */
+		T build(List<String> values) {
+			T bean = binder.newInstance();
+			if (bean == null) return null;
+			for (int i = 0; i < setters.length; i++) {
+				Setter setter = setters[i];
+				if (setter == null) continue;
+				String value = values.get(i);
+				Object arg = value;
+				if (setter.integer) {
+					if (value == null || value.equals("?") || value.equals(".")) continue;
+					// a malformed integer is not the setter's failure and aborts the parse, as it always has
+					arg = Integer.parseInt(value);
+				}
+				try {
+					setter.handle.invokeExact((Object) bean, arg);
+				} catch (Throwable e) {
+					logger.error("Could not invoke setter {} with value {} for class {}", setter.name, value,
+							binder.type.getName());
+				}
+			}
+			return bean;
+		}
+	}
+
+	private final Class<T> type;
+	private final MethodHandle constructor;
+	private final Map<String, Setter> setters = new HashMap<>();
+
+	/**
+	 * The binder of a bean class, which is created once and shared.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> CategoryBinder<T> of(Class<T> type) {
+		return (CategoryBinder<T>) BINDERS.get(type);
+	}
+
+	private CategoryBinder(Class<T> type) {
+		this.type = type;
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		MethodHandle c = null;
+		try {
+			c = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			logger.error("Error while constructing {}: {}", type.getName(), e.getMessage());
+		}
+		constructor = c;
+
+		// the same lookup as the bean setters have always had: the last public method of the setter name
+		Map<String, Method> methods = new HashMap<>();
+		for (Method m : type.getMethods()) {
+			methods.put(m.getName(), m);
+		}
+		Field[] fields = MMCIFFileTools.getFields(type);
+		String[] names = MMCIFFileTools.getFieldNames(fields);
+		for (int i = 0; i < fields.length; i++) {
+			String fieldName = fields[i].getName();
+			// note that we can't use the field directly because many setters do more than set the value
+			String setterName = "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+			Method setter = methods.get(setterName);
+			if (setter == null || setter.getParameterCount() != 1) continue;
+			try {
+				MethodHandle handle = lookup.unreflect(setter);
+				handle = handle.asType(handle.type().changeReturnType(void.class)).asType(SETTER_TYPE);
+				setters.put(names[i], new Setter(setterName, handle,
+						setter.getParameterTypes()[0].equals(Integer.class)));
+			} catch (IllegalAccessException e) {
+				logger.error("Could not access setter {} of class {}", setterName, type.getName());
+			}
+		}
+	}
+
+	Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Binds the columns of a loop header to the setters of their fields.
+	 */
+	Binding<T> bind(List<String> loopFields) {
+		Setter[] columns = new Setter[loopFields.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = setters.get(loopFields.get(i));
+		}
+		return new Binding<>(this, Collections.unmodifiableList(new ArrayList<>(loopFields)), columns);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T newInstance() {
+		if (constructor == null) return null;
+		try {
+			return (T) (Object) constructor.invokeExact();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			logger.error("Error while constructing {}: {}", type.getName(), e.getMessage());
+			return null;
+		}
+	}
+}
@@ -0,0 +1,398 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import org.biojava.nbio.structure.ColumnarStructure;
+import org.biojava.nbio.structure.Element;
+import org.biojava.nbio.structure.EntityInfo;
+import org.biojava.nbio.structure.EntityType;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.GroupType;
+import org.biojava.nbio.structure.PDBHeader;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.mmcif.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A consumer which feeds the atoms of an mmCIF file straight into a {@link ColumnarStructure.Builder}, so that no
+ * {@link org.biojava.nbio.structure.Atom} or {@link Group} object is made per atom or group.  The atoms are read from
+ * the {@link AtomSiteRow}s of the parser, the entities of the chains from the _entity and _struct_asym categories
+ * and the header from _struct; all other categories are ignored.
+ * <pre>
+ * SimpleMMcifParser parser = new SimpleMMcifParser();
+ * ColumnarStructureConsumer consumer = new ColumnarStructureConsumer();
+ * parser.addMMcifConsumer(consumer);
+ * parser.parse(inputStream);
+ * ColumnarStructure structure = consumer.getColumnarStructure();
+ * </pre>
+ * As with {@link ColumnarStructure#of(org.biojava.nbio.structure.Structure)}, the atoms of the other alternate
+ * locations of a group are left out: a group keeps the atoms without alternate location and those of its first one,
+ * plus the atoms that only other locations have.  The group types come from the chemical component dictionary, as
+ * in {@link SimpleMMcifConsumer}.  Charges are not read and are 0.
+ *
+ * @since 5.1.2
+ */
+public class ColumnarStructureConsumer implements MMcifConsumer {
+
+	private static final Logger logger = LoggerFactory.getLogger(ColumnarStructureConsumer.class);
+
+	private FileParsingParameters params = new FileParsingParameters();
+
+	private ColumnarStructure.Builder builder;
+	private ColumnarStructure structure;
+
+	private final Map<String, Entity> entities = new HashMap<>();
+	private final Map<String, String> asymId2entityId = new HashMap<>();
+	private final Map<String, EntityInfo> entityInfos = new HashMap<>();
+	private final Map<String, GroupType> groupTypes = new HashMap<>();
+
+	// the current model, chain and group
+	private String modelNumber;
+	private String asymId;
+	private int residueNumber;
+	private Character insCode;
+	private String groupName;
+	private char groupAltLoc;
+	private final Set<String> groupAtoms = new HashSet<>();
+
+	/**
+	 * @return the structure of the last document, or null while it is being parsed
+	 */
+	public ColumnarStructure getColumnarStructure() {
+		return structure;
+	}
+
+	@Override
+	public void documentStart() {
+		builder = new ColumnarStructure.Builder();
+		structure = null;
+		entities.clear();
+		asymId2entityId.clear();
+		entityInfos.clear();
+		modelNumber = null;
+		asymId = null;
+	}
+
+	@Override
+	public void documentEnd() {
+		structure = builder.build();
+		builder = null;
+	}
+
+	@Override
+	public void newAtomSite(AtomSite atom) {
+		newAtomSite(AtomSiteRow.of(atom));
+	}
+
+	@Override
+	public void newAtomSite(AtomSiteRow atom) {
+		if (params.isHeaderOnly()) return;
+
+		String model = atom.getPdbx_PDB_model_num();
+		if (modelNumber == null || (model != null && !model.equals(modelNumber))) {
+			builder.newModel();
+			modelNumber = model == null ? "" : model;
+			asymId = null;
+		}
+
+		String chain = atom.getLabel_asym_id();
+		boolean newChain = !chain.equals(asymId);
+		if (newChain) {
+			asymId = chain;
+			builder.newChain(chain, atom.getAuth_asym_id(), getEntityInfo(chain));
+		}
+
+		int number = atom.getAuthSeqNum();
+		String insCodeS = atom.getPdbx_PDB_ins_code();
+		Character ins = insCodeS == null || insCodeS.equals("?") || insCodeS.equals(".") ? null : insCodeS.charAt(0);
+		String name = atom.getLabel_comp_id();
+		String altLocS = atom.getLabel_alt_id();
+		char altLoc = altLocS == null || altLocS.isEmpty() || altLocS.equals(".") ? ' ' : altLocS.charAt(0);
+		String atomName = atom.getLabel_atom_id();
+
+		if (newChain || number != residueNumber || !equal(ins, insCode)) {
+			residueNumber = number;
+			insCode = ins;
+			groupName = name;
+			groupAltLoc = ' ';
+			groupAtoms.clear();
+			builder.newGroup(name, number, ins, getGroupType(name), !"ATOM".equals(atom.getGroup_PDB()));
+		} else if (altLoc != ' ' && groupAltLoc != ' ' && altLoc != groupAltLoc
+				&& (!name.equals(groupName) || groupAtoms.contains(atomName))) {
+			// an atom of another alternate location, which the group already has
+			return;
+		}
+		if (altLoc != ' ' && groupAltLoc == ' ') {
+			groupAltLoc = altLoc;
+		}
+
+		if (params.isParseCAOnly() && !(atomName.equals(StructureTools.CA_ATOM_NAME)
+				&& "C".equals(atom.getType_symbol()))) {
+			return;
+		}
+
+		Element element = Element.R;
+		try {
+			element = Element.valueOfIgnoreCase(atom.getType_symbol());
+		} catch (IllegalArgumentException e) {
+			logger.info("Element {} was not recognised as a BioJava-known element, the element will be represented as the generic element {}", atom.getType_symbol(), Element.R.name());
+		}
+		groupAtoms.add(atomName);
+		builder.addAtom(atomName, element, atom.getX(), atom.getY(), atom.getZ(), atom.getOccupancyValue(),
+				atom.getTempFactor(), atom.getSerial(), altLoc, (short) 0);
+	}
+
+	@Override
+	public void newEntity(Entity entity) {
+		entities.put(entity.getId(), entity);
+	}
+
+	@Override
+	public void newStructAsym(StructAsym sasym) {
+		asymId2entityId.put(sasym.getId(), sasym.getEntity_id());
+	}
+
+	@Override
+	public void setStruct(Struct struct) {
+		PDBHeader header = new PDBHeader();
+		header.setTitle(struct.getTitle());
+		header.setIdCode(struct.getEntry_id());
+		builder.setPDBHeader(header);
+		builder.setPDBCode(struct.getEntry_id());
+	}
+
+	@Override
+	public void setFileParsingParameters(FileParsingParameters params) {
+		this.params = params;
+	}
+
+	@Override
+	public FileParsingParameters getFileParsingParameters() {
+		return params;
+	}
+
+	// the entity of a chain, one EntityInfo per entity
+	private EntityInfo getEntityInfo(String asymId) {
+		String entityId = asymId2entityId.get(asymId);
+		Entity e = entityId == null ? null : entities.get(entityId);
+		if (e == null) {
+			return null;
+		}
+		EntityInfo entityInfo = entityInfos.get(entityId);
+		if (entityInfo == null) {
+			entityInfo = new EntityInfo();
+			try {
+				entityInfo.setMolId(Integer.parseInt(entityId));
+			} catch (NumberFormatException ex) {
+				logger.warn("Entity id does not look like a number: {}", entityId);
+			}
+			entityInfo.setDescription(e.getPdbx_description());
+			EntityType type = EntityType.entityTypeFromString(e.getType());
+			if (type != null) {
+				entityInfo.setType(type);
+			} else {
+				logger.warn("Type '{}' is not recognised as a valid entity type for entity {}", e.getType(), entityId);
+			}
+			entityInfos.put(entityId, entityInfo);
+		}
+		return entityInfo;
+	}
+
+	// the type SimpleMMcifConsumer gives a group of that name
+	private GroupType getGroupType(String name) {
+		GroupType type = groupTypes.get(name);
+		if (type == null) {
+			Group g = ChemCompGroupFactory.getGroupFromChemCompDictionary(name);
+			if (g != null && !g.getChemComp().isEmpty()) {
+				type = g.getType();
+			} else if (StructureTools.isNucleotide(name)) {
+				type = GroupType.NUCLEOTIDE;
+			} else {
+				Character aminoCode1 = StructureTools.get1LetterCodeAmino(name);
+				type = aminoCode1 == null || aminoCode1 == StructureTools.UNKNOWN_GROUP_LABEL
+						? GroupType.HETATM : GroupType.AMINOACID;
+			}
+			groupTypes.put(name, type);
+		}
+		return type;
+	}
+
+	private static boolean equal(Character a, Character b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	@Override
+	public void newEntityPoly(EntityPoly entityPoly) {
+	}
+
+	@Override
+	public void newEntityPolySeq(EntityPolySeq epolseq) {
+	}
+
+	@Override
+	public void newDatabasePDBrev(DatabasePDBrev dbrev) {
+	}
+
+	@Override
+	public void newDatabasePDBrevRecord(DatabasePdbrevRecord dbrev) {
+	}
+
+	@Override
+	public void newDatabasePDBremark(DatabasePDBremark remark) {
+	}
+
+	@Override
+	public void newExptl(Exptl exptl) {
+	}
+
+	@Override
+	public void newCell(Cell cell) {
+	}
+
+	@Override
+	public void newSymmetry(Symmetry symmetry) {
+	}
+
+	@Override
+	public void newStructNcsOper(StructNcsOper sNcsOper) {
+	}
+
+	@Override
+	public void newAtomSites(AtomSites atomSites) {
+	}
+
+	@Override
+	public void newStructRef(StructRef sref) {
+	}
+
+	@Override
+	public void newStructRefSeq(StructRefSeq sref) {
+	}
+
+	@Override
+	public void newStructRefSeqDif(StructRefSeqDif sref) {
+	}
+
+	@Override
+	public void newStructSite(StructSite sref) {
+	}
+
+	@Override
+	public void newStructSiteGen(StructSiteGen sref) {
+	}
+
+	@Override
+	public void newPdbxAuditRevisionHistory(PdbxAuditRevisionHistory history) {
+	}
+
+	@Override
+	public void newPdbxDatabaseStatus(PdbxDatabaseStatus status) {
+	}
+
+	@Override
+	public void newPdbxPolySeqScheme(PdbxPolySeqScheme ppss) {
+	}
+
+	@Override
+	public void newPdbxNonPolyScheme(PdbxNonPolyScheme ppss) {
+	}
+
+	@Override
+	public void newPdbxEntityNonPoly(PdbxEntityNonPoly pen) {
+	}
+
+	@Override
+	public void newStructKeywords(StructKeywords kw) {
+	}
+
+	@Override
+	public void newRefine(Refine r) {
+	}
+
+	@Override
+	public void newChemComp(ChemComp c) {
+	}
+
+	@Override
+	public void newChemCompDescriptor(ChemCompDescriptor ccd) {
+	}
+
+	@Override
+	public void newPdbxStructOperList(PdbxStructOperList structOper) {
+	}
+
+	@Override
+	public void newPdbxStrucAssembly(PdbxStructAssembly strucAssembly) {
+	}
+
+	@Override
+	public void newPdbxStrucAssemblyGen(PdbxStructAssemblyGen strucAssembly) {
+	}
+
+	@Override
+	public void newChemCompAtom(ChemCompAtom atom) {
+	}
+
+	@Override
+	public void newPdbxChemCompIndentifier(PdbxChemCompIdentifier id) {
+	}
+
+	@Override
+	public void newChemCompBond(ChemCompBond bond) {
+	}
+
+	@Override
+	public void newPdbxChemCompDescriptor(PdbxChemCompDescriptor desc) {
+	}
+
+	@Override
+	public void newEntitySrcGen(EntitySrcGen entitySrcGen) {
+	}
+
+	@Override
+	public void newEntitySrcNat(EntitySrcNat entitySrcNat) {
+	}
+
+	@Override
+	public void newEntitySrcSyn(EntitySrcSyn entitySrcSyn) {
+	}
+
+	@Override
+	public void newStructConn(StructConn structConn) {
+	}
+
+	@Override
+	public void newAuditAuthor(AuditAuthor aa) {
+	}
+
+	@Override
+	public void newGenericData(String category, List<String> loopFields, List<String> lineData) {
+	}
+
+}
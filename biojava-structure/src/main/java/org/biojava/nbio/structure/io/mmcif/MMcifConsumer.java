@@ -50,6 +50,17 @@ public interface MMcifConsumer {
 	 * @param atom
 	 */
 	public void newAtomSite(AtomSite atom);
+
+	/** A new AtomSite record has been read, without building an AtomSite bean.
+	 * The row is only valid during this call. By default the record is passed on to {@link #newAtomSite(AtomSite)}.
+	 *
+	 * @param row
+	 * @since 5.1.2
+	 */
+	public default void newAtomSite(AtomSiteRow row) {
+		newAtomSite(row.toAtomSite());
+	}
+
 	public void newEntity(Entity entity);
 	public void newEntityPoly(EntityPoly entityPoly);
 	public void newEntityPolySeq(EntityPolySeq epolseq);
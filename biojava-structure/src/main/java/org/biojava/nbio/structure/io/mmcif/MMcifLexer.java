@@ -0,0 +1,344 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits a mmCIF file held in a {@link ByteBuffer} into tokens without copying it.
+ * <p>
+ * Each call to {@link #next()} moves to the next token and returns its type; the token itself is the range
+ * {@link #getStart()} to {@link #getEnd()} of the buffer, without its quotes. Strings are only made for the tokens
+ * that are asked for with {@link #getString()}, and numbers can be parsed straight from the bytes with
+ * {@link #parseDouble(ByteBuffer, int, int)} and friends.
+ * <p>
+ * The values are the same as the ones of the line based {@link SimpleMMcifParser#parse(java.io.BufferedReader)}:
+ * quoted values are trimmed and the lines of a text field (between ';' at the beginning of lines) are joined
+ * without line breaks.
+ *
+ * @since 5.1.2
+ */
+final class MMcifLexer {
+
+	/** End of the buffer */
+	static final int EOF = 0;
+	/** A data_ block header */
+	static final int DATA = 1;
+	/** The loop_ keyword */
+	static final int LOOP = 2;
+	/** A data name, starting with '_' */
+	static final int TAG = 3;
+	/** A value, quoted or not */
+	static final int VALUE = 4;
+
+	private static final double[] DOUBLE_POWERS = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	private static final float[] FLOAT_POWERS = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+	private final ByteBuffer buffer;
+	private final int origin;
+	private final int limit;
+	private int position;
+
+	private int start;
+	private int end;
+	private boolean textField;
+
+	/**
+	 * A lexer over the bytes between the position and the limit of a buffer, which must be smaller than 2GB.
+	 */
+	MMcifLexer(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.origin = buffer.position();
+		this.position = origin;
+		this.limit = buffer.limit();
+	}
+
+	ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	int getStart() {
+		return start;
+	}
+
+	int getEnd() {
+		return end;
+	}
+
+	/**
+	 * Whether the current token is a text field, whose line breaks are not part of the value.
+	 */
+	boolean isTextField() {
+		return textField;
+	}
+
+	/**
+	 * @return the current token as a String
+	 */
+	String getString() {
+		return textField ? textField(buffer, start, end) : string(buffer, start, end);
+	}
+
+	/**
+	 * Moves to the next token.
+	 *
+	 * @return its type, {@link #EOF} at the end of the buffer
+	 */
+	int next() {
+		textField = false;
+		int p = position;
+		while (p < limit) {
+			byte b = buffer.get(p);
+			if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+				p++;
+			} else if (b == '#') {
+				p = endOfLine(p);
+			} else if (b == ';' && (p == origin || isLineBreak(buffer.get(p - 1)))) {
+				return text(p + 1);
+			} else if (b == '\'' || b == '"') {
+				return quoted(p, b);
+			} else {
+				start = p;
+				while (p < limit && !isWhitespace(buffer.get(p))) p++;
+				end = p;
+				position = p;
+				return type();
+			}
+		}
+		position = p;
+		start = end = p;
+		return EOF;
+	}
+
+	private int type() {
+		if (buffer.get(start) == '_') return TAG;
+		if (startsWith("data_")) return DATA;
+		if (end - start == 5 && startsWith("loop_")) return LOOP;
+		return VALUE;
+	}
+
+	private boolean startsWith(String keyword) {
+		if (end - start < keyword.length()) return false;
+		for (int i = 0; i < keyword.length(); i++) {
+			if (buffer.get(start + i) != keyword.charAt(i)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * A value between quotes, which only close when followed by whitespace: the quoted values of
+	 * processSingleLine, ended by the end of the line if the quote is not closed.
+	 */
+	private int quoted(int p, byte quote) {
+		int eol = endOfLine(p);
+		int close = eol;
+		for (int i = p + 1; i < eol; i++) {
+			if (buffer.get(i) == quote && (i + 1 == eol || isWhitespace(buffer.get(i + 1)))) {
+				close = i;
+				break;
+			}
+		}
+		start = p + 1;
+		end = close;
+		while (start < end && buffer.get(start) == ' ') start++;
+		while (end > start && buffer.get(end - 1) == ' ') end--;
+		position = close < eol ? close + 1 : eol;
+		return VALUE;
+	}
+
+	/**
+	 * A text field, from after the opening ';' to the line break before the closing ';'.
+	 */
+	private int text(int p) {
+		start = p;
+		int i = p;
+		while (true) {
+			i = endOfLine(i);
+			if (i >= limit) {
+				end = limit;
+				position = limit;
+				break;
+			}
+			int lineStart = i;
+			if (buffer.get(lineStart) == '\r') lineStart++;
+			if (lineStart < limit && buffer.get(lineStart) == '\n') lineStart++;
+			if (lineStart < limit && buffer.get(lineStart) == ';') {
+				end = i;
+				position = lineStart + 1;
+				break;
+			}
+			i = lineStart;
+		}
+		textField = true;
+		return VALUE;
+	}
+
+	private int endOfLine(int p) {
+		while (p < limit && !isLineBreak(buffer.get(p))) p++;
+		return p;
+	}
+
+	private static boolean isLineBreak(byte b) {
+		return b == '\n' || b == '\r';
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	/**
+	 * Decodes a range of bytes, as UTF-8.
+	 */
+	static String string(ByteBuffer buffer, int start, int end) {
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+		}
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decodes the range of a text field, leaving out its line breaks.
+	 */
+	static String textField(ByteBuffer buffer, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		int n = 0;
+		for (int i = start; i < end; i++) {
+			byte b = buffer.get(i);
+			if (!isLineBreak(b)) bytes[n++] = b;
+		}
+		return new String(bytes, 0, n, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Parses a range of bytes as a double, without making a String for plain decimals such as coordinates.
+	 *
+	 * @throws NumberFormatException as {@link Double#parseDouble(String)}
+	 */
+	static double parseDouble(ByteBuffer buffer, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = buffer.get(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int decimals = -1;
+		for (; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				digits++;
+				if (decimals >= 0) decimals++;
+			} else if (b == '.' && decimals < 0) {
+				decimals = 0;
+			} else {
+				break;
+			}
+		}
+		// exact as long as the mantissa and the power of ten are exact doubles, one rounding in the division
+		if (i < end || digits == 0 || digits > 15 || decimals >= DOUBLE_POWERS.length) {
+			return Double.parseDouble(string(buffer, start, end));
+		}
+		double value = decimals > 0 ? mantissa / DOUBLE_POWERS[decimals] : mantissa;
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses a range of bytes as a float, without making a String for plain decimals such as B-factors.
+	 *
+	 * @throws NumberFormatException as {@link Float#parseFloat(String)}
+	 */
+	static float parseFloat(ByteBuffer buffer, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = buffer.get(i) == '-';
+			i++;
+		}
+		int mantissa = 0;
+		int digits = 0;
+		int decimals = -1;
+		for (; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				digits++;
+				if (decimals >= 0) decimals++;
+			} else if (b == '.' && decimals < 0) {
+				decimals = 0;
+			} else {
+				break;
+			}
+		}
+		// 7 digits stay below 2^24, so that the mantissa is an exact float
+		if (i < end || digits == 0 || digits > 7 || decimals >= FLOAT_POWERS.length) {
+			return Float.parseFloat(string(buffer, start, end));
+		}
+		float value = decimals > 0 ? mantissa / FLOAT_POWERS[decimals] : mantissa;
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses a range of bytes as a long.
+	 *
+	 * @throws NumberFormatException as {@link Long#parseLong(String)}
+	 */
+	static long parseLong(ByteBuffer buffer, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = buffer.get(i) == '-';
+			i++;
+		}
+		if (i == end || end - i > 18) {
+			return Long.parseLong(string(buffer, start, end));
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b < '0' || b > '9') {
+				return Long.parseLong(string(buffer, start, end));
+			}
+			value = value * 10 + (b - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses a range of bytes as an int.
+	 *
+	 * @throws NumberFormatException as {@link Integer#parseInt(String)}
+	 */
+	static int parseInt(ByteBuffer buffer, int start, int end) {
+		long value = parseLong(buffer, start, end);
+		if (value != (int) value) {
+			throw new NumberFormatException("For input string: \"" + string(buffer, start, end) + "\"");
+		}
+		return (int) value;
+	}
+}
@@ -327,6 +327,11 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 
 	@Override
 	public void newAtomSite(AtomSite atom) {
+		newAtomSite(AtomSiteRow.of(atom));
+	}
+
+	@Override
+	public void newAtomSite(AtomSiteRow atom) {
 
 		if (params.isHeaderOnly()) return;
 
@@ -344,8 +349,7 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 		String authId = atom.getAuth_asym_id();
 
 		String recordName    = atom.getGroup_PDB();
-		String residueNumberS = atom.getAuth_seq_id();
-		Integer residueNrInt = Integer.parseInt(residueNumberS);
+		Integer residueNrInt = atom.getAuthSeqNum();
 
 		// the 3-letter name of the group:
 		String groupCode3    = atom.getLabel_comp_id();
@@ -373,14 +377,8 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 		// this is not a PDB file field but we need this to internally assign the insertion codes later
 		// from the pdbx_poly_seq entries..
 
-		long seq_id = -1;
-		try {
-			seq_id = Long.parseLong(atom.getLabel_seq_id());
-		} catch (NumberFormatException e){
-			// non polymer chains (ligands and small molecules) will have a label_seq_id set to '.', thus it is ok to
-			// silently ignore this
-			//logger.debug("Could not parse number for _atom_site.label_seq_id: "+e.getMessage());
-		}
+		// non polymer chains (ligands and small molecules) will have a label_seq_id set to '.', thus -1
+		long seq_id = atom.getLabelSeqNum();
 
 		String nmrModelNumber = atom.getPdbx_PDB_model_num();
 
@@ -541,31 +539,26 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 	}
 
 	/** 
-	 * Convert a mmCIF AtomSite object to a BioJava Atom object
+	 * Convert a mmCIF AtomSite row to a BioJava Atom object
 	 *
 	 * @param atom the mmmcif AtomSite record
 	 * @return an Atom
 	 */
-	private Atom convertAtom(AtomSite atom){
+	private Atom convertAtom(AtomSiteRow atom){
 
 
 		Atom a = new AtomImpl();
 
-		a.setPDBserial(Integer.parseInt(atom.getId()));
+		a.setPDBserial(atom.getSerial());
 		a.setName(atom.getLabel_atom_id());
 
-		double x = Double.parseDouble (atom.getCartn_x());
-		double y = Double.parseDouble (atom.getCartn_y());
-		double z = Double.parseDouble (atom.getCartn_z());
-		a.setX(x);
-		a.setY(y);
-		a.setZ(z);
+		a.setX(atom.getX());
+		a.setY(atom.getY());
+		a.setZ(atom.getZ());
 
-		float occupancy = Float.parseFloat (atom.getOccupancy());
-		a.setOccupancy(occupancy);
+		a.setOccupancy(atom.getOccupancyValue());
 
-		float temp = Float.parseFloat (atom.getB_iso_or_equiv());
-		a.setTempFactor(temp);
+		a.setTempFactor(atom.getTempFactor());
 
 		String alt = atom.getLabel_alt_id();
 		if (( alt != null ) && ( alt.length() > 0) && (! alt.equals("."))){
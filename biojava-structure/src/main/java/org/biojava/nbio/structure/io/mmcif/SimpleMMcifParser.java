@@ -25,21 +25,17 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.io.MMCIFFileReader;
 import org.biojava.nbio.structure.io.StructureIOFile;
-import org.biojava.nbio.structure.io.mmcif.model.AtomSite;
 import org.biojava.nbio.structure.io.mmcif.model.AtomSites;
 import org.biojava.nbio.structure.io.mmcif.model.AuditAuthor;
 import org.biojava.nbio.structure.io.mmcif.model.CIFLabel;
@@ -142,6 +138,13 @@ public class SimpleMMcifParser implements MMcifParser {
 
 	private Struct struct ;
 
+	/**
+	 * The setters of the columns of the last category built, kept while its loop header stays the same
+	 */
+	private CategoryBinder.Binding<?> binding;
+
+	private AtomSiteRow atomSiteRow;
+
 	private static final Logger logger = LoggerFactory.getLogger(SimpleMMcifParser.class);
 
 	public SimpleMMcifParser(){
@@ -405,6 +408,166 @@ public class SimpleMMcifParser implements MMcifParser {
 
 	}
 
+	/**
+	 * Start the actual parsing from the bytes of a whole file, which are split into tokens by {@link MMcifLexer}
+	 * without reading lines.
+	 * The values of the _atom_site rows are passed to the consumers as ranges of the buffer, so that their
+	 * coordinates are parsed straight from the bytes.
+	 * The parser will trigger events that are defined by the MMcifConsumer class.
+	 *
+	 * @param buffer the file, between the position and the limit of the buffer
+	 * @throws IOException if the file is not a mmCIF file
+	 * @since 5.1.2
+	 */
+	public void parse(ByteBuffer buffer) throws IOException {
+
+		triggerDocumentStart();
+
+		struct = new Struct();
+
+		MMcifLexer lexer = new MMcifLexer(buffer);
+
+		List<String> loopFields = new ArrayList<String>();
+		List<String> lineData   = new ArrayList<String>();
+		Set<String> loopWarnings = new HashSet<String>(); // used only to reduce logging statements
+
+		String category = null;
+
+		int token = lexer.next();
+		if (token != MMcifLexer.DATA) {
+			triggerDocumentEnd();
+			throw new IOException("This does not look like a valid mmCIF file! The first line should start with 'data_', but is: '" + lexer.getString()+"'");
+		}
+		token = lexer.next();
+
+		while (token != MMcifLexer.EOF) {
+
+			if (token == MMcifLexer.TAG) {
+				// a data name and its value, gathered by category until the next category
+				String key = lexer.getString();
+				token = lexer.next();
+				if (token != MMcifLexer.VALUE) {
+					logger.warn("Found data name {} without a value", key);
+					continue;
+				}
+				String value = lexer.getString();
+				token = lexer.next();
+
+				int pos = key.indexOf('.');
+				if (pos < 0) {
+					logger.warn("Found data name {} without a category, ignoring it", key);
+					continue;
+				}
+				String keyCategory = key.substring(0, pos);
+				if (category != null && !keyCategory.equals(category)) {
+					// we've changed category: need to flush the previous one
+					flush(category, loopFields, lineData, loopWarnings);
+				}
+				category = keyCategory;
+				loopFields.add(key.substring(pos + 1));
+				lineData.add(value);
+
+			} else if (token == MMcifLexer.LOOP) {
+				flush(category, loopFields, lineData, loopWarnings);
+				category = null;
+
+				token = lexer.next();
+				while (token == MMcifLexer.TAG) {
+					String key = lexer.getString();
+					int pos = key.indexOf('.');
+					if (pos < 0) {
+						category = key;
+					} else {
+						category = key.substring(0, pos);
+						loopFields.add(key.substring(pos + 1));
+					}
+					token = lexer.next();
+				}
+
+				if ("_atom_site".equals(category)) {
+					token = parseAtomSites(lexer, token, loopFields, loopWarnings);
+				} else {
+					while (token == MMcifLexer.VALUE) {
+						lineData.add(lexer.getString());
+						token = lexer.next();
+						if (lineData.size() == loopFields.size()) {
+							endLineChecks(category, loopFields, lineData, loopWarnings);
+							lineData.clear();
+						}
+					}
+					if (!lineData.isEmpty()) {
+						logger.warn("Expected {} data fields, but found {} at the end of the loop of category {}", loopFields.size(), lineData.size(), category);
+					}
+				}
+				resetBuffers(loopFields, lineData, loopWarnings);
+				category = null;
+
+			} else if (token == MMcifLexer.DATA) {
+				// beginning of new section (data block in CIF parlance)
+				flush(category, loopFields, lineData, loopWarnings);
+				category = null;
+				token = lexer.next();
+
+			} else {
+				logger.warn("Found value {} outside of a loop and without a data name, ignoring it", lexer.getString());
+				token = lexer.next();
+			}
+		}
+
+		flush(category, loopFields, lineData, loopWarnings);
+
+		if (struct != null){
+			triggerStructData(struct);
+		}
+
+		triggerDocumentEnd();
+
+	}
+
+	/**
+	 * Passes the rows of an _atom_site loop to the consumers, as ranges of the buffer of the lexer.
+	 *
+	 * @return the first token after the loop
+	 */
+	private int parseAtomSites(MMcifLexer lexer, int token, List<String> loopFields, Set<String> loopWarnings) {
+		if (atomSiteRow == null || !atomSiteRow.matches(loopFields)) {
+			atomSiteRow = new AtomSiteRow(loopFields);
+		}
+		int n = loopFields.size();
+		int[] starts = new int[n];
+		int[] ends = new int[n];
+		boolean[] textFields = new boolean[n];
+		atomSiteRow.setValues(lexer.getBuffer(), starts, ends, textFields);
+		IntFunction<String> values = atomSiteRow::getValue;
+
+		int column = 0;
+		while (token == MMcifLexer.VALUE) {
+			starts[column] = lexer.getStart();
+			ends[column] = lexer.getEnd();
+			textFields[column] = lexer.isTextField();
+			token = lexer.next();
+			if (++column == n) {
+				warnUnbound(atomSiteRow.getBinding(), loopFields, values, loopWarnings);
+				triggerNewAtomSite(atomSiteRow);
+				column = 0;
+			}
+		}
+		if (column > 0) {
+			logger.warn("Expected {} data fields, but found {} at the end of the loop of category _atom_site", n, column);
+		}
+		return token;
+	}
+
+	/**
+	 * Builds the pending category of data names and values outside of a loop, if any.
+	 */
+	private void flush(String category, List<String> loopFields, List<String> lineData, Set<String> loopWarnings) throws IOException {
+		if (category != null && !lineData.isEmpty()) {
+			endLineChecks(category, loopFields, lineData, loopWarnings);
+		}
+		resetBuffers(loopFields, lineData, loopWarnings);
+	}
+
 	private void resetBuffers(List<String> loopFields, List<String> lineData, Set<String> loopWarnings) {
 		loopFields.clear();
 		lineData.clear();
@@ -618,247 +781,250 @@ public class SimpleMMcifParser implements MMcifParser {
 
 		if ( category.equals("_entity")){
 
-			Entity e =  (Entity) buildObject(
-					Entity.class.getName(),
+			Entity e =  buildObject(
+					Entity.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewEntity(e);
 
 		} else if (category.equals("_entity_poly")) {
-			EntityPoly ep = (EntityPoly) buildObject(EntityPoly.class.getName(), loopFields, lineData, loopWarnings);
+			EntityPoly ep = buildObject(EntityPoly.class, loopFields, lineData, loopWarnings);
 			triggerNewEntityPoly(ep);
 			
 		} else if ( category.equals("_struct")){
 
-			struct =  (Struct) buildObject(
-					Struct.class.getName(),
+			struct =  buildObject(
+					Struct.class,
 					loopFields, lineData, loopWarnings);
 
 		} else if ( category.equals("_atom_site")){
 
-			AtomSite a = (AtomSite) buildObject(
-					AtomSite.class.getName(),
-					loopFields, lineData, loopWarnings);
-			triggerNewAtomSite(a);
+			// the atom rows are passed on without building AtomSite beans
+			if (atomSiteRow == null || !atomSiteRow.matches(loopFields)) {
+				atomSiteRow = new AtomSiteRow(loopFields);
+			}
+			warnUnbound(atomSiteRow.getBinding(), loopFields, lineData::get, loopWarnings);
+			atomSiteRow.setValues(lineData);
+			triggerNewAtomSite(atomSiteRow);
 
 		} else if ( category.equals("_database_PDB_rev")){
-			DatabasePDBrev dbrev = (DatabasePDBrev) buildObject(
-					DatabasePDBrev.class.getName(),
+			DatabasePDBrev dbrev = buildObject(
+					DatabasePDBrev.class,
 					loopFields, lineData, loopWarnings);
 
 			triggerNewDatabasePDBrev(dbrev);
 
 		} else if ( category.equals("_database_PDB_rev_record")) {
-			DatabasePdbrevRecord dbrev = (DatabasePdbrevRecord) buildObject(
-					DatabasePdbrevRecord.class.getName(),
+			DatabasePdbrevRecord dbrev = buildObject(
+					DatabasePdbrevRecord.class,
 					loopFields, lineData, loopWarnings);
 
 			triggerNewDatabasePDBrevRecord(dbrev);
 			
     // MMCIF version 5 dates  
 		} else if ( category.equals("_pdbx_audit_revision_history")) {
-			PdbxAuditRevisionHistory history = (PdbxAuditRevisionHistory) buildObject(
-					PdbxAuditRevisionHistory.class.getName(),
+			PdbxAuditRevisionHistory history = buildObject(
+					PdbxAuditRevisionHistory.class,
 					loopFields, lineData, loopWarnings);
 
 			triggerNewPdbxAuditRevisionHistory(history);
     
     // MMCIF version 5 dates
 		} else if ( category.equals("_pdbx_database_status")) {
-			PdbxDatabaseStatus status = (PdbxDatabaseStatus) buildObject(
-					PdbxDatabaseStatus.class.getName(),
+			PdbxDatabaseStatus status = buildObject(
+					PdbxDatabaseStatus.class,
 					loopFields, lineData, loopWarnings);
 
 			triggerNewPdbxDatabaseStatus(status);
 
 		}else if (  category.equals("_database_PDB_remark")) {
-			DatabasePDBremark remark = (DatabasePDBremark) buildObject(
-					DatabasePDBremark.class.getName(),
+			DatabasePDBremark remark = buildObject(
+					DatabasePDBremark.class,
 					loopFields, lineData, loopWarnings);
 
 			triggerNewDatabasePDBremark(remark);
 
 		} else if ( category.equals("_exptl")){
-			Exptl exptl  = (Exptl) buildObject(
-					Exptl.class.getName(),
+			Exptl exptl  = buildObject(
+					Exptl.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerExptl(exptl);
 
 		} else if ( category.equals("_cell")){
-			Cell cell  = (Cell) buildObject(
-					Cell.class.getName(),
+			Cell cell  = buildObject(
+					Cell.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewCell(cell);
 
 		} else if ( category.equals("_symmetry")){
-			Symmetry symmetry  = (Symmetry) buildObject(
-					Symmetry.class.getName(),
+			Symmetry symmetry  = buildObject(
+					Symmetry.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewSymmetry(symmetry);
 		} else if ( category.equals("_struct_ncs_oper")) {
 
-			StructNcsOper sNcsOper = (StructNcsOper) buildObject(
-					StructNcsOper.class.getName(), 
+			StructNcsOper sNcsOper = buildObject(
+					StructNcsOper.class, 
 					loopFields, lineData, loopWarnings);
 			triggerNewStructNcsOper(sNcsOper);
 		} else if ( category.equals("_atom_sites")) {
 			
-			AtomSites atomSites = (AtomSites) buildObject(
-					AtomSites.class.getName(),
+			AtomSites atomSites = buildObject(
+					AtomSites.class,
 					loopFields, lineData, loopWarnings);
 			triggerNewAtomSites(atomSites);
 
 		} else if ( category.equals("_struct_ref")){
-			StructRef sref  = (StructRef) buildObject(
-					StructRef.class.getName(),
+			StructRef sref  = buildObject(
+					StructRef.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewStrucRef(sref);
 
 		} else if ( category.equals("_struct_ref_seq")){
-			StructRefSeq sref  = (StructRefSeq) buildObject(
-					StructRefSeq.class.getName(),
+			StructRefSeq sref  = buildObject(
+					StructRefSeq.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewStrucRefSeq(sref);
 		} else if ( category.equals("_struct_ref_seq_dif")) {
-			StructRefSeqDif sref = (StructRefSeqDif) buildObject(
-					StructRefSeqDif.class.getName(),
+			StructRefSeqDif sref = buildObject(
+					StructRefSeqDif.class,
 					loopFields, lineData, loopWarnings);
 
 			triggerNewStrucRefSeqDif(sref);
 		} else if ( category.equals("_struct_site_gen")) {
-			StructSiteGen sref = (StructSiteGen) buildObject(
-					StructSiteGen.class.getName(),
+			StructSiteGen sref = buildObject(
+					StructSiteGen.class,
 					loopFields, lineData, loopWarnings);
 
 			triggerNewStructSiteGen(sref);
 		} else if ( category.equals("_struct_site")) {
-			StructSite sref = (StructSite) buildObject(
-					StructSite.class.getName(),
+			StructSite sref = buildObject(
+					StructSite.class,
 					loopFields, lineData, loopWarnings);
 			triggerNewStructSite(sref);
 		} else if ( category.equals("_entity_poly_seq")){
-			EntityPolySeq exptl  = (EntityPolySeq) buildObject(
-					EntityPolySeq.class.getName(),
+			EntityPolySeq exptl  = buildObject(
+					EntityPolySeq.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewEntityPolySeq(exptl);
 		} else if ( category.equals("_entity_src_gen")){
-			EntitySrcGen entitySrcGen = (EntitySrcGen) buildObject(
-					EntitySrcGen.class.getName(),
+			EntitySrcGen entitySrcGen = buildObject(
+					EntitySrcGen.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewEntitySrcGen(entitySrcGen);
 		} else if ( category.equals("_entity_src_nat")){
-			EntitySrcNat entitySrcNat = (EntitySrcNat) buildObject(
-					EntitySrcNat.class.getName(),
+			EntitySrcNat entitySrcNat = buildObject(
+					EntitySrcNat.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewEntitySrcNat(entitySrcNat);
 		} else if ( category.equals("_pdbx_entity_src_syn")){
-			EntitySrcSyn entitySrcSyn = (EntitySrcSyn) buildObject(
-					EntitySrcSyn.class.getName(),
+			EntitySrcSyn entitySrcSyn = buildObject(
+					EntitySrcSyn.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewEntitySrcSyn(entitySrcSyn);
 		} else if ( category.equals("_struct_asym")){
-			StructAsym sasym  = (StructAsym) buildObject(
-					StructAsym.class.getName(),
+			StructAsym sasym  = buildObject(
+					StructAsym.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewStructAsym(sasym);
 
 		} else if ( category.equals("_pdbx_poly_seq_scheme")){
-			PdbxPolySeqScheme ppss  = (PdbxPolySeqScheme) buildObject(
-					PdbxPolySeqScheme.class.getName(),
+			PdbxPolySeqScheme ppss  = buildObject(
+					PdbxPolySeqScheme.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewPdbxPolySeqScheme(ppss);
 
 		} else if ( category.equals("_pdbx_nonpoly_scheme")){
-			PdbxNonPolyScheme ppss  = (PdbxNonPolyScheme) buildObject(
-					PdbxNonPolyScheme.class.getName(),
+			PdbxNonPolyScheme ppss  = buildObject(
+					PdbxNonPolyScheme.class,
 					loopFields,lineData, loopWarnings);
 
 			triggerNewPdbxNonPolyScheme(ppss);
 
 		} else if ( category.equals("_pdbx_entity_nonpoly")){
-			PdbxEntityNonPoly pen = (PdbxEntityNonPoly) buildObject(
-					PdbxEntityNonPoly.class.getName(),
+			PdbxEntityNonPoly pen = buildObject(
+					PdbxEntityNonPoly.class,
 					loopFields,lineData, loopWarnings
 					);
 			triggerNewPdbxEntityNonPoly(pen);
 		} else if ( category.equals("_struct_keywords")){
-			StructKeywords kw = (StructKeywords)buildObject(
-					StructKeywords.class.getName(),
+			StructKeywords kw = buildObject(
+					StructKeywords.class,
 					loopFields,lineData, loopWarnings
 					);
 			triggerNewStructKeywords(kw);
 		} else if (category.equals("_refine")){
-			Refine r = (Refine)buildObject(
-					Refine.class.getName(),
+			Refine r = buildObject(
+					Refine.class,
 					loopFields,lineData, loopWarnings
 					);
 			triggerNewRefine(r);
 		} else if (category.equals("_chem_comp")){
-			ChemComp c = (ChemComp)buildObject(
-					ChemComp.class.getName(),
+			ChemComp c = buildObject(
+					ChemComp.class,
 					loopFields, lineData, loopWarnings
 					);
 			triggerNewChemComp(c);
 		} else if (category.equals("_audit_author")) {
-			AuditAuthor aa = (AuditAuthor)buildObject(
-					AuditAuthor.class.getName(),
+			AuditAuthor aa = buildObject(
+					AuditAuthor.class,
 					loopFields, lineData, loopWarnings);
 			triggerNewAuditAuthor(aa);
 		} else if (category.equals("_pdbx_chem_comp_descriptor")) {
-			ChemCompDescriptor ccd = (ChemCompDescriptor) buildObject(
-					ChemCompDescriptor.class.getName(),
+			ChemCompDescriptor ccd = buildObject(
+					ChemCompDescriptor.class,
 					loopFields, lineData, loopWarnings);
 			triggerNewChemCompDescriptor(ccd);
 		} else if (category.equals("_pdbx_struct_oper_list")) {
 
-			PdbxStructOperList structOper = (PdbxStructOperList) buildObject(
-					PdbxStructOperList.class.getName(),
+			PdbxStructOperList structOper = buildObject(
+					PdbxStructOperList.class,
 					loopFields, lineData, loopWarnings
 					);
 			triggerNewPdbxStructOper(structOper);
 
 		} else if (category.equals("_pdbx_struct_assembly")) {
-			PdbxStructAssembly sa = (PdbxStructAssembly) buildObject(
-					PdbxStructAssembly.class.getName(),
+			PdbxStructAssembly sa = buildObject(
+					PdbxStructAssembly.class,
 					loopFields, lineData, loopWarnings);
 			triggerNewPdbxStructAssembly(sa);
 
 		} else if (category.equals("_pdbx_struct_assembly_gen")) {
-			PdbxStructAssemblyGen sa = (PdbxStructAssemblyGen) buildObject(
-					PdbxStructAssemblyGen.class.getName(),
+			PdbxStructAssemblyGen sa = buildObject(
+					PdbxStructAssemblyGen.class,
 					loopFields, lineData, loopWarnings);
 			triggerNewPdbxStructAssemblyGen(sa);
 		} else if ( category.equals("_chem_comp_atom")){
-			ChemCompAtom atom = (ChemCompAtom)buildObject(
-					ChemCompAtom.class.getName(),
+			ChemCompAtom atom = buildObject(
+					ChemCompAtom.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewChemCompAtom(atom);
 
 		}else if ( category.equals("_chem_comp_bond")){
-			ChemCompBond bond = (ChemCompBond)buildObject(
-					ChemCompBond.class.getName(),
+			ChemCompBond bond = buildObject(
+					ChemCompBond.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewChemCompBond(bond);
 		} else if ( category.equals("_pdbx_chem_comp_identifier")){
-			PdbxChemCompIdentifier id = (PdbxChemCompIdentifier)buildObject(
-					PdbxChemCompIdentifier.class.getName(),
+			PdbxChemCompIdentifier id = buildObject(
+					PdbxChemCompIdentifier.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewPdbxChemCompIdentifier(id);
 		} else if ( category.equals("_pdbx_chem_comp_descriptor")){
-			PdbxChemCompDescriptor id = (PdbxChemCompDescriptor)buildObject(
-					PdbxChemCompDescriptor.class.getName(),
+			PdbxChemCompDescriptor id = buildObject(
+					PdbxChemCompDescriptor.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewPdbxChemCompDescriptor(id);
 		} else if ( category.equals("_struct_conn")){
-			StructConn id = (StructConn)buildObject(
-					StructConn.class.getName(),
+			StructConn id = buildObject(
+					StructConn.class,
 					loopFields,lineData, loopWarnings);
 			triggerNewStructConn(id);
 
@@ -936,110 +1102,39 @@ public class SimpleMMcifParser implements MMcifParser {
 	/**
 	 * Populates a bean object from  the {@link org.biojava.nbio.structure.io.mmcif.model} package, 
 	 * from the data read from a CIF file.
-	 * It uses reflection to lookup the field and setter method names given the category 
-	 * found in the CIF file. 
+	 * The columns are bound to the setters of the class once per loop header, see {@link CategoryBinder}.
 	 * <p>
 	 * Due to limitations in variable names in java, not all fields can have names 
 	 * exactly as defined in the CIF categories. In those cases the {@link CIFLabel} tag
 	 * can be used in the field names to give the appropriate name that corresponds to the
 	 * CIF category, which is the name that will be then looked up here.
 	 * The {@link IgnoreField} tag can also be used to exclude fields from being looked up.
-	 * @param className
-	 * @param loopFields
-	 * @param lineData
-	 * @param warnings
-	 * @return
+	 * @param c the class of the bean
+	 * @param loopFields the column names of the category
+	 * @param lineData the values of one row
+	 * @param warnings the warnings already produced, so that repeats are only logged at debug level
+	 * @return the populated bean
 	 */
-	private Object buildObject(String className, List<String> loopFields, List<String> lineData, Set<String> warnings) {
-
-		Object o = null;
-		Class<?> c = null;
-
-		try {
-			// build up the Entity object from the line data...
-			c = Class.forName(className);
-
-			o = c.newInstance();
-
-		} catch (InstantiationException|ClassNotFoundException|IllegalAccessException e){
-			logger.error( "Error while constructing {}: {}", className, e.getMessage());
-			return null;
-		} 
+	private <T> T buildObject(Class<T> c, List<String> loopFields, List<String> lineData, Set<String> warnings) {
 
-		// these methods get the fields but also looking at the IgnoreField and CIFLabel annotations 
-		Field[] fields = MMCIFFileTools.getFields(c);
-		String[] names = MMCIFFileTools.getFieldNames(fields);
-
-		// let's build a map of all methods so that we can look up the setter methods later
-		Method[] methods = c.getMethods();
-
-		Map<String,Method> methodMap = new HashMap<String, Method>();
-		for (Method m : methods) {
-			methodMap.put(m.getName(),m);
-		}
-
-		// and a map of all the fields so that we can lookup them up later
-		Map<String, Field> names2fields = new HashMap<>();
-		for (int i=0;i<fields.length;i++) {
-			names2fields.put(names[i], fields[i]);
+		@SuppressWarnings("unchecked")
+		CategoryBinder.Binding<T> b = (CategoryBinder.Binding<T>) binding;
+		if (b == null || !b.matches(c, loopFields)) {
+			b = CategoryBinder.of(c).bind(loopFields);
+			binding = b;
 		}
-		
-		int pos = -1 ;
-		for (String key: loopFields){
-			pos++;
-
-			String val = lineData.get(pos);
-			
-			// we first start looking up the field which can be annotated with a CIFLabel if they 
-			// need alternative names (e.g. for field _symmetry.space_group_name_H-M, since hyphen is not allowed in var names in java)
-			Field field = names2fields.get(key);
-			
-			if (field == null) {
-				produceWarning(key, val, c, warnings);
-				continue;
-			}
-			// now we need to find the corresponding setter
-			// note that we can't use the field directly and then call Field.set() because many setters 
-			// have more functionality than just setting the value (e.g. some setters in ChemComp)
-
-			// building up the setter method name: need to upper case the first letter, leave the rest untouched
-			String setterMethodName = "set" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1, field.getName().length());
+		warnUnbound(b, loopFields, lineData::get, warnings);
+		return b.build(lineData);
+	}
 
-			Method setter = methodMap.get(setterMethodName);
-			
-			if (setter==null) {
-				produceWarning(key, val, c, warnings);
-				continue;
+	private void warnUnbound(CategoryBinder.Binding<?> b, List<String> loopFields, IntFunction<String> lineData, Set<String> warnings) {
+		for (int i = 0; i < loopFields.size(); i++) {
+			if (!b.isBound(i)) {
+				produceWarning(loopFields.get(i), lineData.apply(i), b.getBinder().getType(), warnings);
 			}
-			
-			
-
-			// now we populate the object with the values by invoking the corresponding setter method,			
-			// note that all of the mmCif container classes have only one argument (they are beans)
-			Class<?>[] pType  = setter.getParameterTypes();
-			
-
-			try {
-				if ( pType[0].getName().equals(Integer.class.getName())) {
-					if ( val != null && ! val.equals("?") && !val.equals(".")) {
-
-						Integer intVal = Integer.parseInt(val);
-						setter.invoke(o, intVal);
-						
-					}
-				} else {
-					// default val is a String					
-					setter.invoke(o, val);
-				}
-			} catch (IllegalAccessException|InvocationTargetException e) {
-				logger.error("Could not invoke setter {} with value {} for class {}", setterMethodName, val, className);
-			} 
-
 		}
-
-		return o;
 	}
-	
+
 	private void produceWarning(String key, String val, Class<?> c, Set<String> warnings) {
 
 		String warning = "Trying to set field " + key + " in "+ c.getName() +" found in file, but no corresponding field could be found in model class (value:" + val + ")";
@@ -1113,7 +1208,7 @@ public class SimpleMMcifParser implements MMcifParser {
 		}
 	}
 
-	private void triggerNewAtomSite(AtomSite atom){
+	private void triggerNewAtomSite(AtomSiteRow atom){
 		for(MMcifConsumer c : consumers){
 			c.newAtomSite(atom);
 		}
@@ -0,0 +1,276 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.io.MMCIFFileReader;
+import org.biojava.nbio.structure.io.mmcif.ChemCompGroupFactory;
+import org.biojava.nbio.structure.io.mmcif.ChemCompProvider;
+import org.biojava.nbio.structure.io.mmcif.ColumnarStructureConsumer;
+import org.biojava.nbio.structure.io.mmcif.ReducedChemCompProvider;
+import org.biojava.nbio.structure.io.mmcif.SimpleMMcifParser;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test that the views of a {@link ColumnarStructure} match the structure it was made of.
+ *
+ */
+public class TestColumnarStructure {
+
+	private static ChemCompProvider provider;
+	private static Structure structure;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		try (InputStream input = new GZIPInputStream(TestColumnarStructure.class.getResourceAsStream("/4hhb.cif.gz"))) {
+			structure = new MMCIFFileReader().getStructure(input);
+		}
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		ChemCompGroupFactory.setChemCompProvider(provider);
+	}
+
+	@Test
+	public void testColumns() {
+		ColumnarStructure columns = ColumnarStructure.of(structure);
+		assertEquals("4HHB", columns.getPDBCode());
+		assertEquals(structure.nrModels(), columns.getModelCount());
+
+		int chain = 0;
+		int group = 0;
+		int atom = 0;
+		for (int m = 0; m < structure.nrModels(); m++) {
+			assertEquals(chain, columns.getChainStart(m));
+			for (Chain c : structure.getModel(m)) {
+				Chain view = columns.getChain(chain);
+				assertEquals(c.getId(), view.getId());
+				assertEquals(c.getName(), view.getName());
+				assertEquals(c.getEntityType(), view.getEntityType());
+				assertEquals(c.getAtomLength(), view.getAtomLength());
+				assertEquals(m, columns.getModelIndex(chain));
+				for (Group g : c.getAtomGroups()) {
+					Group groupView = columns.getGroup(group);
+					assertEquals(g.getPDBName(), groupView.getPDBName());
+					assertEquals(g.getResidueNumber(), groupView.getResidueNumber());
+					assertEquals(g.getType(), groupView.getType());
+					assertEquals(g.isHetAtomInFile(), groupView.isHetAtomInFile());
+					assertEquals(g.size(), groupView.size());
+					assertEquals(chain, columns.getChainIndex(group));
+					assertEquals(view, groupView.getChain());
+					for (Atom a : g.getAtoms()) {
+						Atom atomView = columns.getAtom(atom);
+						assertEquals(a.getName(), columns.getAtomName(atom));
+						assertEquals(a.getElement(), columns.getElement(atom));
+						assertEquals(a.getX(), columns.getX(atom), 1e-4);
+						assertEquals(a.getY(), columns.getY(atom), 1e-4);
+						assertEquals(a.getZ(), columns.getZ(atom), 1e-4);
+						assertEquals(a.getOccupancy(), columns.getOccupancy(atom), 0);
+						assertEquals(a.getTempFactor(), columns.getTempFactor(atom), 0);
+						assertEquals(a.getPDBserial(), atomView.getPDBserial());
+						assertEquals(a.getAltLoc(), atomView.getAltLoc());
+						assertEquals(a.toPDB(), atomView.toPDB());
+						assertEquals(group, columns.getGroupIndex(atom));
+						assertEquals(groupView, atomView.getGroup());
+						atom++;
+					}
+					group++;
+				}
+				chain++;
+			}
+		}
+		assertEquals(atom, columns.getAtomCount());
+		assertEquals(group, columns.getGroupCount());
+		assertEquals(chain, columns.getChainCount());
+	}
+
+	@Test
+	public void testConsumer() throws IOException {
+		try (InputStream input = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+			assertSameColumns(ColumnarStructure.of(structure), parseColumns(input));
+		}
+	}
+
+	@Test
+	public void testConsumerAltLocs() throws IOException {
+		String cif = "data_TEST\n"
+				+ "_entity.id 1\n_entity.type polymer\n_entity.pdbx_description TEST\n"
+				+ "_struct_asym.id A\n_struct_asym.entity_id 1\n"
+				+ "loop_\n"
+				+ "_atom_site.group_PDB\n_atom_site.id\n_atom_site.type_symbol\n_atom_site.label_atom_id\n"
+				+ "_atom_site.label_alt_id\n_atom_site.label_comp_id\n_atom_site.label_asym_id\n"
+				+ "_atom_site.label_entity_id\n_atom_site.label_seq_id\n_atom_site.pdbx_PDB_ins_code\n"
+				+ "_atom_site.Cartn_x\n_atom_site.Cartn_y\n_atom_site.Cartn_z\n_atom_site.occupancy\n"
+				+ "_atom_site.B_iso_or_equiv\n_atom_site.auth_seq_id\n_atom_site.auth_asym_id\n"
+				+ "_atom_site.pdbx_PDB_model_num\n"
+				+ "ATOM 1 N N . SER A 1 1 ? 1.0 2.0 3.0 1.00 10.0 1 A 1\n"
+				+ "ATOM 2 C CA A SER A 1 1 ? 1.5 2.0 3.0 0.50 10.0 1 A 1\n"
+				+ "ATOM 3 C CA B SER A 1 1 ? 1.6 2.0 3.0 0.50 10.0 1 A 1\n"
+				+ "ATOM 4 O OG A SER A 1 1 ? 2.0 2.0 3.0 0.50 10.0 1 A 1\n"
+				+ "ATOM 5 O OG B SER A 1 1 ? 2.1 2.0 3.0 0.50 10.0 1 A 1\n"
+				+ "ATOM 6 C CB B SER A 1 1 ? 2.2 2.0 3.0 0.50 10.0 1 A 1\n"
+				+ "ATOM 7 N N A GLY A 1 2 ? 3.0 2.0 3.0 0.60 10.0 2 A 1\n"
+				+ "ATOM 8 C CA A GLY A 1 2 ? 3.5 2.0 3.0 0.60 10.0 2 A 1\n"
+				+ "ATOM 9 N N B ALA A 1 2 ? 3.1 2.0 3.0 0.40 10.0 2 A 1\n"
+				+ "ATOM 10 C CA B ALA A 1 2 ? 3.6 2.0 3.0 0.40 10.0 2 A 1\n"
+				+ "ATOM 11 C CB B ALA A 1 2 ? 3.7 2.0 3.0 0.40 10.0 2 A 1\n"
+				+ "ATOM 12 N N . GLY A 1 3 ? 4.0 2.0 3.0 1.00 10.0 3 A 1\n";
+		Structure s = new MMCIFFileReader().getStructure(new ByteArrayInputStream(cif.getBytes("US-ASCII")));
+		ColumnarStructure columns = parseColumns(new ByteArrayInputStream(cif.getBytes("US-ASCII")));
+		assertSameColumns(ColumnarStructure.of(s), columns);
+		assertEquals(3, columns.getGroupCount());
+		assertEquals(4, columns.getAtomStart(1));
+	}
+
+	private static ColumnarStructure parseColumns(InputStream input) throws IOException {
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		ColumnarStructureConsumer consumer = new ColumnarStructureConsumer();
+		parser.addMMcifConsumer(consumer);
+		parser.parse(input);
+		return consumer.getColumnarStructure();
+	}
+
+	private static void assertSameColumns(ColumnarStructure expected, ColumnarStructure columns) {
+		assertEquals(expected.getPDBCode(), columns.getPDBCode());
+		assertEquals(expected.getModelCount(), columns.getModelCount());
+		assertEquals(expected.getChainCount(), columns.getChainCount());
+		assertEquals(expected.getGroupCount(), columns.getGroupCount());
+		assertEquals(expected.getAtomCount(), columns.getAtomCount());
+		for (int c = 0; c < expected.getChainCount(); c++) {
+			Chain chain = expected.getChain(c);
+			Chain view = columns.getChain(c);
+			assertEquals(chain.getId(), view.getId());
+			assertEquals(chain.getName(), view.getName());
+			assertEquals(chain.getEntityType(), view.getEntityType());
+			assertEquals(expected.getGroupStart(c), columns.getGroupStart(c));
+		}
+		for (int g = 0; g < expected.getGroupCount(); g++) {
+			Group group = expected.getGroup(g);
+			Group view = columns.getGroup(g);
+			assertEquals(group.getPDBName(), view.getPDBName());
+			assertEquals(group.getResidueNumber(), view.getResidueNumber());
+			assertEquals(group.getType(), view.getType());
+			assertEquals(group.isHetAtomInFile(), view.isHetAtomInFile());
+			assertEquals(expected.getAtomStart(g), columns.getAtomStart(g));
+		}
+		for (int a = 0; a < expected.getAtomCount(); a++) {
+			assertEquals(expected.getAtom(a).toPDB(), columns.getAtom(a).toPDB());
+		}
+	}
+
+	@Test
+	public void testViews() throws StructureException {
+		ColumnarStructure columns = ColumnarStructure.of(structure);
+		Structure s = columns.getStructure();
+		assertSame(s, columns.getStructure());
+		assertEquals(structure.getPolyChains().size(), s.getPolyChains().size());
+		assertEquals(structure.getNonPolyChains().size(), s.getNonPolyChains().size());
+		assertEquals(StructureTools.getAtomCAArray(structure).length, StructureTools.getAtomCAArray(s).length);
+		assertEquals(StructureTools.getNrAtoms(structure), StructureTools.getNrAtoms(s));
+
+		Chain a = s.getPolyChainByPDB("A");
+		assertSame(s, a.getStructure());
+		assertEquals(structure.getPolyChainByPDB("A").getAtomSequence(), a.getAtomSequence());
+		assertTrue(a.isProtein());
+
+		Group his = a.getGroupByPDB(new ResidueNumber("A", 87, null));
+		assertEquals("HIS", his.getPDBName());
+		assertTrue(his.isAminoAcid());
+		assertTrue(his.hasAminoAtoms());
+		Atom ca = his.getAtom("CA");
+		assertEquals(ca, his.getAtom("CA"));
+		assertNotSame(ca, his.getAtom("CA"));
+		assertNull(his.getAtom("XX"));
+
+		// the views write to the columns
+		ca.setX(1.5);
+		ca.setTempFactor(42);
+		Atom again = columns.getStructure().getPolyChainByPDB("A").getGroupByPDB(new ResidueNumber("A", 87, null))
+				.getAtom("CA");
+		assertEquals(1.5, again.getX(), 0);
+		assertEquals(42, again.getTempFactor(), 0);
+
+		// clones are ordinary groups
+		Group clone = (Group) his.clone();
+		assertTrue(clone instanceof AminoAcidImpl);
+		assertEquals(his.size(), clone.size());
+		assertEquals(1.5, clone.getAtom("CA").getX(), 0);
+		assertSame(clone, clone.getAtom("CA").getGroup());
+
+		try {
+			his.addAtom(new AtomImpl());
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testBuilder() {
+		ColumnarStructure.Builder builder = new ColumnarStructure.Builder();
+		try {
+			builder.newGroup("ALA", 1, null, GroupType.AMINOACID, false);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		builder.newChain("A", "A", null);
+		// an empty group, whose atoms are in the next one
+		builder.newGroup("HOH", 1, null, GroupType.HETATM, true);
+		builder.newGroup("GLY", 2, 'A', GroupType.AMINOACID, false);
+		for (int i = 0; i < 100; i++) {
+			builder.addAtom("CA", Element.C, i, -i, 0.5, 1, 20, i + 1, null, (short) 0);
+		}
+		ColumnarStructure columns = builder.build();
+		assertEquals(1, columns.getModelCount());
+		assertEquals(2, columns.getGroupCount());
+		assertEquals(0, columns.getGroup(0).size());
+		assertEquals(1, columns.getGroupIndex(0));
+		assertEquals(1, columns.getGroupIndex(99));
+		assertEquals(columns.getNameCode("CA"), columns.getAtomNameCode(42));
+		assertEquals(-1, columns.getNameCode("CB"));
+		assertEquals(-42, columns.getY(42), 0);
+
+		List<Chain> chains = columns.getChains(0);
+		assertEquals(1, chains.size());
+		Group gly = chains.get(0).getAtomGroup(1);
+		assertEquals(Character.valueOf('A'), gly.getResidueNumber().getInsCode());
+		assertEquals(100, gly.getAtoms().size());
+		try {
+			columns.getAtom(100);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+}
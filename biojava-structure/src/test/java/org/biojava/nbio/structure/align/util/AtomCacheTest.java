@@ -21,22 +21,34 @@
 package org.biojava.nbio.structure.align.util;
 
 import org.biojava.nbio.structure.*;
+import org.biojava.nbio.structure.align.client.StructureName;
 import org.biojava.nbio.structure.io.LocalPDBDirectory;
 import org.biojava.nbio.structure.io.LocalPDBDirectory.FetchBehavior;
 import org.biojava.nbio.structure.io.LocalPDBDirectory.ObsoleteBehavior;
 import org.biojava.nbio.structure.io.MMCIFFileReader;
+import org.biojava.nbio.structure.io.mmcif.ChemCompGroupFactory;
+import org.biojava.nbio.structure.io.mmcif.ChemCompProvider;
+import org.biojava.nbio.structure.io.mmcif.ReducedChemCompProvider;
 import org.biojava.nbio.structure.scop.ScopDatabase;
 import org.biojava.nbio.structure.scop.ScopFactory;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Locale;
 
 import static org.junit.Assert.*;
@@ -49,6 +61,9 @@ import static org.junit.Assert.*;
  */
 public class AtomCacheTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	private AtomCache cache;
 	private String previousPDB_DIR;
 
@@ -325,4 +340,100 @@ public class AtomCacheTest {
 
 	}
 	
+
+	/**
+	 * Tests {@link AtomCache#getStructures(java.util.Collection, java.util.function.Consumer)} with a local file only.
+	 */
+	@Test
+	public void testGetStructures() throws Exception {
+		File split = new File(folder.getRoot(), "data/structures/divided/mmCIF/hh");
+		assertTrue(split.mkdirs());
+		try (InputStream input = getClass().getResourceAsStream("/4hhb.cif.gz")) {
+			Files.copy(input, new File(split, "4hhb.cif.gz").toPath());
+		}
+		ChemCompProvider provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		try {
+			AtomCache local = new AtomCache(folder.getRoot().getPath());
+			local.setUseMmCif(true);
+			local.setFetchBehavior(FetchBehavior.LOCAL_ONLY);
+			StructureCache structureCache = new StructureCache(10);
+			local.setStructureCache(structureCache);
+
+			List<StructureIdentifier> ids = Arrays.<StructureIdentifier>asList(new StructureName("4hhb.A"),
+					new StructureName("4HHB.B"), new StructureName("4hhb"), new StructureName("9xyz.A"));
+			List<StructureLoadResult> results = new ArrayList<>();
+			local.getStructures(ids, results::add);
+
+			assertEquals(4, results.size());
+			Map<String, StructureLoadResult> byId = new HashMap<>();
+			for (StructureLoadResult result : results) {
+				byId.put(result.getIdentifier().getIdentifier(), result);
+			}
+			Structure a = byId.get("4hhb.A").getStructure();
+			Structure b = byId.get("4HHB.B").getStructure();
+			Structure whole = byId.get("4hhb").getStructure();
+			assertEquals(1, a.getPolyChains().size());
+			assertEquals("A", a.getPolyChains().get(0).getName());
+			assertEquals("B", b.getPolyChains().get(0).getName());
+			assertEquals(4, whole.getPolyChains().size());
+			assertSame(ids.get(0), a.getStructureIdentifier());
+
+			StructureLoadResult missing = byId.get("9xyz.A");
+			assertFalse(missing.isSuccess());
+			assertNull(missing.getStructure());
+			assertNotNull(missing.getException());
+
+			// one parse for the three identifiers of 4hhb
+			assertEquals(1, structureCache.getStats().getLoadSuccessCount());
+		} finally {
+			ChemCompGroupFactory.setChemCompProvider(provider);
+		}
+	}
+
+	@Test
+	public void testSharedCacheNotReduced() throws Exception {
+		File split = new File(folder.getRoot(), "data/structures/divided/mmCIF/hh");
+		assertTrue(split.mkdirs());
+		try (InputStream input = getClass().getResourceAsStream("/4hhb.cif.gz")) {
+			Files.copy(input, new File(split, "4hhb.cif.gz").toPath());
+		}
+		ChemCompProvider provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		try {
+			AtomCache local = new AtomCache(folder.getRoot().getPath());
+			local.setUseMmCif(true);
+			local.setFetchBehavior(FetchBehavior.LOCAL_ONLY);
+			StructureCache structureCache = new StructureCache(10);
+			structureCache.setCopyOnRead(false);
+			local.setStructureCache(structureCache);
+
+			Structure cached = local.getStructureForPdbId("4hhb");
+			String description = cached.getPDBHeader().getDescription();
+			Chain chainA = cached.getPolyChain("A");
+			for (int i = 0; i < 2; i++) {
+				Structure a = local.getStructure("4hhb.A");
+				assertEquals(1, a.getPolyChains().size());
+				assertNotSame(cached, a);
+			}
+			List<StructureLoadResult> results = new ArrayList<>();
+			local.getStructures(Arrays.<StructureIdentifier>asList(new StructureName("4hhb.B"),
+					new StructureName("4hhb.A")), results::add);
+			assertEquals(2, results.size());
+			for (StructureLoadResult result : results) {
+				assertEquals(1, result.getStructure().getPolyChains().size());
+				assertNotSame(cached, result.getStructure());
+			}
+
+			assertSame(cached, local.getStructureForPdbId("4hhb"));
+			assertEquals(description, cached.getPDBHeader().getDescription());
+			assertEquals(4, cached.getPolyChains().size());
+			assertSame(cached, chainA.getStructure());
+			for (Group g : chainA.getAtomGroups()) {
+				assertSame(chainA, g.getChain());
+			}
+		} finally {
+			ChemCompGroupFactory.setChemCompProvider(provider);
+		}
+	}
 }
@@ -0,0 +1,192 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureImpl;
+import org.biojava.nbio.structure.io.LocalPDBDirectory.FetchBehavior;
+import org.biojava.nbio.structure.io.mmcif.ChemCompGroupFactory;
+import org.biojava.nbio.structure.io.mmcif.ChemCompProvider;
+import org.biojava.nbio.structure.io.mmcif.ReducedChemCompProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StructureCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Structure structure(String pdbId) {
+		Structure s = new StructureImpl();
+		s.setPDBCode(pdbId);
+		return s;
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		StructureCache cache = new StructureCache(2);
+		AtomicInteger loads = new AtomicInteger();
+		for (String id : new String[] { "1aaa", "2bbb", "1aaa", "3ccc", "1aaa", "2bbb" }) {
+			Structure s = cache.get(id, () -> {
+				loads.incrementAndGet();
+				return structure(id);
+			});
+			assertEquals(id, s.getPDBCode());
+		}
+		// 2bbb was the least recently used when 3ccc came in
+		assertEquals(4, loads.get());
+		assertEquals(2, cache.size());
+		assertNull(cache.getIfPresent("3ccc"));
+		assertNotNull(cache.getIfPresent("1aaa"));
+
+		StructureCache.Stats stats = cache.getStats();
+		assertEquals(2, stats.getHitCount());
+		assertEquals(4, stats.getMissCount());
+		assertEquals(4, stats.getLoadSuccessCount());
+		assertEquals(2, stats.getEvictionCount());
+		assertEquals(2.0 / 6, stats.getHitRate(), 1e-9);
+
+		// copies unless turned off
+		assertNotSame(cache.getIfPresent("1aaa"), cache.getIfPresent("1aaa"));
+		cache.setCopyOnRead(false);
+		assertSame(cache.getIfPresent("1aaa"), cache.getIfPresent("1aaa"));
+
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void testWeight() throws Exception {
+		StructureCache cache = new StructureCache(10, s -> Long.parseLong(s.getPDBCode().substring(0, 1)));
+		cache.get("4aaa", () -> structure("4aaa"));
+		cache.get("5bbb", () -> structure("5bbb"));
+		assertEquals(9, cache.getWeight());
+		cache.get("2ccc", () -> structure("2ccc"));
+		assertEquals(7, cache.getWeight());
+		assertNull(cache.getIfPresent("4aaa"));
+		// evicts as many structures as needed
+		cache.get("9ddd", () -> structure("9ddd"));
+		assertEquals(1, cache.size());
+		assertEquals(9, cache.getWeight());
+		assertEquals(3, cache.getStats().getEvictionCount());
+	}
+
+	@Test
+	public void testSingleFlight() throws Exception {
+		StructureCache cache = new StructureCache(10);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Structure>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(() -> cache.get("1abc", () -> {
+					loads.incrementAndGet();
+					started.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+					return structure("1abc");
+				})));
+			}
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<Structure> future : futures) {
+				assertEquals("1abc", future.get(10, TimeUnit.SECONDS).getPDBCode());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getStats().getLoadSuccessCount());
+		assertEquals(8, cache.getStats().getRequestCount());
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		StructureCache cache = new StructureCache(10);
+		try {
+			cache.get("1abc", () -> {
+				throw new IOException("no file");
+			});
+			fail();
+		} catch (IOException e) {
+			assertEquals("no file", e.getMessage());
+		}
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getStats().getLoadFailureCount());
+		assertEquals("1abc", cache.get("1abc", () -> structure("1abc")).getPDBCode());
+	}
+
+	@Test
+	public void testAtomCache() throws Exception {
+		File split = new File(folder.getRoot(), "data/structures/divided/mmCIF/hh");
+		assertTrue(split.mkdirs());
+		try (InputStream input = getClass().getResourceAsStream("/4hhb.cif.gz")) {
+			Files.copy(input, new File(split, "4hhb.cif.gz").toPath());
+		}
+		ChemCompProvider provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		try {
+			AtomCache atomCache = new AtomCache(folder.getRoot().getPath());
+			atomCache.setUseMmCif(true);
+			atomCache.setFetchBehavior(FetchBehavior.LOCAL_ONLY);
+			StructureCache cache = new StructureCache(10);
+			atomCache.setStructureCache(cache);
+
+			Structure first = atomCache.getStructureForPdbId("4HHB");
+			Structure second = atomCache.getStructureForPdbId("4hhb");
+			assertNotSame(first, second);
+			assertEquals(first.getChains().size(), second.getChains().size());
+			assertEquals(1, cache.getStats().getLoadSuccessCount());
+			assertEquals(1, cache.getStats().getHitCount());
+
+			// other parsing parameters are another structure
+			atomCache.getFileParsingParams().setParseCAOnly(true);
+			atomCache.getStructureForPdbId("4hhb");
+			assertEquals(2, cache.getStats().getLoadSuccessCount());
+			assertEquals(2, cache.size());
+		} finally {
+			ChemCompGroupFactory.setChemCompProvider(provider);
+		}
+	}
+}
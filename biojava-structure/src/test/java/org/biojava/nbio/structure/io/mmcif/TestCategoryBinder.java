@@ -0,0 +1,135 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.mmcif.model.AtomSite;
+import org.biojava.nbio.structure.io.mmcif.model.StructRefSeqDif;
+import org.junit.Test;
+
+/**
+ * Test the binding of mmCIF categories to their beans.
+ *
+ */
+public class TestCategoryBinder {
+
+	@Test
+	public void testBinding() {
+		List<String> fields = Arrays.asList("align_id", "seq_num", "unknown_field", "mon_id");
+		CategoryBinder.Binding<StructRefSeqDif> binding = CategoryBinder.of(StructRefSeqDif.class).bind(fields);
+		assertSame(CategoryBinder.of(StructRefSeqDif.class), binding.getBinder());
+		assertTrue(binding.matches(StructRefSeqDif.class, new ArrayList<>(fields)));
+		assertFalse(binding.matches(StructRefSeqDif.class, fields.subList(0, 3)));
+		assertFalse(binding.matches(AtomSite.class, fields));
+		assertTrue(binding.isBound(1));
+		assertFalse(binding.isBound(2));
+
+		StructRefSeqDif dif = binding.build(Arrays.asList("1", "42", "x", "ALA"));
+		assertEquals("1", dif.getAlign_id());
+		assertEquals(Integer.valueOf(42), dif.getSeq_num());
+		assertEquals("ALA", dif.getMon_id());
+
+		dif = binding.build(Arrays.asList("1", "?", "x", "."));
+		assertNull(dif.getSeq_num());
+		assertEquals(".", dif.getMon_id());
+	}
+
+	/** A bean whose setter rejects some values. */
+	public static class Picky {
+		private String name;
+		private Integer count;
+		public String getName() { return name; }
+		public void setName(String name) {
+			if (name.isEmpty()) throw new IllegalArgumentException("empty name");
+			this.name = name;
+		}
+		public Integer getCount() { return count; }
+		public void setCount(Integer count) { this.count = count; }
+	}
+
+	@Test
+	public void testSetterFailure() {
+		CategoryBinder.Binding<Picky> binding = CategoryBinder.of(Picky.class).bind(Arrays.asList("name", "count"));
+		// a failing setter is logged and the other columns are still set
+		Picky p = binding.build(Arrays.asList("", "3"));
+		assertNull(p.getName());
+		assertEquals(Integer.valueOf(3), p.getCount());
+
+		try {
+			binding.build(Arrays.asList("a", "three"));
+			fail("expected a NumberFormatException");
+		} catch (NumberFormatException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testAtomSiteRows() throws Exception {
+		final List<AtomSite> atomSites = new ArrayList<>();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer() {
+			@Override
+			public void newAtomSite(AtomSiteRow row) {
+				AtomSite atom = row.toAtomSite();
+				AtomSiteRow copy = AtomSiteRow.of(atom);
+				assertEquals(row.getLabel_atom_id(), copy.getLabel_atom_id());
+				assertEquals(row.getSerial(), copy.getSerial());
+				assertEquals(row.getX(), copy.getX(), 0);
+				assertEquals(row.getLabelSeqNum(), copy.getLabelSeqNum());
+				atomSites.add(atom);
+				super.newAtomSite(row);
+			}
+		};
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.addMMcifConsumer(consumer);
+		try (InputStream input = getClass().getResourceAsStream("/org/biojava/nbio/structure/io/mmcif/1stp_v5.cif")) {
+			parser.parse(input);
+		}
+
+		assertEquals(1001, atomSites.size());
+		AtomSite first = atomSites.get(0);
+		assertEquals("ATOM", first.getGroup_PDB());
+		assertEquals("1", first.getId());
+		assertEquals("CA", atomSites.get(1).getLabel_atom_id());
+		assertEquals("22.637", first.getCartn_x());
+		assertEquals("44.60", first.getB_iso_or_equiv());
+		assertEquals("13", first.getAuth_seq_id());
+		assertEquals("1", first.getPdbx_PDB_model_num());
+
+		Structure s = consumer.getStructure();
+		Atom[] atoms = StructureTools.getAllAtomArray(s);
+		assertEquals(1, atoms[0].getPDBserial());
+		assertEquals(22.637, atoms[0].getX(), 0.0001);
+		assertEquals(5.768, atoms[0].getY(), 0.0001);
+		assertEquals(11.762, atoms[0].getZ(), 0.0001);
+		assertEquals(1.0f, atoms[0].getOccupancy(), 0.0001f);
+		assertEquals(44.60f, atoms[0].getTempFactor(), 0.0001f);
+		assertEquals(13, atoms[0].getGroup().getResidueNumber().getSeqNum().intValue());
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.io.mmcif.model.AtomSite;
+import org.junit.Test;
+
+/**
+ * Test the tokens of {@link MMcifLexer} and the parsing of files from a ByteBuffer.
+ *
+ */
+public class TestMMcifLexer {
+
+	private static List<String> tokens(String cif) {
+		MMcifLexer lexer = new MMcifLexer(ByteBuffer.wrap(cif.getBytes(StandardCharsets.UTF_8)));
+		List<String> tokens = new ArrayList<>();
+		int token;
+		while ((token = lexer.next()) != MMcifLexer.EOF) {
+			tokens.add(token + ":" + lexer.getString());
+		}
+		return tokens;
+	}
+
+	@Test
+	public void testTokens() {
+		assertEquals(Arrays.asList("1:data_1STP", "3:_struct.title", "4:STREPTAVIDIN 'COMPLEX'", "2:loop_",
+				"3:_a.b", "3:_a.c", "4:O5'", "4:x y", "4:?", "4:first line second line", "4:.", "4:it's"),
+				tokens("data_1STP\n# a comment\n_struct.title \"STREPTAVIDIN 'COMPLEX'\"\n#\nloop_\n_a.b\n_a.c\n"
+						+ "O5' ' x y '\n? \n;first line \r\nsecond line\n;\n. 'it's'"));
+		assertEquals(Arrays.asList("1:data_x", "4:unterminated quote"), tokens("data_x\n'unterminated quote\n"));
+	}
+
+	@Test
+	public void testNumbers() {
+		Random random = new Random(42);
+		for (int i = 0; i < 10000; i++) {
+			String s = String.format("%." + random.nextInt(6) + "f", (random.nextDouble() - 0.5) * 2000);
+			ByteBuffer bytes = ByteBuffer.wrap(s.getBytes(StandardCharsets.US_ASCII));
+			assertEquals(s, Double.parseDouble(s), MMcifLexer.parseDouble(bytes, 0, s.length()), 0);
+			assertEquals(s, Float.parseFloat(s), MMcifLexer.parseFloat(bytes, 0, s.length()), 0);
+		}
+		ByteBuffer bytes = ByteBuffer.wrap("x-42 1.5e3 12345678901234567".getBytes(StandardCharsets.US_ASCII));
+		assertEquals(-42, MMcifLexer.parseInt(bytes, 1, 4));
+		assertEquals(1500.0, MMcifLexer.parseDouble(bytes, 5, 10), 0);
+		assertEquals(12345678901234567.0, MMcifLexer.parseDouble(bytes, 11, 28), 0);
+		try {
+			MMcifLexer.parseInt(bytes, 0, 4);
+			fail();
+		} catch (NumberFormatException e) {
+			// expected
+		}
+	}
+
+	// the events triggered by a parser, with the values of the beans
+	private static List<String> events(SimpleMMcifParser parser) {
+		List<String> events = new ArrayList<>();
+		MMcifConsumer consumer = (MMcifConsumer) Proxy.newProxyInstance(MMcifConsumer.class.getClassLoader(),
+				new Class<?>[] { MMcifConsumer.class }, (proxy, method, args) -> {
+					if (args != null && args.length == 1 && args[0] instanceof AtomSiteRow) {
+						args = new Object[] { ((AtomSiteRow) args[0]).toAtomSite() };
+					}
+					if (!method.getName().startsWith("get")) {
+						StringBuilder event = new StringBuilder(method.getName());
+						for (Object arg : args == null ? new Object[0] : args) {
+							event.append(' ').append(describe(arg));
+						}
+						events.add(event.toString());
+					}
+					return null;
+				});
+		parser.addMMcifConsumer(consumer);
+		return events;
+	}
+
+	// the fields of the beans, which do not all have a toString
+	private static String describe(Object o) throws IllegalAccessException {
+		if (o == null || !o.getClass().getName().startsWith(AtomSite.class.getPackage().getName())) {
+			return String.valueOf(o);
+		}
+		StringBuilder s = new StringBuilder(o.getClass().getSimpleName());
+		for (Class<?> c = o.getClass(); c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) continue;
+				field.setAccessible(true);
+				s.append(' ').append(field.getName()).append('=').append(field.get(o));
+			}
+		}
+		return s.toString();
+	}
+
+	private static byte[] read(String resource, boolean gzip) throws IOException {
+		try (InputStream input = gzip ? new GZIPInputStream(TestMMcifLexer.class.getResourceAsStream(resource))
+				: TestMMcifLexer.class.getResourceAsStream(resource)) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = input.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, n);
+			}
+			return bytes.toByteArray();
+		}
+	}
+
+	@Test
+	public void testSameEventsAsLines() throws IOException {
+		for (String resource : new String[] { "/org/biojava/nbio/structure/io/mmcif/1stp_v5.cif",
+				"/org/biojava/nbio/structure/io/difficult_mmcif_quoting.cif", "/4hhb.cif.gz", "/1hh0_4char.cif.gz" }) {
+			byte[] bytes = read(resource, resource.endsWith(".gz"));
+
+			SimpleMMcifParser lines = new SimpleMMcifParser();
+			List<String> expected = events(lines);
+			lines.parse(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes),
+					StandardCharsets.UTF_8)));
+
+			SimpleMMcifParser tokens = new SimpleMMcifParser();
+			List<String> actual = events(tokens);
+			tokens.parse(ByteBuffer.wrap(bytes));
+
+			assertEquals(resource, expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(resource, expected.get(i), actual.get(i));
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotMmcif() throws IOException {
+		new SimpleMMcifParser().parse(ByteBuffer.wrap("HEADER    1STP\n".getBytes(StandardCharsets.US_ASCII)));
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.structure.io.mmcif.benchmark;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.io.mmcif.ChemCompGroupFactory;
+import org.biojava.nbio.structure.io.mmcif.ReducedChemCompProvider;
+import org.biojava.nbio.structure.io.mmcif.SimpleMMcifConsumer;
+import org.biojava.nbio.structure.io.mmcif.SimpleMMcifParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compares parsing mmCIF files line by line ({@link SimpleMMcifParser#parse(BufferedReader)}) with parsing
+ * their bytes ({@link SimpleMMcifParser#parse(ByteBuffer)}), up to the built {@link Structure}.
+ * The files are decompressed in memory beforehand. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=org.biojava.nbio.structure.io.mmcif.benchmark.MMcifParserBenchmark}
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MMcifParserBenchmark {
+
+	@Param({ "/org/biojava/nbio/structure/io/mmcif/1stp_v5.cif", "/4hhb.cif.gz", "/1hh0_4char.cif.gz" })
+	private String entry;
+
+	private byte[] bytes;
+
+	@Setup
+	public void setup() throws IOException {
+		// no chemical components downloads while parsing
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		try (InputStream input = entry.endsWith(".gz") ? new GZIPInputStream(getClass().getResourceAsStream(entry))
+				: getClass().getResourceAsStream(entry)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = input.read(buffer)) >= 0) {
+				out.write(buffer, 0, n);
+			}
+			bytes = out.toByteArray();
+		}
+	}
+
+	@Benchmark
+	public Structure lines() throws IOException {
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		parser.addMMcifConsumer(consumer);
+		parser.parse(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes))));
+		return consumer.getStructure();
+	}
+
+	@Benchmark
+	public Structure bytes() throws IOException {
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		parser.addMMcifConsumer(consumer);
+		parser.parse(ByteBuffer.wrap(bytes));
+		return consumer.getStructure();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MMcifParserBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}